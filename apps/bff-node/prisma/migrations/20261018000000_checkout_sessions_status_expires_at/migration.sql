@@ -0,0 +1,6 @@
+-- The MCP tool server's expiry sweeper selects open sessions past expires_at by status.
+-- The composite index serves that and every status-only lookup, so it replaces the
+-- single-column one.
+CREATE INDEX IF NOT EXISTS "idx_checkout_sessions_status_expires_at" ON "checkout_sessions"("status", "expires_at");
+
+DROP INDEX IF EXISTS "idx_checkout_sessions_status";
@@ -0,0 +1,23 @@
+-- Coupon scope, promotions and usage limits. The MCP tool server keeps active coupons in
+-- memory and re-reads the rows whose updated_at moved since its last poll, so the trigger
+-- keeps updated_at current for writes that do not go through Prisma.
+ALTER TABLE "coupons"
+  ADD COLUMN IF NOT EXISTS "product_ids" TEXT[] NOT NULL DEFAULT '{}',
+  ADD COLUMN IF NOT EXISTS "categories" TEXT[] NOT NULL DEFAULT '{}',
+  ADD COLUMN IF NOT EXISTS "auto_apply" BOOLEAN NOT NULL DEFAULT false,
+  ADD COLUMN IF NOT EXISTS "usage_limit" INTEGER,
+  ADD COLUMN IF NOT EXISTS "used_count" INTEGER NOT NULL DEFAULT 0,
+  ADD COLUMN IF NOT EXISTS "updated_at" TIMESTAMPTZ(6) NOT NULL DEFAULT now();
+
+CREATE INDEX IF NOT EXISTS "idx_coupons_updated_at" ON "coupons"("updated_at");
+
+CREATE OR REPLACE FUNCTION coupons_touch_updated_at() RETURNS trigger AS $$
+BEGIN
+  NEW.updated_at := clock_timestamp();
+  RETURN NEW;
+END;
+$$ LANGUAGE plpgsql;
+
+DROP TRIGGER IF EXISTS coupons_touch_updated_at ON "coupons";
+CREATE TRIGGER coupons_touch_updated_at BEFORE UPDATE ON "coupons"
+  FOR EACH ROW EXECUTE FUNCTION coupons_touch_updated_at();
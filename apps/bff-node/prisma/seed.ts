@@ -187,6 +187,24 @@ async function main() {
   });
 
   console.log('Provider-category links created');
+
+  // Sample coupons and promotions (served by the MCP tool server's promotion engine)
+  const inThirtyDays = new Date(Date.now() + 30 * 24 * 60 * 60 * 1000);
+  const coupons = [
+    { code: 'SAVE10', type: 'PERCENTAGE', value: 10, min_order: 500, max_discount: 1000, description: '10% off, up to ₹1,000' },
+    { code: 'FLAT200', type: 'FIXED_AMOUNT', value: 200, min_order: 1000, description: 'Flat ₹200 off on orders above ₹1,000' },
+    { code: 'WINTER2026', type: 'PERCENTAGE', value: 10, auto_apply: true, description: 'Winter Sale - 10% off on all products' },
+    { code: 'GADGETS500', type: 'FIXED_AMOUNT', value: 500, min_order: 5000, categories: ['electronics'], auto_apply: true, description: 'Flat ₹500 off electronics above ₹5,000' },
+  ];
+  for (const coupon of coupons) {
+    await prisma.coupons.upsert({
+      where: { code: coupon.code },
+      update: {},
+      create: { ...coupon, expires_at: inThirtyDays },
+    });
+  }
+
+  console.log('Coupons ensured');
   console.log('✅ RD.in provider seeded successfully');
 }
 
@@ -11,6 +11,7 @@ DROP TABLE IF EXISTS chat_sessions CASCADE;
 DROP TABLE IF EXISTS addresses CASCADE;
 DROP TABLE IF EXISTS user_preferences CASCADE;
 DROP TABLE IF EXISTS idempotency_keys CASCADE;
+DROP TABLE IF EXISTS rate_limit_buckets CASCADE;
 DROP TABLE IF EXISTS providers CASCADE;
 DROP TABLE IF EXISTS admin_configs CASCADE;
 DROP TABLE IF EXISTS admin_users CASCADE;
@@ -139,14 +140,15 @@ CREATE TABLE chat_messages (
 
 CREATE INDEX idx_chat_messages_session_id ON chat_messages(session_id, created_at);
 
--- Tool calls (audit + debugging)
+-- Tool calls (audit + debugging). Written asynchronously by the MCP tool server, which
+-- does not always know the chat session and only stores sampled payloads.
 CREATE TABLE tool_calls (
   id              TEXT PRIMARY KEY,
-  session_id      TEXT NOT NULL REFERENCES chat_sessions(id),
+  session_id      TEXT REFERENCES chat_sessions(id),
   message_id      TEXT REFERENCES chat_messages(id),
   tool_name       TEXT NOT NULL,
-  request_json    JSONB NOT NULL,
-  response_json   JSONB NOT NULL,
+  request_json    JSONB,
+  response_json   JSONB,
   success         BOOLEAN NOT NULL,
   duration_ms     INTEGER,
   trace_id        TEXT,
@@ -158,6 +160,7 @@ CREATE INDEX idx_tool_calls_session_id ON tool_calls(session_id);
 CREATE INDEX idx_tool_calls_tool_name ON tool_calls(tool_name);
 CREATE INDEX idx_tool_calls_created_at ON tool_calls(created_at DESC);
 CREATE INDEX idx_tool_calls_provider_id ON tool_calls(provider_id);
+CREATE INDEX idx_tool_calls_trace_id ON tool_calls(trace_id);
 
 CREATE TABLE feedback (
   id              TEXT PRIMARY KEY,
@@ -177,6 +180,7 @@ CREATE TABLE carts (
   provider        TEXT,
   status          TEXT NOT NULL DEFAULT 'ACTIVE',
   currency        TEXT NOT NULL DEFAULT 'INR',
+  version         BIGINT NOT NULL DEFAULT 0,
   created_at      TIMESTAMPTZ NOT NULL DEFAULT now(),
   updated_at      TIMESTAMPTZ NOT NULL DEFAULT now()
 );
@@ -238,6 +242,25 @@ CREATE TABLE idempotency_keys (
 
 CREATE INDEX idx_idempotency_keys_expires_at ON idempotency_keys(expires_at);
 
+-- Rate limit token buckets shared by MCP tool server instances (ratelimit.backend: jdbc).
+-- state is bucket4j's serialized bucket; rows may be deleted at any time (the bucket
+-- starts full again), and the tool server deletes rows idle past ratelimit.jdbc.retention-ms.
+-- bucket4j only writes id and state, so a trigger keeps updated_at current.
+CREATE TABLE rate_limit_buckets (
+  id              TEXT PRIMARY KEY,
+  state           BYTEA,
+  updated_at      TIMESTAMPTZ NOT NULL DEFAULT now()
+);
+CREATE INDEX idx_rate_limit_buckets_updated_at ON rate_limit_buckets(updated_at);
+
+CREATE OR REPLACE FUNCTION touch_rate_limit_bucket() RETURNS TRIGGER
+  AS 'BEGIN NEW.updated_at := now(); RETURN NEW; END' LANGUAGE plpgsql;
+
+CREATE TRIGGER trg_rate_limit_buckets_updated_at
+  BEFORE UPDATE ON rate_limit_buckets
+  FOR EACH ROW
+  EXECUTE FUNCTION touch_rate_limit_bucket();
+
 -- Chain runs and steps (for Sequential Thinking MCP tool)
 CREATE TABLE chain_runs (
   id              TEXT PRIMARY KEY,
@@ -246,6 +269,7 @@ CREATE TABLE chain_runs (
   trace_id        TEXT,
   status          TEXT NOT NULL DEFAULT 'running',
   meta_json       JSONB NOT NULL DEFAULT '{}'::jsonb,
+  step_count      INTEGER NOT NULL DEFAULT 0,
   created_at      TIMESTAMPTZ NOT NULL DEFAULT now(),
   updated_at      TIMESTAMPTZ NOT NULL DEFAULT now()
 );
@@ -0,0 +1,14 @@
+-- Migration: Let the MCP tool server write the tool_calls audit trail
+-- The tool server batches one row per tool call. It:
+-- 1. Does not always know the chat session (session_id is set only when it exists)
+-- 2. Stores request/response payloads for a sample of calls and for failures only
+
+BEGIN;
+
+ALTER TABLE tool_calls ALTER COLUMN session_id DROP NOT NULL;
+ALTER TABLE tool_calls ALTER COLUMN request_json DROP NOT NULL;
+ALTER TABLE tool_calls ALTER COLUMN response_json DROP NOT NULL;
+
+CREATE INDEX IF NOT EXISTS idx_tool_calls_trace_id ON tool_calls(trace_id);
+
+COMMIT;
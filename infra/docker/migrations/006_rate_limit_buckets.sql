@@ -0,0 +1,14 @@
+-- Migration: Shared rate limit buckets for the MCP tool server
+-- With ratelimit.backend=jdbc every tool server instance reads and updates the same
+-- per-user and per-IP token buckets (bucket4j SELECT ... FOR UPDATE proxy). Rows hold
+-- only serialized bucket state and may be deleted at any time; a missing bucket starts full.
+-- Idle rows are deleted by the tool server (see 009_rate_limit_bucket_retention.sql).
+
+BEGIN;
+
+CREATE TABLE IF NOT EXISTS rate_limit_buckets (
+  id              TEXT PRIMARY KEY,
+  state           BYTEA
+);
+
+COMMIT;
@@ -0,0 +1,11 @@
+-- Migration: Versioned carts for the MCP tool server cart store
+-- Tool server instances cache active carts and write changes behind. Every write bumps
+-- carts.version, so an instance can tell when another one changed a cart it holds.
+-- Carts are only written for users the BFF has stored; changes to the cart of an
+-- unknown user are skipped (counted as mcp.cart.flushes{result=skipped}).
+
+BEGIN;
+
+ALTER TABLE carts ADD COLUMN IF NOT EXISTS version BIGINT NOT NULL DEFAULT 0;
+
+COMMIT;
@@ -0,0 +1,13 @@
+-- Migration: Step counter on chain runs
+-- The tool server writes chain steps in batches and adds each batch to chain_runs.step_count,
+-- so completing a run no longer reads its step rows back.
+
+BEGIN;
+
+ALTER TABLE chain_runs ADD COLUMN IF NOT EXISTS step_count INTEGER NOT NULL DEFAULT 0;
+
+UPDATE chain_runs r SET step_count = s.steps
+FROM (SELECT run_id, count(*) AS steps FROM chain_steps GROUP BY run_id) s
+WHERE r.id = s.run_id;
+
+COMMIT;
@@ -0,0 +1,22 @@
+-- Migration: Retention for shared rate limit buckets
+-- Every user and client IP seen with ratelimit.backend=jdbc gets a rate_limit_buckets row.
+-- updated_at is kept current by a trigger (bucket4j only writes id and state), and the tool
+-- server deletes rows idle past ratelimit.jdbc.retention-ms in batches; a bucket idle for
+-- longer than its refill period is full again, so nothing is lost.
+
+BEGIN;
+
+ALTER TABLE rate_limit_buckets ADD COLUMN IF NOT EXISTS updated_at TIMESTAMPTZ NOT NULL DEFAULT now();
+
+CREATE INDEX IF NOT EXISTS idx_rate_limit_buckets_updated_at ON rate_limit_buckets(updated_at);
+
+CREATE OR REPLACE FUNCTION touch_rate_limit_bucket() RETURNS TRIGGER
+  AS 'BEGIN NEW.updated_at := now(); RETURN NEW; END' LANGUAGE plpgsql;
+
+DROP TRIGGER IF EXISTS trg_rate_limit_buckets_updated_at ON rate_limit_buckets;
+CREATE TRIGGER trg_rate_limit_buckets_updated_at
+  BEFORE UPDATE ON rate_limit_buckets
+  FOR EACH ROW
+  EXECUTE FUNCTION touch_rate_limit_bucket();
+
+COMMIT;
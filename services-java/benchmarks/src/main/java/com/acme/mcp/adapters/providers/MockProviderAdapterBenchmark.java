@@ -0,0 +1,54 @@
+package com.acme.mcp.adapters.providers;
+
+import com.acme.mcp.bench.Fixtures;
+import com.acme.shared.ProductSummary;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link MockProviderAdapter#search} over catalogs scaled up with
+ * {@link SyntheticCatalog}, simulated latency disabled.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx2g")
+public class MockProviderAdapterBenchmark {
+
+    @Param({"1000", "10000", "100000"})
+    public int catalogSize;
+
+    private MockProviderAdapter adapter;
+    private Map<String, Object> filters;
+
+    @Setup
+    public void setup() {
+        adapter = Fixtures.mockProvider(catalogSize);
+        filters = Map.of("categories", List.of("electronics"), "priceMax", 60000);
+    }
+
+    @Benchmark
+    public List<ProductSummary> searchQuery() {
+        return adapter.search("samsung 5g smartphone", Map.of(), 1, 20);
+    }
+
+    @Benchmark
+    public List<ProductSummary> searchQueryWithFilters() {
+        return adapter.search("wireless headphones", filters, 1, 20);
+    }
+}
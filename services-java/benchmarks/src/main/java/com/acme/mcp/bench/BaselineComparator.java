@@ -0,0 +1,132 @@
+package com.acme.mcp.bench;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Compares two JMH JSON result files and reports benchmarks whose score or
+ * allocation per operation got worse than the allowed threshold. Benchmarks are
+ * matched by name and parameters; entries missing from either file are listed but
+ * do not fail the comparison.
+ *
+ * <p>Standalone usage: {@code java -cp benchmarks.jar com.acme.mcp.bench.BaselineComparator
+ * baseline.json result.json}.
+ */
+public class BaselineComparator {
+    private static final String ALLOC_METRIC = "gc.alloc.rate.norm";
+    private static final ObjectMapper mapper = new ObjectMapper();
+
+    private final double scoreThreshold;
+    private final double allocThreshold;
+
+    public BaselineComparator(double scoreThreshold, double allocThreshold) {
+        this.scoreThreshold = scoreThreshold;
+        this.allocThreshold = allocThreshold;
+    }
+
+    /**
+     * Thresholds are relative: {@code bench.threshold.score} defaults to 0.15 (15% slower),
+     * {@code bench.threshold.alloc} to 0.10 (10% more bytes per operation).
+     */
+    public static BaselineComparator fromSystemProperties() {
+        return new BaselineComparator(
+            Double.parseDouble(System.getProperty("bench.threshold.score", "0.15")),
+            Double.parseDouble(System.getProperty("bench.threshold.alloc", "0.10")));
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length != 2) {
+            System.err.println("Usage: BaselineComparator <baseline.json> <result.json>");
+            System.exit(2);
+        }
+        if (!fromSystemProperties().compare(Paths.get(args[0]), Paths.get(args[1]), System.out)) {
+            System.exit(1);
+        }
+    }
+
+    /**
+     * Returns false if at least one benchmark regressed.
+     */
+    public boolean compare(Path baselineFile, Path resultFile, PrintStream out) throws IOException {
+        Map<String, JsonNode> baseline = index(mapper.readTree(baselineFile.toFile()));
+        Map<String, JsonNode> current = index(mapper.readTree(resultFile.toFile()));
+
+        boolean ok = true;
+        out.printf("%n%-90s %14s %14s %8s %12s %12s %8s%n",
+            "Benchmark", "Base score", "Score", "Delta", "Base B/op", "B/op", "Delta");
+        for (Map.Entry<String, JsonNode> entry : current.entrySet()) {
+            JsonNode base = baseline.get(entry.getKey());
+            if (base == null) {
+                out.printf("%-90s %s%n", entry.getKey(), "(not in baseline)");
+                continue;
+            }
+            JsonNode run = entry.getValue();
+            double baseScore = base.path("primaryMetric").path("score").asDouble();
+            double score = run.path("primaryMetric").path("score").asDouble();
+            // Throughput modes: higher is better; time-based modes: lower is better
+            boolean higherIsBetter = "thrpt".equals(run.path("mode").asText());
+            double scoreDelta = relativeChange(baseScore, score) * (higherIsBetter ? -1 : 1);
+
+            double baseAlloc = allocPerOp(base);
+            double alloc = allocPerOp(run);
+            double allocDelta = baseAlloc >= 0 && alloc >= 0 ? relativeChange(baseAlloc, alloc) : 0;
+
+            boolean regressed = scoreDelta > scoreThreshold || allocDelta > allocThreshold;
+            ok &= !regressed;
+            out.printf("%-90s %14.3f %14.3f %+7.1f%% %12.0f %12.0f %+7.1f%%%s%n",
+                entry.getKey(), baseScore, score, scoreDelta * 100, baseAlloc, alloc, allocDelta * 100,
+                regressed ? "  REGRESSION" : "");
+        }
+        for (String key : baseline.keySet()) {
+            if (!current.containsKey(key)) {
+                out.printf("%-90s %s%n", key, "(not run)");
+            }
+        }
+        out.println(ok ? "No regressions against baseline" : "Regressions found against baseline");
+        return ok;
+    }
+
+    private static Map<String, JsonNode> index(JsonNode results) {
+        Map<String, JsonNode> byKey = new LinkedHashMap<>();
+        for (JsonNode run : results) {
+            byKey.put(key(run), run);
+        }
+        return byKey;
+    }
+
+    private static String key(JsonNode run) {
+        String benchmark = run.path("benchmark").asText().replace("com.acme.mcp.", "");
+        JsonNode params = run.path("params");
+        if (params.isMissingNode() || params.isEmpty()) {
+            return benchmark;
+        }
+        Map<String, String> sorted = new TreeMap<>();
+        Iterator<Map.Entry<String, JsonNode>> fields = params.fields();
+        while (fields.hasNext()) {
+            Map.Entry<String, JsonNode> field = fields.next();
+            sorted.put(field.getKey(), field.getValue().asText());
+        }
+        return benchmark + sorted;
+    }
+
+    private static double allocPerOp(JsonNode run) {
+        JsonNode metric = run.path("secondaryMetrics").path(ALLOC_METRIC);
+        return metric.isMissingNode() ? -1 : metric.path("score").asDouble();
+    }
+
+    private static double relativeChange(double base, double value) {
+        if (base == 0) {
+            return value == 0 ? 0 : 1;
+        }
+        return (value - base) / base;
+    }
+}
@@ -0,0 +1,53 @@
+package com.acme.mcp.bench;
+
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.ChainedOptionsBuilder;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+/**
+ * Entry point of {@code benchmarks.jar}. Accepts the usual JMH command line, always
+ * enables the GC profiler (for {@code gc.alloc.rate.norm}, bytes allocated per
+ * operation) and writes JSON results. When a baseline file exists the results are
+ * compared against it and the exit code is non-zero on regression.
+ *
+ * <p>System properties: {@code bench.result} (default {@code target/jmh-result.json}),
+ * {@code bench.baseline} (default {@code baseline/jmh-baseline.json}) and the
+ * thresholds read by {@link BaselineComparator}.
+ */
+public final class BenchmarkRunner {
+
+    private BenchmarkRunner() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        CommandLineOptions cmdOptions = new CommandLineOptions(args);
+        Path result = Paths.get(System.getProperty("bench.result", "target/jmh-result.json"));
+        Path baseline = Paths.get(System.getProperty("bench.baseline", "baseline/jmh-baseline.json"));
+        if (result.getParent() != null) {
+            Files.createDirectories(result.getParent());
+        }
+
+        ChainedOptionsBuilder options = new OptionsBuilder()
+            .parent(cmdOptions)
+            .addProfiler(GCProfiler.class);
+        if (!cmdOptions.getResult().hasValue()) {
+            options.resultFormat(ResultFormatType.JSON).result(result.toString());
+        }
+        new Runner(options.build()).run();
+
+        if (cmdOptions.getResult().hasValue() || !Files.exists(baseline)) {
+            return;
+        }
+        BaselineComparator comparator = BaselineComparator.fromSystemProperties();
+        if (!comparator.compare(baseline, result, System.out)) {
+            System.exit(1);
+        }
+    }
+}
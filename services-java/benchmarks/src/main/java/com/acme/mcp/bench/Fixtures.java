@@ -0,0 +1,189 @@
+package com.acme.mcp.bench;
+
+import com.acme.mcp.adapters.providers.MockProviderAdapter;
+import com.acme.mcp.adapters.providers.SyntheticCatalog;
+import com.acme.mcp.audit.ToolCallAuditor;
+import com.acme.mcp.cart.CartStore;
+import com.acme.mcp.config.ProviderConfig;
+import com.acme.mcp.config.ProviderConfigService;
+import com.acme.mcp.metrics.ToolMetrics;
+import com.acme.mcp.promotions.PromotionEngine;
+import com.acme.mcp.registry.ToolRegistry;
+import com.acme.mcp.schema.JsonSchemaValidator;
+import com.acme.mcp.service.CartService;
+import com.acme.mcp.service.ChainStepWriter;
+import com.acme.mcp.service.CheckoutService;
+import com.acme.mcp.service.CompareService;
+import com.acme.mcp.service.MetadataService;
+import com.acme.mcp.service.ProductService;
+import com.acme.mcp.service.SearchService;
+import com.acme.mcp.service.ThinkingService;
+import com.acme.mcp.shipping.ShippingEngine;
+import com.acme.mcp.tracing.ToolTracing;
+import com.acme.mcp.validation.DefaultToolValidator;
+import com.acme.shared.ProductSummary;
+import com.acme.shared.json.WireFormat;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Wires the tool server's services by hand, without Spring or a database, so the
+ * benchmarks measure the code paths themselves. Provider configuration comes from
+ * an in-memory stub and the mock provider runs without its simulated latency.
+ */
+public final class Fixtures {
+    public static final long SEED = 42L;
+
+    private Fixtures() {
+    }
+
+    public static ObjectMapper objectMapper() {
+        return WireFormat.newMapper(WireFormat.JSON);
+    }
+
+    public static MockProviderAdapter mockProvider(int syntheticProducts) {
+        MockProviderAdapter adapter;
+        try {
+            adapter = new MockProviderAdapter(shippingEngine(), null);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        adapter.setSimulatedLatencyMs(0);
+        if (syntheticProducts > 0) {
+            adapter.addProducts(SyntheticCatalog.generate("mock", syntheticProducts, SEED));
+        }
+        return adapter;
+    }
+
+    /** The engine with the bundled pincode zones and rate cards. */
+    public static ShippingEngine shippingEngine() {
+        try {
+            return new ShippingEngine(new ClassPathResource("shipping/pincode-zones.csv"),
+                new ClassPathResource("shipping/rate-cards.csv"));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    public static List<ProductSummary> products(int size) {
+        return SyntheticCatalog.generate("mock", size, SEED);
+    }
+
+    /**
+     * Products spread over several providers with roughly a third of them duplicated
+     * by name and brand, which is what SearchService deduplicates on.
+     */
+    public static List<ProductSummary> productsWithDuplicates(int size) {
+        List<ProductSummary> products = new ArrayList<>(SyntheticCatalog.generate("mock", size - size / 3, SEED));
+        List<ProductSummary> duplicates = SyntheticCatalog.generate("partner", size / 3, SEED);
+        products.addAll(duplicates);
+        return products;
+    }
+
+    public static ProviderConfig mockProviderConfig() {
+        ProviderConfig config = new ProviderConfig();
+        config.setId("mock");
+        config.setName("Mock Provider");
+        config.setType("mock");
+        config.setEnabled(true);
+        config.setCapabilities(Set.of("SEARCH", "DETAILS", "CART", "CHECKOUT"));
+        config.setCategoryMappings(new HashMap<>(Map.of(
+            "electronics.mobile.smartphones", "mobiles",
+            "electronics.laptops", "computers/laptops",
+            "fashion.men.clothing", "men/clothing")));
+
+        ProviderConfig.ToolConfig searchConfig = new ProviderConfig.ToolConfig();
+        searchConfig.setFieldMappings(new HashMap<>(Map.of(
+            "priceMin", "min_price",
+            "priceMax", "max_price",
+            "inStock", "in_stock")));
+        searchConfig.setCategoryMappings(new HashMap<>(Map.of("electronics.audio.headphones", "audio")));
+        config.setToolConfigs(new HashMap<>(Map.of("commerce.searchProducts", searchConfig)));
+        return config;
+    }
+
+    public static ToolMetrics toolMetrics() {
+        return new ToolMetrics(new SimpleMeterRegistry(), ToolTracing.noop());
+    }
+
+    public static ProviderConfigService providerConfigService() {
+        return new StaticProviderConfigService(List.of(mockProviderConfig()));
+    }
+
+    public static ToolRegistry toolRegistry(ObjectMapper mapper, MockProviderAdapter provider) {
+        ProviderConfigService configService = providerConfigService();
+        // The DB-backed services are registered but not exercised by the benchmarks
+        JdbcTemplate jdbc = new JdbcTemplate();
+        ToolMetrics metrics = toolMetrics();
+        // Never started, so carts stay in memory
+        CartStore cartStore = new CartStore(jdbc, new SimpleMeterRegistry());
+        ShippingEngine shippingEngine = shippingEngine();
+        return new ToolRegistry(
+            new JsonSchemaValidator(mapper),
+            metrics,
+            ToolTracing.noop(),
+            // Never started, so calls are not audited
+            new ToolCallAuditor(jdbc, mapper, new SimpleMeterRegistry()),
+            new SearchService(List.of(provider), configService, new DefaultToolValidator(configService), metrics),
+            new CompareService(List.of(provider), configService, metrics),
+            new CartService(List.of(provider), configService, metrics, cartStore),
+            new CheckoutService(jdbc, mapper, cartStore, shippingEngine),
+            new ProductService(new PromotionEngine(jdbc, new SimpleMeterRegistry()), shippingEngine),
+            new ThinkingService(jdbc, new ChainStepWriter(jdbc, new SimpleMeterRegistry()), mapper),
+            new MetadataService(configService, null, mapper));
+    }
+
+    public static Map<String, Object> searchRequest(String query) {
+        Map<String, Object> filters = new HashMap<>();
+        filters.put("categories", List.of("electronics"));
+        filters.put("priceMax", 60000);
+        Map<String, Object> request = new HashMap<>();
+        request.put("query", query);
+        request.put("filters", filters);
+        request.put("pagination", new HashMap<>(Map.of("page", 1, "limit", 20)));
+        request.put("sortBy", "rating");
+        return request;
+    }
+
+    /**
+     * Provider configuration served from memory instead of the providers table.
+     */
+    static final class StaticProviderConfigService extends ProviderConfigService {
+        private final List<ProviderConfig> configs;
+
+        StaticProviderConfigService(List<ProviderConfig> configs) {
+            super(null);
+            this.configs = configs;
+        }
+
+        @Override
+        public List<ProviderConfig> getAllProviderConfigs() {
+            return configs;
+        }
+
+        @Override
+        public ProviderConfig getProviderConfig(String providerId) {
+            for (ProviderConfig config : configs) {
+                if (config.getId().equals(providerId)) {
+                    return config;
+                }
+            }
+            return null;
+        }
+
+        @Override
+        public long getConfigGeneration() {
+            return 1L;
+        }
+    }
+}
@@ -0,0 +1,52 @@
+package com.acme.mcp.mapping;
+
+import com.acme.mcp.bench.Fixtures;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link ProviderFieldMapper#applyFieldMappings} on a typical search filter map,
+ * with tool-level field and category mappings configured.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ProviderFieldMapperBenchmark {
+    private static final String TOOL_NAME = "commerce.searchProducts";
+
+    private ProviderFieldMapper mapper;
+    private Map<String, Object> filters;
+
+    @Setup
+    public void setup() {
+        mapper = new ProviderFieldMapper(Fixtures.mockProviderConfig());
+        filters = new HashMap<>();
+        filters.put("categories", List.of("electronics.mobile.smartphones", "electronics.audio.headphones"));
+        filters.put("priceMin", 5000);
+        filters.put("priceMax", 30000);
+        filters.put("brands", List.of("Samsung", "OnePlus"));
+        filters.put("inStock", true);
+        filters.put("rating", 4);
+    }
+
+    @Benchmark
+    public Map<String, Object> applyFieldMappings() {
+        return mapper.applyFieldMappings(TOOL_NAME, filters);
+    }
+}
@@ -0,0 +1,61 @@
+package com.acme.mcp.registry;
+
+import com.acme.mcp.bench.Fixtures;
+import com.acme.shared.ToolResponse;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * End-to-end dispatch through {@link ToolRegistry#executeTool}: lookup, schema
+ * validation, handler and trace id bookkeeping, for tools that do not need a database.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ToolRegistryBenchmark {
+
+    @Param({"commerce.searchProducts", "commerce.cart.getCart", "commerce.product.listVariants",
+            "commerce.promotions.get"})
+    public String toolName;
+
+    private ToolRegistry registry;
+    private Map<String, Object> request;
+
+    @Setup
+    public void setup() {
+        ObjectMapper mapper = Fixtures.objectMapper();
+        registry = Fixtures.toolRegistry(mapper, Fixtures.mockProvider(1000));
+        request = switch (toolName) {
+            case "commerce.searchProducts" -> Fixtures.searchRequest("samsung 5g smartphone");
+            case "commerce.cart.getCart" -> new HashMap<>(Map.of("userId", "bench-user"));
+            default -> new HashMap<>(Map.of("productId", "MOB001"));
+        };
+    }
+
+    @Benchmark
+    public ToolResponse<?> executeTool() {
+        return registry.executeTool(toolName, request);
+    }
+
+    @Benchmark
+    public ToolResponse<?> unknownTool() {
+        return registry.executeTool("commerce.unknown", request);
+    }
+}
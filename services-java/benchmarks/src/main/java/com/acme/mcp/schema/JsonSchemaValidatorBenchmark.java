@@ -0,0 +1,78 @@
+package com.acme.mcp.schema;
+
+import com.acme.mcp.bench.Fixtures;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link JsonSchemaValidator#validate} per request schema, with the schema already
+ * loaded into the validator's cache.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class JsonSchemaValidatorBenchmark {
+
+    @Param({"commerce.searchProducts.request.json", "commerce.cart.addItem.request.json",
+            "commerce.checkout.create.request.json", "commerce.compareProducts.request.json",
+            "commerce.product.listVariants.request.json"})
+    public String schema;
+
+    private JsonSchemaValidator validator;
+    private Map<String, Object> request;
+
+    @Setup
+    public void setup() {
+        validator = new JsonSchemaValidator(Fixtures.objectMapper());
+        request = sampleRequest(schema);
+        if (!validator.validate(schema, request)) {
+            throw new IllegalStateException("Sample request does not match " + schema);
+        }
+    }
+
+    @Benchmark
+    public boolean validate() {
+        return validator.validate(schema, request);
+    }
+
+    private static Map<String, Object> sampleRequest(String schema) {
+        Map<String, Object> request = new HashMap<>();
+        switch (schema) {
+            case "commerce.searchProducts.request.json":
+                return Fixtures.searchRequest("wireless earbuds");
+            case "commerce.cart.addItem.request.json":
+                request.put("userId", "bench-user");
+                request.put("productId", "MOB001");
+                request.put("provider", "mock");
+                request.put("quantity", 2);
+                return request;
+            case "commerce.checkout.create.request.json":
+                request.put("userId", "bench-user");
+                request.put("cartId", "cart-bench-user");
+                return request;
+            case "commerce.compareProducts.request.json":
+                request.put("productIds", List.of("MOB001", "MOB002", "MOB003"));
+                return request;
+            default:
+                request.put("productId", "MOB001");
+                return request;
+        }
+    }
+}
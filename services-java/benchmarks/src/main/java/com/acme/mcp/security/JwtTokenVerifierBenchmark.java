@@ -0,0 +1,59 @@
+package com.acme.mcp.security;
+
+import com.auth0.jwt.JWT;
+import com.auth0.jwt.algorithms.Algorithm;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.security.core.Authentication;
+
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link JwtTokenVerifier#verify} for a token seen before in the session (cached) and
+ * with the cache disabled (full HMAC check and claim decoding on every call).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class JwtTokenVerifierBenchmark {
+    private static final String SECRET = "benchmark-secret";
+
+    private JwtTokenVerifier cached;
+    private JwtTokenVerifier uncached;
+    private String token;
+
+    @Setup
+    public void setup() {
+        cached = new JwtTokenVerifier(SECRET, "", 10_000, 300_000);
+        uncached = new JwtTokenVerifier(SECRET, "", 0, 300_000);
+        token = JWT.create()
+            .withSubject("bench-user")
+            .withClaim("username", "bench-user")
+            .withClaim("role", "customer")
+            .withExpiresAt(Instant.now().plus(1, ChronoUnit.DAYS))
+            .sign(Algorithm.HMAC256(SECRET));
+    }
+
+    @Benchmark
+    public Authentication verifyCached() {
+        return cached.verify(token);
+    }
+
+    @Benchmark
+    public Authentication verifyUncached() {
+        return uncached.verify(token);
+    }
+}
@@ -0,0 +1,91 @@
+package com.acme.mcp.serialization;
+
+import com.acme.mcp.bench.Fixtures;
+import com.acme.shared.ProductSummary;
+import com.acme.shared.ToolResponse;
+import com.acme.shared.json.WireFormat;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Serialization of a {@code ToolResponse<List<ProductSummary>>}: Jackson's default
+ * bean serializers against {@link ToolResponseWriter} with the commerce module, per
+ * wire format. Run with the GC profiler to compare bytes allocated per response.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ToolResponseWriterBenchmark {
+
+    @Param({"100"})
+    public int products;
+
+    @Param({"JSON", "SMILE", "CBOR"})
+    public WireFormat format;
+
+    private ObjectMapper plainMapper;
+    private ToolResponseWriter writer;
+    private ToolResponse<List<ProductSummary>> response;
+    private CountingOutputStream out;
+
+    @Setup
+    public void setup() {
+        plainMapper = format.deriveMapper(new ObjectMapper());
+        writer = new ToolResponseWriter(Fixtures.objectMapper());
+        response = ToolResponse.success("bench-trace", Fixtures.products(products));
+        out = new CountingOutputStream();
+    }
+
+    @Benchmark
+    public long plainObjectMapper() throws IOException {
+        out.reset();
+        plainMapper.writeValue(out, response);
+        return out.count;
+    }
+
+    @Benchmark
+    public long toolResponseWriter() throws IOException {
+        out.reset();
+        writer.write(response, format, out);
+        return out.count;
+    }
+
+    /**
+     * Discards bytes so only the serializer's own allocations are measured.
+     */
+    static final class CountingOutputStream extends OutputStream {
+        private long count;
+
+        void reset() {
+            count = 0;
+        }
+
+        @Override
+        public void write(int b) {
+            count++;
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) {
+            count += len;
+        }
+    }
+}
@@ -0,0 +1,63 @@
+package com.acme.mcp.service;
+
+import com.acme.mcp.bench.Fixtures;
+import com.acme.mcp.config.ProviderConfigService;
+import com.acme.mcp.validation.DefaultToolValidator;
+import com.acme.shared.ProductSummary;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Post-processing of merged provider results: deduplication and sorting. Sorting
+ * works in place, so the sort benchmarks include copying the input list.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SearchServiceBenchmark {
+
+    @Param({"10", "100", "1000"})
+    public int size;
+
+    private SearchService searchService;
+    private List<ProductSummary> products;
+
+    @Setup
+    public void setup() {
+        ProviderConfigService configService = Fixtures.providerConfigService();
+        searchService = new SearchService(List.of(), configService, new DefaultToolValidator(configService),
+            Fixtures.toolMetrics());
+        products = Fixtures.productsWithDuplicates(size);
+    }
+
+    @Benchmark
+    public List<ProductSummary> deduplicate() {
+        return searchService.deduplicateProducts(products);
+    }
+
+    @Benchmark
+    public List<ProductSummary> sortByPrice() {
+        return searchService.sortProducts(new ArrayList<>(products), "price_asc");
+    }
+
+    @Benchmark
+    public List<ProductSummary> sortByRating() {
+        return searchService.sortProducts(new ArrayList<>(products), "rating");
+    }
+}
@@ -0,0 +1,72 @@
+package com.acme.mcp.service;
+
+import com.acme.mcp.bench.Fixtures;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Encoding of chain step content, from 1 KB to 1 MB of text with quotes, newlines and
+ * non-ASCII characters to escape: the UTF-8 bytes ThinkingService binds, against a JSON
+ * String encoded to UTF-8 the way the driver sends a text parameter.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ThinkingServiceBenchmark {
+
+    @Param({"1024", "65536", "1048576"})
+    public int payloadBytes;
+
+    private ObjectMapper mapper;
+    private ThinkingService service;
+    private Map<String, Object> content;
+
+    @Setup
+    public void setup() {
+        mapper = Fixtures.objectMapper();
+        JdbcTemplate jdbc = new JdbcTemplate();
+        service = new ThinkingService(jdbc, new ChainStepWriter(jdbc, new SimpleMeterRegistry()), mapper);
+
+        String line = "Step says \"compare\" the ₹ prices\tthen\\verify\n";
+        StringBuilder text = new StringBuilder(payloadBytes);
+        while (text.length() < payloadBytes) {
+            text.append(line);
+        }
+        content = new HashMap<>();
+        content.put("text", text.substring(0, payloadBytes));
+        content.put("stage", "solve");
+        content.put("candidates", List.of(Map.of("id", "p-1", "score", 0.92), Map.of("id", "p-2", "score", 0.71)));
+    }
+
+    @Benchmark
+    public byte[] utf8Bytes() throws IOException {
+        return service.toJson(content);
+    }
+
+    @Benchmark
+    public byte[] stringThenUtf8() throws IOException {
+        return mapper.writeValueAsString(content).getBytes(StandardCharsets.UTF_8);
+    }
+}
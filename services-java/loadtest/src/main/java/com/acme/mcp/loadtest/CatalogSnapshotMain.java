@@ -0,0 +1,42 @@
+package com.acme.mcp.loadtest;
+
+import com.acme.mcp.adapters.providers.MockProviderAdapter;
+import com.acme.mcp.shipping.ShippingEngine;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.core.io.ClassPathResource;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+/**
+ * Writes the mock provider's catalog, its built-in products plus a synthetic catalog of
+ * the given size, as a snapshot for {@code mcp.provider.mock.catalog-snapshot}.
+ * <p>
+ * {@code java -cp loadtest.jar com.acme.mcp.loadtest.CatalogSnapshotMain <file> [catalog-size]}
+ */
+public final class CatalogSnapshotMain {
+    private static final Logger logger = LoggerFactory.getLogger(CatalogSnapshotMain.class);
+
+    private CatalogSnapshotMain() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        if (args.length < 1 || args.length > 2) {
+            System.err.println("Usage: CatalogSnapshotMain <file> [catalog-size, default 100000]");
+            System.exit(2);
+        }
+        write(Paths.get(args[0]), args.length > 1 ? Integer.parseInt(args[1]) : 100000);
+    }
+
+    static void write(Path file, int catalogSize) throws IOException {
+        long start = System.nanoTime();
+        MockProviderAdapter adapter = new MockProviderAdapter(new ShippingEngine(
+            new ClassPathResource("shipping/pincode-zones.csv"), new ClassPathResource("shipping/rate-cards.csv")), null);
+        adapter.setSyntheticCatalogSize(catalogSize);
+        adapter.writeCatalogSnapshot(file);
+        logger.info("Wrote catalog snapshot {} ({} synthetic products, {} bytes) in {} ms", file, catalogSize,
+            file.toFile().length(), (System.nanoTime() - start) / 1_000_000);
+    }
+}
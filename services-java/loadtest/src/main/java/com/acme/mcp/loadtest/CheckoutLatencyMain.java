@@ -0,0 +1,153 @@
+package com.acme.mcp.loadtest;
+
+import com.acme.mcp.adapters.providers.SyntheticCatalog;
+import com.acme.mcp.cart.CartStore;
+import com.acme.mcp.service.CheckoutService;
+import com.acme.mcp.shipping.ShippingEngine;
+import com.acme.shared.ToolResponse;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * Latency of the checkout lifecycle against the embedded Postgres, without HTTP or the
+ * tool registry, so the numbers are the service's statements and round trips. Each
+ * iteration creates a checkout from a seeded cart, sets the shipping address, sets the
+ * payment method and reads the session back. Even iterations then complete it and retry
+ * the completion with the same idempotency key; odd ones cancel it.
+ * <p>
+ * {@code java -cp loadtest.jar com.acme.mcp.loadtest.CheckoutLatencyMain
+ * [--iterations=5000] [--warmup-iterations=1000] [--users=100] [--report-dir=target/checkout-latency]}
+ */
+public final class CheckoutLatencyMain {
+    private static final Logger logger = LoggerFactory.getLogger(CheckoutLatencyMain.class);
+    private static final long SEED = 42L;
+    private static final List<String> OPERATIONS = List.of(
+        "checkout.create", "checkout.update.shipping", "checkout.update.payment", "checkout.get",
+        "checkout.complete", "checkout.complete.retry", "checkout.cancel");
+
+    private CheckoutLatencyMain() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        Map<String, String> options = parse(args);
+        int iterations = Integer.parseInt(options.getOrDefault("iterations", "5000"));
+        int warmupIterations = Integer.parseInt(options.getOrDefault("warmup-iterations", "1000"));
+        int users = Integer.parseInt(options.getOrDefault("users", "100"));
+        String reportDir = options.getOrDefault("report-dir", "target/checkout-latency");
+
+        List<String> productIds = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            productIds.add(SyntheticCatalog.productId(i));
+        }
+
+        try (EmbeddedDatabase database = EmbeddedDatabase.start();
+             HikariDataSource dataSource = new HikariDataSource()) {
+            database.seedUsers(users, productIds, SEED);
+            dataSource.setJdbcUrl(database.getJdbcUrl());
+            dataSource.setMaximumPoolSize(2);
+
+            try (AnnotationConfigApplicationContext context = new AnnotationConfigApplicationContext()) {
+                context.registerBean(JdbcTemplate.class, () -> new JdbcTemplate(dataSource));
+                context.registerBean(ObjectMapper.class, () -> new ObjectMapper());
+                context.registerBean(MeterRegistry.class, () -> new SimpleMeterRegistry());
+                context.registerBean(CartStore.class);
+                context.registerBean(ShippingEngine.class);
+                context.registerBean(CheckoutService.class);
+                context.refresh();
+                CheckoutService checkoutService = context.getBean(CheckoutService.class);
+
+                logger.info("Warming up for {} iterations", warmupIterations);
+                run(checkoutService, warmupIterations, users, new LatencyReport(OPERATIONS));
+
+                logger.info("Measuring {} iterations", iterations);
+                LatencyReport report = new LatencyReport(OPERATIONS);
+                long start = System.nanoTime();
+                run(checkoutService, iterations, users, report);
+                double seconds = (System.nanoTime() - start) / 1e9;
+
+                report.printTable(System.out, seconds);
+                report.writeTo(Paths.get(reportDir), seconds, 0);
+            }
+        }
+    }
+
+    private static void run(CheckoutService checkoutService, int iterations, int users, LatencyReport report) {
+        for (int i = 0; i < iterations; i++) {
+            String userId = LoadTestUsers.userId(i % users);
+            Map<String, Object> create = new HashMap<>();
+            create.put("userId", userId);
+            create.put("cartId", LoadTestUsers.cartId(i % users));
+            create.put("provider", "mock");
+            ToolResponse<Map<String, Object>> created = timed(report, "checkout.create", checkoutService::createCheckout, create);
+            if (!created.isOk()) {
+                continue;
+            }
+            String checkoutId = (String) created.getData().get("checkoutId");
+
+            Map<String, Object> shipping = session(userId, checkoutId);
+            shipping.put("shippingAddress", Map.of("line1", "12 MG Road", "city", "Bengaluru", "pincode", "560001"));
+            timed(report, "checkout.update.shipping", checkoutService::updateCheckout, shipping);
+
+            Map<String, Object> payment = session(userId, checkoutId);
+            payment.put("paymentMethod", "UPI");
+            timed(report, "checkout.update.payment", checkoutService::updateCheckout, payment);
+
+            timed(report, "checkout.get", checkoutService::getCheckoutById, session(userId, checkoutId));
+            if (i % 2 == 0) {
+                Map<String, Object> complete = session(userId, checkoutId);
+                complete.put("idempotencyKey", checkoutId + "-complete");
+                complete.put("confirmed", true);
+                timed(report, "checkout.complete", checkoutService::completeCheckout, complete);
+                timed(report, "checkout.complete.retry", checkoutService::completeCheckout, complete);
+            } else {
+                timed(report, "checkout.cancel", checkoutService::cancelCheckout, session(userId, checkoutId));
+            }
+        }
+    }
+
+    private static Map<String, Object> session(String userId, String checkoutId) {
+        Map<String, Object> request = new HashMap<>();
+        request.put("userId", userId);
+        request.put("checkoutId", checkoutId);
+        return request;
+    }
+
+    private static ToolResponse<Map<String, Object>> timed(
+            LatencyReport report, String operation,
+            Function<Map<String, Object>, ToolResponse<Map<String, Object>>> call, Map<String, Object> request) {
+        long start = System.nanoTime();
+        ToolResponse<Map<String, Object>> response = call.apply(request);
+        long micros = (System.nanoTime() - start) / 1_000;
+        if (response.isOk()) {
+            report.recordSuccess(operation, micros);
+        } else {
+            report.recordFailure(operation, micros, String.valueOf(response.getError().getCode()));
+        }
+        return response;
+    }
+
+    private static Map<String, String> parse(String[] args) {
+        Map<String, String> options = new HashMap<>();
+        for (String arg : args) {
+            if (!arg.startsWith("--") || !arg.contains("=")) {
+                throw new IllegalArgumentException("Options must be --name=value, got " + arg);
+            }
+            int separator = arg.indexOf('=');
+            options.put(arg.substring(2, separator), arg.substring(separator + 1));
+        }
+        return options;
+    }
+}
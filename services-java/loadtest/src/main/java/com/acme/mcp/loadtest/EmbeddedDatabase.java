@@ -0,0 +1,99 @@
+package com.acme.mcp.loadtest;
+
+import io.zonky.test.db.postgres.embedded.EmbeddedPostgres;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.init.ResourceDatabasePopulator;
+
+import javax.sql.DataSource;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+
+/**
+ * Throwaway Postgres for a load test run: real server binaries unpacked from the
+ * Maven repository, loaded with the docker-compose schema (infra/docker/init.sql)
+ * and seeded with one user and one non-empty cart per virtual user.
+ */
+public class EmbeddedDatabase implements AutoCloseable {
+    private static final Logger logger = LoggerFactory.getLogger(EmbeddedDatabase.class);
+    private static final int SEED_BATCH_SIZE = 500;
+
+    private final EmbeddedPostgres postgres;
+    private final DataSource dataSource;
+
+    private EmbeddedDatabase(EmbeddedPostgres postgres) {
+        this.postgres = postgres;
+        this.dataSource = postgres.getPostgresDatabase();
+    }
+
+    public static EmbeddedDatabase start() throws IOException {
+        EmbeddedPostgres postgres = EmbeddedPostgres.builder()
+            .setServerConfig("max_connections", "200")
+            .setServerConfig("fsync", "off")
+            .setServerConfig("synchronous_commit", "off")
+            .start();
+        EmbeddedDatabase database = new EmbeddedDatabase(postgres);
+        database.applySchema();
+        return database;
+    }
+
+    private void applySchema() {
+        ResourceDatabasePopulator populator = new ResourceDatabasePopulator(
+            new ClassPathResource("db/init.sql"),
+            new ClassPathResource("db/checkout_sessions.sql"),
+            new ClassPathResource("db/coupons.sql"));
+        populator.execute(dataSource);
+        logger.info("Applied schema to embedded Postgres on port {}", postgres.getPort());
+    }
+
+    /**
+     * Creates users {@code lt-user-00000..} with carts {@code lt-cart-00000..}, each
+     * holding one to three catalog products.
+     */
+    public void seedUsers(int users, List<String> productIds, long seed) {
+        JdbcTemplate jdbc = new JdbcTemplate(dataSource);
+        SplittableRandom random = new SplittableRandom(seed);
+        List<Object[]> userRows = new ArrayList<>();
+        List<Object[]> cartRows = new ArrayList<>();
+        List<Object[]> itemRows = new ArrayList<>();
+
+        for (int i = 0; i < users; i++) {
+            String userId = LoadTestUsers.userId(i);
+            String cartId = LoadTestUsers.cartId(i);
+            userRows.add(new Object[]{userId, userId});
+            cartRows.add(new Object[]{cartId, userId});
+            int items = 1 + random.nextInt(3);
+            for (int j = 0; j < items; j++) {
+                String productId = productIds.get(random.nextInt(productIds.size()));
+                BigDecimal unitPrice = BigDecimal.valueOf(199 + random.nextInt(40000)).setScale(2);
+                itemRows.add(new Object[]{cartId, productId, 1 + random.nextInt(2), unitPrice});
+            }
+        }
+
+        batchUpdate(jdbc, "INSERT INTO users (id, username) VALUES (?, ?)", userRows);
+        batchUpdate(jdbc, "INSERT INTO carts (id, user_id, provider) VALUES (?, ?, 'mock')", cartRows);
+        batchUpdate(jdbc, "INSERT INTO cart_items (cart_id, product_id, provider, qty, unit_price) " +
+            "VALUES (?, ?, 'mock', ?, ?) ON CONFLICT (cart_id, product_id) DO NOTHING", itemRows);
+        logger.info("Seeded {} users with {} cart items", users, itemRows.size());
+    }
+
+    private static void batchUpdate(JdbcTemplate jdbc, String sql, List<Object[]> rows) {
+        for (int from = 0; from < rows.size(); from += SEED_BATCH_SIZE) {
+            jdbc.batchUpdate(sql, rows.subList(from, Math.min(from + SEED_BATCH_SIZE, rows.size())));
+        }
+    }
+
+    public String getJdbcUrl() {
+        return postgres.getJdbcUrl("postgres", "postgres");
+    }
+
+    @Override
+    public void close() throws IOException {
+        postgres.close();
+    }
+}
@@ -0,0 +1,148 @@
+package com.acme.mcp.loadtest;
+
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Per-tool latency histograms and outcome counts for the measured phase. Latencies
+ * are recorded in microseconds from the time a request was scheduled to be sent, so
+ * queueing behind a saturated server shows up in the percentiles instead of being
+ * hidden (no coordinated omission).
+ */
+public class LatencyReport {
+    private static final long HIGHEST_TRACKABLE_MICROS = 120_000_000L;
+    private static final int SIGNIFICANT_DIGITS = 3;
+
+    private final Map<String, ToolStats> stats = new LinkedHashMap<>();
+    private final ToolStats total = new ToolStats();
+
+    public LatencyReport(List<String> toolNames) {
+        for (String toolName : toolNames) {
+            stats.put(toolName, new ToolStats());
+        }
+    }
+
+    public void recordSuccess(String toolName, long latencyMicros) {
+        ToolStats tool = stats.get(toolName);
+        tool.record(latencyMicros);
+        tool.ok.increment();
+        total.record(latencyMicros);
+        total.ok.increment();
+    }
+
+    public void recordFailure(String toolName, long latencyMicros, String code) {
+        ToolStats tool = stats.get(toolName);
+        tool.record(latencyMicros);
+        tool.fail(code);
+        total.record(latencyMicros);
+        total.fail(code);
+    }
+
+    public void recordDropped(String toolName) {
+        stats.get(toolName).dropped.increment();
+        total.dropped.increment();
+    }
+
+    public long completed() {
+        return total.histogram.getTotalCount();
+    }
+
+    public void print(PrintStream out, double measuredSeconds, int targetRps) {
+        out.printf("%nTarget %d req/s, achieved %.1f req/s over %.0fs%n",
+            targetRps, completed() / measuredSeconds, measuredSeconds);
+        printTable(out, measuredSeconds);
+    }
+
+    /**
+     * The per-tool table and error breakdown, without the throughput header.
+     */
+    public void printTable(PrintStream out, double measuredSeconds) {
+        out.printf("%-28s %9s %8s %8s %9s %9s %9s %9s %9s %9s%n",
+            "Tool", "Requests", "Errors", "Dropped", "p50 ms", "p90 ms", "p99 ms", "p99.9 ms", "max ms", "req/s");
+        for (Map.Entry<String, ToolStats> entry : stats.entrySet()) {
+            printRow(out, entry.getKey(), entry.getValue(), measuredSeconds);
+        }
+        printRow(out, "ALL", total, measuredSeconds);
+
+        for (Map.Entry<String, ToolStats> entry : stats.entrySet()) {
+            if (!entry.getValue().errors.isEmpty()) {
+                out.printf("Errors for %s: %s%n", entry.getKey(), entry.getValue().errorCounts());
+            }
+        }
+    }
+
+    /**
+     * Writes the printed summary plus one HdrHistogram percentile distribution file
+     * per tool (plot with the HdrHistogram web plotter).
+     */
+    public void writeTo(Path directory, double measuredSeconds, int targetRps) throws IOException {
+        Files.createDirectories(directory);
+        try (PrintStream out = new PrintStream(Files.newOutputStream(directory.resolve("summary.txt")))) {
+            print(out, measuredSeconds, targetRps);
+        }
+        for (Map.Entry<String, ToolStats> entry : stats.entrySet()) {
+            writeHistogram(directory.resolve(entry.getKey() + ".hgrm"), entry.getValue().histogram);
+        }
+        writeHistogram(directory.resolve("all.hgrm"), total.histogram);
+    }
+
+    private static void writeHistogram(Path file, Histogram histogram) throws IOException {
+        try (PrintStream out = new PrintStream(Files.newOutputStream(file))) {
+            // Values are in microseconds; scale to milliseconds like the summary table
+            histogram.outputPercentileDistribution(out, 1000.0);
+        }
+    }
+
+    private static void printRow(PrintStream out, String name, ToolStats tool, double measuredSeconds) {
+        Histogram h = tool.histogram;
+        out.printf("%-28s %9d %8d %8d %9.2f %9.2f %9.2f %9.2f %9.2f %9.1f%n",
+            name, h.getTotalCount(), tool.errorTotal(), tool.dropped.sum(),
+            millis(h.getValueAtPercentile(50)), millis(h.getValueAtPercentile(90)),
+            millis(h.getValueAtPercentile(99)), millis(h.getValueAtPercentile(99.9)),
+            millis(h.getMaxValue()), h.getTotalCount() / measuredSeconds);
+    }
+
+    private static double millis(long micros) {
+        return micros / 1000.0;
+    }
+
+    private static final class ToolStats {
+        private final Histogram histogram = new ConcurrentHistogram(HIGHEST_TRACKABLE_MICROS, SIGNIFICANT_DIGITS);
+        private final LongAdder ok = new LongAdder();
+        private final LongAdder dropped = new LongAdder();
+        private final Map<String, LongAdder> errors = new ConcurrentHashMap<>();
+
+        private void record(long latencyMicros) {
+            histogram.recordValue(Math.min(Math.max(latencyMicros, 1), HIGHEST_TRACKABLE_MICROS));
+        }
+
+        private void fail(String code) {
+            errors.computeIfAbsent(code, k -> new LongAdder()).increment();
+        }
+
+        private long errorTotal() {
+            long sum = 0;
+            for (LongAdder count : errors.values()) {
+                sum += count.sum();
+            }
+            return sum;
+        }
+
+        private Map<String, Long> errorCounts() {
+            Map<String, Long> counts = new TreeMap<>();
+            errors.forEach((code, count) -> counts.put(code, count.sum()));
+            return counts;
+        }
+    }
+}
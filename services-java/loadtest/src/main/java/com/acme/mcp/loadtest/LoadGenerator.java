@@ -0,0 +1,155 @@
+package com.acme.mcp.loadtest;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.net.http.HttpTimeoutException;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.SplittableRandom;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Open-model load generator: requests are issued on a fixed schedule at the target
+ * rate regardless of how quickly earlier ones complete, the way independent chat
+ * sessions arrive. Responses are classified by the ToolResponse envelope.
+ */
+public class LoadGenerator implements AutoCloseable {
+    private static final Logger logger = LoggerFactory.getLogger(LoadGenerator.class);
+    private static final byte[] OK_PREFIX = "{\"ok\":true".getBytes(StandardCharsets.UTF_8);
+    private static final Duration REQUEST_TIMEOUT = Duration.ofSeconds(30);
+
+    private final String baseUrl;
+    private final String[] bearerTokens;
+    private final WorkloadMix mix;
+    private final ObjectMapper objectMapper;
+    private final int maxInFlight;
+    private final ExecutorService executor;
+    private final HttpClient client;
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final SplittableRandom random = new SplittableRandom(7L);
+
+    public LoadGenerator(String baseUrl, String[] bearerTokens, WorkloadMix mix, ObjectMapper objectMapper,
+                         int maxInFlight) {
+        this.baseUrl = baseUrl;
+        this.bearerTokens = bearerTokens;
+        this.mix = mix;
+        this.objectMapper = objectMapper;
+        this.maxInFlight = maxInFlight;
+        this.executor = Executors.newFixedThreadPool(Math.max(4, Runtime.getRuntime().availableProcessors()));
+        this.client = HttpClient.newBuilder()
+            .version(HttpClient.Version.HTTP_1_1)
+            .connectTimeout(Duration.ofSeconds(5))
+            .executor(executor)
+            .build();
+    }
+
+    /**
+     * Sends requests at {@code rps} for the given duration, then waits for the
+     * outstanding ones. A null report discards results (warm-up).
+     */
+    public void run(int rps, Duration duration, LatencyReport report) throws InterruptedException {
+        long intervalNanos = TimeUnit.SECONDS.toNanos(1) / rps;
+        long start = System.nanoTime();
+        long end = start + duration.toNanos();
+        long sent = 0;
+
+        while (true) {
+            long intendedStart = start + sent * intervalNanos;
+            if (intendedStart >= end) {
+                break;
+            }
+            long wait = intendedStart - System.nanoTime();
+            if (wait > 0) {
+                LockSupport.parkNanos(wait);
+            }
+            send(mix.next(random), intendedStart, report);
+            sent++;
+        }
+        awaitInFlight();
+        logger.info("Sent {} requests in {}s", sent, duration.toSeconds());
+    }
+
+    private void send(WorkloadMix.Call call, long intendedStart, LatencyReport report) {
+        if (inFlight.get() >= maxInFlight) {
+            if (report != null) {
+                report.recordDropped(call.getToolName());
+            }
+            return;
+        }
+        inFlight.incrementAndGet();
+        HttpRequest request = HttpRequest.newBuilder(URI.create(baseUrl + "/api/v1/tools/execute/" + call.getToolName()))
+            .timeout(REQUEST_TIMEOUT)
+            .header("Content-Type", "application/json")
+            .header("Authorization", bearerTokens[call.getUser()])
+            .POST(HttpRequest.BodyPublishers.ofByteArray(call.getBody()))
+            .build();
+
+        client.sendAsync(request, HttpResponse.BodyHandlers.ofByteArray())
+            .whenComplete((response, error) -> {
+                inFlight.decrementAndGet();
+                if (report == null) {
+                    return;
+                }
+                long latencyMicros = TimeUnit.NANOSECONDS.toMicros(System.nanoTime() - intendedStart);
+                if (error != null) {
+                    report.recordFailure(call.getToolName(), latencyMicros,
+                        error.getCause() instanceof HttpTimeoutException ? "TIMEOUT" : "IO_ERROR");
+                } else if (isOk(response)) {
+                    report.recordSuccess(call.getToolName(), latencyMicros);
+                } else {
+                    report.recordFailure(call.getToolName(), latencyMicros, errorCode(response));
+                }
+            });
+    }
+
+    private static boolean isOk(HttpResponse<byte[]> response) {
+        byte[] body = response.body();
+        if (response.statusCode() != 200 || body.length < OK_PREFIX.length) {
+            return false;
+        }
+        for (int i = 0; i < OK_PREFIX.length; i++) {
+            if (body[i] != OK_PREFIX[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private String errorCode(HttpResponse<byte[]> response) {
+        if (response.statusCode() == 429) {
+            return "RATE_LIMITED";
+        }
+        if (response.statusCode() != 200) {
+            return "HTTP_" + response.statusCode();
+        }
+        try {
+            JsonNode envelope = objectMapper.readTree(response.body());
+            return envelope.path("error").path("code").asText("UNKNOWN");
+        } catch (Exception e) {
+            return "INVALID_RESPONSE";
+        }
+    }
+
+    private void awaitInFlight() throws InterruptedException {
+        long deadline = System.nanoTime() + REQUEST_TIMEOUT.toNanos();
+        while (inFlight.get() > 0 && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+    }
+
+    @Override
+    public void close() {
+        executor.shutdownNow();
+    }
+}
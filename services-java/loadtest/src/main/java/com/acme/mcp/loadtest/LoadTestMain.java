@@ -0,0 +1,116 @@
+package com.acme.mcp.loadtest;
+
+import com.acme.mcp.McpToolServerApplication;
+import com.acme.mcp.adapters.providers.SyntheticCatalog;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.Banner;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.nio.file.Files;
+import java.security.SecureRandom;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+
+/**
+ * Offline end-to-end load test: embedded Postgres, the tool server in-process with a
+ * scaled synthetic catalog, and an open-model generator replaying a weighted mix of
+ * tool calls over HTTP. Prints per-tool latency percentiles and writes histograms to
+ * the report directory.
+ */
+public final class LoadTestMain {
+    private static final Logger logger = LoggerFactory.getLogger(LoadTestMain.class);
+    private static final long SEED = 42L;
+
+    private LoadTestMain() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        LoadTestOptions options = LoadTestOptions.parse(args);
+        List<String> productIds = productIds(options.getCatalogSize());
+        String jwtSecret = randomSecret();
+
+        try (EmbeddedDatabase database = EmbeddedDatabase.start()) {
+            database.seedUsers(options.getUsers(), productIds, SEED);
+
+            if (options.getCatalogSnapshot() != null && !Files.exists(options.getCatalogSnapshot())) {
+                CatalogSnapshotMain.write(options.getCatalogSnapshot(), options.getCatalogSize());
+            }
+            logger.info("Starting tool server with {} synthetic products", options.getCatalogSize());
+            try (ConfigurableApplicationContext server = startServer(options, database.getJdbcUrl(), jwtSecret)) {
+                String baseUrl = "http://localhost:" + server.getEnvironment().getProperty("local.server.port");
+                ObjectMapper objectMapper = new ObjectMapper();
+                WorkloadMix mix = new WorkloadMix(options.getMix(), objectMapper, productIds, options.getUsers());
+                String[] tokens = LoadTestUsers.bearerTokens(options.getUsers(), jwtSecret);
+
+                try (LoadGenerator generator = new LoadGenerator(baseUrl, tokens, mix, objectMapper,
+                        options.getMaxInFlight())) {
+                    if (!options.getWarmup().isZero()) {
+                        logger.info("Warming up for {}s at {} req/s", options.getWarmup().toSeconds(), options.getRps());
+                        generator.run(options.getRps(), options.getWarmup(), null);
+                    }
+
+                    logger.info("Measuring for {}s at {} req/s", options.getDuration().toSeconds(), options.getRps());
+                    LatencyReport report = new LatencyReport(mix.toolNames());
+                    generator.run(options.getRps(), options.getDuration(), report);
+
+                    double seconds = options.getDuration().toMillis() / 1000.0;
+                    report.print(System.out, seconds, options.getRps());
+                    report.writeTo(options.getReportDir(), seconds, options.getRps());
+                    logger.info("Report written to {}", options.getReportDir().toAbsolutePath());
+                }
+            }
+        }
+        // Tomcat and the HTTP client leave non-daemon threads behind
+        System.exit(0);
+    }
+
+    private static ConfigurableApplicationContext startServer(LoadTestOptions options, String jdbcUrl,
+                                                              String jwtSecret) {
+        // Passed as command line arguments so they win over application.yml and the environment
+        return new SpringApplicationBuilder(McpToolServerApplication.class)
+            .bannerMode(Banner.Mode.OFF)
+            .run(
+                "--spring.datasource.url=" + jdbcUrl,
+                "--spring.datasource.username=postgres",
+                "--spring.datasource.password=postgres",
+                "--spring.datasource.hikari.maximum-pool-size=20",
+                "--server.port=0",
+                "--mcp.grpc.enabled=false",
+                "--provider.rd.enabled=false",
+                "--security.enabled=true",
+                "--jwt.secret=" + jwtSecret,
+                "--ratelimit.enabled=" + options.isRateLimit(),
+                "--mcp.provider.mock.latency-ms=" + options.getProviderLatencyMs(),
+                catalogArgument(options),
+                "--logging.level.com.acme.mcp=WARN",
+                "--logging.level.com.acme.mcp.loadtest=INFO");
+    }
+
+    private static String catalogArgument(LoadTestOptions options) {
+        if (options.getCatalogSnapshot() != null) {
+            return "--mcp.provider.mock.catalog-snapshot=" + options.getCatalogSnapshot().toAbsolutePath();
+        }
+        return "--mcp.provider.mock.synthetic-catalog-size=" + options.getCatalogSize();
+    }
+
+    private static List<String> productIds(int catalogSize) {
+        if (catalogSize < 10) {
+            throw new IllegalArgumentException("--catalog-size must be at least 10");
+        }
+        List<String> ids = new ArrayList<>(catalogSize);
+        for (int i = 0; i < catalogSize; i++) {
+            ids.add(SyntheticCatalog.productId(i));
+        }
+        return ids;
+    }
+
+    private static String randomSecret() {
+        byte[] bytes = new byte[32];
+        new SecureRandom().nextBytes(bytes);
+        return Base64.getEncoder().encodeToString(bytes);
+    }
+}
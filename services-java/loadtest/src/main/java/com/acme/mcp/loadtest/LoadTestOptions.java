@@ -0,0 +1,129 @@
+package com.acme.mcp.loadtest;
+
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Command line options, given as {@code --name=value}. Every option has a default so
+ * the harness runs with no arguments.
+ */
+public class LoadTestOptions {
+    private static final String USAGE = String.join("\n",
+        "Usage: java -jar loadtest.jar [options]",
+        "  --rps=200                  target request rate (open model, requests are not held back by slow responses)",
+        "  --duration=60s             measured run length (s, m suffix)",
+        "  --warmup=15s               run at the target rate before measuring; results discarded",
+        "  --catalog-size=100000      synthetic SKUs added to the mock provider (10k to 1M)",
+        "  --catalog-snapshot=<file>  serve the catalog from this snapshot, written first if missing",
+        "  --users=500                virtual users, each with a seeded cart",
+        "  --mix=search:60,compare:10,cart.get:12,cart.add:12,checkout:6",
+        "                             (also: coupon, for commerce.promotions.validateCoupon)",
+        "  --provider-latency-ms=0    simulated mock provider latency per search",
+        "  --rate-limit=false         keep the server's per-user/per-IP rate limiting on",
+        "  --max-in-flight=2000       requests beyond this are counted as dropped",
+        "  --report-dir=target/loadtest   summary and per-tool .hgrm histograms");
+
+    private final int rps;
+    private final Duration duration;
+    private final Duration warmup;
+    private final int catalogSize;
+    private final Path catalogSnapshot;
+    private final int users;
+    private final String mix;
+    private final long providerLatencyMs;
+    private final boolean rateLimit;
+    private final int maxInFlight;
+    private final Path reportDir;
+
+    private LoadTestOptions(Map<String, String> values) {
+        this.rps = Integer.parseInt(values.getOrDefault("rps", "200"));
+        this.duration = parseDuration(values.getOrDefault("duration", "60s"));
+        this.warmup = parseDuration(values.getOrDefault("warmup", "15s"));
+        this.catalogSize = Integer.parseInt(values.getOrDefault("catalog-size", "100000"));
+        this.catalogSnapshot = values.containsKey("catalog-snapshot") ? Paths.get(values.get("catalog-snapshot")) : null;
+        this.users = Integer.parseInt(values.getOrDefault("users", "500"));
+        this.mix = values.getOrDefault("mix", "search:60,compare:10,cart.get:12,cart.add:12,checkout:6");
+        this.providerLatencyMs = Long.parseLong(values.getOrDefault("provider-latency-ms", "0"));
+        this.rateLimit = Boolean.parseBoolean(values.getOrDefault("rate-limit", "false"));
+        this.maxInFlight = Integer.parseInt(values.getOrDefault("max-in-flight", "2000"));
+        this.reportDir = Paths.get(values.getOrDefault("report-dir", "target/loadtest"));
+    }
+
+    public static LoadTestOptions parse(String[] args) {
+        Map<String, String> values = new HashMap<>();
+        for (String arg : args) {
+            if ("--help".equals(arg) || "-h".equals(arg)) {
+                System.out.println(USAGE);
+                System.exit(0);
+            }
+            if (!arg.startsWith("--") || !arg.contains("=")) {
+                throw new IllegalArgumentException("Unrecognized argument: " + arg + "\n" + USAGE);
+            }
+            int eq = arg.indexOf('=');
+            values.put(arg.substring(2, eq), arg.substring(eq + 1));
+        }
+        return new LoadTestOptions(values);
+    }
+
+    private static Duration parseDuration(String value) {
+        String trimmed = value.trim().toLowerCase();
+        if (trimmed.endsWith("ms")) {
+            return Duration.ofMillis(Long.parseLong(trimmed.substring(0, trimmed.length() - 2)));
+        }
+        if (trimmed.endsWith("m")) {
+            return Duration.ofMinutes(Long.parseLong(trimmed.substring(0, trimmed.length() - 1)));
+        }
+        if (trimmed.endsWith("s")) {
+            return Duration.ofSeconds(Long.parseLong(trimmed.substring(0, trimmed.length() - 1)));
+        }
+        return Duration.ofSeconds(Long.parseLong(trimmed));
+    }
+
+    public int getRps() {
+        return rps;
+    }
+
+    public Duration getDuration() {
+        return duration;
+    }
+
+    public Duration getWarmup() {
+        return warmup;
+    }
+
+    public int getCatalogSize() {
+        return catalogSize;
+    }
+
+    /** Null to build the catalog in memory at startup. */
+    public Path getCatalogSnapshot() {
+        return catalogSnapshot;
+    }
+
+    public int getUsers() {
+        return users;
+    }
+
+    public String getMix() {
+        return mix;
+    }
+
+    public long getProviderLatencyMs() {
+        return providerLatencyMs;
+    }
+
+    public boolean isRateLimit() {
+        return rateLimit;
+    }
+
+    public int getMaxInFlight() {
+        return maxInFlight;
+    }
+
+    public Path getReportDir() {
+        return reportDir;
+    }
+}
@@ -0,0 +1,41 @@
+package com.acme.mcp.loadtest;
+
+import com.auth0.jwt.JWT;
+import com.auth0.jwt.algorithms.Algorithm;
+
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+
+/**
+ * Naming and credentials of the virtual users, shared by the seeding and the load
+ * generator. Tokens are signed with the server's HS256 secret so requests go through
+ * the normal authentication filter.
+ */
+final class LoadTestUsers {
+
+    private LoadTestUsers() {
+    }
+
+    static String userId(int index) {
+        return String.format("lt-user-%05d", index);
+    }
+
+    static String cartId(int index) {
+        return String.format("lt-cart-%05d", index);
+    }
+
+    static String[] bearerTokens(int users, String jwtSecret) {
+        Algorithm algorithm = Algorithm.HMAC256(jwtSecret);
+        Instant expiresAt = Instant.now().plus(1, ChronoUnit.DAYS);
+        String[] tokens = new String[users];
+        for (int i = 0; i < users; i++) {
+            tokens[i] = "Bearer " + JWT.create()
+                .withSubject(userId(i))
+                .withClaim("username", userId(i))
+                .withClaim("role", "customer")
+                .withExpiresAt(expiresAt)
+                .sign(algorithm);
+        }
+        return tokens;
+    }
+}
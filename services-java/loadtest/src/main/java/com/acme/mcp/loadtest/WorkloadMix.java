@@ -0,0 +1,199 @@
+package com.acme.mcp.loadtest;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+
+/**
+ * Weighted mix of tool calls resembling chat traffic: mostly searches, some
+ * comparisons, cart reads and writes, and a small share of checkouts. Parsed from
+ * {@code name:weight} pairs; each call picks a virtual user and catalog products at
+ * random.
+ */
+public class WorkloadMix {
+    private static final String[] SEARCH_QUERIES = {
+        "samsung 5g smartphone", "oneplus phone", "iphone", "redmi 5g under 15000",
+        "gaming laptop", "thin and light laptop for office", "wireless earbuds", "anc headphones",
+        "boat neckband", "amoled smartwatch", "fitness band", "4k smart tv", "oled tv",
+        "slim fit shirt", "casual t-shirt", "kurta set", "maxi dress", "air fryer",
+        "mixer grinder", "office chair", "mattress", "face serum", "sunscreen spf 50"
+    };
+    private static final String[][] SEARCH_CATEGORIES = {
+        {"electronics.mobile"}, {"electronics.laptops"}, {"electronics.audio"}, {"fashion"}, {"home"}
+    };
+    private static final String[] SORT_OPTIONS = {"relevance", "relevance", "price_asc", "price_desc", "rating"};
+    // Seeded by db/coupons.sql, plus one unknown code
+    private static final String[] COUPON_CODES = {"SAVE10", "FLAT200", "LIMITED50", "NOSUCHCODE"};
+
+    private final List<Operation> operations = new ArrayList<>();
+    private final int totalWeight;
+    private final ObjectMapper objectMapper;
+    private final List<String> productIds;
+    private final int users;
+
+    public WorkloadMix(String spec, ObjectMapper objectMapper, List<String> productIds, int users) {
+        this.objectMapper = objectMapper;
+        this.productIds = productIds;
+        this.users = users;
+        int total = 0;
+        for (String entry : spec.split(",")) {
+            String[] parts = entry.trim().split(":");
+            if (parts.length != 2) {
+                throw new IllegalArgumentException("Mix entries must be name:weight, got " + entry);
+            }
+            int weight = Integer.parseInt(parts[1].trim());
+            if (weight > 0) {
+                operations.add(new Operation(Kind.fromName(parts[0].trim()), weight));
+                total += weight;
+            }
+        }
+        if (total == 0) {
+            throw new IllegalArgumentException("Mix has no operation with a positive weight: " + spec);
+        }
+        this.totalWeight = total;
+    }
+
+    public Call next(SplittableRandom random) {
+        int roll = random.nextInt(totalWeight);
+        Kind kind = operations.get(operations.size() - 1).kind;
+        for (Operation operation : operations) {
+            roll -= operation.weight;
+            if (roll < 0) {
+                kind = operation.kind;
+                break;
+            }
+        }
+        int user = random.nextInt(users);
+        Map<String, Object> request = buildRequest(kind, user, random);
+        try {
+            return new Call(kind.toolName, user, objectMapper.writeValueAsBytes(request));
+        } catch (Exception e) {
+            throw new IllegalStateException("Failed to encode " + kind.toolName + " request", e);
+        }
+    }
+
+    public List<String> toolNames() {
+        List<String> names = new ArrayList<>();
+        for (Operation operation : operations) {
+            names.add(operation.kind.toolName);
+        }
+        return names;
+    }
+
+    private Map<String, Object> buildRequest(Kind kind, int user, SplittableRandom random) {
+        Map<String, Object> request = new HashMap<>();
+        switch (kind) {
+            case SEARCH:
+                request.put("query", SEARCH_QUERIES[random.nextInt(SEARCH_QUERIES.length)]);
+                if (random.nextInt(3) == 0) {
+                    Map<String, Object> filters = new HashMap<>();
+                    filters.put("categories", List.of(SEARCH_CATEGORIES[random.nextInt(SEARCH_CATEGORIES.length)]));
+                    filters.put("priceMax", 2000 + random.nextInt(60000));
+                    request.put("filters", filters);
+                }
+                request.put("pagination", Map.of("page", 1, "limit", 20));
+                request.put("sortBy", SORT_OPTIONS[random.nextInt(SORT_OPTIONS.length)]);
+                break;
+            case COMPARE:
+                int count = 2 + random.nextInt(3);
+                List<String> ids = new ArrayList<>(count);
+                for (int i = 0; i < count; i++) {
+                    ids.add(randomProduct(random));
+                }
+                request.put("productIds", ids);
+                break;
+            case CART_GET:
+                request.put("userId", LoadTestUsers.userId(user));
+                break;
+            case CART_ADD:
+                request.put("userId", LoadTestUsers.userId(user));
+                request.put("productId", randomProduct(random));
+                request.put("provider", "mock");
+                request.put("quantity", 1 + random.nextInt(2));
+                break;
+            case CHECKOUT:
+                request.put("userId", LoadTestUsers.userId(user));
+                request.put("cartId", LoadTestUsers.cartId(user));
+                request.put("provider", "mock");
+                break;
+            case COUPON:
+                request.put("couponCode", COUPON_CODES[random.nextInt(COUPON_CODES.length)]);
+                request.put("orderAmount", 199 + random.nextInt(20000));
+                break;
+            default:
+                throw new IllegalStateException("Unhandled operation " + kind);
+        }
+        return request;
+    }
+
+    private String randomProduct(SplittableRandom random) {
+        return productIds.get(random.nextInt(productIds.size()));
+    }
+
+    enum Kind {
+        SEARCH("search", "commerce.searchProducts"),
+        COMPARE("compare", "commerce.compareProducts"),
+        CART_GET("cart.get", "commerce.cart.getCart"),
+        CART_ADD("cart.add", "commerce.cart.addItem"),
+        CHECKOUT("checkout", "commerce.checkout.create"),
+        COUPON("coupon", "commerce.promotions.validateCoupon");
+
+        private final String name;
+        private final String toolName;
+
+        Kind(String name, String toolName) {
+            this.name = name;
+            this.toolName = toolName;
+        }
+
+        static Kind fromName(String name) {
+            for (Kind kind : values()) {
+                if (kind.name.equals(name) || kind.toolName.equals(name)) {
+                    return kind;
+                }
+            }
+            throw new IllegalArgumentException("Unknown mix operation: " + name);
+        }
+    }
+
+    private static final class Operation {
+        private final Kind kind;
+        private final int weight;
+
+        private Operation(Kind kind, int weight) {
+            this.kind = kind;
+            this.weight = weight;
+        }
+    }
+
+    /**
+     * One encoded tool call for a given virtual user.
+     */
+    public static final class Call {
+        private final String toolName;
+        private final int user;
+        private final byte[] body;
+
+        Call(String toolName, int user, byte[] body) {
+            this.toolName = toolName;
+            this.user = user;
+            this.body = body;
+        }
+
+        public String getToolName() {
+            return toolName;
+        }
+
+        public int getUser() {
+            return user;
+        }
+
+        public byte[] getBody() {
+            return body;
+        }
+    }
+}
@@ -0,0 +1,31 @@
+-- checkout_sessions is owned by the BFF's Prisma schema (apps/bff-node/prisma/schema.prisma)
+-- and is not part of init.sql; mirrored here so CheckoutService can run against the
+-- embedded database.
+CREATE TABLE IF NOT EXISTS checkout_sessions (
+  id               TEXT PRIMARY KEY,
+  user_id          TEXT NOT NULL REFERENCES users(id),
+  cart_id          TEXT REFERENCES carts(id),
+  provider         TEXT NOT NULL,
+  status           TEXT NOT NULL,
+  items            JSONB NOT NULL,
+  shipping_address JSONB,
+  billing_address  JSONB,
+  payment_method   TEXT,
+  payment_details  JSONB,
+  subtotal         NUMERIC(12,2) NOT NULL,
+  tax              NUMERIC(12,2) NOT NULL,
+  shipping_cost    NUMERIC(12,2) NOT NULL,
+  discount         NUMERIC(12,2) NOT NULL DEFAULT 0,
+  total            NUMERIC(12,2) NOT NULL,
+  currency         TEXT NOT NULL DEFAULT 'INR',
+  expires_at       TIMESTAMPTZ(6) NOT NULL,
+  created_at       TIMESTAMPTZ(6) NOT NULL DEFAULT now(),
+  updated_at       TIMESTAMPTZ(6) NOT NULL DEFAULT now()
+);
+
+CREATE INDEX IF NOT EXISTS idx_checkout_sessions_user_id ON checkout_sessions(user_id);
+CREATE INDEX IF NOT EXISTS idx_checkout_sessions_status_expires_at ON checkout_sessions(status, expires_at);
+CREATE INDEX IF NOT EXISTS idx_checkout_sessions_expires_at ON checkout_sessions(expires_at);
+
+-- Only the mock provider is reachable offline
+UPDATE providers SET enabled = false WHERE id <> 'mock';
@@ -0,0 +1,30 @@
+-- coupons is owned by the BFF's Prisma schema (apps/bff-node/prisma/schema.prisma) and is
+-- not part of init.sql; mirrored here, with a few codes for the "coupon" mix operation, so
+-- the promotion engine can run against the embedded database. The updated_at trigger is left
+-- out: rows are not changed during a run.
+CREATE TABLE IF NOT EXISTS coupons (
+  code         TEXT PRIMARY KEY,
+  type         TEXT NOT NULL,
+  value        DECIMAL(12, 2) NOT NULL,
+  min_order    DECIMAL(12, 2),
+  max_discount DECIMAL(12, 2),
+  expires_at   TIMESTAMPTZ NOT NULL,
+  enabled      BOOLEAN NOT NULL DEFAULT true,
+  created_at   TIMESTAMPTZ NOT NULL DEFAULT now(),
+  description  TEXT,
+  product_ids  TEXT[] NOT NULL DEFAULT '{}',
+  categories   TEXT[] NOT NULL DEFAULT '{}',
+  auto_apply   BOOLEAN NOT NULL DEFAULT false,
+  usage_limit  INTEGER,
+  used_count   INTEGER NOT NULL DEFAULT 0,
+  updated_at   TIMESTAMPTZ NOT NULL DEFAULT now()
+);
+
+CREATE INDEX IF NOT EXISTS idx_coupons_updated_at ON coupons(updated_at);
+
+INSERT INTO coupons (code, type, value, min_order, max_discount, expires_at, description, categories, auto_apply, usage_limit) VALUES
+  ('SAVE10', 'PERCENTAGE', 10, 500, 1000, now() + interval '30 days', '10% off', '{}', false, NULL),
+  ('FLAT200', 'FIXED_AMOUNT', 200, 1000, NULL, now() + interval '30 days', 'Flat 200 off', '{}', false, NULL),
+  ('LIMITED50', 'FIXED_AMOUNT', 50, NULL, NULL, now() + interval '30 days', 'First 100 orders', '{}', false, 100),
+  ('WINTER2026', 'PERCENTAGE', 10, NULL, 2000, now() + interval '30 days', 'Winter Sale', '{}', true, NULL),
+  ('GADGETS500', 'FIXED_AMOUNT', 500, 5000, NULL, now() + interval '30 days', 'Electronics above 5000', '{electronics}', true, NULL);
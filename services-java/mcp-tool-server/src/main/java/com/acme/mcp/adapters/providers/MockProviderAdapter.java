@@ -1,28 +1,112 @@
 package com.acme.mcp.adapters.providers;
 
 import com.acme.mcp.adapters.ProviderAdapter;
+import com.acme.mcp.cart.CartTotals;
+import com.acme.mcp.catalog.CatalogSnapshot;
+import com.acme.mcp.shipping.ShippingEngine;
+import com.acme.mcp.shipping.ShippingQuote;
 import com.acme.shared.*;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
+import java.io.IOException;
 import java.math.BigDecimal;
+import java.nio.file.Path;
 import java.time.Instant;
 import java.util.*;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 @Component
 public class MockProviderAdapter implements ProviderAdapter {
     private static final Logger logger = LoggerFactory.getLogger(MockProviderAdapter.class);
     private static final String PROVIDER_NAME = "mock";
+    private static final long SYNTHETIC_CATALOG_SEED = 42L;
     
+    // Products held on the heap: the built-in catalog when there is no snapshot, and any
+    // added with addProducts. They shadow snapshot products with the same id.
     private final Map<String, ProductSummary> productCatalog = new ConcurrentHashMap<>();
+    private final CatalogSnapshot snapshot;
     private final Map<String, Cart> userCarts = new ConcurrentHashMap<>();
+    private final Map<String, CartTotals> cartTotals = new ConcurrentHashMap<>();
     private final Map<String, Order> orders = new ConcurrentHashMap<>();
+    private final ShippingEngine shippingEngine;
+    private long simulatedLatencyMs = 150;
 
-    public MockProviderAdapter() {
-        initializeProductCatalog();
+    /**
+     * @param catalogSnapshot a file written by {@link #writeCatalogSnapshot} to serve the
+     *                        catalog from instead of building the built-in one; blank for none
+     */
+    public MockProviderAdapter(ShippingEngine shippingEngine,
+                               @Value("${mcp.provider.mock.catalog-snapshot:}") String catalogSnapshot) throws IOException {
+        this.shippingEngine = shippingEngine;
+        if (catalogSnapshot != null && !catalogSnapshot.isBlank()) {
+            this.snapshot = CatalogSnapshot.open(Path.of(catalogSnapshot));
+            logger.info("Mapped mock catalog snapshot {} with {} products", catalogSnapshot, snapshot.size());
+        } else {
+            this.snapshot = null;
+            initializeProductCatalog();
+        }
+    }
+
+    /**
+     * Simulated network delay per search call. Set to 0 for benchmarks.
+     */
+    @Value("${mcp.provider.mock.latency-ms:150}")
+    public void setSimulatedLatencyMs(long simulatedLatencyMs) {
+        this.simulatedLatencyMs = simulatedLatencyMs;
+    }
+
+    /**
+     * Scales the catalog with generated products, e.g. for load tests. 0 keeps only the
+     * built-in products.
+     */
+    @Value("${mcp.provider.mock.synthetic-catalog-size:0}")
+    public void setSyntheticCatalogSize(int size) {
+        if (size > 0) {
+            addProducts(SyntheticCatalog.generate(PROVIDER_NAME, size, SYNTHETIC_CATALOG_SEED));
+        }
+    }
+
+    /**
+     * Adds products on top of the built-in catalog, e.g. from {@link SyntheticCatalog}.
+     */
+    public void addProducts(Collection<ProductSummary> products) {
+        for (ProductSummary product : products) {
+            productCatalog.put(product.getId(), product);
+        }
+        logger.info("Mock catalog now has {} products", catalogSize());
+    }
+
+    /**
+     * Writes the whole catalog, snapshot and heap products alike, as a snapshot that
+     * {@code mcp.provider.mock.catalog-snapshot} can point at.
+     */
+    public void writeCatalogSnapshot(Path file) throws IOException {
+        CatalogSnapshot.write(catalog().collect(Collectors.toList()), file);
+    }
+
+    private ProductSummary findProduct(String productId) {
+        ProductSummary product = productCatalog.get(productId);
+        return product != null || snapshot == null ? product : snapshot.get(productId);
+    }
+
+    private Stream<ProductSummary> catalog() {
+        if (snapshot == null) {
+            return productCatalog.values().stream();
+        }
+        if (productCatalog.isEmpty()) {
+            return snapshot.stream();
+        }
+        return Stream.concat(productCatalog.values().stream(),
+            snapshot.stream().filter(product -> !productCatalog.containsKey(product.getId())));
+    }
+
+    private int catalogSize() {
+        return productCatalog.size() + (snapshot != null ? snapshot.size() : 0);
     }
 
     private void initializeProductCatalog() {
@@ -545,7 +629,7 @@ public class MockProviderAdapter implements ProviderAdapter {
                 "tags", "CLASSIC"
             ));
 
-        logger.info("Initialized mock catalog with {} products", productCatalog.size());
+        logger.info("Initialized mock catalog with {} products", catalogSize());
     }
 
     private void addProduct(String id, String name, String description, String brand,
@@ -593,20 +677,24 @@ public class MockProviderAdapter implements ProviderAdapter {
 
     @Override
     public List<ProductSummary> search(String query, Map<String, Object> filters, int page, int limit) {
-        logger.info("Mock search: query={}, page={}, limit={}", query, page, limit);
+        logger.debug("Mock search: query={}, page={}, limit={}", query, page, limit);
         
-        try {
-            Thread.sleep(150); // Simulate network delay
-        } catch (InterruptedException e) {
-            Thread.currentThread().interrupt();
+        if (simulatedLatencyMs > 0) {
+            try {
+                Thread.sleep(simulatedLatencyMs); // Simulate network delay
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
         }
 
-        List<ProductSummary> results = productCatalog.values().stream()
-            .filter(product -> matchesQuery(product, query))
+        // Filters first: on snapshot products they decode price, category and brand only,
+        // the query match decodes names and descriptions too
+        List<ProductSummary> results = catalog()
             .filter(product -> matchesFilters(product, filters))
+            .filter(product -> matchesQuery(product, query))
             .collect(Collectors.toList());
 
-        logger.info("Mock search found {} products", results.size());
+        logger.debug("Mock search found {} products", results.size());
         return results;
     }
 
@@ -641,17 +729,18 @@ public class MockProviderAdapter implements ProviderAdapter {
             return true;
         }
 
-        // Price filter
+        // Price filter, compared in the product's minor units
+        Money price = product.getPrice();
         if (filters.containsKey("priceMax")) {
             double priceMax = ((Number) filters.get("priceMax")).doubleValue();
-            if (product.getPrice().getAmount().doubleValue() > priceMax) {
+            if (price.getMinorUnits() > Money.toMinor(priceMax, price.getCurrencyCode())) {
                 return false;
             }
         }
 
         if (filters.containsKey("priceMin")) {
             double priceMin = ((Number) filters.get("priceMin")).doubleValue();
-            if (product.getPrice().getAmount().doubleValue() < priceMin) {
+            if (price.getMinorUnits() < Money.toMinor(priceMin, price.getCurrencyCode())) {
                 return false;
             }
         }
@@ -685,16 +774,16 @@ public class MockProviderAdapter implements ProviderAdapter {
 
     @Override
     public ProductSummary getProductDetails(String productId) {
-        logger.info("Mock getProductDetails: {}", productId);
-        return productCatalog.get(productId);
+        logger.debug("Mock getProductDetails: {}", productId);
+        return findProduct(productId);
     }
 
     @Override
     public Cart addToCart(String userId, String productId, int quantity) {
-        logger.info("Mock addToCart: user={}, product={}, qty={}", userId, productId, quantity);
+        logger.debug("Mock addToCart: user={}, product={}, qty={}", userId, productId, quantity);
         
         Cart cart = userCarts.computeIfAbsent(userId, id -> createNewCart(id));
-        ProductSummary product = productCatalog.get(productId);
+        ProductSummary product = findProduct(productId);
         
         if (product == null) {
             throw new RuntimeException("Product not found: " + productId);
@@ -705,53 +794,68 @@ public class MockProviderAdapter implements ProviderAdapter {
             .filter(item -> item.getProductId().equals(productId))
             .findFirst();
 
+        CartTotals totals = totalsOf(cart);
         if (existing.isPresent()) {
-            existing.get().setQuantity(existing.get().getQuantity() + quantity);
+            CartItem item = existing.get();
+            totals.changeQuantity(item.getUnitPrice(), item.getQuantity(), item.getQuantity() + quantity);
+            item.setQuantity(item.getQuantity() + quantity);
         } else {
             CartItem item = new CartItem(productId, PROVIDER_NAME, quantity, product.getPrice());
             item.setProduct(product);
             cart.getItems().add(item);
+            totals.addLine(item.getUnitPrice(), quantity);
         }
 
-        updateCartTotals(cart);
+        totals.applyTo(cart, "INR");
         return cart;
     }
 
     @Override
     public Cart updateCartItem(String userId, String productId, int quantity) {
-        logger.info("Mock updateCartItem: user={}, product={}, qty={}", userId, productId, quantity);
+        logger.debug("Mock updateCartItem: user={}, product={}, qty={}", userId, productId, quantity);
         
         Cart cart = userCarts.get(userId);
         if (cart == null) {
             throw new RuntimeException("Cart not found for user: " + userId);
         }
 
+        CartTotals totals = totalsOf(cart);
         cart.getItems().stream()
             .filter(item -> item.getProductId().equals(productId))
             .findFirst()
-            .ifPresent(item -> item.setQuantity(quantity));
+            .ifPresent(item -> {
+                totals.changeQuantity(item.getUnitPrice(), item.getQuantity(), quantity);
+                item.setQuantity(quantity);
+            });
 
-        updateCartTotals(cart);
+        totals.applyTo(cart, "INR");
         return cart;
     }
 
     @Override
     public Cart removeFromCart(String userId, String productId) {
-        logger.info("Mock removeFromCart: user={}, product={}", userId, productId);
+        logger.debug("Mock removeFromCart: user={}, product={}", userId, productId);
         
         Cart cart = userCarts.get(userId);
         if (cart == null) {
             throw new RuntimeException("Cart not found for user: " + userId);
         }
 
-        cart.getItems().removeIf(item -> item.getProductId().equals(productId));
-        updateCartTotals(cart);
+        CartTotals totals = totalsOf(cart);
+        cart.getItems().removeIf(item -> {
+            if (!item.getProductId().equals(productId)) {
+                return false;
+            }
+            totals.removeLine(item.getUnitPrice(), item.getQuantity());
+            return true;
+        });
+        totals.applyTo(cart, "INR");
         return cart;
     }
 
     @Override
     public Cart getCart(String userId) {
-        logger.info("Mock getCart: user={}", userId);
+        logger.debug("Mock getCart: user={}", userId);
         return userCarts.computeIfAbsent(userId, id -> createNewCart(id));
     }
 
@@ -789,7 +893,9 @@ public class MockProviderAdapter implements ProviderAdapter {
         
         // Clear cart after order
         cart.getItems().clear();
-        updateCartTotals(cart);
+        CartTotals totals = totalsOf(cart);
+        totals.clear();
+        totals.applyTo(cart, "INR");
 
         return order;
     }
@@ -813,14 +919,8 @@ public class MockProviderAdapter implements ProviderAdapter {
         return cart;
     }
 
-    private void updateCartTotals(Cart cart) {
-        BigDecimal subtotal = cart.getItems().stream()
-            .map(item -> item.getUnitPrice().getAmount().multiply(BigDecimal.valueOf(item.getQuantity())))
-            .reduce(BigDecimal.ZERO, BigDecimal::add);
-
-        cart.setSubtotal(new Money(subtotal, "INR"));
-        cart.setTotal(new Money(subtotal, "INR")); // No tax for simplicity
-        cart.setItemCount(cart.getItems().stream().mapToInt(CartItem::getQuantity).sum());
+    private CartTotals totalsOf(Cart cart) {
+        return cartTotals.computeIfAbsent(cart.getId(), id -> new CartTotals());
     }
 
     // ============================================================================
@@ -831,9 +931,9 @@ public class MockProviderAdapter implements ProviderAdapter {
      * Get product reviews (mock data)
      */
     public Map<String, Object> getProductReviews(String productId, int page, int limit, String sortBy) {
-        logger.info("Mock getProductReviews: product={}, page={}, limit={}", productId, page, limit);
+        logger.debug("Mock getProductReviews: product={}, page={}, limit={}", productId, page, limit);
 
-        ProductSummary product = productCatalog.get(productId);
+        ProductSummary product = findProduct(productId);
         if (product == null) {
             throw new RuntimeException("Product not found: " + productId);
         }
@@ -874,7 +974,7 @@ public class MockProviderAdapter implements ProviderAdapter {
                                         int rating, String title, String content) {
         logger.info("Mock addReview: product={}, user={}, rating={}", productId, userId, rating);
 
-        ProductSummary product = productCatalog.get(productId);
+        ProductSummary product = findProduct(productId);
         if (product == null) {
             throw new RuntimeException("Product not found: " + productId);
         }
@@ -901,7 +1001,7 @@ public class MockProviderAdapter implements ProviderAdapter {
      */
     public List<ProductSummary> getRecommendations(String type, String contextProductId,
                                                    String category, int limit) {
-        logger.info("Mock getRecommendations: type={}, productId={}, category={}",
+        logger.debug("Mock getRecommendations: type={}, productId={}, category={}",
                    type, contextProductId, category);
 
         switch (type.toLowerCase()) {
@@ -919,46 +1019,43 @@ public class MockProviderAdapter implements ProviderAdapter {
     }
 
     private List<ProductSummary> getSimilarProducts(String productId, int limit) {
-        ProductSummary product = productCatalog.get(productId);
+        ProductSummary product = findProduct(productId);
         if (product == null) {
             return new ArrayList<>();
         }
 
-        return productCatalog.values().stream()
+        long price = product.getPrice().getMinorUnits();
+        return catalog()
             .filter(p -> !p.getId().equals(productId))
             .filter(p -> p.getCategory() != null && p.getCategory().equals(product.getCategory()))
-            .filter(p -> {
-                double priceDiff = Math.abs(p.getPrice().getAmount().doubleValue() -
-                                           product.getPrice().getAmount().doubleValue());
-                return priceDiff < product.getPrice().getAmount().doubleValue() * 0.5; // Within 50% price range
-            })
+            .filter(p -> Math.abs(p.getPrice().getMinorUnits() - price) * 2 < price) // Within 50% price range
             .sorted((p1, p2) -> Double.compare(p2.getRating(), p1.getRating()))
             .limit(limit)
             .collect(Collectors.toList());
     }
 
     private List<ProductSummary> getComplementaryProducts(String productId, int limit) {
-        ProductSummary product = productCatalog.get(productId);
+        ProductSummary product = findProduct(productId);
         if (product == null) {
             return new ArrayList<>();
         }
 
         // Mock logic: Find products in related categories at lower price points
         String baseCategory = product.getCategory().split("\\.")[0]; // e.g., "electronics"
+        long price = product.getPrice().getMinorUnits();
 
-        return productCatalog.values().stream()
+        return catalog()
             .filter(p -> !p.getId().equals(productId))
             .filter(p -> p.getCategory() != null && p.getCategory().startsWith(baseCategory))
             .filter(p -> !p.getCategory().equals(product.getCategory())) // Different subcategory
-            .filter(p -> p.getPrice().getAmount().doubleValue() <
-                        product.getPrice().getAmount().doubleValue() * 0.3) // < 30% of main product price
+            .filter(p -> p.getPrice().getMinorUnits() * 10 < price * 3) // < 30% of main product price
             .sorted((p1, p2) -> Double.compare(p2.getReviewCount(), p1.getReviewCount()))
             .limit(limit)
             .collect(Collectors.toList());
     }
 
     private List<ProductSummary> getTrendingProducts(String category, int limit) {
-        return productCatalog.values().stream()
+        return catalog()
             .filter(p -> category == null || p.getCategory().startsWith(category))
             .sorted((p1, p2) -> Integer.compare(p2.getReviewCount(), p1.getReviewCount()))
             .limit(limit)
@@ -966,7 +1063,7 @@ public class MockProviderAdapter implements ProviderAdapter {
     }
 
     private List<ProductSummary> getBestDeals(String category, int limit) {
-        return productCatalog.values().stream()
+        return catalog()
             .filter(p -> category == null || p.getCategory().startsWith(category))
             .filter(p -> p.getAttributes() != null && p.getAttributes().containsKey("discount"))
             .sorted((p1, p2) -> {
@@ -993,9 +1090,9 @@ public class MockProviderAdapter implements ProviderAdapter {
      * Get product variants
      */
     public List<Map<String, Object>> getProductVariants(String productId) {
-        logger.info("Mock getProductVariants: product={}", productId);
+        logger.debug("Mock getProductVariants: product={}", productId);
 
-        ProductSummary product = productCatalog.get(productId);
+        ProductSummary product = findProduct(productId);
         if (product == null) {
             throw new RuntimeException("Product not found: " + productId);
         }
@@ -1044,10 +1141,10 @@ public class MockProviderAdapter implements ProviderAdapter {
      * Check product availability with shipping estimate
      */
     public Map<String, Object> checkAvailability(String productId, String pincode, int quantity) {
-        logger.info("Mock checkAvailability: product={}, pincode={}, qty={}",
+        logger.debug("Mock checkAvailability: product={}, pincode={}, qty={}",
                    productId, pincode, quantity);
 
-        ProductSummary product = productCatalog.get(productId);
+        ProductSummary product = findProduct(productId);
         if (product == null) {
             throw new RuntimeException("Product not found: " + productId);
         }
@@ -1056,8 +1153,10 @@ public class MockProviderAdapter implements ProviderAdapter {
         boolean canFulfill = availability.isInStock() &&
                            (availability.getQuantity() == null || availability.getQuantity() >= quantity);
 
-        int deliveryDays = calculateDeliveryDays(pincode);
-        BigDecimal shippingCost = calculateShippingCost(pincode, quantity);
+        ShippingQuote quote = shippingEngine.quote(pincode, quantity);
+        if (quote == null) {
+            throw new IllegalArgumentException("Invalid pincode: " + pincode);
+        }
 
         Map<String, Object> response = new HashMap<>();
         response.put("productId", productId);
@@ -1067,108 +1166,12 @@ public class MockProviderAdapter implements ProviderAdapter {
             "status", canFulfill ? "IN_STOCK" : "OUT_OF_STOCK"
         ));
         response.put("shippingCost", Map.of(
-            "amount", shippingCost,
+            "amount", quote.getCost(),
             "currency", "INR"
         ));
-        response.put("estimatedDeliveryDays", deliveryDays);
+        response.put("estimatedDeliveryDays", quote.getSlaDays());
         response.put("estimatedDeliveryDate",
-                    Instant.now().plus(deliveryDays, java.time.temporal.ChronoUnit.DAYS).toString());
-
-        return response;
-    }
-
-    private int calculateDeliveryDays(String pincode) {
-        // Metro cities (Mumbai, Delhi, Bangalore, Chennai)
-        if (pincode.startsWith("40") || pincode.startsWith("11") ||
-            pincode.startsWith("56") || pincode.startsWith("60")) {
-            return 2;
-        }
-        return 5; // Other areas
-    }
-
-    private BigDecimal calculateShippingCost(String pincode, int quantity) {
-        BigDecimal baseShipping = new BigDecimal("50.00");
-        if (quantity > 1) {
-            baseShipping = baseShipping.add(new BigDecimal("20.00")
-                .multiply(BigDecimal.valueOf(quantity - 1)));
-        }
-        return baseShipping;
-    }
-
-    /**
-     * Get active promotions (mock data)
-     */
-    public List<Map<String, Object>> getPromotions() {
-        logger.info("Mock getPromotions");
-
-        List<Map<String, Object>> promotions = new ArrayList<>();
-
-        Map<String, Object> promo1 = new HashMap<>();
-        promo1.put("promoId", "WINTER2026");
-        promo1.put("type", "PERCENTAGE");
-        promo1.put("value", 10);
-        promo1.put("description", "Winter Sale - 10% off on all products");
-        promo1.put("expiresAt", Instant.now().plus(30, java.time.temporal.ChronoUnit.DAYS).toString());
-        promotions.add(promo1);
-
-        Map<String, Object> promo2 = new HashMap<>();
-        promo2.put("promoId", "NEWYEAR2026");
-        promo2.put("type", "FIXED");
-        promo2.put("value", 500);
-        promo2.put("description", "New Year Special - Flat ₹500 off");
-        promo2.put("expiresAt", Instant.now().plus(15, java.time.temporal.ChronoUnit.DAYS).toString());
-        promotions.add(promo2);
-
-        return promotions;
-    }
-
-    /**
-     * Validate coupon code (mock data)
-     */
-    public Map<String, Object> validateCoupon(String couponCode, BigDecimal orderAmount) {
-        logger.info("Mock validateCoupon: code={}, amount={}", couponCode, orderAmount);
-
-        Map<String, Object> response = new HashMap<>();
-
-        // Mock coupons
-        if ("SAVE10".equalsIgnoreCase(couponCode)) {
-            BigDecimal minOrder = new BigDecimal("500");
-            if (orderAmount.compareTo(minOrder) < 0) {
-                response.put("valid", false);
-                response.put("reason", "Minimum order amount not met");
-                response.put("minOrder", Map.of("amount", minOrder, "currency", "INR"));
-                return response;
-            }
-
-            BigDecimal discount = orderAmount.multiply(new BigDecimal("0.10"));
-            BigDecimal maxDiscount = new BigDecimal("1000");
-            if (discount.compareTo(maxDiscount) > 0) {
-                discount = maxDiscount;
-            }
-
-            response.put("valid", true);
-            response.put("couponCode", couponCode);
-            response.put("type", "PERCENTAGE");
-            response.put("discount", Map.of("amount", discount, "currency", "INR"));
-            response.put("expiresAt", Instant.now().plus(30, java.time.temporal.ChronoUnit.DAYS).toString());
-        } else if ("FLAT200".equalsIgnoreCase(couponCode)) {
-            BigDecimal minOrder = new BigDecimal("1000");
-            if (orderAmount.compareTo(minOrder) < 0) {
-                response.put("valid", false);
-                response.put("reason", "Minimum order amount not met");
-                response.put("minOrder", Map.of("amount", minOrder, "currency", "INR"));
-                return response;
-            }
-
-            response.put("valid", true);
-            response.put("couponCode", couponCode);
-            response.put("type", "FIXED");
-            response.put("discount", Map.of("amount", new BigDecimal("200"), "currency", "INR"));
-            response.put("expiresAt", Instant.now().plus(30, java.time.temporal.ChronoUnit.DAYS).toString());
-        } else {
-            response.put("valid", false);
-            response.put("reason", "Invalid coupon code");
-        }
+                    Instant.now().plus(quote.getSlaDays(), java.time.temporal.ChronoUnit.DAYS).toString());
 
         return response;
     }
@@ -54,7 +54,7 @@ public class RelianceDigitalProviderAdapter implements ProviderAdapter {
 
     @Override
     public List<ProductSummary> search(String query, Map<String, Object> filters, int page, int limit) {
-        logger.info("RD search: query={}, page={}, limit={}", query, page, limit);
+        logger.debug("RD search: query={}, page={}, limit={}", query, page, limit);
 
         if (!enabled) {
             logger.warn("Reliance Digital provider is disabled");
@@ -93,7 +93,7 @@ public class RelianceDigitalProviderAdapter implements ProviderAdapter {
 
     @Override
     public ProductSummary getProductDetails(String productId) {
-        logger.info("RD getProductDetails: {}", productId);
+        logger.debug("RD getProductDetails: {}", productId);
 
         if (!enabled) {
             logger.warn("Reliance Digital provider is disabled");
@@ -246,7 +246,7 @@ public class RelianceDigitalProviderAdapter implements ProviderAdapter {
                 }
             }
 
-            logger.info("Parsed {} products from RD response", products.size());
+            logger.debug("Parsed {} products from RD response", products.size());
             return products;
 
         } catch (Exception e) {
@@ -301,8 +301,13 @@ public class RelianceDigitalProviderAdapter implements ProviderAdapter {
         if (item.has("price") && item.get("price").has("effective")) {
             JsonNode priceNode = item.get("price").get("effective");
             double price = priceNode.has("min") ? priceNode.get("min").asDouble() : 0.0;
-            String currency = priceNode.has("currency_code") ? priceNode.get("currency_code").asText() : "INR";
-            product.setPrice(new Money(BigDecimal.valueOf(price), currency));
+            String currency = priceNode.has("currency_code") ? priceNode.get("currency_code").asText() : null;
+            CurrencyCode code = CurrencyCode.ofOrDefault(currency, null);
+            if (code == null) {
+                logger.debug("Unsupported currency {} on Reliance product {}, priced as INR", currency, product.getId());
+                code = CurrencyCode.INR;
+            }
+            product.setPrice(Money.of(BigDecimal.valueOf(price), code));
         }
 
         // Image URL - use first media
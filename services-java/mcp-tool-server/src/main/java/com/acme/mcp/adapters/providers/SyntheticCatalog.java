@@ -0,0 +1,171 @@
+package com.acme.mcp.adapters.providers;
+
+import com.acme.shared.Availability;
+import com.acme.shared.Money;
+import com.acme.shared.ProductSummary;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+
+/**
+ * Deterministic generator of mock catalog products, used to scale MockProviderAdapter
+ * well beyond its hand-written catalog for benchmarks and load tests.
+ * Category mix, brand popularity, price, rating and review counts follow skewed
+ * distributions roughly shaped like a real Indian electronics/fashion storefront.
+ */
+public final class SyntheticCatalog {
+
+    private static final CategoryProfile[] CATEGORIES = {
+        new CategoryProfile("electronics.mobile.smartphones", 22, 18000, 0.8,
+            new String[]{"Samsung", "Apple", "OnePlus", "Redmi", "Realme", "VIVO", "OPPO", "Motorola", "Nothing", "iQOO"},
+            new String[]{"5G Smartphone", "Pro 5G", "Lite", "Max", "Neo"}),
+        new CategoryProfile("electronics.laptops", 10, 55000, 0.5,
+            new String[]{"HP", "Dell", "Lenovo", "ASUS", "Acer", "Apple", "MSI"},
+            new String[]{"Thin & Light Laptop", "Gaming Laptop", "2-in-1 Laptop", "Business Laptop"}),
+        new CategoryProfile("electronics.audio.headphones", 14, 2500, 0.9,
+            new String[]{"boAt", "Sony", "JBL", "Noise", "Sennheiser", "Apple", "OnePlus"},
+            new String[]{"Wireless Earbuds", "Over-Ear Headphones", "Neckband", "ANC Headphones"}),
+        new CategoryProfile("electronics.wearables.smartwatches", 8, 4000, 0.9,
+            new String[]{"Noise", "boAt", "Fire-Boltt", "Samsung", "Apple", "Amazfit"},
+            new String[]{"Smartwatch", "Fitness Band", "AMOLED Smartwatch"}),
+        new CategoryProfile("electronics.tv", 6, 35000, 0.6,
+            new String[]{"Samsung", "LG", "Sony", "Xiaomi", "TCL", "OnePlus"},
+            new String[]{"4K Smart TV", "QLED TV", "OLED TV", "Full HD Smart TV"}),
+        new CategoryProfile("fashion.men.clothing", 12, 900, 0.7,
+            new String[]{"Levi's", "Allen Solly", "Peter England", "Roadster", "H&M", "U.S. Polo Assn."},
+            new String[]{"Slim Fit Shirt", "Casual T-Shirt", "Regular Jeans", "Polo T-Shirt"}),
+        new CategoryProfile("fashion.women.clothing", 12, 1100, 0.7,
+            new String[]{"Biba", "W", "Libas", "Zara", "H&M", "Only"},
+            new String[]{"Kurta Set", "Maxi Dress", "Top", "Palazzo"}),
+        new CategoryProfile("home.kitchen.appliances", 8, 3500, 0.8,
+            new String[]{"Prestige", "Philips", "Bajaj", "Havells", "Pigeon", "Butterfly"},
+            new String[]{"Mixer Grinder", "Air Fryer", "Induction Cooktop", "Electric Kettle"}),
+        new CategoryProfile("home.furniture", 4, 12000, 0.7,
+            new String[]{"Wakefit", "Sleepwell", "Nilkamal", "Urban Ladder"},
+            new String[]{"Office Chair", "Study Table", "Bookshelf", "Mattress"}),
+        new CategoryProfile("beauty.skincare", 4, 450, 0.6,
+            new String[]{"Minimalist", "Cetaphil", "Mamaearth", "The Derma Co", "Nivea"},
+            new String[]{"Face Serum", "Moisturizer", "Sunscreen SPF 50", "Face Wash"})
+    };
+
+    private static final int TOTAL_WEIGHT;
+
+    static {
+        int total = 0;
+        for (CategoryProfile category : CATEGORIES) {
+            total += category.weight;
+        }
+        TOTAL_WEIGHT = total;
+    }
+
+    private SyntheticCatalog() {
+    }
+
+    /**
+     * Generates {@code size} products for the given provider. The same seed always
+     * yields the same catalog.
+     */
+    public static List<ProductSummary> generate(String provider, int size, long seed) {
+        SplittableRandom random = new SplittableRandom(seed);
+        List<ProductSummary> products = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            products.add(generateProduct(provider, i, random));
+        }
+        return products;
+    }
+
+    /**
+     * ID of the product generated at the given position, so callers can address
+     * generated products without holding the catalog.
+     */
+    public static String productId(int index) {
+        return String.format("SYN%07d", index);
+    }
+
+    private static ProductSummary generateProduct(String provider, int index, SplittableRandom random) {
+        CategoryProfile category = pickCategory(random);
+        // Zipf-like brand popularity: the first brands in each list dominate
+        String brand = category.brands[(int) (category.brands.length * Math.pow(random.nextDouble(), 2))];
+        String line = category.lines[random.nextInt(category.lines.length)];
+
+        // Log-normal prices around the category median, rounded like real price tags
+        double listPrice = Math.max(99, Math.round(category.medianPrice
+            * Math.exp(category.priceSigma * gaussian(random)) / 10) * 10 - 1);
+        double discountFraction = random.nextDouble() < 0.7 ? 0.05 + random.nextDouble() * 0.45 : 0;
+        double salePrice = Math.max(49, Math.round(listPrice * (1 - discountFraction)) - 1);
+
+        double rating = Math.round(Math.min(5.0, Math.max(1.0, 4.1 + 0.45 * gaussian(random))) * 10) / 10.0;
+        // Long-tailed review counts: most products have a handful, a few have tens of thousands
+        int reviewCount = (int) Math.floor(Math.exp(1 + 9 * Math.pow(random.nextDouble(), 2)));
+
+        String id = productId(index);
+        ProductSummary product = new ProductSummary();
+        product.setId(id);
+        product.setProvider(provider);
+        product.setName(brand + " " + line + " " + (index % 97 + 1));
+        product.setDescription(brand + " " + line.toLowerCase() + " in " + category.id.replace('.', ' '));
+        product.setBrand(brand);
+        product.setCategory(category.id);
+        product.setPrice(new Money(BigDecimal.valueOf(salePrice).setScale(2), "INR"));
+        product.setImageUrl("https://cdn.example.com/products/" + id + ".jpg");
+
+        int stock = random.nextInt(100) < 8 ? 0 : 1 + random.nextInt(200);
+        Availability.Status status = stock == 0 ? Availability.Status.OUT_OF_STOCK
+            : stock < 10 ? Availability.Status.LOW_STOCK : Availability.Status.IN_STOCK;
+        product.setAvailability(new Availability(stock > 0, stock, status));
+        product.setRating(rating);
+        product.setReviewCount(reviewCount);
+
+        Map<String, Object> attributes = new HashMap<>();
+        attributes.put("warranty", random.nextBoolean() ? "1 Year" : "2 Years");
+        if (listPrice > salePrice) {
+            double discountPercent = ((listPrice - salePrice) / listPrice) * 100;
+            attributes.put("listPrice", listPrice);
+            attributes.put("discount", String.format("%.0f%% OFF", discountPercent));
+            attributes.put("savings", listPrice - salePrice);
+        }
+        product.setAttributes(attributes);
+        return product;
+    }
+
+    private static CategoryProfile pickCategory(SplittableRandom random) {
+        int roll = random.nextInt(TOTAL_WEIGHT);
+        for (CategoryProfile category : CATEGORIES) {
+            roll -= category.weight;
+            if (roll < 0) {
+                return category;
+            }
+        }
+        return CATEGORIES[CATEGORIES.length - 1];
+    }
+
+    private static double gaussian(SplittableRandom random) {
+        // Box-Muller; SplittableRandom has no nextGaussian on Java 17
+        double u1 = 1.0 - random.nextDouble();
+        double u2 = random.nextDouble();
+        return Math.sqrt(-2 * Math.log(u1)) * Math.cos(2 * Math.PI * u2);
+    }
+
+    private static final class CategoryProfile {
+        private final String id;
+        private final int weight;
+        private final double medianPrice;
+        private final double priceSigma;
+        private final String[] brands;
+        private final String[] lines;
+
+        private CategoryProfile(String id, int weight, double medianPrice, double priceSigma,
+                                String[] brands, String[] lines) {
+            this.id = id;
+            this.weight = weight;
+            this.medianPrice = medianPrice;
+            this.priceSigma = priceSigma;
+            this.brands = brands;
+            this.lines = lines;
+        }
+    }
+}
@@ -0,0 +1,67 @@
+package com.acme.mcp.audit;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Bounded multi-producer, single-consumer ring buffer. Producers claim a slot with one
+ * CAS on the tail and publish by setting the slot; the single consumer clears the slot
+ * and advances the head. Neither side takes a lock, and a full buffer fails the offer
+ * instead of blocking the caller.
+ */
+final class AuditRingBuffer<E> {
+    private final AtomicReferenceArray<E> slots;
+    private final int mask;
+    private final AtomicLong head = new AtomicLong();
+    private final AtomicLong tail = new AtomicLong();
+
+    AuditRingBuffer(int requestedCapacity) {
+        int capacity = Integer.highestOneBit(Math.max(2, requestedCapacity - 1)) << 1;
+        this.slots = new AtomicReferenceArray<>(capacity);
+        this.mask = capacity - 1;
+    }
+
+    /**
+     * Returns false when the buffer is full.
+     */
+    boolean offer(E element) {
+        while (true) {
+            long currentTail = tail.get();
+            if (currentTail - head.get() >= slots.length()) {
+                return false;
+            }
+            if (tail.compareAndSet(currentTail, currentTail + 1)) {
+                slots.lazySet((int) currentTail & mask, element);
+                return true;
+            }
+        }
+    }
+
+    /**
+     * Consumer side only. Returns null when empty, or when the next producer has claimed
+     * its slot but not yet published into it.
+     */
+    E poll() {
+        long currentHead = head.get();
+        int index = (int) currentHead & mask;
+        E element = slots.get(index);
+        if (element == null) {
+            return null;
+        }
+        slots.lazySet(index, null);
+        head.lazySet(currentHead + 1);
+        return element;
+    }
+
+    int size() {
+        return (int) Math.max(0, tail.get() - head.get());
+    }
+
+    boolean isEmpty() {
+        return size() == 0;
+    }
+
+    int capacity() {
+        return slots.length();
+    }
+}
@@ -0,0 +1,284 @@
+package com.acme.mcp.audit;
+
+import com.acme.shared.ToolResponse;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Writes one {@code tool_calls} row per tool call without a DB round trip on the request
+ * path. {@link #record} only builds a small record and offers it to a bounded lock-free
+ * ring buffer; a single writer thread drains it and batch-inserts. Payloads are
+ * serialized on the writer thread, and only for a sample of calls (plus all failures)
+ * to keep JSONB volume down.
+ * <p>
+ * When the buffer is full the record is dropped and counted ({@code overflow: drop}), or
+ * the caller waits up to {@code max-block-ms} for space first ({@code overflow: block}).
+ */
+@Component
+public class ToolCallAuditor implements SmartLifecycle {
+    private static final Logger logger = LoggerFactory.getLogger(ToolCallAuditor.class);
+    private static final String INSERT_SQL =
+        "INSERT INTO tool_calls (id, session_id, tool_name, request_json, response_json, success, " +
+        "duration_ms, trace_id, provider_id, created_at) " +
+        "VALUES (?, (SELECT id FROM chat_sessions WHERE id = ?), ?, ?::jsonb, ?::jsonb, ?, ?, ?, ?, ?)";
+
+    private final JdbcTemplate jdbc;
+    private final ObjectMapper objectMapper;
+    private final MeterRegistry meterRegistry;
+
+    @Value("${mcp.audit.enabled:false}")
+    private boolean enabled;
+
+    @Value("${mcp.audit.buffer-size:8192}")
+    private int bufferSize;
+
+    @Value("${mcp.audit.batch-size:200}")
+    private int batchSize;
+
+    @Value("${mcp.audit.flush-interval-ms:200}")
+    private long flushIntervalMs;
+
+    @Value("${mcp.audit.overflow:drop}")
+    private String overflow;
+
+    @Value("${mcp.audit.max-block-ms:5}")
+    private long maxBlockMs;
+
+    @Value("${mcp.audit.payload-sample-rate:0.1}")
+    private double payloadSampleRate;
+
+    @Value("${mcp.audit.payload-on-error:true}")
+    private boolean payloadOnError;
+
+    @Value("${mcp.audit.max-payload-chars:65536}")
+    private int maxPayloadChars;
+
+    private volatile AuditRingBuffer<ToolCallRecord> buffer;
+    private volatile boolean running;
+    private volatile Thread writer;
+    private boolean blockOnOverflow;
+    private Counter written;
+    private Counter dropped;
+    private Counter failed;
+
+    public ToolCallAuditor(@Qualifier("bulkJdbcTemplate") JdbcTemplate jdbc, ObjectMapper objectMapper, MeterRegistry meterRegistry) {
+        this.jdbc = jdbc;
+        this.objectMapper = objectMapper;
+        this.meterRegistry = meterRegistry;
+    }
+
+    /**
+     * Queues the audit row for one tool call. Never throws and never touches the database.
+     */
+    public void record(String toolName, Map<String, Object> request, ToolResponse<?> response,
+                       long durationNanos, String traceId) {
+        AuditRingBuffer<ToolCallRecord> current = buffer;
+        if (current == null || !running) {
+            return;
+        }
+
+        boolean success = response.isOk();
+        boolean withPayload = (!success && payloadOnError)
+            || (payloadSampleRate > 0 && ThreadLocalRandom.current().nextDouble() < payloadSampleRate);
+        ToolCallRecord record = new ToolCallRecord(
+            toolName,
+            request != null && request.get("sessionId") instanceof String s ? s : null,
+            request != null && request.get("provider") instanceof String p ? p : null,
+            withPayload ? request : null,
+            withPayload ? response : null,
+            success,
+            (int) TimeUnit.NANOSECONDS.toMillis(durationNanos),
+            traceId,
+            System.currentTimeMillis());
+
+        if (current.offer(record) || (blockOnOverflow && offerWithin(current, record))) {
+            // The writer sleeps between flushes; wake it early once a full batch is waiting
+            if (current.size() == batchSize) {
+                LockSupport.unpark(writer);
+            }
+            return;
+        }
+        dropped.increment();
+    }
+
+    private boolean offerWithin(AuditRingBuffer<ToolCallRecord> current, ToolCallRecord record) {
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(maxBlockMs);
+        while (System.nanoTime() < deadline) {
+            LockSupport.unpark(writer);
+            LockSupport.parkNanos(50_000);
+            if (current.offer(record)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private void drain() {
+        List<ToolCallRecord> batch = new ArrayList<>(batchSize);
+        long flushIntervalNanos = TimeUnit.MILLISECONDS.toNanos(flushIntervalMs);
+        long lastFlush = System.nanoTime();
+
+        while (running || !buffer.isEmpty()) {
+            ToolCallRecord record = buffer.poll();
+            if (record != null) {
+                batch.add(record);
+                if (batch.size() >= batchSize) {
+                    flush(batch);
+                    lastFlush = System.nanoTime();
+                }
+                continue;
+            }
+            long sinceFlush = System.nanoTime() - lastFlush;
+            if (sinceFlush >= flushIntervalNanos) {
+                if (!batch.isEmpty()) {
+                    flush(batch);
+                }
+                lastFlush = System.nanoTime();
+                continue;
+            }
+            LockSupport.parkNanos(flushIntervalNanos - sinceFlush);
+        }
+        if (!batch.isEmpty()) {
+            flush(batch);
+        }
+    }
+
+    private void flush(List<ToolCallRecord> batch) {
+        List<Object[]> rows = new ArrayList<>(batch.size());
+        for (ToolCallRecord record : batch) {
+            rows.add(new Object[]{
+                UUID.randomUUID().toString(),
+                record.sessionId,
+                record.toolName,
+                toJson(record.request),
+                toJson(record.response),
+                record.success,
+                record.durationMs,
+                record.traceId,
+                record.providerId,
+                new Timestamp(record.createdAtMillis)
+            });
+        }
+        int[] types = {Types.VARCHAR, Types.VARCHAR, Types.VARCHAR, Types.VARCHAR, Types.VARCHAR,
+            Types.BOOLEAN, Types.INTEGER, Types.VARCHAR, Types.VARCHAR, Types.TIMESTAMP};
+        try {
+            jdbc.batchUpdate(INSERT_SQL, rows, types);
+            written.increment(batch.size());
+        } catch (RuntimeException e) {
+            failed.increment(batch.size());
+            logger.warn("Failed to write {} tool_calls audit rows: {}", batch.size(), e.getMessage());
+        }
+        batch.clear();
+    }
+
+    private String toJson(Object payload) {
+        if (payload == null) {
+            return null;
+        }
+        try {
+            String json = objectMapper.writeValueAsString(payload);
+            if (json.length() > maxPayloadChars) {
+                return "{\"truncated\":true,\"length\":" + json.length() + "}";
+            }
+            return json;
+        } catch (JsonProcessingException e) {
+            return "{\"unserializable\":true}";
+        }
+    }
+
+    @Override
+    public void start() {
+        if (!enabled) {
+            logger.info("Tool call auditing disabled");
+            return;
+        }
+        blockOnOverflow = "block".equalsIgnoreCase(overflow);
+        buffer = new AuditRingBuffer<>(bufferSize);
+        written = Counter.builder("mcp.audit.records").tag("result", "written").register(meterRegistry);
+        dropped = Counter.builder("mcp.audit.records").tag("result", "dropped").register(meterRegistry);
+        failed = Counter.builder("mcp.audit.records").tag("result", "failed").register(meterRegistry);
+        Gauge.builder("mcp.audit.buffer.size", buffer, AuditRingBuffer::size).register(meterRegistry);
+
+        writer = new Thread(this::drain, "tool-audit-writer");
+        writer.setDaemon(true);
+        running = true;
+        writer.start();
+        logger.info("Tool call auditing enabled: buffer={}, batch={}, overflow={}, payload sample rate={}",
+            buffer.capacity(), batchSize, blockOnOverflow ? "block" : "drop", payloadSampleRate);
+    }
+
+    @Override
+    public void stop() {
+        if (!running) {
+            return;
+        }
+        running = false;
+        LockSupport.unpark(writer);
+        try {
+            writer.join(TimeUnit.SECONDS.toMillis(10));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        logger.info("Tool call audit writer stopped");
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    /**
+     * Starts before and stops after the web and gRPC servers, so calls still in flight
+     * during shutdown are queued and the buffer is drained last.
+     */
+    @Override
+    public int getPhase() {
+        return SmartLifecycle.DEFAULT_PHASE - 4096;
+    }
+
+    private static final class ToolCallRecord {
+        private final String toolName;
+        private final String sessionId;
+        private final String providerId;
+        private final Map<String, Object> request;
+        private final ToolResponse<?> response;
+        private final boolean success;
+        private final int durationMs;
+        private final String traceId;
+        private final long createdAtMillis;
+
+        private ToolCallRecord(String toolName, String sessionId, String providerId,
+                               Map<String, Object> request, ToolResponse<?> response, boolean success,
+                               int durationMs, String traceId, long createdAtMillis) {
+            this.toolName = toolName;
+            this.sessionId = sessionId;
+            this.providerId = providerId;
+            this.request = request;
+            this.response = response;
+            this.success = success;
+            this.durationMs = durationMs;
+            this.traceId = traceId;
+            this.createdAtMillis = createdAtMillis;
+        }
+    }
+}
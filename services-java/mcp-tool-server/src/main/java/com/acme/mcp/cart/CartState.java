@@ -0,0 +1,215 @@
+package com.acme.mcp.cart;
+
+import com.acme.shared.Cart;
+import com.acme.shared.CartItem;
+import com.acme.shared.Money;
+import com.acme.shared.ProductSummary;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * One user's active cart as held by {@link CartStore}: the items as this node sees them,
+ * plus the changes not yet written to Postgres, coalesced per product. All access is
+ * synchronized on the instance.
+ */
+final class CartState {
+    final String userId;
+    final Object flushLock = new Object();
+
+    String cartId;
+    String currency;
+    /** carts.version this state was loaded at or last flushed to. */
+    long version;
+    final Map<String, CartItem> items = new LinkedHashMap<>();
+    final CartTotals totals = new CartTotals();
+    Map<String, ItemChange> pending = new LinkedHashMap<>();
+
+    /** When the oldest unflushed change was made, 0 when clean. */
+    long dirtySinceNanos;
+    long lastAccessNanos;
+    long lastValidatedNanos;
+    /** A flush is writing changes taken from {@link #pending}; the items must not be reloaded meanwhile. */
+    boolean flushing;
+    /** A flush saw another writer's version, so the items must be reloaded. */
+    boolean stale;
+    /** Failed flushes in a row; reset by a flush that writes. */
+    int flushFailures;
+    /** The last flush found no users row; warned about once until a flush writes. */
+    boolean unknownUser;
+    /** Dropped from the cache; callers holding it must look the cart up again. */
+    boolean evicted;
+
+    CartState(String userId, String cartId, String currency, long version) {
+        this.userId = userId;
+        this.cartId = cartId;
+        this.currency = currency;
+        this.version = version;
+    }
+
+    void add(String provider, ProductSummary product, int quantity) {
+        String productId = product.getId();
+        CartItem item = items.get(productId);
+        if (item != null) {
+            totals.removeLine(item.getUnitPrice(), item.getQuantity());
+            item.setQuantity(item.getQuantity() + quantity);
+            item.setUnitPrice(product.getPrice());
+            item.setProduct(product);
+        } else {
+            item = new CartItem(productId, provider, quantity, product.getPrice());
+            item.setProduct(product);
+            items.put(productId, item);
+        }
+        totals.addLine(item.getUnitPrice(), item.getQuantity());
+        record(productId, ItemChange.add(quantity, provider, product.getPrice().getAmount()));
+    }
+
+    void updateQuantity(String productId, int quantity) {
+        CartItem item = items.get(productId);
+        if (item == null) {
+            return;
+        }
+        totals.changeQuantity(item.getUnitPrice(), item.getQuantity(), quantity);
+        item.setQuantity(quantity);
+        record(productId, ItemChange.put(quantity, item.getProvider(), item.getUnitPrice().getAmount()));
+    }
+
+    void remove(String productId) {
+        CartItem item = items.remove(productId);
+        if (item != null) {
+            totals.removeLine(item.getUnitPrice(), item.getQuantity());
+        }
+        record(productId, ItemChange.remove());
+    }
+
+    private void record(String productId, ItemChange change) {
+        pending.merge(productId, change, ItemChange::then);
+        if (dirtySinceNanos == 0) {
+            dirtySinceNanos = System.nanoTime();
+        }
+    }
+
+    boolean isDirty() {
+        return !pending.isEmpty();
+    }
+
+    /**
+     * Hands the pending changes to a flush; {@link #restore} puts them back if it fails.
+     */
+    Map<String, ItemChange> takePending() {
+        Map<String, ItemChange> taken = pending;
+        pending = new LinkedHashMap<>();
+        dirtySinceNanos = 0;
+        return taken;
+    }
+
+    /**
+     * Puts back changes a flush failed to write, ahead of any made since, and holds the
+     * next write-behind try back by {@code retryDelayNanos}.
+     */
+    void restore(Map<String, ItemChange> failed, long retryDelayNanos) {
+        Map<String, ItemChange> newer = pending;
+        pending = new LinkedHashMap<>(failed);
+        newer.forEach((productId, change) -> pending.merge(productId, change, ItemChange::then));
+        dirtySinceNanos = System.nanoTime() + retryDelayNanos;
+    }
+
+    void replaceItems(String cartId, String currency, long version, List<CartItem> loaded) {
+        this.cartId = cartId;
+        this.currency = currency;
+        this.version = version;
+        Map<String, ProductSummary> products = new LinkedHashMap<>();
+        items.forEach((productId, item) -> products.put(productId, item.getProduct()));
+        items.clear();
+        for (CartItem item : loaded) {
+            item.setProduct(products.get(item.getProductId()));
+            items.put(item.getProductId(), item);
+        }
+        // Unflushed changes stay visible: the next flush applies them to the stored rows the same way
+        pending.forEach((productId, change) -> {
+            if (change.kind == ItemChange.Kind.REMOVE) {
+                items.remove(productId);
+                return;
+            }
+            CartItem item = items.get(productId);
+            if (item == null) {
+                item = new CartItem(productId, change.provider, 0, new Money(change.unitPrice, currency));
+                item.setProduct(products.get(productId));
+                items.put(productId, item);
+            }
+            item.setQuantity(change.kind == ItemChange.Kind.ADD ? item.getQuantity() + change.quantity : change.quantity);
+        });
+        totals.clear();
+        items.values().forEach(item -> totals.addLine(item.getUnitPrice(), item.getQuantity()));
+        stale = false;
+    }
+
+    /**
+     * Copy for the response, so serialization never sees a later change.
+     */
+    Cart snapshot() {
+        Cart cart = new Cart(cartId, userId);
+        cart.setCurrency(currency);
+        List<CartItem> copies = new ArrayList<>(items.size());
+        for (CartItem item : items.values()) {
+            CartItem copy = new CartItem(item.getProductId(), item.getProvider(), item.getQuantity(),
+                item.getUnitPrice());
+            copy.setProduct(item.getProduct());
+            copy.setMetadata(item.getMetadata());
+            copies.add(copy);
+        }
+        cart.setItems(copies);
+        totals.applyTo(cart, currency);
+        return cart;
+    }
+
+    /**
+     * Net effect of one or more changes to a cart line since the last flush. ADD is applied
+     * relative to the stored quantity, so concurrent adds from other nodes are kept; PUT
+     * sets it outright.
+     */
+    static final class ItemChange {
+        enum Kind { ADD, PUT, REMOVE }
+
+        final Kind kind;
+        final int quantity;
+        final String provider;
+        final BigDecimal unitPrice;
+
+        private ItemChange(Kind kind, int quantity, String provider, BigDecimal unitPrice) {
+            this.kind = kind;
+            this.quantity = quantity;
+            this.provider = provider;
+            this.unitPrice = unitPrice;
+        }
+
+        static ItemChange add(int quantity, String provider, BigDecimal unitPrice) {
+            return new ItemChange(Kind.ADD, quantity, provider, unitPrice);
+        }
+
+        static ItemChange put(int quantity, String provider, BigDecimal unitPrice) {
+            return new ItemChange(Kind.PUT, quantity, provider, unitPrice);
+        }
+
+        static ItemChange remove() {
+            return new ItemChange(Kind.REMOVE, 0, null, null);
+        }
+
+        /**
+         * The single change equivalent to this one followed by {@code next}.
+         */
+        ItemChange then(ItemChange next) {
+            if (next.kind != Kind.ADD) {
+                return next;
+            }
+            return switch (kind) {
+                case ADD -> add(quantity + next.quantity, next.provider, next.unitPrice);
+                case PUT -> put(quantity + next.quantity, next.provider, next.unitPrice);
+                case REMOVE -> put(next.quantity, next.provider, next.unitPrice);
+            };
+        }
+    }
+}
@@ -0,0 +1,532 @@
+package com.acme.mcp.cart;
+
+import com.acme.mcp.cart.CartState.ItemChange;
+import com.acme.shared.Cart;
+import com.acme.shared.CartItem;
+import com.acme.shared.Money;
+import com.acme.shared.ProductSummary;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Function;
+
+/**
+ * Canonical cart store over the {@code carts}/{@code cart_items} tables, shared by every
+ * tool server instance and by CheckoutService.
+ * <p>
+ * Active carts are cached per user. Mutations change the cached cart and are coalesced
+ * per product (a burst of quantity changes becomes one row update); a writer thread
+ * flushes each dirty cart {@code flush-delay-ms} after its first unflushed change, in a
+ * single statement that also bumps {@code carts.version}. A node always reads its own
+ * writes from the cache. Changes from other nodes are picked up when a flush returns a
+ * version that skipped ours, or when a read finds the stored version moved (checked at
+ * most every {@code revalidate-after-ms}). Checkout calls {@link #flush(String)} first,
+ * so it always prices what the user last saw.
+ * <p>
+ * Flushes do not check the stored version before writing. ADD changes are applied
+ * relative to the stored quantity, so adds from several nodes all count, but PUT and
+ * REMOVE are last writer wins; a node that lost finds out from the returned version and
+ * reloads. Carts are only written for users that exist: the {@code users} table belongs
+ * to the BFF, and the changes of a user it does not have are dropped, so such carts live
+ * in this node's cache only.
+ * <p>
+ * A flush that fails is retried with exponential backoff, at most
+ * {@code max-flush-retries} times; its changes are then dropped and the cart reloaded.
+ * <p>
+ * Until started, or with {@code mcp.cart.persistent: false}, carts are kept in memory only.
+ */
+@Component
+public class CartStore implements SmartLifecycle {
+    private static final Logger logger = LoggerFactory.getLogger(CartStore.class);
+
+    private static final String LOAD_SQL =
+        "SELECT c.id, c.currency, c.version, i.product_id, i.provider, i.qty, i.unit_price " +
+        "FROM carts c LEFT JOIN cart_items i ON i.cart_id = c.id " +
+        "WHERE c.id = (SELECT id FROM carts WHERE user_id = ? AND status = 'ACTIVE' " +
+        "ORDER BY updated_at DESC LIMIT 1) " +
+        "ORDER BY i.added_at, i.product_id";
+
+    private static final String VERSION_SQL = "SELECT version FROM carts WHERE id = ?";
+
+    // Users are owned by the BFF and never written here: when the user does not exist the
+    // cart row is not written, the item changes are skipped and no version is returned.
+    private static final String FLUSH_SQL =
+        "WITH changes AS (" +
+        "  SELECT * FROM unnest(?::text[], ?::text[], ?::text[], ?::int[], ?::numeric[]) " +
+        "    AS c(kind, product_id, provider, qty, unit_price)" +
+        "), cart AS (" +
+        "  INSERT INTO carts (id, user_id, provider, currency, version) " +
+        "  SELECT ?, u.id, ?, ?, 1 FROM users u WHERE u.id = ? " +
+        "  ON CONFLICT (id) DO UPDATE SET version = carts.version + 1, updated_at = now() " +
+        "  RETURNING version" +
+        "), removed AS (" +
+        "  DELETE FROM cart_items i USING changes c " +
+        "  WHERE c.kind = 'REMOVE' AND i.cart_id = ? AND i.product_id = c.product_id " +
+        "  AND EXISTS (SELECT 1 FROM cart)" +
+        "), added AS (" +
+        "  INSERT INTO cart_items (cart_id, product_id, provider, qty, unit_price) " +
+        "  SELECT ?, product_id, provider, qty, unit_price FROM changes " +
+        "  WHERE kind = 'ADD' AND EXISTS (SELECT 1 FROM cart) " +
+        "  ON CONFLICT (cart_id, product_id) DO UPDATE " +
+        "  SET qty = cart_items.qty + EXCLUDED.qty, unit_price = EXCLUDED.unit_price" +
+        "), put AS (" +
+        "  INSERT INTO cart_items (cart_id, product_id, provider, qty, unit_price) " +
+        "  SELECT ?, product_id, provider, qty, unit_price FROM changes " +
+        "  WHERE kind = 'PUT' AND EXISTS (SELECT 1 FROM cart) " +
+        "  ON CONFLICT (cart_id, product_id) DO UPDATE " +
+        "  SET qty = EXCLUDED.qty, unit_price = EXCLUDED.unit_price" +
+        ") SELECT version FROM cart";
+
+    private final JdbcTemplate jdbc;
+    private final MeterRegistry meterRegistry;
+    private final Map<String, CartState> carts = new ConcurrentHashMap<>();
+    private final Set<CartState> dirty = ConcurrentHashMap.newKeySet();
+
+    @Value("${mcp.cart.persistent:true}")
+    private boolean persistent;
+
+    @Value("${mcp.cart.flush-delay-ms:200}")
+    private long flushDelayMs;
+
+    @Value("${mcp.cart.revalidate-after-ms:1000}")
+    private long revalidateAfterMs;
+
+    @Value("${mcp.cart.max-cached:50000}")
+    private int maxCached;
+
+    @Value("${mcp.cart.idle-timeout-ms:600000}")
+    private long idleTimeoutMs;
+
+    @Value("${mcp.cart.max-flush-retries:5}")
+    private int maxFlushRetries;
+
+    private volatile boolean running;
+    private volatile Thread writer;
+    private Counter flushed;
+    private Counter failed;
+    private Counter dropped;
+    private Counter skipped;
+    private Counter conflicts;
+
+    public CartStore(JdbcTemplate jdbc, MeterRegistry meterRegistry) {
+        this.jdbc = jdbc;
+        this.meterRegistry = meterRegistry;
+    }
+
+    public Cart getCart(String userId) {
+        return access(userId, true, CartState::snapshot);
+    }
+
+    public Cart addItem(String userId, String provider, ProductSummary product, int quantity) {
+        return access(userId, false, state -> {
+            state.add(provider, product, quantity);
+            return state.snapshot();
+        });
+    }
+
+    /**
+     * Sets the quantity of a product already in the cart; unknown products are ignored.
+     */
+    public Cart updateItemQty(String userId, String productId, int quantity) {
+        return access(userId, false, state -> {
+            state.updateQuantity(productId, quantity);
+            return state.snapshot();
+        });
+    }
+
+    public Cart removeItem(String userId, String productId) {
+        return access(userId, false, state -> {
+            state.remove(productId);
+            return state.snapshot();
+        });
+    }
+
+    /**
+     * Keeps product details looked up for a loaded item, which the tables do not store.
+     */
+    public void attachProduct(String userId, ProductSummary product) {
+        CartState state = carts.get(userId);
+        if (state != null) {
+            synchronized (state) {
+                CartItem item = state.items.get(product.getId());
+                if (item != null && item.getProduct() == null) {
+                    item.setProduct(product);
+                }
+            }
+        }
+    }
+
+    /**
+     * Writes the user's unflushed changes now, for callers that read the tables directly.
+     *
+     * @throws IllegalStateException if the changes could not be written
+     */
+    public void flush(String userId) {
+        CartState state = carts.get(userId);
+        if (state != null && running && !flush(state)) {
+            throw new IllegalStateException("Cart changes could not be saved for user " + userId);
+        }
+    }
+
+    /**
+     * The provider a product in the user's cart was added from, or null if it is not in the cart.
+     */
+    public String ownerOf(String userId, String productId) {
+        return access(userId, true, state -> {
+            CartItem item = state.items.get(productId);
+            return item != null ? item.getProvider() : null;
+        });
+    }
+
+    private <T> T access(String userId, boolean read, Function<CartState, T> action) {
+        while (true) {
+            CartState state = carts.get(userId);
+            if (state == null) {
+                CartState loaded = running ? load(userId) : new CartState(userId, "CART-" + userId, "INR", 0);
+                state = carts.putIfAbsent(userId, loaded);
+                if (state == null) {
+                    state = loaded;
+                }
+            }
+            synchronized (state) {
+                if (state.evicted) {
+                    continue;
+                }
+                long now = System.nanoTime();
+                if (running) {
+                    refresh(state, read, now);
+                }
+                T result = action.apply(state);
+                if (!read) {
+                    if (!running) {
+                        state.takePending();
+                    } else if (state.isDirty()) {
+                        dirty.add(state);
+                    }
+                }
+                state.lastAccessNanos = now;
+                return result;
+            }
+        }
+    }
+
+    /**
+     * Reloads a cart another node changed. Reads of a clean cart also check the stored
+     * version once it has not been checked for {@code revalidate-after-ms}. Neither
+     * happens while a flush is writing: the changes it took are in no table row or pending
+     * map this node could overlay yet, and a stale result is caught when it returns.
+     */
+    private void refresh(CartState state, boolean read, long now) {
+        if (state.flushing) {
+            return;
+        }
+        if (!state.stale && read && !state.isDirty()
+                && now - state.lastValidatedNanos >= TimeUnit.MILLISECONDS.toNanos(revalidateAfterMs)) {
+            List<Long> versions = jdbc.queryForList(VERSION_SQL, Long.class, state.cartId);
+            long stored = versions.isEmpty() ? 0 : versions.get(0);
+            state.stale = stored != state.version;
+            state.lastValidatedNanos = now;
+        }
+        if (state.stale) {
+            CartState loaded = load(state.userId);
+            state.replaceItems(loaded.cartId, loaded.currency, loaded.version, new ArrayList<>(loaded.items.values()));
+            state.lastValidatedNanos = now;
+        }
+    }
+
+    private CartState load(String userId) {
+        CartState[] result = new CartState[1];
+        jdbc.query(LOAD_SQL, rs -> {
+            if (result[0] == null) {
+                result[0] = new CartState(userId, rs.getString("id"), rs.getString("currency"), rs.getLong("version"));
+            }
+            String productId = rs.getString("product_id");
+            if (productId != null) {
+                BigDecimal unitPrice = rs.getBigDecimal("unit_price");
+                CartItem item = new CartItem(productId, rs.getString("provider"), rs.getInt("qty"),
+                    new Money(unitPrice != null ? unitPrice : BigDecimal.ZERO, result[0].currency));
+                result[0].items.put(productId, item);
+            }
+        }, userId);
+        CartState state = result[0] != null ? result[0] : new CartState(userId, "CART-" + userId, "INR", 0);
+        state.lastValidatedNanos = System.nanoTime();
+        return state;
+    }
+
+    /**
+     * Returns false if the changes could not be written: they stay pending for a later try,
+     * unless the user does not exist or the retries are used up.
+     */
+    private boolean flush(CartState state) {
+        synchronized (state.flushLock) {
+            Map<String, ItemChange> changes;
+            long expectedVersion;
+            String cartId;
+            String currency;
+            synchronized (state) {
+                if (!state.isDirty()) {
+                    dirty.remove(state);
+                    return true;
+                }
+                changes = state.takePending();
+                state.flushing = true;
+                expectedVersion = state.version + 1;
+                cartId = state.cartId;
+                currency = state.currency;
+            }
+
+            try {
+                Long version = jdbc.query(
+                    con -> prepareFlush(con, state.userId, cartId, currency, changes),
+                    rs -> rs.next() ? rs.getLong(1) : null);
+                if (version == null) {
+                    skipUnknownUser(state, cartId, changes.size());
+                    return false;
+                }
+                synchronized (state) {
+                    state.flushing = false;
+                    state.flushFailures = 0;
+                    state.unknownUser = false;
+                    if (version != expectedVersion) {
+                        // Someone else wrote in between: our changes are in, but the cached items are not current
+                        state.stale = true;
+                        conflicts.increment();
+                    }
+                    state.version = version;
+                    state.lastValidatedNanos = System.nanoTime();
+                    if (!state.isDirty()) {
+                        dirty.remove(state);
+                    }
+                }
+                flushed.increment();
+                return true;
+            } catch (RuntimeException e) {
+                int failures;
+                synchronized (state) {
+                    state.flushing = false;
+                    failures = ++state.flushFailures;
+                    if (failures > maxFlushRetries) {
+                        // Changes made since stay pending and get retries of their own
+                        state.flushFailures = 0;
+                        state.stale = true;
+                        if (!state.isDirty()) {
+                            dirty.remove(state);
+                        }
+                    } else {
+                        long flushDelayNanos = TimeUnit.MILLISECONDS.toNanos(flushDelayMs);
+                        state.restore(changes, (flushDelayNanos << Math.min(failures - 1, 16)) - flushDelayNanos);
+                    }
+                }
+                if (failures > maxFlushRetries) {
+                    dropped.increment();
+                    logger.error("Dropped {} changes to cart {} after {} failed saves: {}",
+                        changes.size(), cartId, failures, e.getMessage());
+                } else {
+                    failed.increment();
+                    logger.warn("Failed to save cart {} ({} changes, attempt {}): {}",
+                        cartId, changes.size(), failures, e.getMessage());
+                }
+                return false;
+            }
+        }
+    }
+
+    /**
+     * The user has no {@code users} row, so nothing was written. Retrying cannot help: the
+     * changes, including any made meanwhile, are dropped and the cart left clean so it can
+     * be evicted. It stays as this node last showed it.
+     */
+    private void skipUnknownUser(CartState state, String cartId, int changeCount) {
+        boolean first;
+        synchronized (state) {
+            state.flushing = false;
+            state.flushFailures = 0;
+            state.takePending();
+            dirty.remove(state);
+            first = !state.unknownUser;
+            state.unknownUser = true;
+        }
+        skipped.increment();
+        if (first) {
+            logger.warn("Not saving cart {} ({} changes): user {} does not exist", cartId, changeCount, state.userId);
+        }
+    }
+
+    private static PreparedStatement prepareFlush(Connection con, String userId, String cartId, String currency,
+                                                  Map<String, ItemChange> changes) throws SQLException {
+        int size = changes.size();
+        String[] kinds = new String[size];
+        String[] productIds = new String[size];
+        String[] providers = new String[size];
+        Integer[] quantities = new Integer[size];
+        BigDecimal[] unitPrices = new BigDecimal[size];
+        String cartProvider = null;
+        int i = 0;
+        for (Map.Entry<String, ItemChange> entry : changes.entrySet()) {
+            ItemChange change = entry.getValue();
+            kinds[i] = change.kind.name();
+            productIds[i] = entry.getKey();
+            providers[i] = change.provider;
+            quantities[i] = change.quantity;
+            unitPrices[i] = change.unitPrice;
+            if (cartProvider == null) {
+                cartProvider = change.provider;
+            }
+            i++;
+        }
+
+        PreparedStatement ps = con.prepareStatement(FLUSH_SQL);
+        ps.setArray(1, con.createArrayOf("text", kinds));
+        ps.setArray(2, con.createArrayOf("text", productIds));
+        ps.setArray(3, con.createArrayOf("text", providers));
+        ps.setArray(4, con.createArrayOf("int4", quantities));
+        ps.setArray(5, con.createArrayOf("numeric", unitPrices));
+        ps.setString(6, cartId);
+        ps.setString(7, cartProvider);
+        ps.setString(8, currency);
+        ps.setString(9, userId);
+        ps.setString(10, cartId);
+        ps.setString(11, cartId);
+        ps.setString(12, cartId);
+        return ps;
+    }
+
+    private void writeBehind() {
+        long flushDelayNanos = TimeUnit.MILLISECONDS.toNanos(flushDelayMs);
+        long lastEviction = System.nanoTime();
+        while (running) {
+            LockSupport.parkNanos(Math.max(flushDelayNanos / 2, TimeUnit.MILLISECONDS.toNanos(5)));
+            long now = System.nanoTime();
+            for (CartState state : dirty) {
+                long dirtySince;
+                synchronized (state) {
+                    dirtySince = state.dirtySinceNanos;
+                }
+                if (dirtySince != 0 && now - dirtySince >= flushDelayNanos) {
+                    flush(state);
+                }
+            }
+            if (now - lastEviction >= TimeUnit.SECONDS.toNanos(1)) {
+                evict(now);
+                lastEviction = now;
+            }
+        }
+        for (CartState state : dirty) {
+            flush(state);
+        }
+    }
+
+    /**
+     * Drops clean carts idle past {@code idle-timeout-ms}, then the least recently used
+     * clean carts while more than {@code max-cached} are held. Dirty carts are kept until
+     * flushed.
+     */
+    private void evict(long now) {
+        long idleNanos = TimeUnit.MILLISECONDS.toNanos(idleTimeoutMs);
+        List<CartState> clean = new ArrayList<>();
+        for (CartState state : carts.values()) {
+            synchronized (state) {
+                if (state.isDirty()) {
+                    continue;
+                }
+                if (now - state.lastAccessNanos >= idleNanos) {
+                    state.evicted = true;
+                    carts.remove(state.userId, state);
+                } else {
+                    clean.add(state);
+                }
+            }
+        }
+        int excess = carts.size() - maxCached;
+        if (excess <= 0) {
+            return;
+        }
+        clean.sort(Comparator.comparingLong(state -> state.lastAccessNanos));
+        for (CartState state : clean) {
+            if (excess <= 0) {
+                break;
+            }
+            synchronized (state) {
+                if (!state.isDirty() && !state.evicted) {
+                    state.evicted = true;
+                    carts.remove(state.userId, state);
+                    excess--;
+                }
+            }
+        }
+    }
+
+    @Override
+    public void start() {
+        if (!persistent) {
+            logger.info("Cart persistence disabled, carts are kept in memory only");
+            return;
+        }
+        flushed = Counter.builder("mcp.cart.flushes").tag("result", "written").register(meterRegistry);
+        failed = Counter.builder("mcp.cart.flushes").tag("result", "failed").register(meterRegistry);
+        dropped = Counter.builder("mcp.cart.flushes").tag("result", "dropped").register(meterRegistry);
+        skipped = Counter.builder("mcp.cart.flushes").tag("result", "skipped").register(meterRegistry);
+        conflicts = Counter.builder("mcp.cart.version.conflicts").register(meterRegistry);
+        Gauge.builder("mcp.cart.cached", carts, Map::size).register(meterRegistry);
+        Gauge.builder("mcp.cart.dirty", dirty, Set::size).register(meterRegistry);
+
+        // Carts cached before persistence started were never loaded from the tables
+        carts.values().forEach(state -> state.evicted = true);
+        carts.clear();
+
+        writer = new Thread(this::writeBehind, "cart-write-behind");
+        writer.setDaemon(true);
+        running = true;
+        writer.start();
+        logger.info("Cart store started: flush delay={}ms, revalidate after={}ms, max cached={}",
+            flushDelayMs, revalidateAfterMs, maxCached);
+    }
+
+    @Override
+    public void stop() {
+        if (!running) {
+            return;
+        }
+        running = false;
+        LockSupport.unpark(writer);
+        try {
+            writer.join(TimeUnit.SECONDS.toMillis(10));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        logger.info("Cart write-behind stopped");
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    /**
+     * Same phase as the audit writer: started before and stopped after the web and gRPC
+     * servers, so carts changed by the last requests are still written.
+     */
+    @Override
+    public int getPhase() {
+        return SmartLifecycle.DEFAULT_PHASE - 4096;
+    }
+}
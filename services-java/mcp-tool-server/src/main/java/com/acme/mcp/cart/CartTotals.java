@@ -0,0 +1,77 @@
+package com.acme.mcp.cart;
+
+import com.acme.shared.Cart;
+import com.acme.shared.CurrencyCode;
+import com.acme.shared.Money;
+
+/**
+ * Running totals of one cart in minor units (paise), updated by each mutation instead of
+ * being summed over the items again. Tax is worked out once per cart revision; the
+ * {@link Money} values are only built when the cart is handed out. Unit prices are
+ * expected in the cart's currency.
+ * <p>
+ * Not thread-safe: the owner of the cart synchronizes access.
+ */
+public final class CartTotals {
+    /** GST charged at checkout, in basis points. */
+    public static final long TAX_RATE_BASIS_POINTS = 1_800;
+
+    private long subtotalMinor;
+    private int itemCount;
+    private long revision;
+    private long taxedRevision = -1;
+    private long taxMinor;
+
+    public void addLine(Money unitPrice, int quantity) {
+        subtotalMinor += unitPrice.getMinorUnits() * quantity;
+        itemCount += quantity;
+        revision++;
+    }
+
+    public void removeLine(Money unitPrice, int quantity) {
+        addLine(unitPrice, -quantity);
+    }
+
+    public void changeQuantity(Money unitPrice, int from, int to) {
+        addLine(unitPrice, to - from);
+    }
+
+    public void clear() {
+        subtotalMinor = 0;
+        itemCount = 0;
+        revision++;
+    }
+
+    public long getSubtotalMinor() {
+        return subtotalMinor;
+    }
+
+    public int getItemCount() {
+        return itemCount;
+    }
+
+    public long getTaxMinor() {
+        if (taxedRevision != revision) {
+            taxMinor = taxMinor(subtotalMinor);
+            taxedRevision = revision;
+        }
+        return taxMinor;
+    }
+
+    /**
+     * Sets subtotal, tax, total and item count on {@code cart}.
+     */
+    public void applyTo(Cart cart, String currency) {
+        long tax = getTaxMinor();
+        CurrencyCode code = CurrencyCode.of(currency);
+        cart.setSubtotal(Money.ofMinor(subtotalMinor, code));
+        cart.setTax(Money.ofMinor(tax, code));
+        cart.setTotal(Money.ofMinor(subtotalMinor + tax, code));
+        cart.setItemCount(itemCount);
+    }
+
+    public static long taxMinor(long subtotalMinor) {
+        // Half up, like the NUMERIC(12,2) columns the checkout stores it in
+        return (subtotalMinor * TAX_RATE_BASIS_POINTS + 5_000) / 10_000;
+    }
+}
@@ -0,0 +1,485 @@
+package com.acme.mcp.catalog;
+
+import com.acme.shared.Availability;
+import com.acme.shared.CurrencyCode;
+import com.acme.shared.Money;
+import com.acme.shared.ProductSummary;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+/**
+ * A product catalog in a read-only binary file that is memory-mapped rather than loaded:
+ * opening one costs the same for ten products or a million, the products stay off the
+ * heap, and JVMs on one host mapping the same file share its pages.
+ * <p>
+ * Layout, all big-endian:
+ * <pre>
+ *   header      64 bytes: magic, version, product count, row width, index slots, section offsets
+ *   rows        one fixed-width row per product ({@value #ROW_BYTES} bytes)
+ *   index       open-addressing table of row + 1 by product id hash, 0 for an empty slot
+ *   attributes  per product: entry count, then key, type and value per entry
+ *   strings     deduplicated UTF-8 strings, each after its byte length
+ * </pre>
+ * Strings and attributes are referenced by offset into their section, -1 for null.
+ * Products are read through {@link #get(String)} and {@link #stream()} as views that
+ * decode each field on first use.
+ */
+public final class CatalogSnapshot {
+    private static final int MAGIC = 0x41434154; // "ACAT"
+    private static final int VERSION = 2;
+    private static final int HEADER_BYTES = 64;
+    static final int ROW_BYTES = 64;
+
+    // Row layout
+    private static final int ID = 0;
+    private static final int PROVIDER = 4;
+    private static final int NAME = 8;
+    private static final int DESCRIPTION = 12;
+    private static final int BRAND = 16;
+    private static final int CATEGORY = 20;
+    private static final int IMAGE_URL = 24;
+    private static final int ATTRIBUTES = 28;
+    private static final int PRICE_MINOR = 32;
+    private static final int PRICE_CURRENCY = 40;
+    private static final int REVIEW_COUNT = 44;
+    private static final int STOCK = 48;
+    // Byte 52 is unused
+    private static final int STATUS = 53;
+    private static final int IN_STOCK = 54;
+    private static final int FLAGS = 55;
+    private static final int RATING = 56;
+
+    private static final int HAS_PRICE = 1;
+    private static final int HAS_RATING = 2;
+    private static final int HAS_REVIEW_COUNT = 4;
+    private static final int HAS_STOCK = 8;
+
+    // Attribute value types
+    private static final byte STRING = 0;
+    private static final byte DOUBLE = 1;
+    private static final byte INT = 2;
+    private static final byte LONG = 3;
+    private static final byte BOOLEAN = 4;
+
+    private static final Availability.Status[] STATUSES = Availability.Status.values();
+
+    private final ByteBuffer buffer;
+    private final Map<Integer, String> sharedStrings = new ConcurrentHashMap<>();
+    private final int count;
+    private final int indexSlots;
+    private final int rowsOffset;
+    private final int indexOffset;
+    private final int attributesOffset;
+    private final int stringsOffset;
+
+    private CatalogSnapshot(ByteBuffer buffer) {
+        this.buffer = buffer;
+        if (buffer.capacity() < HEADER_BYTES || buffer.getInt(0) != MAGIC) {
+            throw new IllegalArgumentException("Not a catalog snapshot");
+        }
+        if (buffer.getInt(4) != VERSION || buffer.getInt(12) != ROW_BYTES) {
+            throw new IllegalArgumentException("Unsupported catalog snapshot version " + buffer.getInt(4));
+        }
+        this.count = buffer.getInt(8);
+        this.indexSlots = buffer.getInt(16);
+        this.rowsOffset = (int) buffer.getLong(24);
+        this.indexOffset = (int) buffer.getLong(32);
+        this.attributesOffset = (int) buffer.getLong(40);
+        this.stringsOffset = (int) buffer.getLong(48);
+    }
+
+    /**
+     * Maps a snapshot file read-only. Only the header is read here; pages are loaded by
+     * the OS as products are accessed.
+     */
+    public static CatalogSnapshot open(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            if (channel.size() > Integer.MAX_VALUE) {
+                throw new IOException("Catalog snapshot over 2 GB: " + file);
+            }
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            return new CatalogSnapshot(buffer);
+        }
+    }
+
+    public int size() {
+        return count;
+    }
+
+    /**
+     * The product with this id, or null if the snapshot has none.
+     */
+    public ProductSummary get(String id) {
+        int row = find(id);
+        return row >= 0 ? new SnapshotProductSummary(this, row) : null;
+    }
+
+    public boolean contains(String id) {
+        return find(id) >= 0;
+    }
+
+    /** Every product, in the order they were written. */
+    public Stream<ProductSummary> stream() {
+        return IntStream.range(0, count).mapToObj(row -> new SnapshotProductSummary(this, row));
+    }
+
+    private int find(String id) {
+        if (id == null || count == 0) {
+            return -1;
+        }
+        byte[] key = id.getBytes(StandardCharsets.UTF_8);
+        int mask = indexSlots - 1;
+        for (int slot = hash(id) & mask; ; slot = (slot + 1) & mask) {
+            int entry = buffer.getInt(indexOffset + slot * 4);
+            if (entry == 0) {
+                return -1;
+            }
+            if (stringEquals(buffer.getInt(rowsOffset + (entry - 1) * ROW_BYTES + ID), key)) {
+                return entry - 1;
+            }
+        }
+    }
+
+    private boolean stringEquals(int ref, byte[] key) {
+        int position = stringsOffset + ref;
+        if (buffer.getInt(position) != key.length) {
+            return false;
+        }
+        for (int i = 0; i < key.length; i++) {
+            if (buffer.get(position + 4 + i) != key[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static int hash(String id) {
+        int h = id.hashCode();
+        return h ^ (h >>> 16);
+    }
+
+    // Field access for SnapshotProductSummary
+
+    String id(int row) {
+        return stringAt(row, ID);
+    }
+
+    String provider(int row) {
+        return sharedString(row, PROVIDER);
+    }
+
+    String name(int row) {
+        return stringAt(row, NAME);
+    }
+
+    String description(int row) {
+        return stringAt(row, DESCRIPTION);
+    }
+
+    String brand(int row) {
+        return sharedString(row, BRAND);
+    }
+
+    String category(int row) {
+        return sharedString(row, CATEGORY);
+    }
+
+    String imageUrl(int row) {
+        return stringAt(row, IMAGE_URL);
+    }
+
+    Money price(int row) {
+        int base = rowsOffset + row * ROW_BYTES;
+        if ((buffer.get(base + FLAGS) & HAS_PRICE) == 0) {
+            return null;
+        }
+        return Money.ofMinor(buffer.getLong(base + PRICE_MINOR), CurrencyCode.of(sharedString(row, PRICE_CURRENCY)));
+    }
+
+    Availability availability(int row) {
+        int base = rowsOffset + row * ROW_BYTES;
+        byte status = buffer.get(base + STATUS);
+        if (status == -1) {
+            return null;
+        }
+        Integer stock = (buffer.get(base + FLAGS) & HAS_STOCK) != 0 ? buffer.getInt(base + STOCK) : null;
+        return new Availability(buffer.get(base + IN_STOCK) != 0, stock, status == -2 ? null : STATUSES[status]);
+    }
+
+    Double rating(int row) {
+        int base = rowsOffset + row * ROW_BYTES;
+        return (buffer.get(base + FLAGS) & HAS_RATING) != 0 ? buffer.getDouble(base + RATING) : null;
+    }
+
+    Integer reviewCount(int row) {
+        int base = rowsOffset + row * ROW_BYTES;
+        return (buffer.get(base + FLAGS) & HAS_REVIEW_COUNT) != 0 ? buffer.getInt(base + REVIEW_COUNT) : null;
+    }
+
+    Map<String, Object> attributes(int row) {
+        int ref = buffer.getInt(rowsOffset + row * ROW_BYTES + ATTRIBUTES);
+        if (ref < 0) {
+            return null;
+        }
+        int position = attributesOffset + ref;
+        int entries = buffer.getShort(position) & 0xFFFF;
+        position += 2;
+        Map<String, Object> attributes = new HashMap<>();
+        for (int i = 0; i < entries; i++) {
+            String key = string(buffer.getInt(position));
+            byte type = buffer.get(position + 4);
+            position += 5;
+            switch (type) {
+                case STRING:
+                    attributes.put(key, string(buffer.getInt(position)));
+                    position += 4;
+                    break;
+                case DOUBLE:
+                    attributes.put(key, buffer.getDouble(position));
+                    position += 8;
+                    break;
+                case INT:
+                    attributes.put(key, buffer.getInt(position));
+                    position += 4;
+                    break;
+                case LONG:
+                    attributes.put(key, buffer.getLong(position));
+                    position += 8;
+                    break;
+                case BOOLEAN:
+                    attributes.put(key, buffer.get(position) != 0);
+                    position += 1;
+                    break;
+                default:
+                    throw new IllegalStateException("Unknown attribute type " + type + " in catalog snapshot");
+            }
+        }
+        return attributes;
+    }
+
+    private String stringAt(int row, int column) {
+        return string(buffer.getInt(rowsOffset + row * ROW_BYTES + column));
+    }
+
+    /**
+     * For columns with few distinct values (provider, brand, category, currency): each is
+     * decoded once and the same String returned after that, so scans over them do not
+     * decode per row.
+     */
+    private String sharedString(int row, int column) {
+        int ref = buffer.getInt(rowsOffset + row * ROW_BYTES + column);
+        if (ref < 0) {
+            return null;
+        }
+        String value = sharedStrings.get(ref);
+        if (value == null) {
+            value = string(ref);
+            sharedStrings.putIfAbsent(ref, value);
+        }
+        return value;
+    }
+
+    private String string(int ref) {
+        if (ref < 0) {
+            return null;
+        }
+        int position = stringsOffset + ref;
+        byte[] bytes = new byte[buffer.getInt(position)];
+        buffer.get(position + 4, bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Writes the products as a snapshot. The file is written beside {@code file} and moved
+     * into place, so a process opening it never sees a partial snapshot. Attribute values
+     * must be strings, numbers or booleans, and product ids unique.
+     */
+    public static void write(Collection<ProductSummary> products, Path file) throws IOException {
+        StringPool strings = new StringPool();
+        ByteArrayOutputStream rowBytes = new ByteArrayOutputStream(products.size() * ROW_BYTES);
+        DataOutputStream rows = new DataOutputStream(rowBytes);
+        ByteArrayOutputStream attributeBytes = new ByteArrayOutputStream();
+        DataOutputStream attributes = new DataOutputStream(attributeBytes);
+
+        int indexSlots = Integer.highestOneBit(Math.max(products.size(), 1) * 2 - 1) << 1;
+        int[] index = new int[indexSlots];
+        Set<String> ids = new HashSet<>();
+        int row = 0;
+        for (ProductSummary product : products) {
+            if (product.getId() == null || !ids.add(product.getId())) {
+                throw new IllegalArgumentException("Missing or duplicate product id: " + product.getId());
+            }
+            int mask = indexSlots - 1;
+            int slot = hash(product.getId()) & mask;
+            while (index[slot] != 0) {
+                slot = (slot + 1) & mask;
+            }
+            index[slot] = row + 1;
+            writeRow(rows, product, strings, attributes, attributeBytes);
+            row++;
+        }
+
+        int rowsOffset = HEADER_BYTES;
+        long indexOffset = rowsOffset + (long) rowBytes.size();
+        long attributesOffset = indexOffset + indexSlots * 4L;
+        long stringsOffset = attributesOffset + attributeBytes.size();
+        if (stringsOffset + strings.size() > Integer.MAX_VALUE) {
+            throw new IOException("Catalog snapshot would be over 2 GB");
+        }
+
+        Path temp = Files.createTempFile(file.toAbsolutePath().getParent(), file.getFileName().toString(), ".tmp");
+        try {
+            try (OutputStream stream = Files.newOutputStream(temp);
+                 DataOutputStream out = new DataOutputStream(new BufferedOutputStream(stream, 1 << 16))) {
+                out.writeInt(MAGIC);
+                out.writeInt(VERSION);
+                out.writeInt(products.size());
+                out.writeInt(ROW_BYTES);
+                out.writeInt(indexSlots);
+                out.writeInt(0);
+                out.writeLong(rowsOffset);
+                out.writeLong(indexOffset);
+                out.writeLong(attributesOffset);
+                out.writeLong(stringsOffset);
+                out.writeLong(0);
+                rowBytes.writeTo(out);
+                for (int entry : index) {
+                    out.writeInt(entry);
+                }
+                attributeBytes.writeTo(out);
+                strings.writeTo(out);
+            }
+            Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+
+    private static void writeRow(DataOutputStream rows, ProductSummary product, StringPool strings,
+                                 DataOutputStream attributes, ByteArrayOutputStream attributeBytes) throws IOException {
+        int flags = 0;
+        long minor = 0;
+        int currency = -1;
+        Money price = product.getPrice();
+        if (price != null) {
+            flags |= HAS_PRICE;
+            minor = price.getMinorUnits();
+            currency = strings.ref(price.getCurrency());
+        }
+        Availability availability = product.getAvailability();
+        if (availability != null && availability.getQuantity() != null) {
+            flags |= HAS_STOCK;
+        }
+        if (product.getRating() != null) {
+            flags |= HAS_RATING;
+        }
+        if (product.getReviewCount() != null) {
+            flags |= HAS_REVIEW_COUNT;
+        }
+
+        rows.writeInt(strings.ref(product.getId()));
+        rows.writeInt(strings.ref(product.getProvider()));
+        rows.writeInt(strings.ref(product.getName()));
+        rows.writeInt(strings.ref(product.getDescription()));
+        rows.writeInt(strings.ref(product.getBrand()));
+        rows.writeInt(strings.ref(product.getCategory()));
+        rows.writeInt(strings.ref(product.getImageUrl()));
+        rows.writeInt(product.getAttributes() != null ? attributeBytes.size() : -1);
+        rows.writeLong(minor);
+        rows.writeInt(currency);
+        rows.writeInt(product.getReviewCount() != null ? product.getReviewCount() : 0);
+        rows.writeInt((flags & HAS_STOCK) != 0 ? availability.getQuantity() : 0);
+        rows.writeByte(0);
+        // -1 for no availability, -2 for one without a status
+        rows.writeByte(availability == null ? -1 : availability.getStatus() == null ? -2 : availability.getStatus().ordinal());
+        rows.writeByte(availability != null && availability.isInStock() ? 1 : 0);
+        rows.writeByte(flags);
+        rows.writeDouble(product.getRating() != null ? product.getRating() : 0);
+
+        if (product.getAttributes() != null) {
+            writeAttributes(attributes, product, strings);
+        }
+    }
+
+    private static void writeAttributes(DataOutputStream out, ProductSummary product, StringPool strings)
+            throws IOException {
+        Map<String, Object> attributes = product.getAttributes();
+        if (attributes.size() > 0xFFFF) {
+            throw new IllegalArgumentException("Too many attributes on " + product.getId());
+        }
+        out.writeShort(attributes.size());
+        for (Map.Entry<String, Object> entry : attributes.entrySet()) {
+            out.writeInt(strings.ref(entry.getKey()));
+            Object value = entry.getValue();
+            if (value instanceof String || value == null) {
+                out.writeByte(STRING);
+                out.writeInt(strings.ref((String) value));
+            } else if (value instanceof Double || value instanceof Float) {
+                out.writeByte(DOUBLE);
+                out.writeDouble(((Number) value).doubleValue());
+            } else if (value instanceof Integer || value instanceof Short || value instanceof Byte) {
+                out.writeByte(INT);
+                out.writeInt(((Number) value).intValue());
+            } else if (value instanceof Long) {
+                out.writeByte(LONG);
+                out.writeLong((Long) value);
+            } else if (value instanceof Boolean) {
+                out.writeByte(BOOLEAN);
+                out.writeByte((Boolean) value ? 1 : 0);
+            } else {
+                throw new IllegalArgumentException("Unsupported attribute " + entry.getKey() + " on "
+                    + product.getId() + ": " + value.getClass().getSimpleName());
+            }
+        }
+    }
+
+    /** Strings written once each, referenced by their offset in the section. */
+    private static final class StringPool {
+        private final Map<String, Integer> refs = new HashMap<>();
+        private final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        private final DataOutputStream out = new DataOutputStream(bytes);
+
+        int ref(String value) throws IOException {
+            if (value == null) {
+                return -1;
+            }
+            Integer ref = refs.get(value);
+            if (ref == null) {
+                ref = bytes.size();
+                byte[] utf8 = value.getBytes(StandardCharsets.UTF_8);
+                out.writeInt(utf8.length);
+                out.write(utf8);
+                refs.put(value, ref);
+            }
+            return ref;
+        }
+
+        int size() {
+            return bytes.size();
+        }
+
+        void writeTo(OutputStream target) throws IOException {
+            bytes.writeTo(target);
+        }
+    }
+}
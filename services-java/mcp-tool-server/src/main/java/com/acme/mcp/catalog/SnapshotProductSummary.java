@@ -0,0 +1,218 @@
+package com.acme.mcp.catalog;
+
+import com.acme.shared.Availability;
+import com.acme.shared.Money;
+import com.acme.shared.ProductSummary;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.util.Map;
+
+/**
+ * Flyweight {@link ProductSummary} over one {@link CatalogSnapshot} row: a field is
+ * decoded from the mapped file the first time it is read and kept from then on, so a
+ * scan that only looks at categories and prices never builds names or attribute maps.
+ * Setters override the snapshot value for this view only. Views can be shared between
+ * threads (carts keep them): a field is stored before its bit is set in {@code loaded}.
+ */
+class SnapshotProductSummary extends ProductSummary {
+    private static final int ID = 1 << 0;
+    private static final int PROVIDER = 1 << 1;
+    private static final int NAME = 1 << 2;
+    private static final int DESCRIPTION = 1 << 3;
+    private static final int BRAND = 1 << 4;
+    private static final int CATEGORY = 1 << 5;
+    private static final int PRICE = 1 << 6;
+    private static final int IMAGE_URL = 1 << 7;
+    private static final int AVAILABILITY = 1 << 8;
+    private static final int RATING = 1 << 9;
+    private static final int REVIEW_COUNT = 1 << 10;
+    private static final int ATTRIBUTES = 1 << 11;
+
+    private static final VarHandle LOADED;
+
+    static {
+        try {
+            LOADED = MethodHandles.lookup().findVarHandle(SnapshotProductSummary.class, "loaded", int.class);
+        } catch (ReflectiveOperationException e) {
+            throw new ExceptionInInitializerError(e);
+        }
+    }
+
+    private final CatalogSnapshot snapshot;
+    private final int row;
+    private volatile int loaded;
+
+    SnapshotProductSummary(CatalogSnapshot snapshot, int row) {
+        this.snapshot = snapshot;
+        this.row = row;
+    }
+
+    @Override
+    public String getId() {
+        if ((loaded & ID) == 0) {
+            setId(snapshot.id(row));
+        }
+        return super.getId();
+    }
+
+    @Override
+    public void setId(String id) {
+        super.setId(id);
+        LOADED.getAndBitwiseOr(this, ID);
+    }
+
+    @Override
+    public String getProvider() {
+        if ((loaded & PROVIDER) == 0) {
+            setProvider(snapshot.provider(row));
+        }
+        return super.getProvider();
+    }
+
+    @Override
+    public void setProvider(String provider) {
+        super.setProvider(provider);
+        LOADED.getAndBitwiseOr(this, PROVIDER);
+    }
+
+    @Override
+    public String getName() {
+        if ((loaded & NAME) == 0) {
+            setName(snapshot.name(row));
+        }
+        return super.getName();
+    }
+
+    @Override
+    public void setName(String name) {
+        super.setName(name);
+        LOADED.getAndBitwiseOr(this, NAME);
+    }
+
+    @Override
+    public String getDescription() {
+        if ((loaded & DESCRIPTION) == 0) {
+            setDescription(snapshot.description(row));
+        }
+        return super.getDescription();
+    }
+
+    @Override
+    public void setDescription(String description) {
+        super.setDescription(description);
+        LOADED.getAndBitwiseOr(this, DESCRIPTION);
+    }
+
+    @Override
+    public String getBrand() {
+        if ((loaded & BRAND) == 0) {
+            setBrand(snapshot.brand(row));
+        }
+        return super.getBrand();
+    }
+
+    @Override
+    public void setBrand(String brand) {
+        super.setBrand(brand);
+        LOADED.getAndBitwiseOr(this, BRAND);
+    }
+
+    @Override
+    public String getCategory() {
+        if ((loaded & CATEGORY) == 0) {
+            setCategory(snapshot.category(row));
+        }
+        return super.getCategory();
+    }
+
+    @Override
+    public void setCategory(String category) {
+        super.setCategory(category);
+        LOADED.getAndBitwiseOr(this, CATEGORY);
+    }
+
+    @Override
+    public Money getPrice() {
+        if ((loaded & PRICE) == 0) {
+            setPrice(snapshot.price(row));
+        }
+        return super.getPrice();
+    }
+
+    @Override
+    public void setPrice(Money price) {
+        super.setPrice(price);
+        LOADED.getAndBitwiseOr(this, PRICE);
+    }
+
+    @Override
+    public String getImageUrl() {
+        if ((loaded & IMAGE_URL) == 0) {
+            setImageUrl(snapshot.imageUrl(row));
+        }
+        return super.getImageUrl();
+    }
+
+    @Override
+    public void setImageUrl(String imageUrl) {
+        super.setImageUrl(imageUrl);
+        LOADED.getAndBitwiseOr(this, IMAGE_URL);
+    }
+
+    @Override
+    public Availability getAvailability() {
+        if ((loaded & AVAILABILITY) == 0) {
+            setAvailability(snapshot.availability(row));
+        }
+        return super.getAvailability();
+    }
+
+    @Override
+    public void setAvailability(Availability availability) {
+        super.setAvailability(availability);
+        LOADED.getAndBitwiseOr(this, AVAILABILITY);
+    }
+
+    @Override
+    public Double getRating() {
+        if ((loaded & RATING) == 0) {
+            setRating(snapshot.rating(row));
+        }
+        return super.getRating();
+    }
+
+    @Override
+    public void setRating(Double rating) {
+        super.setRating(rating);
+        LOADED.getAndBitwiseOr(this, RATING);
+    }
+
+    @Override
+    public Integer getReviewCount() {
+        if ((loaded & REVIEW_COUNT) == 0) {
+            setReviewCount(snapshot.reviewCount(row));
+        }
+        return super.getReviewCount();
+    }
+
+    @Override
+    public void setReviewCount(Integer reviewCount) {
+        super.setReviewCount(reviewCount);
+        LOADED.getAndBitwiseOr(this, REVIEW_COUNT);
+    }
+
+    @Override
+    public Map<String, Object> getAttributes() {
+        if ((loaded & ATTRIBUTES) == 0) {
+            setAttributes(snapshot.attributes(row));
+        }
+        return super.getAttributes();
+    }
+
+    @Override
+    public void setAttributes(Map<String, Object> attributes) {
+        super.setAttributes(attributes);
+        LOADED.getAndBitwiseOr(this, ATTRIBUTES);
+    }
+}
@@ -0,0 +1,48 @@
+package com.acme.mcp.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import javax.sql.DataSource;
+
+/**
+ * Two Hikari pools on the {@code spring.datasource} database. The primary pool
+ * ({@code spring.datasource.hikari.*}) serves the request path: checkout, carts, rate
+ * limits, provider config. The bulk pool ({@code mcp.datasource.bulk.hikari.*}) takes the
+ * background and batch writes (tool call audit, chain runs, expiry sweeps), so a burst
+ * of those never holds the connections a checkout is waiting for. Both pools report
+ * {@code hikaricp.*} metrics, tagged with their pool name.
+ */
+@Configuration
+public class DataSourceConfig {
+
+    @Bean
+    @Primary
+    @ConfigurationProperties("spring.datasource.hikari")
+    public HikariDataSource dataSource(DataSourceProperties properties) {
+        return properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+    }
+
+    @Bean
+    @ConfigurationProperties("mcp.datasource.bulk.hikari")
+    public HikariDataSource bulkDataSource(DataSourceProperties properties) {
+        return properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+    }
+
+    @Bean
+    @Primary
+    public JdbcTemplate jdbcTemplate(DataSource dataSource) {
+        return new JdbcTemplate(dataSource);
+    }
+
+    @Bean
+    public JdbcTemplate bulkJdbcTemplate(@Qualifier("bulkDataSource") DataSource bulkDataSource) {
+        return new JdbcTemplate(bulkDataSource);
+    }
+}
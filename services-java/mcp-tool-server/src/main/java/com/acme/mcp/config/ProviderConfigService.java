@@ -12,14 +12,21 @@ import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.util.*;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
 
 @Service
 public class ProviderConfigService {
     private static final Logger logger = LoggerFactory.getLogger(ProviderConfigService.class);
     private static final ObjectMapper mapper = new ObjectMapper();
+    private static final String PROVIDERS_SQL =
+        "SELECT id, name, type, base_url, enabled, config, field_mappings, category_mappings, capabilities, tool_configs " +
+        "FROM providers ORDER BY priority, name";
     
     private final JdbcTemplate jdbcTemplate;
     private final Map<String, ProviderConfig> configCache = new ConcurrentHashMap<>();
+    private final AtomicLong configGeneration = new AtomicLong();
+    // Raw column values of the last load, to tell a changed configuration from a TTL reload
+    private volatile List<List<String>> loadedRows = List.of();
     private long lastLoadTime = 0;
     private static final long CACHE_TTL = 60000; // 1 minute
 
@@ -34,16 +41,21 @@ public class ProviderConfigService {
         }
 
         try {
-            String sql = "SELECT id, name, type, base_url, enabled, config, field_mappings, category_mappings, capabilities, tool_configs " +
-                        "FROM providers ORDER BY priority, name";
-            
-            List<ProviderConfig> configs = jdbcTemplate.query(sql, this::mapRowToProviderConfig);
+            List<List<String>> rows = new ArrayList<>();
+            List<ProviderConfig> configs = jdbcTemplate.query(PROVIDERS_SQL, (rs, rowNum) -> {
+                rows.add(rawValues(rs));
+                return mapRowToProviderConfig(rs, rowNum);
+            });
             
             configCache.clear();
             for (ProviderConfig config : configs) {
                 configCache.put(config.getId(), config);
             }
             lastLoadTime = now;
+            if (!rows.equals(loadedRows)) {
+                loadedRows = rows;
+                configGeneration.incrementAndGet();
+            }
             
             logger.info("Loaded {} provider configurations from database", configs.size());
             return configs;
@@ -60,6 +72,17 @@ public class ProviderConfigService {
         return configCache.get(providerId);
     }
 
+    /**
+     * Monotonic counter bumped every time a reload finds the provider configuration changed.
+     * Callers that derive data from provider configs can cache it per generation.
+     */
+    public long getConfigGeneration() {
+        if (configCache.isEmpty() || (System.currentTimeMillis() - lastLoadTime) >= CACHE_TTL) {
+            getAllProviderConfigs();
+        }
+        return configGeneration.get();
+    }
+
     public List<ProviderConfig> getEnabledProviders() {
         return getAllProviderConfigs().stream()
                 .filter(ProviderConfig::isEnabled)
@@ -72,6 +95,15 @@ public class ProviderConfigService {
                 .toList();
     }
 
+    private static List<String> rawValues(ResultSet rs) throws SQLException {
+        int columns = rs.getMetaData().getColumnCount();
+        List<String> values = new ArrayList<>(columns);
+        for (int i = 1; i <= columns; i++) {
+            values.add(rs.getString(i));
+        }
+        return values;
+    }
+
     private ProviderConfig mapRowToProviderConfig(ResultSet rs, int rowNum) throws SQLException {
         ProviderConfig config = new ProviderConfig();
         config.setId(rs.getString("id"));
@@ -187,5 +219,7 @@ public class ProviderConfigService {
     public void clearCache() {
         configCache.clear();
         lastLoadTime = 0;
+        loadedRows = List.of();
+        configGeneration.incrementAndGet();
     }
 }
@@ -37,7 +37,9 @@ public class SecurityConfig {
             .sessionManagement(session -> session.sessionCreationPolicy(SessionCreationPolicy.STATELESS))
             .authorizeHttpRequests(auth -> auth
                 // Public endpoints
-                .requestMatchers("/actuator/health", "/.well-known/**").permitAll()
+                .requestMatchers("/actuator/health", "/actuator/prometheus", "/.well-known/**").permitAll()
+                // Management endpoints (loggers, toollogs) change server-wide state: admins only
+                .requestMatchers("/actuator/**").hasRole("ADMIN")
                 // Tool execution endpoints require authentication
                 .requestMatchers("/api/v1/tools/**").authenticated()
                 // All other requests require authentication
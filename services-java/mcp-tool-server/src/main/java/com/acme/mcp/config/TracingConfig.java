@@ -0,0 +1,119 @@
+package com.acme.mcp.config;
+
+import com.acme.mcp.tracing.JsonLinesSpanExporter;
+import com.acme.mcp.tracing.TailSamplingSpanProcessor;
+import com.acme.mcp.tracing.ToolTracing;
+import com.acme.mcp.tracing.TracingDataSource;
+import io.opentelemetry.api.OpenTelemetry;
+import io.opentelemetry.api.common.AttributeKey;
+import io.opentelemetry.api.common.Attributes;
+import io.opentelemetry.exporter.otlp.http.trace.OtlpHttpSpanExporter;
+import io.opentelemetry.sdk.OpenTelemetrySdk;
+import io.opentelemetry.sdk.resources.Resource;
+import io.opentelemetry.sdk.trace.SdkTracerProvider;
+import io.opentelemetry.sdk.trace.export.BatchSpanProcessor;
+import io.opentelemetry.sdk.trace.export.SpanExporter;
+import io.opentelemetry.sdk.trace.samplers.Sampler;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import javax.sql.DataSource;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Paths;
+
+/**
+ * OpenTelemetry SDK for tool call tracing ({@code mcp.tracing.*}). Off by default; when
+ * on, every span is recorded and {@link TailSamplingSpanProcessor} picks which traces are
+ * exported, either over OTLP/HTTP to a collector or to a JSON-lines file.
+ */
+@Configuration
+public class TracingConfig {
+    private static final Logger logger = LoggerFactory.getLogger(TracingConfig.class);
+
+    @Value("${mcp.tracing.enabled:false}")
+    private boolean enabled;
+
+    @Value("${mcp.tracing.exporter:file}")
+    private String exporter;
+
+    @Value("${mcp.tracing.otlp.endpoint:http://localhost:4318/v1/traces}")
+    private String otlpEndpoint;
+
+    @Value("${mcp.tracing.file.path:traces/mcp-tool-server.jsonl}")
+    private String filePath;
+
+    @Value("${mcp.tracing.sampling.probability:0.05}")
+    private double probability;
+
+    @Value("${mcp.tracing.sampling.slow-threshold-ms:500}")
+    private long slowThresholdMs;
+
+    @Value("${mcp.tracing.sampling.max-pending-traces:10000}")
+    private int maxPendingTraces;
+
+    @Value("${mcp.tracing.sampling.max-spans-per-trace:256}")
+    private int maxSpansPerTrace;
+
+    @Value("${mcp.tracing.sampling.trace-timeout-ms:30000}")
+    private long traceTimeoutMs;
+
+    @Value("${spring.application.name:mcp-tool-server}")
+    private String serviceName;
+
+    @Bean
+    public OpenTelemetry openTelemetry() {
+        if (!enabled) {
+            return OpenTelemetry.noop();
+        }
+
+        BatchSpanProcessor batch = BatchSpanProcessor.builder(spanExporter()).build();
+        SdkTracerProvider tracerProvider = SdkTracerProvider.builder()
+            .setResource(Resource.getDefault().merge(
+                Resource.create(Attributes.of(AttributeKey.stringKey("service.name"), serviceName))))
+            .setSampler(Sampler.alwaysOn())
+            .setIdGenerator(ToolTracing.inboundTraceIdGenerator())
+            .addSpanProcessor(new TailSamplingSpanProcessor(batch, probability, slowThresholdMs,
+                maxPendingTraces, maxSpansPerTrace, traceTimeoutMs))
+            .build();
+
+        logger.info("Tracing enabled: exporter={}, sampling probability={}, slow threshold={}ms",
+            exporter, probability, slowThresholdMs);
+        return OpenTelemetrySdk.builder().setTracerProvider(tracerProvider).build();
+    }
+
+    private SpanExporter spanExporter() {
+        if ("otlp".equalsIgnoreCase(exporter)) {
+            return OtlpHttpSpanExporter.builder().setEndpoint(otlpEndpoint).build();
+        }
+        try {
+            return new JsonLinesSpanExporter(Paths.get(filePath));
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot open trace file " + filePath, e);
+        }
+    }
+
+    /**
+     * Adds JDBC statement spans by wrapping the pool. The pool is left unwrapped when
+     * tracing is off, so the default path has no proxy in front of the connections.
+     */
+    @Bean
+    public static BeanPostProcessor tracingDataSourcePostProcessor(
+            @Value("${mcp.tracing.enabled:false}") boolean enabled,
+            ObjectProvider<OpenTelemetry> openTelemetry) {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (enabled && bean instanceof DataSource dataSource && !(bean instanceof TracingDataSource)) {
+                    return new TracingDataSource(dataSource, openTelemetry.getObject());
+                }
+                return bean;
+            }
+        };
+    }
+}
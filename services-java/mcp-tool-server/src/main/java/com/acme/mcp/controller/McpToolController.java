@@ -1,13 +1,20 @@
 package com.acme.mcp.controller;
 
+import com.acme.mcp.metrics.ToolMetrics;
 import com.acme.mcp.registry.ToolMetadata;
 import com.acme.mcp.registry.ToolRegistry;
+import com.acme.mcp.serialization.ToolResponseWriter;
+import com.acme.mcp.tracing.ToolTracing;
 import com.acme.shared.ToolResponse;
+import io.opentelemetry.api.trace.Span;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.io.IOException;
 import java.util.Map;
 
 @RestController
@@ -15,9 +22,16 @@ import java.util.Map;
 public class McpToolController {
     private static final Logger logger = LoggerFactory.getLogger(McpToolController.class);
     private final ToolRegistry toolRegistry;
+    private final ToolResponseWriter toolResponseWriter;
+    private final ToolMetrics toolMetrics;
+    private final ToolTracing toolTracing;
 
-    public McpToolController(ToolRegistry toolRegistry) {
+    public McpToolController(ToolRegistry toolRegistry, ToolResponseWriter toolResponseWriter,
+                             ToolMetrics toolMetrics, ToolTracing toolTracing) {
         this.toolRegistry = toolRegistry;
+        this.toolResponseWriter = toolResponseWriter;
+        this.toolMetrics = toolMetrics;
+        this.toolTracing = toolTracing;
     }
 
     @GetMapping
@@ -27,14 +41,35 @@ public class McpToolController {
     }
 
     @PostMapping("/execute/{toolName}")
-    public ResponseEntity<ToolResponse<?>> executeTool(
+    public void executeTool(
             @PathVariable String toolName,
             @RequestBody Map<String, Object> request,
-            @RequestHeader(value = "X-Trace-Id", required = false) String traceId) {
+            @RequestHeader(value = "X-Trace-Id", required = false) String traceId,
+            HttpServletRequest httpRequest,
+            HttpServletResponse httpResponse) throws IOException {
         
-        logger.info("Executing tool: {} with traceId: {}", toolName, traceId);
-        ToolResponse<?> response = toolRegistry.executeTool(toolName, request);
-        return ResponseEntity.ok(response);
+        try (ToolTracing.RequestScope scope = toolTracing.startRequest(toolName, traceId, "http")) {
+            logger.debug("Executing tool: {} with traceId: {}", toolName, scope.traceId());
+            long start = System.nanoTime();
+            ToolResponse<?> response = toolRegistry.executeTool(toolName, request);
+            scope.recordResponse(response);
+            httpResponse.setHeader("X-Trace-Id", scope.traceId());
+
+            // Streamed by the dedicated writer instead of the generic message converter
+            long serializationStart = System.nanoTime();
+            Span serialization = toolTracing.startSpan("tool.serialize");
+            try {
+                toolResponseWriter.write(response, httpRequest, httpResponse);
+            } catch (IOException | RuntimeException e) {
+                ToolTracing.markFailed(serialization, e);
+                throw e;
+            } finally {
+                serialization.end();
+            }
+            long end = System.nanoTime();
+            toolMetrics.recordStage(toolName, ToolMetrics.Stage.SERIALIZATION, end - serializationStart);
+            toolMetrics.recordRequest(toolName, response, end - start);
+        }
     }
 
     @GetMapping("/health")
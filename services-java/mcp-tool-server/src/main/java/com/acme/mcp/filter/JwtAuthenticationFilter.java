@@ -1,10 +1,7 @@
 package com.acme.mcp.filter;
 
-import com.auth0.jwt.JWT;
-import com.auth0.jwt.JWTVerifier;
-import com.auth0.jwt.algorithms.Algorithm;
+import com.acme.mcp.security.JwtTokenVerifier;
 import com.auth0.jwt.exceptions.JWTVerificationException;
-import com.auth0.jwt.interfaces.DecodedJWT;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
@@ -12,15 +9,12 @@ import jakarta.servlet.http.HttpServletResponse;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
-import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
-import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.stereotype.Component;
 import org.springframework.web.filter.OncePerRequestFilter;
 
 import java.io.IOException;
-import java.util.Collections;
-import java.util.List;
 
 @Component
 public class JwtAuthenticationFilter extends OncePerRequestFilter {
@@ -28,12 +22,15 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
     private static final String BEARER_PREFIX = "Bearer ";
     private static final String AUTHORIZATION_HEADER = "Authorization";
 
-    @Value("${jwt.secret:default-secret-change-in-production}")
-    private String jwtSecret;
+    private final JwtTokenVerifier tokenVerifier;
 
     @Value("${security.enabled:true}")
     private boolean securityEnabled;
 
+    public JwtAuthenticationFilter(JwtTokenVerifier tokenVerifier) {
+        this.tokenVerifier = tokenVerifier;
+    }
+
     @Override
     protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
             throws ServletException, IOException {
@@ -53,29 +50,11 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
         String token = authHeader.substring(BEARER_PREFIX.length());
 
         try {
-            Algorithm algorithm = Algorithm.HMAC256(jwtSecret);
-            JWTVerifier verifier = JWT.require(algorithm).build();
-            DecodedJWT decodedJWT = verifier.verify(token);
-
-            String userId = decodedJWT.getSubject();
-            String username = decodedJWT.getClaim("username").asString();
-            String role = decodedJWT.getClaim("role").asString();
-
-            if (userId != null) {
-                List<SimpleGrantedAuthority> authorities = Collections.singletonList(
-                    new SimpleGrantedAuthority("ROLE_" + (role != null ? role.toUpperCase() : "USER"))
-                );
-
-                UsernamePasswordAuthenticationToken authentication = new UsernamePasswordAuthenticationToken(
-                    userId,
-                    null,
-                    authorities
-                );
-
-                authentication.setDetails(Collections.singletonMap("username", username));
+            Authentication authentication = tokenVerifier.verify(token);
+            if (authentication != null) {
                 SecurityContextHolder.getContext().setAuthentication(authentication);
-
-                logger.debug("Authenticated user: {} with role: {}", username, role);
+                logger.debug("Authenticated user: {} with authorities: {}", authentication.getPrincipal(),
+                    authentication.getAuthorities());
             }
         } catch (JWTVerificationException e) {
             logger.error("JWT verification failed: {}", e.getMessage());
@@ -91,6 +70,7 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
     @Override
     protected boolean shouldNotFilter(HttpServletRequest request) {
         String path = request.getRequestURI();
-        return path.startsWith("/actuator/health") || path.startsWith("/.well-known/");
+        return path.startsWith("/actuator/health") || path.startsWith("/actuator/prometheus")
+            || path.startsWith("/.well-known/");
     }
 }
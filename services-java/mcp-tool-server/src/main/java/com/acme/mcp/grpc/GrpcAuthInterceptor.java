@@ -0,0 +1,58 @@
+package com.acme.mcp.grpc;
+
+import com.acme.mcp.security.JwtTokenVerifier;
+import com.auth0.jwt.exceptions.JWTVerificationException;
+import io.grpc.*;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.core.Authentication;
+import org.springframework.stereotype.Component;
+
+/**
+ * Applies the same bearer-token check as JwtAuthenticationFilter to gRPC calls.
+ * The authenticated user ID is exposed through {@link #USER_ID}.
+ */
+@Component
+public class GrpcAuthInterceptor implements ServerInterceptor {
+    private static final Logger logger = LoggerFactory.getLogger(GrpcAuthInterceptor.class);
+    private static final String BEARER_PREFIX = "Bearer ";
+    private static final Metadata.Key<String> AUTHORIZATION =
+            Metadata.Key.of("authorization", Metadata.ASCII_STRING_MARSHALLER);
+
+    public static final Context.Key<String> USER_ID = Context.key("userId");
+
+    private final boolean securityEnabled;
+    private final JwtTokenVerifier tokenVerifier;
+
+    public GrpcAuthInterceptor(JwtTokenVerifier tokenVerifier,
+                               @Value("${security.enabled:true}") boolean securityEnabled) {
+        this.securityEnabled = securityEnabled;
+        this.tokenVerifier = tokenVerifier;
+    }
+
+    @Override
+    public <ReqT, RespT> ServerCall.Listener<ReqT> interceptCall(ServerCall<ReqT, RespT> call, Metadata headers,
+                                                                 ServerCallHandler<ReqT, RespT> next) {
+        if (!securityEnabled) {
+            return next.startCall(call, headers);
+        }
+
+        String authHeader = headers.get(AUTHORIZATION);
+        if (authHeader == null || !authHeader.startsWith(BEARER_PREFIX)) {
+            call.close(Status.UNAUTHENTICATED.withDescription("Missing bearer token"), new Metadata());
+            return new ServerCall.Listener<>() {};
+        }
+
+        try {
+            Authentication authentication = tokenVerifier.verify(authHeader.substring(BEARER_PREFIX.length()));
+            String userId = authentication != null ? (String) authentication.getPrincipal() : null;
+            Context context = Context.current().withValue(USER_ID, userId);
+            return Contexts.interceptCall(context, call, headers, next);
+        } catch (JWTVerificationException e) {
+            logger.error("gRPC JWT verification failed: {}", e.getMessage());
+            call.close(Status.UNAUTHENTICATED.withDescription("Invalid or expired token"), new Metadata());
+            return new ServerCall.Listener<>() {};
+        }
+    }
+}
@@ -0,0 +1,83 @@
+package com.acme.mcp.grpc;
+
+import com.acme.mcp.ratelimit.RateLimiter;
+import io.grpc.ForwardingServerCallListener;
+import io.grpc.Grpc;
+import io.grpc.Metadata;
+import io.grpc.ServerCall;
+import io.grpc.ServerCallHandler;
+import io.grpc.ServerInterceptor;
+import io.grpc.Status;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+import java.net.InetSocketAddress;
+import java.net.SocketAddress;
+
+/**
+ * Applies {@link RateLimiter} to gRPC calls. Every request message is charged, so each
+ * element of an ExecuteBatch stream costs the same as a separate call; once a limit is hit
+ * the call is closed with RESOURCE_EXHAUSTED. Must run inside {@link GrpcAuthInterceptor}
+ * so the user ID is known.
+ */
+@Component
+public class GrpcRateLimitInterceptor implements ServerInterceptor {
+    private static final Logger logger = LoggerFactory.getLogger(GrpcRateLimitInterceptor.class);
+    private static final Metadata.Key<String> RETRY_AFTER =
+            Metadata.Key.of("retry-after", Metadata.ASCII_STRING_MARSHALLER);
+
+    private final RateLimiter rateLimiter;
+
+    public GrpcRateLimitInterceptor(RateLimiter rateLimiter) {
+        this.rateLimiter = rateLimiter;
+    }
+
+    @Override
+    public <ReqT, RespT> ServerCall.Listener<ReqT> interceptCall(ServerCall<ReqT, RespT> call, Metadata headers,
+                                                                 ServerCallHandler<ReqT, RespT> next) {
+        if (!rateLimiter.isEnabled()) {
+            return next.startCall(call, headers);
+        }
+        String clientIp = clientIp(call.getAttributes().get(Grpc.TRANSPORT_ATTR_REMOTE_ADDR));
+
+        return new ForwardingServerCallListener.SimpleForwardingServerCallListener<>(next.startCall(call, headers)) {
+            private boolean rejected;
+
+            @Override
+            public void onMessage(ReqT message) {
+                if (rejected) {
+                    return;
+                }
+                String toolName = message instanceof ExecuteToolRequest request ? request.getToolName() : null;
+                String userId = GrpcAuthInterceptor.USER_ID.get();
+                RateLimiter.Rejection rejection = rateLimiter.tryConsume(userId, clientIp, toolName);
+                if (rejection == null) {
+                    super.onMessage(message);
+                    return;
+                }
+                rejected = true;
+                logger.warn("gRPC rate limit exceeded for {}: {}", rejection.getScope(),
+                        "user".equals(rejection.getScope()) ? userId : clientIp);
+                Metadata trailers = new Metadata();
+                trailers.put(RETRY_AFTER, String.valueOf(rejection.getRetryAfterSeconds()));
+                call.close(Status.RESOURCE_EXHAUSTED.withDescription(rejection.getMessage()), trailers);
+            }
+
+            @Override
+            public void onHalfClose() {
+                // The call is already closed; the handler must not answer it
+                if (!rejected) {
+                    super.onHalfClose();
+                }
+            }
+        };
+    }
+
+    private static String clientIp(SocketAddress address) {
+        if (address instanceof InetSocketAddress inet) {
+            return inet.getAddress() != null ? inet.getAddress().getHostAddress() : inet.getHostString();
+        }
+        return address != null ? address.toString() : null;
+    }
+}
@@ -0,0 +1,94 @@
+package com.acme.mcp.grpc;
+
+import io.grpc.Server;
+import io.grpc.ServerInterceptors;
+import io.grpc.netty.shaded.io.grpc.netty.NettyServerBuilder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Runs the gRPC ToolService on its own HTTP/2 port next to the REST server.
+ * Connections are long-lived and multiplexed, so a client keeps one channel open.
+ */
+@Component
+@ConditionalOnProperty(name = "mcp.grpc.enabled", havingValue = "true", matchIfMissing = true)
+public class GrpcServerLifecycle implements SmartLifecycle {
+    private static final Logger logger = LoggerFactory.getLogger(GrpcServerLifecycle.class);
+
+    private final ToolGrpcService toolGrpcService;
+    private final GrpcAuthInterceptor authInterceptor;
+    private final GrpcRateLimitInterceptor rateLimitInterceptor;
+
+    @Value("${mcp.grpc.port:9091}")
+    private int port;
+
+    @Value("${mcp.grpc.max-concurrent-calls-per-connection:256}")
+    private int maxConcurrentCallsPerConnection;
+
+    @Value("${mcp.grpc.flow-control-window:1048576}")
+    private int flowControlWindow;
+
+    @Value("${mcp.grpc.max-inbound-message-size:4194304}")
+    private int maxInboundMessageSize;
+
+    private volatile Server server;
+
+    public GrpcServerLifecycle(ToolGrpcService toolGrpcService, GrpcAuthInterceptor authInterceptor,
+                               GrpcRateLimitInterceptor rateLimitInterceptor) {
+        this.toolGrpcService = toolGrpcService;
+        this.authInterceptor = authInterceptor;
+        this.rateLimitInterceptor = rateLimitInterceptor;
+    }
+
+    @Override
+    public void start() {
+        try {
+            server = NettyServerBuilder.forPort(port)
+                    // The last interceptor runs first: authenticate, then rate limit by user
+                    .addService(ServerInterceptors.intercept(toolGrpcService, rateLimitInterceptor, authInterceptor))
+                    .maxConcurrentCallsPerConnection(maxConcurrentCallsPerConnection)
+                    .flowControlWindow(flowControlWindow)
+                    .maxInboundMessageSize(maxInboundMessageSize)
+                    .keepAliveTime(30, TimeUnit.SECONDS)
+                    .permitKeepAliveTime(10, TimeUnit.SECONDS)
+                    .permitKeepAliveWithoutCalls(true)
+                    .build()
+                    .start();
+            logger.info("gRPC ToolService listening on port {}", port);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to start gRPC server on port " + port, e);
+        }
+    }
+
+    @Override
+    public void stop() {
+        Server current = server;
+        if (current == null) {
+            return;
+        }
+        current.shutdown();
+        try {
+            if (!current.awaitTermination(10, TimeUnit.SECONDS)) {
+                current.shutdownNow();
+            }
+        } catch (InterruptedException e) {
+            current.shutdownNow();
+            Thread.currentThread().interrupt();
+        }
+        server = null;
+        logger.info("gRPC ToolService stopped");
+    }
+
+    @Override
+    public boolean isRunning() {
+        return server != null;
+    }
+}
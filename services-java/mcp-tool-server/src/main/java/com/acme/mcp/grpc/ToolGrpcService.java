@@ -0,0 +1,278 @@
+package com.acme.mcp.grpc;
+
+import com.acme.mcp.metrics.ToolMetrics;
+import com.acme.mcp.registry.ToolRegistry;
+import com.acme.mcp.serialization.ToolResponseWriter;
+import com.acme.mcp.tracing.ToolTracing;
+import com.acme.shared.ToolError;
+import com.acme.shared.ToolResponse;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.google.protobuf.ByteString;
+import io.grpc.Status;
+import io.opentelemetry.api.trace.Span;
+import io.grpc.stub.ServerCallStreamObserver;
+import io.grpc.stub.StreamObserver;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.util.*;
+
+/**
+ * gRPC front end for {@link ToolRegistry}. Every RPC dispatches through the same
+ * registry as the REST controller and returns the same ToolResponse envelope.
+ */
+@Component
+public class ToolGrpcService extends ToolServiceGrpc.ToolServiceImplBase {
+    private static final Logger logger = LoggerFactory.getLogger(ToolGrpcService.class);
+    private static final TypeReference<Map<String, Object>> ARGUMENTS_TYPE = new TypeReference<>() {};
+    private static final String STREAMED_FIELD = "products";
+
+    private final ToolRegistry toolRegistry;
+    private final ToolResponseWriter toolResponseWriter;
+    private final ObjectMapper objectMapper;
+    private final ToolMetrics toolMetrics;
+    private final ToolTracing toolTracing;
+
+    public ToolGrpcService(ToolRegistry toolRegistry, ToolResponseWriter toolResponseWriter, ObjectMapper objectMapper,
+                           ToolMetrics toolMetrics, ToolTracing toolTracing) {
+        this.toolRegistry = toolRegistry;
+        this.toolResponseWriter = toolResponseWriter;
+        this.objectMapper = objectMapper;
+        this.toolMetrics = toolMetrics;
+        this.toolTracing = toolTracing;
+    }
+
+    @Override
+    public void execute(ExecuteToolRequest request, StreamObserver<ExecuteToolResponse> responseObserver) {
+        try {
+            responseObserver.onNext(executeOne(request));
+            responseObserver.onCompleted();
+        } catch (Exception e) {
+            logger.error("gRPC Execute failed for tool {}", request.getToolName(), e);
+            responseObserver.onError(Status.INTERNAL.withDescription(e.getMessage()).asRuntimeException());
+        }
+    }
+
+    @Override
+    public void executeStream(ExecuteToolRequest request, StreamObserver<ToolStreamChunk> responseObserver) {
+        ServerCallStreamObserver<ToolStreamChunk> call = (ServerCallStreamObserver<ToolStreamChunk>) responseObserver;
+        try {
+            Iterator<ToolStreamChunk> chunks;
+            try (ToolTracing.RequestScope scope = startRequest(request)) {
+                long start = System.nanoTime();
+                ToolResponse<?> response = execute(request);
+                scope.recordResponse(response);
+                long serializationStart = System.nanoTime();
+                Span serialization = toolTracing.startSpan("tool.serialize");
+                try {
+                    chunks = toChunks(response);
+                } catch (IOException | RuntimeException e) {
+                    ToolTracing.markFailed(serialization, e);
+                    throw e;
+                } finally {
+                    serialization.end();
+                }
+                // Up to the chunks being ready; sending them is paced by the client
+                long end = System.nanoTime();
+                toolMetrics.recordStage(request.getToolName(), ToolMetrics.Stage.SERIALIZATION, end - serializationStart);
+                toolMetrics.recordRequest(request.getToolName(), response, end - start);
+            }
+
+            // Only push while the transport has room; resume from the onReady callback
+            Runnable drain = new Runnable() {
+                private boolean completed;
+
+                @Override
+                public synchronized void run() {
+                    if (completed || call.isCancelled()) {
+                        return;
+                    }
+                    while (call.isReady() && chunks.hasNext()) {
+                        call.onNext(chunks.next());
+                    }
+                    if (!chunks.hasNext()) {
+                        completed = true;
+                        call.onCompleted();
+                    }
+                }
+            };
+            call.setOnReadyHandler(drain);
+            drain.run();
+        } catch (Exception e) {
+            logger.error("gRPC ExecuteStream failed for tool {}", request.getToolName(), e);
+            call.onError(Status.INTERNAL.withDescription(e.getMessage()).asRuntimeException());
+        }
+    }
+
+    /**
+     * Requests are read one at a time, and the next one only once the previous response
+     * could be sent, so a slow reader holds back the batch instead of responses queueing
+     * up in memory. A request that fails gets its own ok=false response; the call itself
+     * is only failed for transport-level faults.
+     */
+    @Override
+    public StreamObserver<ExecuteToolRequest> executeBatch(StreamObserver<ExecuteToolResponse> responseObserver) {
+        ServerCallStreamObserver<ExecuteToolResponse> call = (ServerCallStreamObserver<ExecuteToolResponse>) responseObserver;
+        BatchObserver batch = new BatchObserver(call);
+        call.disableAutoRequest();
+        call.setOnReadyHandler(batch::onReady);
+        call.request(1);
+        return batch;
+    }
+
+    /** Inbound side of one ExecuteBatch call; gRPC runs its callbacks one at a time. */
+    private final class BatchObserver implements StreamObserver<ExecuteToolRequest> {
+        private final ServerCallStreamObserver<ExecuteToolResponse> call;
+        private volatile boolean closed;
+        private boolean requestWhenReady;
+
+        private BatchObserver(ServerCallStreamObserver<ExecuteToolResponse> call) {
+            this.call = call;
+        }
+
+        @Override
+        public void onNext(ExecuteToolRequest request) {
+            if (closed || call.isCancelled()) {
+                return;
+            }
+            ExecuteToolResponse response;
+            try {
+                response = executeOne(request);
+            } catch (Exception e) {
+                logger.error("gRPC ExecuteBatch failed for tool {}", request.getToolName(), e);
+                try {
+                    response = failureResponse(request, e);
+                } catch (IOException | RuntimeException encodeFailure) {
+                    fail(encodeFailure);
+                    return;
+                }
+            }
+            try {
+                call.onNext(response);
+            } catch (RuntimeException e) {
+                // Cancelled or closed by the transport while the tool ran
+                closed = true;
+                logger.warn("gRPC ExecuteBatch response dropped: {}", e.getMessage());
+                return;
+            }
+            if (call.isReady()) {
+                call.request(1);
+            } else {
+                requestWhenReady = true;
+            }
+        }
+
+        private void onReady() {
+            if (requestWhenReady && !closed) {
+                requestWhenReady = false;
+                call.request(1);
+            }
+        }
+
+        @Override
+        public void onError(Throwable t) {
+            closed = true;
+            logger.warn("gRPC ExecuteBatch cancelled by client: {}", t.getMessage());
+        }
+
+        @Override
+        public void onCompleted() {
+            if (!closed) {
+                closed = true;
+                call.onCompleted();
+            }
+        }
+
+        private void fail(Exception e) {
+            closed = true;
+            logger.error("gRPC ExecuteBatch closed after an internal failure", e);
+            call.onError(Status.INTERNAL.withDescription(e.getMessage()).asRuntimeException());
+        }
+    }
+
+    /** The ok=false response for a request whose dispatch threw, in the same envelope as a tool failure. */
+    private ExecuteToolResponse failureResponse(ExecuteToolRequest request, Exception e) throws IOException {
+        ToolResponse<?> response = ToolResponse.failure(request.hasTraceId() ? request.getTraceId() : null,
+                new ToolError(ToolError.Code.INTERNAL_ERROR, e.getMessage()));
+        return ExecuteToolResponse.newBuilder()
+                .setRequestId(request.getRequestId())
+                .setOk(false)
+                .setResponseJsonBytes(encode(response))
+                .build();
+    }
+
+    private ExecuteToolResponse executeOne(ExecuteToolRequest request) throws IOException {
+        try (ToolTracing.RequestScope scope = startRequest(request)) {
+            long start = System.nanoTime();
+            ToolResponse<?> response = execute(request);
+            scope.recordResponse(response);
+            long serializationStart = System.nanoTime();
+            Span serialization = toolTracing.startSpan("tool.serialize");
+            ByteString encoded;
+            try {
+                encoded = encode(response);
+            } catch (IOException | RuntimeException e) {
+                ToolTracing.markFailed(serialization, e);
+                throw e;
+            } finally {
+                serialization.end();
+            }
+            long end = System.nanoTime();
+            toolMetrics.recordStage(request.getToolName(), ToolMetrics.Stage.SERIALIZATION, end - serializationStart);
+            toolMetrics.recordRequest(request.getToolName(), response, end - start);
+            return ExecuteToolResponse.newBuilder()
+                    .setRequestId(request.getRequestId())
+                    .setOk(response.isOk())
+                    .setResponseJsonBytes(encoded)
+                    .build();
+        }
+    }
+
+    private ToolTracing.RequestScope startRequest(ExecuteToolRequest request) {
+        return toolTracing.startRequest(request.getToolName(),
+                request.hasTraceId() ? request.getTraceId() : null, "grpc");
+    }
+
+    private ToolResponse<?> execute(ExecuteToolRequest request) {
+        Map<String, Object> arguments;
+        try {
+            arguments = request.getArgumentsJson().isEmpty()
+                    ? new HashMap<>()
+                    : objectMapper.readValue(request.getArgumentsJson(), ARGUMENTS_TYPE);
+        } catch (JsonProcessingException e) {
+            return ToolResponse.failure(ToolTracing.currentTraceId(),
+                    new ToolError(ToolError.Code.VALIDATION_ERROR, "Invalid arguments_json: " + e.getOriginalMessage()));
+        }
+        return toolRegistry.executeTool(request.getToolName(), arguments);
+    }
+
+    private Iterator<ToolStreamChunk> toChunks(ToolResponse<?> response) throws IOException {
+        List<ToolStreamChunk> chunks = new ArrayList<>();
+        ToolResponse<?> envelope = response;
+
+        if (response.isOk() && response.getData() instanceof Map<?, ?> data
+                && data.get(STREAMED_FIELD) instanceof List<?> items) {
+            for (Object item : items) {
+                ByteString.Output out = ByteString.newOutput();
+                objectMapper.writeValue(out, item);
+                chunks.add(ToolStreamChunk.newBuilder().setItemJsonBytes(out.toByteString()).build());
+            }
+            Map<Object, Object> remaining = new LinkedHashMap<>(data);
+            remaining.remove(STREAMED_FIELD);
+            envelope = ToolResponse.success(response.getTraceId(), remaining);
+        }
+
+        chunks.add(ToolStreamChunk.newBuilder().setResponseJsonBytes(encode(envelope)).build());
+        return chunks.iterator();
+    }
+
+    private ByteString encode(ToolResponse<?> response) throws IOException {
+        ByteString.Output out = ByteString.newOutput();
+        toolResponseWriter.write(response, out);
+        return out.toByteString();
+    }
+}
@@ -0,0 +1,95 @@
+package com.acme.mcp.logging;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.turbo.TurboFilter;
+import ch.qos.logback.core.spi.FilterReply;
+import com.acme.mcp.tracing.ToolTracing;
+import org.slf4j.MDC;
+import org.slf4j.Marker;
+
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Decides, before a log event is built, whether it is logged for the tool call on the
+ * current thread (read from the MDC):
+ * <ol>
+ *   <li>a level set for the provider being called, or else for the tool, wins over the
+ *       level of the server's own {@code com.acme.mcp} loggers in both directions, so one
+ *       tool can run at DEBUG while the rest of the server stays at INFO; library loggers
+ *       (Spring, Hikari, HTTP clients) keep their configured levels</li>
+ *   <li>on hot tools, INFO and below are kept only for a sample of requests; the choice
+ *       is made per trace ID so a sampled request keeps all its lines</li>
+ * </ol>
+ * WARN and ERROR are never sampled away.
+ */
+public class ToolLogFilter extends TurboFilter {
+    private static final String APP_LOGGER_PREFIX = "com.acme.mcp.";
+
+    private final Map<String, Level> toolLevels = new ConcurrentHashMap<>();
+    private final Map<String, Level> providerLevels = new ConcurrentHashMap<>();
+    private volatile Set<String> hotTools = Set.of();
+    private volatile int sampleThreshold;
+
+    @Override
+    public FilterReply decide(Marker marker, Logger logger, Level level, String format, Object[] params, Throwable t) {
+        if (!isStarted()) {
+            return FilterReply.NEUTRAL;
+        }
+        String tool = MDC.get(ToolTracing.TOOL_MDC_KEY);
+        if (tool == null) {
+            return FilterReply.NEUTRAL;
+        }
+
+        Level override = null;
+        if (!providerLevels.isEmpty()) {
+            String provider = MDC.get(ToolTracing.PROVIDER_MDC_KEY);
+            override = provider != null ? providerLevels.get(provider) : null;
+        }
+        if (override == null && !toolLevels.isEmpty()) {
+            override = toolLevels.get(tool);
+        }
+        if (override != null && logger.getName().startsWith(APP_LOGGER_PREFIX)) {
+            return level.isGreaterOrEqual(override) ? FilterReply.ACCEPT : FilterReply.DENY;
+        }
+
+        if (level.toInt() <= Level.INFO_INT && hotTools.contains(tool) && !isSampled()) {
+            return FilterReply.DENY;
+        }
+        return FilterReply.NEUTRAL;
+    }
+
+    private boolean isSampled() {
+        String traceId = MDC.get(ToolTracing.TRACE_ID_MDC_KEY);
+        return traceId != null && (traceId.hashCode() & 0x7fffffff) % 10_000 < sampleThreshold;
+    }
+
+    public void setHotTools(Set<String> hotTools) {
+        this.hotTools = Set.copyOf(hotTools);
+    }
+
+    public Set<String> getHotTools() {
+        return hotTools;
+    }
+
+    /**
+     * Fraction of requests on hot tools whose INFO and lower lines are kept.
+     */
+    public void setSampleRate(double sampleRate) {
+        this.sampleThreshold = (int) Math.round(Math.max(0.0, Math.min(1.0, sampleRate)) * 10_000);
+    }
+
+    public double getSampleRate() {
+        return sampleThreshold / 10_000.0;
+    }
+
+    public Map<String, Level> getToolLevels() {
+        return toolLevels;
+    }
+
+    public Map<String, Level> getProviderLevels() {
+        return providerLevels;
+    }
+}
@@ -0,0 +1,110 @@
+package com.acme.mcp.logging;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.LoggerContext;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.actuate.endpoint.InvalidEndpointRequestException;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Selector;
+import org.springframework.boot.actuate.endpoint.annotation.WriteOperation;
+import org.springframework.lang.Nullable;
+import org.springframework.stereotype.Component;
+
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.stream.Collectors;
+
+/**
+ * {@code /actuator/toollogs}: installs {@link ToolLogFilter} and changes it at runtime.
+ * <pre>
+ * GET  /actuator/toollogs                                  current levels and sampling
+ * POST /actuator/toollogs/tools/commerce.searchProducts    {"level": "DEBUG"}  (null clears)
+ * POST /actuator/toollogs/providers/mock                   {"level": "WARN"}
+ * POST /actuator/toollogs                                  {"infoSampleRate": 0.05, "hotTools": [...]}
+ * </pre>
+ * Logger-level changes still go through the standard {@code /actuator/loggers}.
+ */
+@Component
+@Endpoint(id = "toollogs")
+public class ToolLoggingEndpoint implements DisposableBean {
+    private final ToolLogFilter filter = new ToolLogFilter();
+    private final LoggerContext loggerContext;
+
+    public ToolLoggingEndpoint(
+            @Value("${mcp.logging.hot-tools:commerce.searchProducts,commerce.compareProducts}") String hotTools,
+            @Value("${mcp.logging.info-sample-rate:0.01}") double infoSampleRate) {
+        filter.setName("tool-log-filter");
+        filter.setHotTools(Arrays.stream(hotTools.split(","))
+            .map(String::trim)
+            .filter(s -> !s.isEmpty())
+            .collect(Collectors.toSet()));
+        filter.setSampleRate(infoSampleRate);
+        filter.start();
+
+        this.loggerContext = (LoggerContext) LoggerFactory.getILoggerFactory();
+        loggerContext.addTurboFilter(filter);
+    }
+
+    @ReadOperation
+    public Map<String, Object> settings() {
+        Map<String, Object> settings = new LinkedHashMap<>();
+        settings.put("hotTools", new TreeSet<>(filter.getHotTools()));
+        settings.put("infoSampleRate", filter.getSampleRate());
+        settings.put("tools", levels(filter.getToolLevels()));
+        settings.put("providers", levels(filter.getProviderLevels()));
+        return settings;
+    }
+
+    @WriteOperation
+    public void configureSampling(@Nullable Double infoSampleRate, @Nullable List<String> hotTools) {
+        if (infoSampleRate != null) {
+            if (infoSampleRate < 0 || infoSampleRate > 1) {
+                throw new InvalidEndpointRequestException("infoSampleRate must be between 0 and 1",
+                    "Invalid infoSampleRate");
+            }
+            filter.setSampleRate(infoSampleRate);
+        }
+        if (hotTools != null) {
+            filter.setHotTools(Set.copyOf(hotTools));
+        }
+    }
+
+    @WriteOperation
+    public void configureLevel(@Selector String scope, @Selector String name, @Nullable String level) {
+        Map<String, Level> levels = switch (scope) {
+            case "tools" -> filter.getToolLevels();
+            case "providers" -> filter.getProviderLevels();
+            default -> throw new InvalidEndpointRequestException("Unknown scope: " + scope,
+                "Scope must be tools or providers");
+        };
+        if (level == null || level.isBlank()) {
+            levels.remove(name);
+            return;
+        }
+        Level parsed = Level.toLevel(level, null);
+        if (parsed == null) {
+            throw new InvalidEndpointRequestException("Unknown level: " + level, "Invalid level");
+        }
+        levels.put(name, parsed);
+    }
+
+    private static Map<String, String> levels(Map<String, Level> levels) {
+        Map<String, String> result = new TreeMap<>();
+        levels.forEach((name, level) -> result.put(name, level.levelStr));
+        return result;
+    }
+
+    @Override
+    public void destroy() {
+        loggerContext.getTurboFilterList().remove(filter);
+        filter.stop();
+    }
+}
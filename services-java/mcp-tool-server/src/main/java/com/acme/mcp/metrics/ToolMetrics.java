@@ -0,0 +1,160 @@
+package com.acme.mcp.metrics;
+
+import com.acme.mcp.tracing.ToolTracing;
+import com.acme.shared.ToolError;
+import com.acme.shared.ToolResponse;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Micrometer timers for tool dispatch, exported on {@code /actuator/prometheus}:
+ * <ul>
+ *   <li>{@code mcp.tool.requests} per tool and outcome ({@code ok} or the ToolError code),
+ *       with HDR-backed p50/p90/p99 plus histogram buckets for cross-instance quantiles</li>
+ *   <li>{@code mcp.tool.stage} per tool and stage (validation, handler, serialization),
+ *       with buckets from 10 µs since most stages finish well under a millisecond</li>
+ *   <li>{@code mcp.provider.calls} per provider, adapter operation and outcome</li>
+ * </ul>
+ * Timers are created on first use and cached, so recording is a map lookup plus the
+ * timer update. Tool names that are not registered share the {@code unknown} tag so
+ * arbitrary request paths cannot blow up tag cardinality.
+ */
+@Component
+public class ToolMetrics {
+    public static final String OUTCOME_OK = "ok";
+
+    private static final String UNKNOWN_TOOL = "unknown";
+    private static final Duration MIN_EXPECTED = Duration.ofMillis(1);
+    // Validation and serialization take microseconds; a 1 ms lowest bucket would hold every sample
+    private static final Duration MIN_EXPECTED_STAGE = Duration.ofNanos(10_000);
+    private static final Duration MAX_EXPECTED = Duration.ofSeconds(30);
+
+    public enum Stage {
+        VALIDATION("validation"),
+        HANDLER("handler"),
+        SERIALIZATION("serialization");
+
+        private final String tag;
+
+        Stage(String tag) {
+            this.tag = tag;
+        }
+    }
+
+    private final MeterRegistry registry;
+    private final ToolTracing toolTracing;
+    private final Map<String, ToolTimers> toolTimers = new ConcurrentHashMap<>();
+    private final Map<String, Map<String, Timer>> providerTimers = new ConcurrentHashMap<>();
+    private final ToolTimers unknownTool;
+
+    public ToolMetrics(MeterRegistry registry, ToolTracing toolTracing) {
+        this.registry = registry;
+        this.toolTracing = toolTracing;
+        this.unknownTool = new ToolTimers(UNKNOWN_TOOL);
+    }
+
+    /**
+     * Declares a tool so its metrics are tagged with its name.
+     */
+    public void registerTool(String toolName) {
+        toolTimers.computeIfAbsent(toolName, ToolTimers::new);
+    }
+
+    public void recordStage(String toolName, Stage stage, long nanos) {
+        ToolTimers timers = timers(toolName);
+        timers.stages.computeIfAbsent(stage, timers::stageTimer).record(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    public void recordRequest(String toolName, ToolResponse<?> response, long nanos) {
+        recordRequest(toolName, outcome(response), nanos);
+    }
+
+    public void recordRequest(String toolName, String outcome, long nanos) {
+        ToolTimers timers = timers(toolName);
+        timers.outcomes.computeIfAbsent(outcome, timers::requestTimer).record(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Times one call to a provider adapter and traces it as a child span. Exceptions are
+     * recorded with the {@code error} outcome and rethrown.
+     */
+    public <T> T timeProviderCall(String provider, String operation, Supplier<T> call) {
+        long start = System.nanoTime();
+        String outcome = "error";
+        try {
+            T result = toolTracing.inProviderSpan(provider, operation, call);
+            outcome = OUTCOME_OK;
+            return result;
+        } finally {
+            providerTimer(provider, operation, outcome).record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    public static String outcome(ToolResponse<?> response) {
+        if (response.isOk()) {
+            return OUTCOME_OK;
+        }
+        ToolError error = response.getError();
+        return error == null || error.getCode() == null
+            ? ToolError.Code.INTERNAL_ERROR.name().toLowerCase()
+            : error.getCode().name().toLowerCase();
+    }
+
+    private ToolTimers timers(String toolName) {
+        ToolTimers timers = toolName == null ? null : toolTimers.get(toolName);
+        return timers != null ? timers : unknownTool;
+    }
+
+    private Timer providerTimer(String provider, String operation, String outcome) {
+        Map<String, Timer> byOperation = providerTimers.computeIfAbsent(provider, k -> new ConcurrentHashMap<>());
+        return byOperation.computeIfAbsent(operation + '|' + outcome, k -> Timer.builder("mcp.provider.calls")
+            .description("Provider adapter call latency")
+            .tag("provider", provider)
+            .tag("operation", operation)
+            .tag("outcome", outcome)
+            .publishPercentileHistogram()
+            .minimumExpectedValue(MIN_EXPECTED)
+            .maximumExpectedValue(MAX_EXPECTED)
+            .register(registry));
+    }
+
+    private final class ToolTimers {
+        private final String tool;
+        private final Map<Stage, Timer> stages = new ConcurrentHashMap<>();
+        private final Map<String, Timer> outcomes = new ConcurrentHashMap<>();
+
+        private ToolTimers(String tool) {
+            this.tool = tool;
+        }
+
+        private Timer stageTimer(Stage stage) {
+            return Timer.builder("mcp.tool.stage")
+                .description("Time spent per tool dispatch stage")
+                .tag("tool", tool)
+                .tag("stage", stage.tag)
+                .publishPercentileHistogram()
+                .minimumExpectedValue(MIN_EXPECTED_STAGE)
+                .maximumExpectedValue(MAX_EXPECTED)
+                .register(registry);
+        }
+
+        private Timer requestTimer(String outcome) {
+            return Timer.builder("mcp.tool.requests")
+                .description("Tool execution latency, validation to serialized response")
+                .tag("tool", tool)
+                .tag("outcome", outcome)
+                .publishPercentiles(0.5, 0.9, 0.99)
+                .publishPercentileHistogram()
+                .minimumExpectedValue(MIN_EXPECTED)
+                .maximumExpectedValue(MAX_EXPECTED)
+                .register(registry);
+        }
+    }
+}
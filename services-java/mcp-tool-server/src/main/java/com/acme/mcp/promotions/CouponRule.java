@@ -0,0 +1,173 @@
+package com.acme.mcp.promotions;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * A {@code coupons} row compiled for in-memory checks: its usage limit, product/category
+ * scope and minimum order become a {@link RuleCondition} tree built once per version of
+ * the row, and its {@code commerce.promotions.get} entry is built once as well.
+ */
+public class CouponRule {
+    public static final String MIN_ORDER_NOT_MET = "Minimum order amount not met";
+    static final String USAGE_LIMIT_REACHED = "Coupon usage limit reached";
+    static final String NOT_APPLICABLE = "Coupon does not apply to these products";
+
+    private static final BigDecimal HUNDRED = BigDecimal.valueOf(100);
+
+    private final String code;
+    private final String type;
+    private final BigDecimal value;
+    private final BigDecimal minOrder;
+    private final BigDecimal maxDiscount;
+    private final Instant expiresAt;
+    private final Set<String> productIds;
+    private final Set<String> categories;
+    private final boolean autoApply;
+    private final Instant updatedAt;
+    private final RuleCondition condition;
+    private final Map<String, Object> promotion;
+
+    public CouponRule(String code, String type, BigDecimal value, BigDecimal minOrder, BigDecimal maxDiscount,
+                      Instant expiresAt, String description, Set<String> productIds, Set<String> categories,
+                      boolean autoApply, Integer usageLimit, int usedCount, Instant updatedAt) {
+        this.code = code;
+        this.type = type;
+        this.value = value;
+        this.minOrder = minOrder;
+        this.maxDiscount = maxDiscount;
+        this.expiresAt = expiresAt;
+        this.productIds = productIds;
+        this.categories = categories;
+        this.autoApply = autoApply;
+        this.updatedAt = updatedAt;
+        this.condition = compile(usageLimit, usedCount);
+
+        Map<String, Object> promo = new LinkedHashMap<>();
+        promo.put("promoId", code);
+        promo.put("type", type);
+        promo.put("value", value);
+        promo.put("description", description);
+        promo.put("expiresAt", expiresAt.toString());
+        if (minOrder != null) {
+            promo.put("minOrder", Map.of("amount", minOrder, "currency", "INR"));
+        }
+        this.promotion = Collections.unmodifiableMap(promo);
+    }
+
+    private RuleCondition compile(Integer usageLimit, int usedCount) {
+        List<RuleCondition> conditions = new ArrayList<>();
+        if (usageLimit != null) {
+            boolean exhausted = usedCount >= usageLimit;
+            conditions.add(context -> exhausted ? USAGE_LIMIT_REACHED : null);
+        }
+        List<RuleCondition> scope = new ArrayList<>();
+        if (!productIds.isEmpty()) {
+            scope.add(context -> {
+                for (String productId : context.getProductIds()) {
+                    if (productIds.contains(productId)) {
+                        return null;
+                    }
+                }
+                return NOT_APPLICABLE;
+            });
+        }
+        if (!categories.isEmpty()) {
+            scope.add(context -> {
+                for (String category : context.getCategories()) {
+                    if (inCategories(category)) {
+                        return null;
+                    }
+                }
+                return NOT_APPLICABLE;
+            });
+        }
+        if (!scope.isEmpty()) {
+            conditions.add(RuleCondition.any(scope, NOT_APPLICABLE));
+        }
+        if (minOrder != null) {
+            conditions.add(context -> context.getOrderAmount() != null
+                && context.getOrderAmount().compareTo(minOrder) < 0 ? MIN_ORDER_NOT_MET : null);
+        }
+        return conditions.isEmpty() ? context -> null : RuleCondition.all(conditions);
+    }
+
+    /**
+     * Whether {@code category} or one of its parents ("electronics" for
+     * "electronics.mobile") is in scope.
+     */
+    private boolean inCategories(String category) {
+        String current = category;
+        while (current != null) {
+            if (categories.contains(current)) {
+                return true;
+            }
+            int dot = current.lastIndexOf('.');
+            current = dot > 0 ? current.substring(0, dot) : null;
+        }
+        return false;
+    }
+
+    public boolean isActive(Instant now) {
+        return expiresAt.isAfter(now);
+    }
+
+    /**
+     * Null when the coupon applies to the context, otherwise the reason it does not.
+     */
+    public String check(PromotionContext context) {
+        return condition.check(context);
+    }
+
+    public BigDecimal discount(BigDecimal orderAmount) {
+        if ("PERCENTAGE".equals(type)) {
+            BigDecimal discount = orderAmount.multiply(value).divide(HUNDRED, 2, RoundingMode.HALF_UP);
+            return maxDiscount != null && discount.compareTo(maxDiscount) > 0 ? maxDiscount : discount;
+        }
+        return value;
+    }
+
+    public String getCode() {
+        return code;
+    }
+
+    public String getType() {
+        return type;
+    }
+
+    public BigDecimal getMinOrder() {
+        return minOrder;
+    }
+
+    public Instant getExpiresAt() {
+        return expiresAt;
+    }
+
+    public Set<String> getProductIds() {
+        return productIds;
+    }
+
+    public Set<String> getCategories() {
+        return categories;
+    }
+
+    public boolean isAutoApply() {
+        return autoApply;
+    }
+
+    public Instant getUpdatedAt() {
+        return updatedAt;
+    }
+
+    /** The entry listed by {@code commerce.promotions.get}; shared, not to be modified. */
+    public Map<String, Object> getPromotion() {
+        return promotion;
+    }
+}
@@ -0,0 +1,41 @@
+package com.acme.mcp.promotions;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * What a coupon or promotion is checked against. A null order amount skips the
+ * minimum order check (promotion listings show the minimum instead).
+ */
+public class PromotionContext {
+    private final BigDecimal orderAmount;
+    private final Collection<String> productIds;
+    private final Collection<String> categories;
+    private final Instant now;
+
+    public PromotionContext(BigDecimal orderAmount, Collection<String> productIds,
+                            Collection<String> categories, Instant now) {
+        this.orderAmount = orderAmount;
+        this.productIds = productIds != null ? productIds : List.of();
+        this.categories = categories != null ? categories : List.of();
+        this.now = now;
+    }
+
+    public BigDecimal getOrderAmount() {
+        return orderAmount;
+    }
+
+    public Collection<String> getProductIds() {
+        return productIds;
+    }
+
+    public Collection<String> getCategories() {
+        return categories;
+    }
+
+    public Instant getNow() {
+        return now;
+    }
+}
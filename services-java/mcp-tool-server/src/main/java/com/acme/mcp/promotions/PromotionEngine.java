@@ -0,0 +1,313 @@
+package com.acme.mcp.promotions;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.sql.Array;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * Active coupons and promotions ({@code coupons} rows, promotions being the
+ * {@code auto_apply} ones) held in memory as compiled {@link CouponRule}s, so that
+ * coupon validation and promotion lookup do not touch the database.
+ * <p>
+ * Rules are indexed by code, and auto-apply rules by product, by category and unscoped,
+ * each list ordered by minimum order so a lookup with an order amount stops at the first
+ * rule it cannot meet. Every {@code refresh-interval-ms} the rows whose {@code updated_at}
+ * moved (a trigger keeps it current) are re-read and only those rules recompiled; a full
+ * reload every {@code full-reload-interval-ms} drops deleted rows. Usage counts come in
+ * with those refreshes, so a coupon may be accepted for one interval after it ran out.
+ */
+@Component
+public class PromotionEngine implements SmartLifecycle {
+    private static final Logger logger = LoggerFactory.getLogger(PromotionEngine.class);
+
+    private static final String COLUMNS =
+        "code, type, value, min_order, max_discount, expires_at, description, product_ids, categories, " +
+        "auto_apply, usage_limit, used_count, updated_at, enabled";
+
+    private static final String LOAD_SQL =
+        "SELECT " + COLUMNS + " FROM coupons WHERE enabled = true AND expires_at > now()";
+
+    // Served by idx_coupons_updated_at. Re-reads a margin before the last change seen, since
+    // a row may commit after a later-stamped one was read.
+    private static final String CHANGED_SQL =
+        "SELECT " + COLUMNS + " FROM coupons WHERE updated_at > ?::timestamptz - interval '1 minute'";
+
+    private static final Comparator<CouponRule> BY_MIN_ORDER = Comparator
+        .comparing((CouponRule rule) -> rule.getMinOrder() != null ? rule.getMinOrder() : BigDecimal.ZERO)
+        .thenComparing(CouponRule::getCode);
+
+    private final JdbcTemplate jdbc;
+    private final MeterRegistry meterRegistry;
+
+    @Value("${mcp.promotions.refresh-interval-ms:5000}")
+    private long refreshIntervalMs;
+
+    @Value("${mcp.promotions.full-reload-interval-ms:300000}")
+    private long fullReloadIntervalMs;
+
+    private volatile RuleIndex index = RuleIndex.EMPTY;
+    private volatile boolean running;
+    private ScheduledExecutorService scheduler;
+    private Instant lastChange = Instant.EPOCH;
+    private long lastFullReloadMillis;
+
+    public PromotionEngine(@Qualifier("bulkJdbcTemplate") JdbcTemplate jdbc, MeterRegistry meterRegistry) {
+        this.jdbc = jdbc;
+        this.meterRegistry = meterRegistry;
+    }
+
+    /**
+     * The coupon with this code, or null if there is none, it is disabled or it has expired.
+     */
+    public CouponRule coupon(String code, Instant now) {
+        CouponRule rule = code != null ? index.byCode.get(code) : null;
+        return rule != null && rule.isActive(now) ? rule : null;
+    }
+
+    /**
+     * Promotions that apply to the product (by id or category) and, when given, the order
+     * amount.
+     */
+    public List<CouponRule> promotions(String productId, String category, BigDecimal orderAmount, Instant now) {
+        RuleIndex current = index;
+        PromotionContext context = new PromotionContext(orderAmount,
+            productId != null ? List.of(productId) : null, category != null ? List.of(category) : null, now);
+        Set<CouponRule> found = new LinkedHashSet<>();
+        collect(current.byProduct.get(productId), context, found);
+        String parent = category;
+        while (parent != null) {
+            collect(current.byCategory.get(parent), context, found);
+            int dot = parent.lastIndexOf('.');
+            parent = dot > 0 ? parent.substring(0, dot) : null;
+        }
+        collect(current.unscoped, context, found);
+        return new ArrayList<>(found);
+    }
+
+    private static void collect(List<CouponRule> rules, PromotionContext context, Set<CouponRule> found) {
+        if (rules == null) {
+            return;
+        }
+        for (CouponRule rule : rules) {
+            BigDecimal minOrder = rule.getMinOrder();
+            if (context.getOrderAmount() != null && minOrder != null && context.getOrderAmount().compareTo(minOrder) < 0) {
+                return;
+            }
+            if (rule.isActive(context.getNow()) && rule.check(context) == null) {
+                found.add(rule);
+            }
+        }
+    }
+
+    /**
+     * Re-reads changed rows, or all active rows when a full reload is due. Runs on the
+     * refresh thread only.
+     */
+    void refresh() {
+        long nowMillis = System.currentTimeMillis();
+        if (nowMillis - lastFullReloadMillis >= fullReloadIntervalMs) {
+            reload();
+            lastFullReloadMillis = nowMillis;
+            return;
+        }
+        Map<String, CouponRule> rules = null;
+        for (CouponRow row : jdbc.query(CHANGED_SQL, PromotionEngine::mapRow, Timestamp.from(lastChange))) {
+            if (row == null) {
+                continue;
+            }
+            CouponRule rule = row.rule;
+            CouponRule existing = index.byCode.get(rule.getCode());
+            boolean enabled = row.enabled;
+            if (existing != null ? existing.getUpdatedAt().equals(rule.getUpdatedAt()) && enabled : !enabled) {
+                continue;
+            }
+            if (rules == null) {
+                rules = new HashMap<>(index.byCode);
+            }
+            if (enabled) {
+                rules.put(rule.getCode(), rule);
+            } else {
+                rules.remove(rule.getCode());
+            }
+            lastChange = max(lastChange, rule.getUpdatedAt());
+        }
+        if (rules != null) {
+            index = new RuleIndex(rules);
+            logger.info("Refreshed promotion rules, {} active", rules.size());
+        }
+    }
+
+    private void reload() {
+        Map<String, CouponRule> rules = new HashMap<>();
+        Instant latest = Instant.EPOCH;
+        for (CouponRow row : jdbc.query(LOAD_SQL, PromotionEngine::mapRow)) {
+            if (row == null) {
+                continue;
+            }
+            CouponRule rule = row.rule;
+            rules.put(rule.getCode(), rule);
+            latest = max(latest, rule.getUpdatedAt());
+        }
+        index = new RuleIndex(rules);
+        lastChange = max(lastChange, latest);
+        logger.info("Loaded {} promotion rules", rules.size());
+    }
+
+    private static Instant max(Instant a, Instant b) {
+        return a.isAfter(b) ? a : b;
+    }
+
+    /**
+     * Null for a row that cannot be compiled; it is logged and skipped so the other
+     * coupons still load.
+     */
+    private static CouponRow mapRow(ResultSet rs, int rowNum) throws SQLException {
+        String code = rs.getString("code");
+        try {
+            Integer usageLimit = (Integer) rs.getObject("usage_limit");
+            CouponRule rule = new CouponRule(
+                code,
+                rs.getString("type"),
+                rs.getBigDecimal("value"),
+                rs.getBigDecimal("min_order"),
+                rs.getBigDecimal("max_discount"),
+                rs.getTimestamp("expires_at").toInstant(),
+                rs.getString("description"),
+                stringSet(rs.getArray("product_ids")),
+                stringSet(rs.getArray("categories")),
+                rs.getBoolean("auto_apply"),
+                usageLimit,
+                rs.getInt("used_count"),
+                rs.getTimestamp("updated_at").toInstant());
+            return new CouponRow(rule, rs.getBoolean("enabled"));
+        } catch (RuntimeException | SQLException e) {
+            logger.warn("Skipped coupon {}: {}", code, e.toString());
+            return null;
+        }
+    }
+
+    /** Array elements as a set; NULL elements are dropped and duplicates collapsed. */
+    private static Set<String> stringSet(Array array) throws SQLException {
+        if (array == null) {
+            return Set.of();
+        }
+        return Arrays.stream((String[]) array.getArray())
+            .filter(Objects::nonNull)
+            .collect(Collectors.toUnmodifiableSet());
+    }
+
+    private void refreshQuietly() {
+        try {
+            refresh();
+        } catch (Exception e) {
+            logger.warn("Promotion rule refresh failed: {}", e.getMessage());
+        }
+    }
+
+    @Override
+    public void start() {
+        Gauge.builder("mcp.promotions.rules", this, engine -> engine.index.byCode.size()).register(meterRegistry);
+        scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "promotion-refresh");
+            thread.setDaemon(true);
+            return thread;
+        });
+        running = true;
+        // First load before serving, so coupons are not rejected while it runs
+        try {
+            scheduler.submit(this::refresh).get(30, TimeUnit.SECONDS);
+        } catch (Exception e) {
+            logger.warn("Initial promotion rule load failed, retrying in the background: {}", e.getMessage());
+        }
+        scheduler.scheduleWithFixedDelay(this::refreshQuietly, refreshIntervalMs, refreshIntervalMs, TimeUnit.MILLISECONDS);
+        logger.info("Promotion engine started: refresh interval={}ms, full reload interval={}ms",
+            refreshIntervalMs, fullReloadIntervalMs);
+    }
+
+    @Override
+    public void stop() {
+        if (!running) {
+            return;
+        }
+        running = false;
+        scheduler.shutdownNow();
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    /**
+     * Started before the web server, so the first requests see the loaded rules.
+     */
+    @Override
+    public int getPhase() {
+        return SmartLifecycle.DEFAULT_PHASE - 4096;
+    }
+
+    private static final class CouponRow {
+        private final CouponRule rule;
+        private final boolean enabled;
+
+        private CouponRow(CouponRule rule, boolean enabled) {
+            this.rule = rule;
+            this.enabled = enabled;
+        }
+    }
+
+    private static final class RuleIndex {
+        private static final RuleIndex EMPTY = new RuleIndex(Map.of());
+
+        private final Map<String, CouponRule> byCode;
+        private final Map<String, List<CouponRule>> byProduct = new HashMap<>();
+        private final Map<String, List<CouponRule>> byCategory = new HashMap<>();
+        private final List<CouponRule> unscoped = new ArrayList<>();
+
+        private RuleIndex(Map<String, CouponRule> rules) {
+            this.byCode = Map.copyOf(rules);
+            List<CouponRule> sorted = new ArrayList<>(rules.values());
+            sorted.sort(BY_MIN_ORDER);
+            for (CouponRule rule : sorted) {
+                if (!rule.isAutoApply()) {
+                    continue;
+                }
+                if (rule.getProductIds().isEmpty() && rule.getCategories().isEmpty()) {
+                    unscoped.add(rule);
+                }
+                for (String productId : rule.getProductIds()) {
+                    byProduct.computeIfAbsent(productId, id -> new ArrayList<>()).add(rule);
+                }
+                for (String category : rule.getCategories()) {
+                    byCategory.computeIfAbsent(category, c -> new ArrayList<>()).add(rule);
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,46 @@
+package com.acme.mcp.promotions;
+
+import java.util.List;
+
+/**
+ * One node of a compiled coupon rule. {@link #check} returns null when the condition
+ * holds, otherwise the reason shown to the user.
+ */
+@FunctionalInterface
+public interface RuleCondition {
+
+    String check(PromotionContext context);
+
+    /** Holds when every condition holds; the first failing one gives the reason. */
+    static RuleCondition all(List<RuleCondition> conditions) {
+        if (conditions.size() == 1) {
+            return conditions.get(0);
+        }
+        RuleCondition[] nodes = conditions.toArray(new RuleCondition[0]);
+        return context -> {
+            for (RuleCondition node : nodes) {
+                String reason = node.check(context);
+                if (reason != null) {
+                    return reason;
+                }
+            }
+            return null;
+        };
+    }
+
+    /** Holds when any condition holds. */
+    static RuleCondition any(List<RuleCondition> conditions, String reason) {
+        if (conditions.size() == 1) {
+            return conditions.get(0);
+        }
+        RuleCondition[] nodes = conditions.toArray(new RuleCondition[0]);
+        return context -> {
+            for (RuleCondition node : nodes) {
+                if (node.check(context) == null) {
+                    return null;
+                }
+            }
+            return reason;
+        };
+    }
+}
@@ -0,0 +1,131 @@
+package com.acme.mcp.ratelimit;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Pattern;
+
+/**
+ * Deletes shared rate limit buckets ({@code ratelimit.backend: jdbc}) that have not been
+ * updated for {@code ratelimit.jdbc.retention-ms}, in batches of {@code batch-size} rows
+ * each committed on its own. Without it every user and client IP ever seen keeps a row.
+ * <p>
+ * Retention is never shorter than the one-minute refill period: a bucket idle that long
+ * is full again, so a deleted row and a missing row behave the same. Rows being updated
+ * by a request are skipped, so several instances may sweep at once without blocking.
+ */
+@Component
+public class RateLimitBucketSweeper implements SmartLifecycle {
+    private static final Logger logger = LoggerFactory.getLogger(RateLimitBucketSweeper.class);
+
+    private static final Pattern TABLE_NAME = Pattern.compile("[A-Za-z_][A-Za-z0-9_]*(\\.[A-Za-z_][A-Za-z0-9_]*)?");
+
+    private final JdbcTemplate jdbc;
+    private final MeterRegistry meterRegistry;
+    private final String deleteSql;
+
+    @Value("${ratelimit.enabled:true}")
+    private boolean enabled;
+
+    @Value("${ratelimit.backend:local}")
+    private String backend;
+
+    @Value("${ratelimit.jdbc.retention-ms:300000}")
+    private long retentionMs;
+
+    @Value("${ratelimit.jdbc.sweeper.interval-ms:60000}")
+    private long intervalMs;
+
+    @Value("${ratelimit.jdbc.sweeper.batch-size:1000}")
+    private int batchSize;
+
+    private volatile boolean running;
+    private ScheduledExecutorService scheduler;
+    private Counter deleted;
+
+    public RateLimitBucketSweeper(@Qualifier("bulkJdbcTemplate") JdbcTemplate jdbc, MeterRegistry meterRegistry,
+                                  @Value("${ratelimit.jdbc.table:rate_limit_buckets}") String table) {
+        if (!TABLE_NAME.matcher(table).matches()) {
+            throw new IllegalArgumentException("Invalid ratelimit.jdbc.table: " + table);
+        }
+        this.jdbc = jdbc;
+        this.meterRegistry = meterRegistry;
+        // Served by idx_rate_limit_buckets_updated_at
+        this.deleteSql = "DELETE FROM " + table + " WHERE id IN (" +
+            "  SELECT id FROM " + table + " WHERE updated_at < now() - ? * interval '1 millisecond'" +
+            "  LIMIT ? FOR UPDATE SKIP LOCKED)";
+    }
+
+    /** One sweep; returns the number of bucket rows deleted. */
+    public int sweep() {
+        // Evicting before the refill period is up would hand the client a fresh bucket
+        long retention = Math.max(retentionMs, 60_000);
+        int total = 0;
+        int batch;
+        do {
+            batch = jdbc.update(deleteSql, retention, batchSize);
+            total += batch;
+        } while (batch == batchSize);
+        if (deleted != null) {
+            deleted.increment(total);
+        }
+        if (total > 0) {
+            logger.info("Deleted {} idle rate limit buckets", total);
+        }
+        return total;
+    }
+
+    private void sweepQuietly() {
+        try {
+            sweep();
+        } catch (Exception e) {
+            logger.warn("Rate limit bucket sweep failed: {}", e.getMessage());
+        }
+    }
+
+    @Override
+    public void start() {
+        if (!enabled || !"jdbc".equalsIgnoreCase(backend)) {
+            return;
+        }
+        deleted = Counter.builder("mcp.ratelimit.buckets.deleted").register(meterRegistry);
+        scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "ratelimit-bucket-sweeper");
+            thread.setDaemon(true);
+            return thread;
+        });
+        running = true;
+        scheduler.scheduleWithFixedDelay(this::sweepQuietly, intervalMs, intervalMs, TimeUnit.MILLISECONDS);
+        logger.info("Rate limit bucket sweeper started: retention={}ms, interval={}ms, batch size={}",
+            Math.max(retentionMs, 60_000), intervalMs, batchSize);
+    }
+
+    @Override
+    public void stop() {
+        if (!running) {
+            return;
+        }
+        running = false;
+        scheduler.shutdown();
+        try {
+            scheduler.awaitTermination(10, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+}
@@ -0,0 +1,215 @@
+package com.acme.mcp.ratelimit;
+
+import io.github.bucket4j.Bandwidth;
+import io.github.bucket4j.Bucket;
+import io.github.bucket4j.BucketConfiguration;
+import io.github.bucket4j.ConsumptionProbe;
+import io.github.bucket4j.Refill;
+import io.github.bucket4j.distributed.jdbc.BucketTableSettings;
+import io.github.bucket4j.distributed.jdbc.PrimaryKeyMapper;
+import io.github.bucket4j.distributed.jdbc.SQLProxyConfiguration;
+import io.github.bucket4j.distributed.proxy.ProxyManager;
+import io.github.bucket4j.distributed.proxy.optimization.DelayParameters;
+import io.github.bucket4j.distributed.proxy.optimization.Optimizations;
+import io.github.bucket4j.postgresql.PostgreSQLSelectForUpdateBasedProxyManager;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Per-user and per-IP token buckets shared by the REST filter and the gRPC interceptor.
+ * A tool call takes as many tokens as its configured cost ({@code ratelimit.tool-costs},
+ * default 1), so a search uses up a client's budget faster than a cart read.
+ * <p>
+ * Buckets live in a {@link ShardedBucketStore} bounded by {@code ratelimit.max-buckets}
+ * per scope; a bucket idle for longer than its refill period is full again, so evicting
+ * it loses nothing. With {@code ratelimit.backend: jdbc} the bucket state is shared
+ * through Postgres ({@code rate_limit_buckets}) so limits hold across instances; each
+ * node consumes locally and only synchronizes after {@code max-unsynced-tokens} tokens or
+ * {@code max-unsynced-ms}, so most checks still take no round trip. Idle rows are deleted
+ * by {@link RateLimitBucketSweeper}.
+ */
+@Component
+public class RateLimiter {
+    private static final Logger logger = LoggerFactory.getLogger(RateLimiter.class);
+
+    private final boolean enabled;
+    private final BucketConfiguration userLimit;
+    private final BucketConfiguration ipLimit;
+    private final Map<String, Long> toolCosts;
+    private final ShardedBucketStore<Bucket> userBuckets;
+    private final ShardedBucketStore<Bucket> ipBuckets;
+    private final ProxyManager<String> proxyManager;
+    private final DelayParameters delayParameters;
+    private final Counter userRejections;
+    private final Counter ipRejections;
+    private final Counter backendErrors;
+
+    public RateLimiter(
+            DataSource dataSource,
+            MeterRegistry meterRegistry,
+            @Value("${ratelimit.enabled:true}") boolean enabled,
+            @Value("${ratelimit.requests-per-minute-per-user:100}") int requestsPerMinutePerUser,
+            @Value("${ratelimit.requests-per-minute-per-ip:200}") int requestsPerMinutePerIp,
+            @Value("${ratelimit.tool-costs:}") String toolCosts,
+            @Value("${ratelimit.max-buckets:100000}") int maxBuckets,
+            @Value("${ratelimit.shards:64}") int shards,
+            @Value("${ratelimit.idle-timeout-ms:120000}") long idleTimeoutMs,
+            @Value("${ratelimit.backend:local}") String backend,
+            @Value("${ratelimit.jdbc.table:rate_limit_buckets}") String table,
+            @Value("${ratelimit.jdbc.max-unsynced-tokens:20}") long maxUnsyncedTokens,
+            @Value("${ratelimit.jdbc.max-unsynced-ms:500}") long maxUnsyncedMs) {
+        this.enabled = enabled;
+        this.userLimit = perMinute(requestsPerMinutePerUser);
+        this.ipLimit = perMinute(requestsPerMinutePerIp);
+        this.toolCosts = parseCosts(toolCosts);
+
+        // Evicting before the refill period is up would hand the client a fresh bucket
+        long idleTimeoutNanos = TimeUnit.MILLISECONDS.toNanos(Math.max(idleTimeoutMs, 60_000));
+        this.userBuckets = new ShardedBucketStore<>(shards, maxBuckets, idleTimeoutNanos);
+        this.ipBuckets = new ShardedBucketStore<>(shards, maxBuckets, idleTimeoutNanos);
+
+        if ("jdbc".equalsIgnoreCase(backend)) {
+            this.proxyManager = new PostgreSQLSelectForUpdateBasedProxyManager<>(SQLProxyConfiguration.builder()
+                .withTableSettings(BucketTableSettings.customSettings(table, "id", "state"))
+                .withPrimaryKeyMapper(PrimaryKeyMapper.STRING)
+                .build(dataSource));
+            this.delayParameters = new DelayParameters(maxUnsyncedTokens, Duration.ofMillis(maxUnsyncedMs));
+        } else {
+            this.proxyManager = null;
+            this.delayParameters = null;
+        }
+
+        this.userRejections = Counter.builder("mcp.ratelimit.rejected").tag("scope", "user").register(meterRegistry);
+        this.ipRejections = Counter.builder("mcp.ratelimit.rejected").tag("scope", "ip").register(meterRegistry);
+        this.backendErrors = Counter.builder("mcp.ratelimit.backend.errors").register(meterRegistry);
+        Gauge.builder("mcp.ratelimit.buckets", userBuckets, ShardedBucketStore::size).tag("scope", "user")
+            .register(meterRegistry);
+        Gauge.builder("mcp.ratelimit.buckets", ipBuckets, ShardedBucketStore::size).tag("scope", "ip")
+            .register(meterRegistry);
+
+        if (enabled) {
+            logger.info("Rate limiting enabled: backend={}, user={}/min, ip={}/min, tool costs={}",
+                proxyManager != null ? "jdbc" : "local", requestsPerMinutePerUser, requestsPerMinutePerIp,
+                this.toolCosts);
+        }
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Takes the cost of {@code toolName} from the user bucket (when {@code userId} is
+     * known) and then from the IP bucket. Returns null when the call may proceed.
+     */
+    public Rejection tryConsume(String userId, String clientIp, String toolName) {
+        if (!enabled) {
+            return null;
+        }
+        long cost = toolName != null ? toolCosts.getOrDefault(toolName, 1L) : 1L;
+
+        if (userId != null) {
+            Rejection rejection = consume(userBuckets, "user:" + userId, userLimit, cost, "user");
+            if (rejection != null) {
+                userRejections.increment();
+                return rejection;
+            }
+        }
+        if (clientIp != null) {
+            Rejection rejection = consume(ipBuckets, "ip:" + clientIp, ipLimit, cost, "ip");
+            if (rejection != null) {
+                ipRejections.increment();
+                return rejection;
+            }
+        }
+        return null;
+    }
+
+    private Rejection consume(ShardedBucketStore<Bucket> store, String key, BucketConfiguration limit,
+                              long cost, String scope) {
+        long capacity = limit.getBandwidths()[0].getCapacity();
+        try {
+            Bucket bucket = store.computeIfAbsent(key, k -> createBucket(k, limit));
+            ConsumptionProbe probe = bucket.tryConsumeAndReturnRemaining(Math.min(cost, capacity));
+            if (probe.isConsumed()) {
+                return null;
+            }
+            return new Rejection(scope, TimeUnit.NANOSECONDS.toSeconds(probe.getNanosToWaitForRefill()) + 1);
+        } catch (RuntimeException e) {
+            // A shared-state outage must not take the tool server down with it
+            backendErrors.increment();
+            logger.warn("Rate limit check failed for {}, allowing request: {}", scope, e.getMessage());
+            return null;
+        }
+    }
+
+    private Bucket createBucket(String key, BucketConfiguration limit) {
+        if (proxyManager == null) {
+            return Bucket.builder().addLimit(limit.getBandwidths()[0]).build();
+        }
+        return proxyManager.builder()
+            .withOptimization(Optimizations.delaying(delayParameters))
+            .build(key, () -> limit);
+    }
+
+    private static BucketConfiguration perMinute(int tokens) {
+        return BucketConfiguration.builder()
+            .addLimit(Bandwidth.classic(tokens, Refill.intervally(tokens, Duration.ofMinutes(1))))
+            .build();
+    }
+
+    /**
+     * Parses {@code tool:cost} pairs, e.g. {@code commerce.searchProducts:5,commerce.cart.getCart:1}.
+     */
+    private static Map<String, Long> parseCosts(String toolCosts) {
+        Map<String, Long> costs = new HashMap<>();
+        for (String pair : toolCosts.split(",")) {
+            int separator = pair.lastIndexOf(':');
+            if (separator <= 0) {
+                continue;
+            }
+            long cost = Long.parseLong(pair.substring(separator + 1).trim());
+            if (cost < 1) {
+                throw new IllegalArgumentException("Rate limit cost must be at least 1: " + pair);
+            }
+            costs.put(pair.substring(0, separator).trim(), cost);
+        }
+        return Map.copyOf(costs);
+    }
+
+    /**
+     * Why a call was refused and how long until enough tokens are back.
+     */
+    public static final class Rejection {
+        private final String scope;
+        private final long retryAfterSeconds;
+
+        private Rejection(String scope, long retryAfterSeconds) {
+            this.scope = scope;
+            this.retryAfterSeconds = retryAfterSeconds;
+        }
+
+        public String getScope() {
+            return scope;
+        }
+
+        public long getRetryAfterSeconds() {
+            return retryAfterSeconds;
+        }
+
+        public String getMessage() {
+            return "user".equals(scope) ? "User rate limit exceeded" : "IP rate limit exceeded";
+        }
+    }
+}
@@ -0,0 +1,87 @@
+package com.acme.mcp.ratelimit;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * Bounded key-to-bucket map. Keys are spread over independently locked shards, each an
+ * access-ordered {@link LinkedHashMap}, so the least recently used entry is always at the
+ * head: a full shard evicts it, and every access first drops head entries idle for longer
+ * than the idle timeout. Memory stays bounded by {@code maxEntries} whatever the key
+ * cardinality, and no sweeper thread is needed.
+ */
+final class ShardedBucketStore<V> {
+    private final Shard<V>[] shards;
+    private final int mask;
+    private final long idleTimeoutNanos;
+
+    @SuppressWarnings("unchecked")
+    ShardedBucketStore(int shardCount, int maxEntries, long idleTimeoutNanos) {
+        int count = Integer.highestOneBit(Math.max(1, shardCount - 1)) << 1;
+        int perShard = Math.max(1, maxEntries / count);
+        this.shards = new Shard[count];
+        for (int i = 0; i < count; i++) {
+            shards[i] = new Shard<>(perShard);
+        }
+        this.mask = count - 1;
+        this.idleTimeoutNanos = idleTimeoutNanos;
+    }
+
+    V computeIfAbsent(String key, Function<String, V> factory) {
+        int hash = key.hashCode();
+        Shard<V> shard = shards[(hash ^ (hash >>> 16)) & mask];
+        long now = System.nanoTime();
+        synchronized (shard) {
+            shard.evictIdle(now - idleTimeoutNanos);
+            Entry<V> entry = shard.get(key);
+            if (entry == null) {
+                entry = new Entry<>(factory.apply(key));
+                shard.put(key, entry);
+            }
+            entry.lastAccessNanos = now;
+            return entry.value;
+        }
+    }
+
+    int size() {
+        int size = 0;
+        for (Shard<V> shard : shards) {
+            synchronized (shard) {
+                size += shard.size();
+            }
+        }
+        return size;
+    }
+
+    private static final class Entry<V> {
+        private final V value;
+        private long lastAccessNanos;
+
+        private Entry(V value) {
+            this.value = value;
+        }
+    }
+
+    private static final class Shard<V> extends LinkedHashMap<String, Entry<V>> {
+        private final int maxEntries;
+
+        private Shard(int maxEntries) {
+            super(16, 0.75f, true);
+            this.maxEntries = maxEntries;
+        }
+
+        private void evictIdle(long idleBeforeNanos) {
+            Iterator<Entry<V>> iterator = values().iterator();
+            while (iterator.hasNext() && iterator.next().lastAccessNanos - idleBeforeNanos < 0) {
+                iterator.remove();
+            }
+        }
+
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, Entry<V>> eldest) {
+            return size() > maxEntries;
+        }
+    }
+}
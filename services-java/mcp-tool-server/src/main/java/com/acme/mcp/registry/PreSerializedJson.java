@@ -0,0 +1,67 @@
+package com.acme.mcp.registry;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.io.SerializedString;
+import com.fasterxml.jackson.databind.JsonSerializable;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.jsontype.TypeSerializer;
+
+import java.io.IOException;
+import java.io.OutputStream;
+
+/**
+ * Immutable, already-encoded JSON fragment used as the {@code data} of a tool response.
+ * Serialized once when the underlying data changes and then copied verbatim to the
+ * response stream, so static responses skip Map building and Jackson on every call.
+ */
+public final class PreSerializedJson implements JsonSerializable {
+    private static final JsonFactory JSON_FACTORY = new JsonFactory();
+
+    private final SerializedString json;
+
+    private PreSerializedJson(String json) {
+        this.json = new SerializedString(json);
+    }
+
+    public static PreSerializedJson of(ObjectMapper mapper, Object value) {
+        try {
+            return new PreSerializedJson(mapper.writeValueAsString(value));
+        } catch (IOException e) {
+            throw new IllegalStateException("Failed to pre-serialize response data", e);
+        }
+    }
+
+    /**
+     * Writes the encoded UTF-8 bytes directly to the given stream.
+     */
+    public void writeTo(OutputStream out) throws IOException {
+        out.write(json.asUnquotedUTF8());
+    }
+
+    @Override
+    public void serialize(JsonGenerator gen, SerializerProvider serializers) throws IOException {
+        if (!gen.canWriteBinaryNatively()) {
+            gen.writeRawValue(json);
+            return;
+        }
+        // Binary formats (Smile/CBOR) cannot embed raw JSON, so transcode the fragment
+        try (JsonParser parser = JSON_FACTORY.createParser(json.asUnquotedUTF8())) {
+            parser.nextToken();
+            gen.copyCurrentStructure(parser);
+        }
+    }
+
+    @Override
+    public void serializeWithType(JsonGenerator gen, SerializerProvider serializers, TypeSerializer typeSer)
+            throws IOException {
+        serialize(gen, serializers);
+    }
+
+    @Override
+    public String toString() {
+        return json.getValue();
+    }
+}
@@ -1,17 +1,18 @@
 package com.acme.mcp.registry;
 
+import com.acme.mcp.audit.ToolCallAuditor;
+import com.acme.mcp.metrics.ToolMetrics;
 import com.acme.mcp.schema.JsonSchemaValidator;
+import com.acme.mcp.tracing.ToolTracing;
 import com.acme.mcp.service.*;
 import com.acme.shared.ToolError;
 import com.acme.shared.ToolResponse;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
-import org.slf4j.MDC;
 import org.springframework.context.annotation.Lazy;
 import org.springframework.stereotype.Component;
 
 import java.util.Map;
-import java.util.UUID;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.function.Function;
 
@@ -21,8 +22,14 @@ public class ToolRegistry {
     private final Map<String, ToolMetadata> tools = new ConcurrentHashMap<>();
     private final Map<String, Function<Map<String, Object>, ToolResponse<?>>> handlers = new ConcurrentHashMap<>();
     private final JsonSchemaValidator validator;
+    private final ToolMetrics toolMetrics;
+    private final ToolTracing toolTracing;
+    private final ToolCallAuditor toolCallAuditor;
 
     public ToolRegistry(JsonSchemaValidator validator,
+                        ToolMetrics toolMetrics,
+                        ToolTracing toolTracing,
+                        ToolCallAuditor toolCallAuditor,
                         SearchService searchService,
                         CompareService compareService,
                         CartService cartService,
@@ -31,6 +38,9 @@ public class ToolRegistry {
                         ThinkingService thinkingService,
                         @Lazy MetadataService metadataService) {
         this.validator = validator;
+        this.toolMetrics = toolMetrics;
+        this.toolTracing = toolTracing;
+        this.toolCallAuditor = toolCallAuditor;
         registerTools(searchService, compareService, cartService, checkoutService, productService, thinkingService, metadataService);
     }
 
@@ -108,7 +118,7 @@ public class ToolRegistry {
                 checkoutService::cancelCheckout);
 
         registerTool("commerce.product.estimateShipping",
-                "Estimate shipping cost and delivery time",
+                "Estimate shipping cost and delivery time for a product or a whole cart",
                 "commerce.product.estimateShipping.request.json",
                 "commerce.product.estimateShipping.response.json",
                 productService::estimateShipping);
@@ -179,13 +189,20 @@ public class ToolRegistry {
                               Function<Map<String, Object>, ToolResponse<?>> handler) {
         tools.put(name, new ToolMetadata(name, description, requestSchema, responseSchema));
         handlers.put(name, handler);
+        toolMetrics.registerTool(name);
         logger.info("Registered tool: {}", name);
     }
 
     public ToolResponse<?> executeTool(String toolName, Map<String, Object> request) {
-        String traceId = UUID.randomUUID().toString();
-        MDC.put("traceId", traceId);
+        // Set by the caller's request scope from X-Trace-Id, or fresh for direct calls
+        String traceId = ToolTracing.currentTraceId();
+        long start = System.nanoTime();
+        ToolResponse<?> response = dispatch(toolName, request, traceId);
+        toolCallAuditor.record(toolName, request, response, System.nanoTime() - start, traceId);
+        return response;
+    }
 
+    private ToolResponse<?> dispatch(String toolName, Map<String, Object> request, String traceId) {
         try {
             if (!tools.containsKey(toolName)) {
                 logger.error("Tool not found: {}", toolName);
@@ -196,19 +213,25 @@ public class ToolRegistry {
             ToolMetadata metadata = tools.get(toolName);
 
             // Validate request
-            if (!validator.validate(metadata.getRequestSchemaPath(), request)) {
+            long validationStart = System.nanoTime();
+            boolean valid = toolTracing.inSpan("tool.validate",
+                () -> validator.validate(metadata.getRequestSchemaPath(), request));
+            toolMetrics.recordStage(toolName, ToolMetrics.Stage.VALIDATION, System.nanoTime() - validationStart);
+            if (!valid) {
                 return ToolResponse.failure(traceId, 
                     new ToolError(ToolError.Code.VALIDATION_ERROR, "Invalid request schema"));
             }
 
             // Execute tool
-            logger.info("Executing tool: {}", toolName);
-            long startTime = System.currentTimeMillis();
+            logger.debug("Executing tool: {}", toolName);
+            long startTime = System.nanoTime();
             
-            ToolResponse<?> response = handlers.get(toolName).apply(request);
+            ToolResponse<?> response = toolTracing.inSpan("tool.handler",
+                () -> handlers.get(toolName).apply(request));
             
-            long duration = System.currentTimeMillis() - startTime;
-            logger.info("Tool {} executed in {}ms", toolName, duration);
+            long duration = System.nanoTime() - startTime;
+            toolMetrics.recordStage(toolName, ToolMetrics.Stage.HANDLER, duration);
+            logger.info("Tool {} executed in {}ms", toolName, duration / 1_000_000);
 
             // Set trace ID on response
             response.setTraceId(traceId);
@@ -218,8 +241,6 @@ public class ToolRegistry {
             logger.error("Tool execution failed: {}", toolName, e);
             return ToolResponse.failure(traceId,
                 new ToolError(ToolError.Code.INTERNAL_ERROR, e.getMessage()));
-        } finally {
-            MDC.clear();
         }
     }
 
@@ -0,0 +1,174 @@
+package com.acme.mcp.security;
+
+import com.auth0.jwt.JWT;
+import com.auth0.jwt.JWTVerifier;
+import com.auth0.jwt.algorithms.Algorithm;
+import com.auth0.jwt.exceptions.JWTVerificationException;
+import com.auth0.jwt.interfaces.DecodedJWT;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.stereotype.Component;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Collections;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Verifies bearer tokens for the REST filter and the gRPC interceptor.
+ * <p>
+ * Verifiers are built once: tokens with a {@code kid} header use the matching secret from
+ * {@code jwt.keys} ({@code kid:secret,...}), tokens without one use {@code jwt.secret}, so
+ * a new key can be rolled out next to the old one. A verified token's
+ * {@link Authentication} is cached under the SHA-256 of the token until the token's
+ * {@code exp} (or {@code jwt.cache.max-ttl-ms}, whichever is sooner), so the later calls
+ * of a chat session skip HMAC verification and claim decoding. The cache holds at most
+ * {@code jwt.cache.max-entries} tokens over independently locked shards, each an
+ * access-ordered {@link LinkedHashMap}, so a full shard evicts its least recently used
+ * token in constant time; expired entries are dropped when looked up.
+ */
+@Component
+public class JwtTokenVerifier {
+    private final JWTVerifier defaultVerifier;
+    private final Map<String, JWTVerifier> verifiersByKid;
+    private static final int CACHE_SHARDS = 16;
+
+    private final CacheShard[] cache;
+    private final int maxEntries;
+    private final long maxTtlMillis;
+
+    public JwtTokenVerifier(@Value("${jwt.secret:default-secret-change-in-production}") String jwtSecret,
+                            @Value("${jwt.keys:}") String keys,
+                            @Value("${jwt.cache.max-entries:10000}") int maxEntries,
+                            @Value("${jwt.cache.max-ttl-ms:300000}") long maxTtlMillis) {
+        this.defaultVerifier = JWT.require(Algorithm.HMAC256(jwtSecret)).build();
+        this.verifiersByKid = parseKeys(keys);
+        this.maxEntries = maxEntries;
+        this.maxTtlMillis = maxTtlMillis;
+        this.cache = new CacheShard[CACHE_SHARDS];
+        for (int i = 0; i < CACHE_SHARDS; i++) {
+            cache[i] = new CacheShard(Math.max(1, maxEntries / CACHE_SHARDS));
+        }
+    }
+
+    /**
+     * Returns the authentication for {@code token}, or null when it carries no subject.
+     *
+     * @throws JWTVerificationException if the token is invalid, expired or signed with an unknown key
+     */
+    public Authentication verify(String token) {
+        ByteBuffer key = maxEntries > 0 ? sha256(token) : null;
+        long now = System.currentTimeMillis();
+        CacheShard shard = key != null ? cache[(key.hashCode() & 0x7fffffff) % CACHE_SHARDS] : null;
+        if (shard != null) {
+            synchronized (shard) {
+                CachedAuthentication cached = shard.get(key);
+                if (cached != null) {
+                    if (now < cached.expiresAtMillis) {
+                        return cached.authentication;
+                    }
+                    shard.remove(key);
+                }
+            }
+        }
+
+        DecodedJWT decodedJWT = verifierFor(JWT.decode(token)).verify(token);
+        Authentication authentication = toAuthentication(decodedJWT);
+
+        if (shard != null) {
+            Date expiresAt = decodedJWT.getExpiresAt();
+            long expiresAtMillis = expiresAt != null
+                ? Math.min(expiresAt.getTime(), now + maxTtlMillis)
+                : now + maxTtlMillis;
+            CachedAuthentication entry = new CachedAuthentication(authentication, expiresAtMillis);
+            synchronized (shard) {
+                shard.put(key, entry);
+            }
+        }
+        return authentication;
+    }
+
+    private JWTVerifier verifierFor(DecodedJWT unverified) {
+        String kid = unverified.getKeyId();
+        if (kid == null) {
+            return defaultVerifier;
+        }
+        JWTVerifier verifier = verifiersByKid.get(kid);
+        if (verifier == null) {
+            throw new JWTVerificationException("Unknown signing key: " + kid);
+        }
+        return verifier;
+    }
+
+    private static Authentication toAuthentication(DecodedJWT decodedJWT) {
+        String userId = decodedJWT.getSubject();
+        if (userId == null) {
+            return null;
+        }
+        String username = decodedJWT.getClaim("username").asString();
+        String role = decodedJWT.getClaim("role").asString();
+
+        List<SimpleGrantedAuthority> authorities = Collections.singletonList(
+            new SimpleGrantedAuthority("ROLE_" + (role != null ? role.toUpperCase() : "USER"))
+        );
+        UsernamePasswordAuthenticationToken authentication =
+            new UsernamePasswordAuthenticationToken(userId, null, authorities);
+        authentication.setDetails(Collections.singletonMap("username", username));
+        return authentication;
+    }
+
+    private static ByteBuffer sha256(String token) {
+        try {
+            return ByteBuffer.wrap(MessageDigest.getInstance("SHA-256")
+                .digest(token.getBytes(StandardCharsets.US_ASCII)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    private static Map<String, JWTVerifier> parseKeys(String keys) {
+        Map<String, JWTVerifier> verifiers = new HashMap<>();
+        for (String pair : keys.split(",")) {
+            int separator = pair.indexOf(':');
+            if (separator <= 0) {
+                continue;
+            }
+            String kid = pair.substring(0, separator).trim();
+            String secret = pair.substring(separator + 1).trim();
+            verifiers.put(kid, JWT.require(Algorithm.HMAC256(secret)).build());
+        }
+        return Map.copyOf(verifiers);
+    }
+
+    private static final class CacheShard extends LinkedHashMap<ByteBuffer, CachedAuthentication> {
+        private final int maxEntries;
+
+        private CacheShard(int maxEntries) {
+            super(16, 0.75f, true);
+            this.maxEntries = maxEntries;
+        }
+
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<ByteBuffer, CachedAuthentication> eldest) {
+            return size() > maxEntries;
+        }
+    }
+
+    private static final class CachedAuthentication {
+        private final Authentication authentication;
+        private final long expiresAtMillis;
+
+        private CachedAuthentication(Authentication authentication, long expiresAtMillis) {
+            this.authentication = authentication;
+            this.expiresAtMillis = expiresAtMillis;
+        }
+    }
+}
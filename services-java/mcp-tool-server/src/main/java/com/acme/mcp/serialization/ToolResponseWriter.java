@@ -0,0 +1,120 @@
+package com.acme.mcp.serialization;
+
+import com.acme.shared.ToolResponse;
+import com.acme.shared.json.WireFormat;
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.SerializableString;
+import com.fasterxml.jackson.core.io.SerializedString;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Streams {@link ToolResponse} envelopes straight to the servlet output stream, as
+ * JSON or, when the Accept header asks for it, as Smile or CBOR (see {@link WireFormat}).
+ * The generator writes through Jackson's recycled per-thread output buffer, so no
+ * intermediate copy of the body is built, and envelope field names are pre-encoded.
+ * Product, money and availability values use the serializers registered by
+ * {@link com.acme.shared.json.CommerceJsonModule}.
+ */
+@Component
+public class ToolResponseWriter {
+    private static final SerializableString OK = new SerializedString("ok");
+    private static final SerializableString TRACE_ID = new SerializedString("traceId");
+    private static final SerializableString DATA = new SerializedString("data");
+    private static final SerializableString ERROR = new SerializedString("error");
+    private static final int GZIP_BUFFER_SIZE = 8192;
+
+    private final Map<WireFormat, ObjectMapper> mappers = new EnumMap<>(WireFormat.class);
+
+    @Value("${mcp.response.gzip.enabled:true}")
+    private boolean gzipEnabled;
+
+    public ToolResponseWriter(ObjectMapper objectMapper) {
+        for (WireFormat format : WireFormat.values()) {
+            mappers.put(format, format.deriveMapper(objectMapper));
+        }
+    }
+
+    public void write(ToolResponse<?> response, HttpServletRequest request, HttpServletResponse httpResponse)
+            throws IOException {
+        WireFormat format = WireFormat.fromAccept(request.getHeader(HttpHeaders.ACCEPT));
+        httpResponse.setStatus(HttpServletResponse.SC_OK);
+        httpResponse.setContentType(format.getMediaType());
+        httpResponse.addHeader(HttpHeaders.VARY, HttpHeaders.ACCEPT);
+        httpResponse.addHeader(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+
+        if (gzipEnabled && acceptsGzip(request.getHeader(HttpHeaders.ACCEPT_ENCODING))) {
+            httpResponse.setHeader(HttpHeaders.CONTENT_ENCODING, "gzip");
+            try (GZIPOutputStream gzip = new GZIPOutputStream(httpResponse.getOutputStream(), GZIP_BUFFER_SIZE)) {
+                write(response, format, gzip);
+            }
+        } else {
+            write(response, format, httpResponse.getOutputStream());
+        }
+    }
+
+    /**
+     * Writes the response as UTF-8 JSON. The stream is flushed but not closed.
+     */
+    public void write(ToolResponse<?> response, OutputStream out) throws IOException {
+        write(response, WireFormat.JSON, out);
+    }
+
+    /**
+     * Writes the response in the given wire format. The stream is flushed but not closed.
+     */
+    public void write(ToolResponse<?> response, WireFormat format, OutputStream out) throws IOException {
+        try (JsonGenerator gen = mappers.get(format).getFactory().createGenerator(out, JsonEncoding.UTF8)) {
+            gen.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+            gen.writeStartObject();
+            gen.writeFieldName(OK);
+            gen.writeBoolean(response.isOk());
+            gen.writeFieldName(TRACE_ID);
+            if (response.getTraceId() == null) {
+                gen.writeNull();
+            } else {
+                gen.writeString(response.getTraceId());
+            }
+            gen.writeFieldName(DATA);
+            gen.writeObject(response.getData());
+            gen.writeFieldName(ERROR);
+            gen.writeObject(response.getError());
+            gen.writeEndObject();
+        }
+    }
+
+    static boolean acceptsGzip(String acceptEncoding) {
+        if (acceptEncoding == null) {
+            return false;
+        }
+        for (String token : acceptEncoding.split(",")) {
+            String[] parts = token.trim().split(";");
+            if (!"gzip".equalsIgnoreCase(parts[0].trim()) && !"*".equals(parts[0].trim())) {
+                continue;
+            }
+            for (int i = 1; i < parts.length; i++) {
+                String param = parts[i].trim();
+                if (param.startsWith("q=")) {
+                    try {
+                        return Double.parseDouble(param.substring(2)) > 0;
+                    } catch (NumberFormatException e) {
+                        return false;
+                    }
+                }
+            }
+            return true;
+        }
+        return false;
+    }
+}
@@ -1,24 +1,53 @@
 package com.acme.mcp.service;
 
 import com.acme.mcp.adapters.ProviderAdapter;
+import com.acme.mcp.cart.CartStore;
 import com.acme.mcp.config.ProviderConfigService;
+import com.acme.mcp.metrics.ToolMetrics;
+import com.acme.mcp.tracing.ToolTracing;
 import com.acme.shared.*;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
 import org.springframework.stereotype.Service;
 
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Locale;
 import java.util.Map;
-
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Cart tools. Carts live in {@link CartStore}, and every line remembers the provider it
+ * was added from. That provider owns the line: it must be enabled with the CART
+ * capability for the line to be changed, and it supplies the line's product details.
+ * Details missing after a cart is loaded are fetched from all owning providers at once.
+ */
 @Service
-public class CartService {
+public class CartService implements DisposableBean {
     private static final Logger logger = LoggerFactory.getLogger(CartService.class);
-    private final List<ProviderAdapter> providers;
+    private final Map<String, ProviderAdapter> providersByName = new HashMap<>();
     private final ProviderConfigService providerConfigService;
-
-    public CartService(List<ProviderAdapter> providers, ProviderConfigService providerConfigService) {
-        this.providers = providers;
+    private final ToolMetrics toolMetrics;
+    private final CartStore cartStore;
+    private final ExecutorService lookupExecutor = Executors.newCachedThreadPool(task -> {
+        Thread thread = new Thread(task, "cart-product-lookup");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    public CartService(List<ProviderAdapter> providers, ProviderConfigService providerConfigService,
+                       ToolMetrics toolMetrics, CartStore cartStore) {
+        for (ProviderAdapter provider : providers) {
+            providersByName.put(provider.getProviderName().toLowerCase(Locale.ROOT), provider);
+        }
         this.providerConfigService = providerConfigService;
+        this.toolMetrics = toolMetrics;
+        this.cartStore = cartStore;
     }
 
     public ToolResponse<Cart> addItem(Map<String, Object> request) {
@@ -30,7 +59,7 @@ public class CartService {
 
             logger.info("Adding item to cart: user={}, product={}, qty={}", userId, productId, quantity);
 
-            ProviderAdapter adapter = findProvider(provider);
+            ProviderAdapter adapter = provider != null ? providersByName.get(provider.toLowerCase(Locale.ROOT)) : null;
             if (adapter == null || !adapter.supports(ProviderAdapter.Capability.CART)) {
                 return ToolResponse.failure(null,
                     new ToolError(ToolError.Code.PROVIDER_ERROR, "Provider not available: " + provider));
@@ -42,8 +71,15 @@ public class CartService {
                     new ToolError(ToolError.Code.PROVIDER_ERROR, "Provider disabled or missing CART capability: " + provider));
             }
 
-            Cart cart = adapter.addToCart(userId, productId, quantity);
-            return ToolResponse.success(null, cart);
+            ProductSummary product = toolMetrics.timeProviderCall(adapter.getProviderName(), "getProductDetails",
+                () -> adapter.getProductDetails(productId));
+            if (product == null) {
+                return ToolResponse.failure(null,
+                    new ToolError(ToolError.Code.NOT_FOUND, "Product not found: " + productId));
+            }
+
+            Cart cart = cartStore.addItem(userId, adapter.getProviderName(), product, quantity);
+            return ToolResponse.success(null, withProducts(userId, cart));
         } catch (Exception e) {
             logger.error("Add to cart failed", e);
             return ToolResponse.failure(null,
@@ -59,15 +95,14 @@ public class CartService {
 
             logger.info("Updating cart item: user={}, product={}, qty={}", userId, productId, quantity);
 
-            // Use first available provider (in real system, track which provider owns the cart)
-            ProviderAdapter adapter = findAvailableCartProvider();
-            if (adapter == null) {
+            String owner = cartStore.ownerOf(userId, productId);
+            if (owner != null && cartProvider(owner) == null) {
                 return ToolResponse.failure(null,
-                    new ToolError(ToolError.Code.PROVIDER_ERROR, "No cart provider available"));
+                    new ToolError(ToolError.Code.PROVIDER_ERROR, "Provider disabled or missing CART capability: " + owner));
             }
 
-            Cart cart = adapter.updateCartItem(userId, productId, quantity);
-            return ToolResponse.success(null, cart);
+            Cart cart = cartStore.updateItemQty(userId, productId, quantity);
+            return ToolResponse.success(null, withProducts(userId, cart));
         } catch (Exception e) {
             logger.error("Update cart failed", e);
             return ToolResponse.failure(null,
@@ -82,14 +117,14 @@ public class CartService {
 
             logger.info("Removing item from cart: user={}, product={}", userId, productId);
 
-            ProviderAdapter adapter = findAvailableCartProvider();
-            if (adapter == null) {
+            String owner = cartStore.ownerOf(userId, productId);
+            if (owner != null && cartProvider(owner) == null) {
                 return ToolResponse.failure(null,
-                    new ToolError(ToolError.Code.PROVIDER_ERROR, "No cart provider available"));
+                    new ToolError(ToolError.Code.PROVIDER_ERROR, "Provider disabled or missing CART capability: " + owner));
             }
 
-            Cart cart = adapter.removeFromCart(userId, productId);
-            return ToolResponse.success(null, cart);
+            Cart cart = cartStore.removeItem(userId, productId);
+            return ToolResponse.success(null, withProducts(userId, cart));
         } catch (Exception e) {
             logger.error("Remove from cart failed", e);
             return ToolResponse.failure(null,
@@ -103,14 +138,8 @@ public class CartService {
 
             logger.info("Getting cart for user: {}", userId);
 
-            ProviderAdapter adapter = findAvailableCartProvider();
-            if (adapter == null) {
-                return ToolResponse.failure(null,
-                    new ToolError(ToolError.Code.PROVIDER_ERROR, "No cart provider available"));
-            }
-
-            Cart cart = adapter.getCart(userId);
-            return ToolResponse.success(null, cart);
+            Cart cart = cartStore.getCart(userId);
+            return ToolResponse.success(null, withProducts(userId, cart));
         } catch (Exception e) {
             logger.error("Get cart failed", e);
             return ToolResponse.failure(null,
@@ -118,24 +147,69 @@ public class CartService {
         }
     }
 
-    private ProviderAdapter findProvider(String providerName) {
-        return providers.stream()
-            .filter(p -> p.getProviderName().equalsIgnoreCase(providerName))
-            .findFirst()
-            .orElse(null);
+    /**
+     * Fills in product details for lines loaded from the tables, which only store ids and
+     * prices, and hands them back to the store so each product is looked up once. Lines
+     * are grouped by owning provider and the providers are asked concurrently; a provider
+     * that fails leaves its lines without details rather than failing the cart.
+     */
+    private Cart withProducts(String userId, Cart cart) {
+        Map<ProviderAdapter, List<CartItem>> missing = new LinkedHashMap<>();
+        for (CartItem item : cart.getItems()) {
+            if (item.getProduct() == null) {
+                ProviderAdapter adapter = cartProvider(item.getProvider());
+                if (adapter != null) {
+                    missing.computeIfAbsent(adapter, k -> new ArrayList<>()).add(item);
+                }
+            }
+        }
+        if (missing.size() == 1) {
+            missing.forEach((adapter, items) -> lookUpProducts(userId, adapter, items));
+        } else if (!missing.isEmpty()) {
+            CompletableFuture<?>[] lookups = missing.entrySet().stream()
+                .map(entry -> CompletableFuture.runAsync(ToolTracing.propagating(
+                    () -> lookUpProducts(userId, entry.getKey(), entry.getValue())), lookupExecutor))
+                .toArray(CompletableFuture[]::new);
+            CompletableFuture.allOf(lookups).join();
+        }
+        return cart;
+    }
+
+    private void lookUpProducts(String userId, ProviderAdapter adapter, List<CartItem> items) {
+        try {
+            for (CartItem item : items) {
+                ProductSummary product = toolMetrics.timeProviderCall(adapter.getProviderName(), "getProductDetails",
+                    () -> adapter.getProductDetails(item.getProductId()));
+                if (product != null) {
+                    item.setProduct(product);
+                    cartStore.attachProduct(userId, product);
+                }
+            }
+        } catch (RuntimeException e) {
+            logger.warn("Product details unavailable from {}: {}", adapter.getProviderName(), e.getMessage());
+        }
     }
 
-    private ProviderAdapter findAvailableCartProvider() {
-        var enabledProviders = providerConfigService.getProvidersWithCapability("CART");
-        return providers.stream()
-            .filter(p -> p.supports(ProviderAdapter.Capability.CART))
-            .filter(p -> enabledProviders.stream().anyMatch(config -> config.getId().equals(p.getProviderName())))
-            .findFirst()
-            .orElse(null);
+    /**
+     * The adapter for {@code providerName} if it supports carts and is enabled with the
+     * CART capability, otherwise null.
+     */
+    private ProviderAdapter cartProvider(String providerName) {
+        ProviderAdapter adapter = providerName != null ? providersByName.get(providerName.toLowerCase(Locale.ROOT)) : null;
+        if (adapter == null || !adapter.supports(ProviderAdapter.Capability.CART)
+                || !isProviderEnabledWithCapability(adapter.getProviderName(), "CART")) {
+            return null;
+        }
+        return adapter;
     }
 
     private boolean isProviderEnabledWithCapability(String providerName, String capability) {
         var providerConfig = providerConfigService.getProviderConfig(providerName);
         return providerConfig != null && providerConfig.isEnabled() && providerConfig.hasCapability(capability);
     }
+
+    @Override
+    public void destroy() {
+        lookupExecutor.shutdownNow();
+    }
 }
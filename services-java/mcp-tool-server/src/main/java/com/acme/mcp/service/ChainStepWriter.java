@@ -0,0 +1,386 @@
+package com.acme.mcp.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.IntSupplier;
+
+/**
+ * Buffers {@code chain_steps} rows per run and writes them off the request path. A run's
+ * steps are written once {@code batch-size} of them are waiting, {@code flush-interval-ms}
+ * after the oldest was added, or when {@link #flush(String)} is called for the run (chain
+ * completion). Each write is one statement for all due runs, which also adds the written
+ * steps to {@code chain_runs.step_count}.
+ * <p>
+ * At most {@code max-buffered} steps are held; beyond that the caller writes its run's
+ * steps itself, and the new step is rejected if that fails. Until started, steps are written
+ * as they are added. Failed writes are retried; steps the database rejects (bad content) are
+ * written one by one so that only those are dropped.
+ */
+@Component
+public class ChainStepWriter implements SmartLifecycle {
+    private static final Logger logger = LoggerFactory.getLogger(ChainStepWriter.class);
+
+    // Steps of runs that do not exist are skipped rather than failing the whole batch
+    private static final String FLUSH_SQL =
+        "WITH steps AS (" +
+        "  SELECT * FROM unnest(?::text[], ?::text[], ?::int[], ?::text[], ?::bytea[], ?::timestamptz[]) " +
+        "    AS s(id, run_id, step_index, stage, content, created_at)" +
+        "), inserted AS (" +
+        "  INSERT INTO chain_steps (id, run_id, step_index, stage, content_json, created_at) " +
+        "  SELECT s.id, s.run_id, s.step_index, s.stage, convert_from(s.content, 'UTF8')::jsonb, s.created_at FROM steps s " +
+        "  WHERE EXISTS (SELECT 1 FROM chain_runs r WHERE r.id = s.run_id) " +
+        "  RETURNING run_id" +
+        "), counted AS (" +
+        "  UPDATE chain_runs r SET step_count = r.step_count + n.steps, updated_at = now() " +
+        "  FROM (SELECT run_id, count(*) AS steps FROM inserted GROUP BY run_id) n " +
+        "  WHERE r.id = n.run_id" +
+        ") SELECT count(*) FROM inserted";
+
+    /** Wait before the background writer tries again after a failed write. */
+    private static final long RETRY_DELAY_NANOS = TimeUnit.SECONDS.toNanos(1);
+
+    private final JdbcTemplate jdbc;
+    private final MeterRegistry meterRegistry;
+    private final Map<String, RunSteps> runs = new ConcurrentHashMap<>();
+    private final AtomicInteger buffered = new AtomicInteger();
+    /** One write at a time, so a completion's flush also waits for one already under way. */
+    private final Object writeLock = new Object();
+
+    @Value("${mcp.thinking.steps.batch-size:50}")
+    private int batchSize;
+
+    @Value("${mcp.thinking.steps.flush-interval-ms:100}")
+    private long flushIntervalMs;
+
+    @Value("${mcp.thinking.steps.max-buffered:10000}")
+    private int maxBuffered;
+
+    private volatile boolean running;
+    private volatile Thread writer;
+    private Counter written;
+    private Counter skipped;
+    private Counter failed;
+
+    public ChainStepWriter(@Qualifier("bulkJdbcTemplate") JdbcTemplate jdbc, MeterRegistry meterRegistry) {
+        this.jdbc = jdbc;
+        this.meterRegistry = meterRegistry;
+    }
+
+    /**
+     * Queues one step; {@code content} is its UTF-8 JSON. Throws IllegalStateException when the step had to be written on the
+     * caller's thread (not started, or too many buffered) and that failed.
+     */
+    public void add(String runId, String stepId, int stepIndex, String stage, byte[] content) {
+        PendingStep step = new PendingStep(stepId, runId, stepIndex, stage, content, System.currentTimeMillis());
+        if (running && buffered.get() < maxBuffered) {
+            buffered.incrementAndGet();
+            if (enqueue(step) == batchSize) {
+                LockSupport.unpark(writer);
+            }
+            return;
+        }
+        // Not started, or the writer is behind: write this run's steps on the caller's thread
+        buffered.incrementAndGet();
+        synchronized (writeLock) {
+            List<PendingStep> batch = takeAll(runId);
+            batch.add(step);
+            if (!write(batch)) {
+                batch.remove(batch.size() - 1);
+                batch.forEach(this::enqueue);
+                discard(List.of(step));
+                throw new IllegalStateException("Chain step of run " + runId + " could not be written");
+            }
+        }
+    }
+
+    private int enqueue(PendingStep step) {
+        while (true) {
+            RunSteps run = runs.computeIfAbsent(step.runId, id -> new RunSteps());
+            synchronized (run) {
+                if (run.removed) {
+                    continue;
+                }
+                if (run.steps.isEmpty()) {
+                    run.firstAddedNanos = System.nanoTime();
+                }
+                run.steps.add(step);
+                return run.steps.size();
+            }
+        }
+    }
+
+    /**
+     * Runs {@code stored} (which returns the run's written step count) while no write is
+     * under way, adds the run's steps still buffered on this node, and asks for those to be
+     * written with the next background write. Both counts are taken at the same point, so
+     * each step is counted exactly once.
+     */
+    public int countAndFlushSoon(String runId, IntSupplier stored) {
+        int count;
+        synchronized (writeLock) {
+            count = stored.getAsInt() + pendingCount(runId);
+        }
+        flushSoon(runId);
+        return count;
+    }
+
+    private int pendingCount(String runId) {
+        RunSteps run = runs.get(runId);
+        if (run == null) {
+            return 0;
+        }
+        synchronized (run) {
+            return run.steps.size();
+        }
+    }
+
+    /**
+     * Writes the run's buffered steps now. Throws IllegalStateException if they could not
+     * be written; they stay buffered for the next attempt.
+     */
+    public void flush(String runId) {
+        synchronized (writeLock) {
+            List<PendingStep> batch = takeAll(runId);
+            if (!write(batch)) {
+                batch.forEach(this::enqueue);
+                throw new IllegalStateException("Chain steps of run " + runId + " could not be written");
+            }
+        }
+    }
+
+    private void flushSoon(String runId) {
+        RunSteps run = runs.get(runId);
+        if (run != null) {
+            synchronized (run) {
+                run.flushRequested = true;
+            }
+            LockSupport.unpark(writer);
+        }
+    }
+
+    private void writeBehind() {
+        long flushIntervalNanos = TimeUnit.MILLISECONDS.toNanos(flushIntervalMs);
+        boolean failing = false;
+        while (running) {
+            LockSupport.parkNanos(failing ? RETRY_DELAY_NANOS : flushIntervalNanos / 2);
+            failing = !writeDue(System.nanoTime() - flushIntervalNanos, false);
+        }
+        if (!writeDue(0, true)) {
+            logger.warn("{} chain steps were not written before shutdown", buffered.get());
+        }
+    }
+
+    /**
+     * Writes, in one statement, the steps of every run that has a full batch waiting or
+     * whose oldest step was added before {@code addedBeforeNanos}, or of all runs. Returns
+     * false if the write failed; the steps stay buffered.
+     */
+    private boolean writeDue(long addedBeforeNanos, boolean all) {
+        synchronized (writeLock) {
+            List<PendingStep> batch = new ArrayList<>();
+            for (Map.Entry<String, RunSteps> entry : runs.entrySet()) {
+                RunSteps run = entry.getValue();
+                synchronized (run) {
+                    boolean due = all || run.steps.size() >= batchSize || run.flushRequested
+                        || addedBeforeNanos - run.firstAddedNanos >= 0;
+                    if (due) {
+                        take(entry.getKey(), run, batch);
+                    }
+                }
+            }
+            if (write(batch)) {
+                return true;
+            }
+            // Retried with the next write; order within a run does not matter, rows carry step_index
+            batch.forEach(this::enqueue);
+            return false;
+        }
+    }
+
+    private List<PendingStep> takeAll(String runId) {
+        List<PendingStep> batch = new ArrayList<>();
+        RunSteps run = runs.get(runId);
+        if (run != null) {
+            synchronized (run) {
+                take(runId, run, batch);
+            }
+        }
+        return batch;
+    }
+
+    /**
+     * Moves the run's steps to {@code batch} and drops the emptied run; the caller holds
+     * the run's lock. Later steps of the run start a new entry.
+     */
+    private void take(String runId, RunSteps run, List<PendingStep> batch) {
+        batch.addAll(run.steps);
+        run.steps.clear();
+        run.removed = true;
+        runs.remove(runId, run);
+    }
+
+    /**
+     * Writes the batch. Returns false if the write failed and may be retried; the caller
+     * requeues or discards the steps. Steps of a batch the database rejects are retried one
+     * at a time and the rejected ones dropped.
+     */
+    private boolean write(List<PendingStep> batch) {
+        if (batch.isEmpty()) {
+            return true;
+        }
+        try {
+            Long inserted = jdbc.query(con -> prepareFlush(con, batch), rs -> rs.next() ? rs.getLong(1) : 0L);
+            long count = inserted != null ? inserted : 0;
+            buffered.addAndGet(-batch.size());
+            if (written != null) {
+                written.increment(count);
+                skipped.increment(batch.size() - count);
+            }
+            if (count < batch.size()) {
+                logger.warn("Skipped {} chain steps of unknown runs", batch.size() - count);
+            }
+            return true;
+        } catch (DataIntegrityViolationException e) {
+            if (batch.size() == 1) {
+                logger.warn("Dropped chain step {} of run {}: {}", batch.get(0).id, batch.get(0).runId, e.getMessage());
+                discard(batch);
+                return true;
+            }
+            for (PendingStep step : batch) {
+                List<PendingStep> single = List.of(step);
+                if (!write(single)) {
+                    discard(single);
+                }
+            }
+            return true;
+        } catch (RuntimeException e) {
+            logger.warn("Failed to write {} chain steps: {}", batch.size(), e.getMessage());
+            return false;
+        }
+    }
+
+    private void discard(List<PendingStep> steps) {
+        buffered.addAndGet(-steps.size());
+        if (failed != null) {
+            failed.increment(steps.size());
+        }
+    }
+
+    private static PreparedStatement prepareFlush(Connection con, List<PendingStep> batch) throws SQLException {
+        int size = batch.size();
+        String[] ids = new String[size];
+        String[] runIds = new String[size];
+        Integer[] stepIndexes = new Integer[size];
+        String[] stages = new String[size];
+        byte[][] contents = new byte[size][];
+        Timestamp[] createdAt = new Timestamp[size];
+        for (int i = 0; i < size; i++) {
+            PendingStep step = batch.get(i);
+            ids[i] = step.id;
+            runIds[i] = step.runId;
+            stepIndexes[i] = step.stepIndex;
+            stages[i] = step.stage;
+            contents[i] = step.content;
+            createdAt[i] = new Timestamp(step.createdAtMillis);
+        }
+
+        PreparedStatement ps = con.prepareStatement(FLUSH_SQL);
+        ps.setArray(1, con.createArrayOf("text", ids));
+        ps.setArray(2, con.createArrayOf("text", runIds));
+        ps.setArray(3, con.createArrayOf("int4", stepIndexes));
+        ps.setArray(4, con.createArrayOf("text", stages));
+        ps.setArray(5, con.createArrayOf("bytea", contents));
+        ps.setArray(6, con.createArrayOf("timestamptz", createdAt));
+        return ps;
+    }
+
+    @Override
+    public void start() {
+        written = Counter.builder("mcp.thinking.steps").tag("result", "written").register(meterRegistry);
+        skipped = Counter.builder("mcp.thinking.steps").tag("result", "skipped").register(meterRegistry);
+        failed = Counter.builder("mcp.thinking.steps").tag("result", "failed").register(meterRegistry);
+        Gauge.builder("mcp.thinking.steps.buffered", buffered, AtomicInteger::get).register(meterRegistry);
+
+        writer = new Thread(this::writeBehind, "chain-step-writer");
+        writer.setDaemon(true);
+        running = true;
+        writer.start();
+        logger.info("Chain step writer started: batch={}, flush interval={}ms, max buffered={}",
+            batchSize, flushIntervalMs, maxBuffered);
+    }
+
+    @Override
+    public void stop() {
+        if (!running) {
+            return;
+        }
+        running = false;
+        LockSupport.unpark(writer);
+        try {
+            writer.join(TimeUnit.SECONDS.toMillis(10));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        logger.info("Chain step writer stopped");
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    /**
+     * Same phase as the audit writer, so steps added by the last requests are written.
+     */
+    @Override
+    public int getPhase() {
+        return SmartLifecycle.DEFAULT_PHASE - 4096;
+    }
+
+    private static final class RunSteps {
+        private final List<PendingStep> steps = new ArrayList<>();
+        private long firstAddedNanos;
+        private boolean flushRequested;
+        private boolean removed;
+    }
+
+    private static final class PendingStep {
+        private final String id;
+        private final String runId;
+        private final int stepIndex;
+        private final String stage;
+        private final byte[] content;
+        private final long createdAtMillis;
+
+        private PendingStep(String id, String runId, int stepIndex, String stage, byte[] content,
+                            long createdAtMillis) {
+            this.id = id;
+            this.runId = runId;
+            this.stepIndex = stepIndex;
+            this.stage = stage;
+            this.content = content;
+            this.createdAtMillis = createdAtMillis;
+        }
+    }
+}
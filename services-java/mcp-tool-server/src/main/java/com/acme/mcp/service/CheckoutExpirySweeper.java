@@ -0,0 +1,166 @@
+package com.acme.mcp.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Marks open checkout sessions past {@code expires_at} as EXPIRED, and deletes expired
+ * idempotency keys, every {@code interval-ms}. Work is done in batches of
+ * {@code batch-size} rows, each committed on its own, so no sweep holds many row locks.
+ * <p>
+ * Only one instance sweeps at a time: a sweep runs on a single pooled connection that holds
+ * a session advisory lock, and instances that cannot take the lock skip that round.
+ * Requests never wait for the sweeper; {@link CheckoutService} treats an open session past
+ * its expiry as expired whether or not it has been swept yet.
+ */
+@Component
+public class CheckoutExpirySweeper implements SmartLifecycle {
+    private static final Logger logger = LoggerFactory.getLogger(CheckoutExpirySweeper.class);
+
+    /** pg advisory lock key shared by all tool server instances ("ckexpire"). */
+    private static final long LOCK_KEY = 0x636b_6578_7069_7265L;
+
+    // Served by idx_checkout_sessions_status_expires_at. Rows locked by a request (being
+    // completed or updated) are left for the next batch.
+    private static final String EXPIRE_SQL =
+        "UPDATE checkout_sessions s SET status = 'EXPIRED', updated_at = now() " +
+        "FROM (SELECT id FROM checkout_sessions " +
+        "  WHERE status IN (" + CheckoutService.OPEN_STATUSES + ") AND expires_at <= now() " +
+        "  LIMIT ? FOR UPDATE SKIP LOCKED) due " +
+        "WHERE s.id = due.id";
+
+    private static final String DELETE_KEYS_SQL =
+        "DELETE FROM idempotency_keys WHERE key IN (" +
+        "  SELECT key FROM idempotency_keys WHERE expires_at <= now() LIMIT ? FOR UPDATE SKIP LOCKED)";
+
+    private final JdbcTemplate jdbc;
+    private final MeterRegistry meterRegistry;
+
+    @Value("${checkout.sweeper.enabled:true}")
+    private boolean enabled;
+
+    @Value("${checkout.sweeper.interval-ms:30000}")
+    private long intervalMs;
+
+    @Value("${checkout.sweeper.batch-size:500}")
+    private int batchSize;
+
+    private volatile boolean running;
+    private ScheduledExecutorService scheduler;
+    private Counter expired;
+    private Counter keysDeleted;
+
+    public CheckoutExpirySweeper(@Qualifier("bulkJdbcTemplate") JdbcTemplate jdbc, MeterRegistry meterRegistry) {
+        this.jdbc = jdbc;
+        this.meterRegistry = meterRegistry;
+    }
+
+    /**
+     * One sweep; returns the number of sessions expired, or -1 if another instance holds
+     * the lock.
+     */
+    public int sweep() {
+        return jdbc.execute((ConnectionCallback<Integer>) connection -> {
+            if (!advisoryLock(connection, "SELECT pg_try_advisory_lock(?)")) {
+                return -1;
+            }
+            try {
+                int sessions = drain(connection, EXPIRE_SQL);
+                int keys = drain(connection, DELETE_KEYS_SQL);
+                if (expired != null) {
+                    expired.increment(sessions);
+                    keysDeleted.increment(keys);
+                }
+                if (sessions > 0 || keys > 0) {
+                    logger.info("Expired {} checkout sessions, deleted {} idempotency keys", sessions, keys);
+                }
+                return sessions;
+            } finally {
+                advisoryLock(connection, "SELECT pg_advisory_unlock(?)");
+            }
+        });
+    }
+
+    private int drain(Connection connection, String sql) throws SQLException {
+        int total = 0;
+        try (PreparedStatement ps = connection.prepareStatement(sql)) {
+            ps.setInt(1, batchSize);
+            int batch;
+            do {
+                batch = ps.executeUpdate();
+                total += batch;
+            } while (batch == batchSize);
+        }
+        return total;
+    }
+
+    private static boolean advisoryLock(Connection connection, String sql) throws SQLException {
+        try (PreparedStatement ps = connection.prepareStatement(sql)) {
+            ps.setLong(1, LOCK_KEY);
+            try (ResultSet rs = ps.executeQuery()) {
+                return rs.next() && rs.getBoolean(1);
+            }
+        }
+    }
+
+    private void sweepQuietly() {
+        try {
+            sweep();
+        } catch (Exception e) {
+            logger.warn("Checkout expiry sweep failed: {}", e.getMessage());
+        }
+    }
+
+    @Override
+    public void start() {
+        if (!enabled) {
+            logger.info("Checkout expiry sweeper disabled");
+            return;
+        }
+        expired = Counter.builder("mcp.checkout.expired").register(meterRegistry);
+        keysDeleted = Counter.builder("mcp.idempotency.keys.deleted").register(meterRegistry);
+        scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "checkout-expiry-sweeper");
+            thread.setDaemon(true);
+            return thread;
+        });
+        running = true;
+        scheduler.scheduleWithFixedDelay(this::sweepQuietly, intervalMs, intervalMs, TimeUnit.MILLISECONDS);
+        logger.info("Checkout expiry sweeper started: interval={}ms, batch size={}", intervalMs, batchSize);
+    }
+
+    @Override
+    public void stop() {
+        if (!running) {
+            return;
+        }
+        running = false;
+        scheduler.shutdown();
+        try {
+            scheduler.awaitTermination(10, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+}
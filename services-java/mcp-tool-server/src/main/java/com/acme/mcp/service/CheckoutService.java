@@ -1,16 +1,28 @@
 package com.acme.mcp.service;
 
+import com.acme.mcp.cart.CartStore;
+import com.acme.mcp.cart.CartTotals;
+import com.acme.mcp.shipping.RateCard;
+import com.acme.mcp.shipping.ShippingEngine;
+import com.acme.mcp.tracing.ToolTracing;
 import com.acme.shared.ToolError;
 import com.acme.shared.ToolResponse;
+import com.fasterxml.jackson.databind.DeserializationFeature;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DuplicateKeyException;
 import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.stereotype.Service;
 
 import java.math.BigDecimal;
-import java.math.RoundingMode;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.sql.Timestamp;
+import java.sql.Types;
 import java.time.Instant;
 import java.time.temporal.ChronoUnit;
 import java.util.*;
@@ -18,8 +30,131 @@ import java.util.*;
 @Service
 public class CheckoutService {
     private static final Logger logger = LoggerFactory.getLogger(CheckoutService.class);
+
+    /** Statuses a session can still be updated, completed or expired from. */
+    static final String OPEN_STATUSES = "'CREATED', 'SHIPPING_SET', 'PAYMENT_SET'";
+
+    // An open session past its expiry reads as EXPIRED whether or not CheckoutExpirySweeper
+    // has marked it yet
+    private static final String STATUS_COLUMN =
+        "CASE WHEN status IN (" + OPEN_STATUSES + ") AND expires_at <= now() THEN 'EXPIRED' ELSE status END";
+
+    /** Columns read back for checkout responses; JSON columns as text. */
+    private static final String SESSION_COLUMNS =
+        "id, " + STATUS_COLUMN + " AS status, subtotal, tax, shipping_cost, discount, total, currency, expires_at, " +
+        "shipping_address::text AS shipping_address, billing_address::text AS billing_address, payment_method";
+
+    // Reads the cart and its items, prices them and inserts the session in one round trip.
+    // No session is inserted when the cart is missing or empty; the outer select tells which.
+    private static final String CREATE_SQL =
+        "WITH cart AS (" +
+        "  SELECT id FROM carts WHERE id = ? AND user_id = ?" +
+        "), priced AS (" +
+        "  SELECT count(i.product_id) AS line_count, " +
+        "         coalesce(sum(i.qty * i.unit_price), 0) AS subtotal, " +
+        "         jsonb_agg(jsonb_build_object('cart_id', i.cart_id, 'product_id', i.product_id, " +
+        "           'provider', i.provider, 'qty', i.qty, 'unit_price', i.unit_price, " +
+        "           'metadata', i.metadata, 'added_at', i.added_at) ORDER BY i.added_at) " +
+        "           FILTER (WHERE i.product_id IS NOT NULL) AS items " +
+        "  FROM cart LEFT JOIN cart_items i ON i.cart_id = cart.id" +
+        "), session AS (" +
+        "  INSERT INTO checkout_sessions (id, user_id, cart_id, provider, status, items, " +
+        "    subtotal, tax, shipping_cost, discount, total, currency, expires_at) " +
+        "  SELECT ?, ?, ?, ?, 'CREATED', p.items, p.subtotal, t.tax, 0, 0, p.subtotal + t.tax, 'INR', ? " +
+        "  FROM priced p CROSS JOIN LATERAL (SELECT round(p.subtotal * ? / 10000, 2) AS tax) t " +
+        "  WHERE p.line_count > 0 " +
+        "  RETURNING subtotal, tax, total" +
+        ") SELECT EXISTS (SELECT 1 FROM cart) AS cart_found, p.line_count, s.subtotal, s.tax, s.total " +
+        "FROM priced p LEFT JOIN session s ON true";
+
+    // Applies whichever of shipping address, billing address and payment method are given
+    // (null parameters keep the stored value) and returns the updated session. The outer
+    // select also returns the session as it was, so a refused update can be explained.
+    // Shipping is the address's rate card (base cost, per extra item) applied to the units
+    // in the session, as RateCard.cost does.
+    private static final String UPDATE_SQL =
+        "WITH existing AS (" +
+        "  SELECT " + STATUS_COLUMN + " AS status, " +
+        "    (SELECT coalesce(sum((i->>'qty')::int), 0) FROM jsonb_array_elements(items) i) AS units " +
+        "  FROM checkout_sessions WHERE id = ? AND user_id = ?" +
+        "), changes AS (" +
+        "  SELECT ?::jsonb AS shipping_address, " +
+        "         ?::numeric + ?::numeric * greatest(e.units - 1, 0) AS shipping_cost, " +
+        "         ?::jsonb AS billing_address, ?::text AS payment_method " +
+        "  FROM existing e" +
+        "), updated AS (" +
+        "  UPDATE checkout_sessions s SET " +
+        "    shipping_address = coalesce(ch.shipping_address, s.shipping_address), " +
+        "    shipping_cost = coalesce(ch.shipping_cost, s.shipping_cost), " +
+        "    total = CASE WHEN ch.shipping_cost IS NULL THEN s.total " +
+        "                 ELSE s.subtotal + s.tax + ch.shipping_cost - s.discount END, " +
+        "    billing_address = coalesce(ch.billing_address, s.billing_address), " +
+        "    payment_method = coalesce(ch.payment_method, s.payment_method), " +
+        "    status = CASE " +
+        "      WHEN ch.payment_method IS NOT NULL " +
+        "       AND (ch.shipping_address IS NOT NULL OR s.status = 'SHIPPING_SET') THEN 'PAYMENT_SET' " +
+        "      WHEN ch.shipping_address IS NOT NULL THEN 'SHIPPING_SET' " +
+        "      ELSE s.status END, " +
+        "    expires_at = ?, " +
+        "    updated_at = now() " +
+        "  FROM changes ch " +
+        "  WHERE s.id = ? AND s.user_id = ? AND s.status IN (" + OPEN_STATUSES + ") AND s.expires_at > now() " +
+        "  RETURNING s.id, s.status, s.subtotal, s.tax, s.shipping_cost, s.discount, s.total, s.currency, " +
+        "    s.expires_at, s.shipping_address::text AS shipping_address, " +
+        "    s.billing_address::text AS billing_address, s.payment_method" +
+        ") SELECT e.status AS current_status, u.* " +
+        "FROM existing e LEFT JOIN updated u ON true";
+
+    private static final String GET_SQL =
+        "SELECT " + SESSION_COLUMNS + " " +
+        "FROM checkout_sessions WHERE id = ? AND user_id = ?";
+
+    private static final String COMPLETE_SCOPE = "checkout.complete";
+
+    // A response already stored under the idempotency key, and the session; always one row
+    private static final String COMPLETE_LOOKUP_SQL =
+        "SELECT k.request_hash, k.response_json::text AS stored_response, s.* " +
+        "FROM (SELECT 1) one " +
+        "LEFT JOIN idempotency_keys k ON k.key = ? " +
+        "LEFT JOIN (SELECT " + SESSION_COLUMNS + ", cart_id, provider FROM checkout_sessions " +
+        "  WHERE id = ? AND user_id = ?) s ON true";
+
+    // Moves the session to COMPLETED only if it is still completable with the total and
+    // payment method the response quotes, then records the shipping address, the order and
+    // the response under the idempotency key. One statement, so all of it commits or none
+    // does; a concurrent completion waits on the session row and then matches nothing.
+    private static final String COMPLETE_SQL =
+        "WITH completed AS (" +
+        "  UPDATE checkout_sessions SET status = 'COMPLETED', updated_at = now() " +
+        "  WHERE id = ? AND user_id = ? AND status IN (" + OPEN_STATUSES + ") " +
+        "    AND expires_at > now() AND shipping_address IS NOT NULL AND total = ? AND payment_method = ? " +
+        "  RETURNING user_id, cart_id, provider, payment_method, currency, total, shipping_address" +
+        "), address AS (" +
+        "  INSERT INTO addresses (id, user_id, line1, line2, city, state, pincode, country) " +
+        "  SELECT ?, c.user_id, coalesce(c.shipping_address->>'line1', ''), c.shipping_address->>'line2', " +
+        "    c.shipping_address->>'city', c.shipping_address->>'state', c.shipping_address->>'pincode', " +
+        "    coalesce(c.shipping_address->>'country', 'IN') " +
+        "  FROM completed c " +
+        "  RETURNING id" +
+        "), placed AS (" +
+        "  INSERT INTO orders (id, user_id, cart_id, provider, address_id, status, payment_method, currency, total) " +
+        "  SELECT ?, c.user_id, c.cart_id, c.provider, a.id, 'PENDING', c.payment_method, c.currency, c.total " +
+        "  FROM completed c CROSS JOIN address a " +
+        "  RETURNING id" +
+        ") INSERT INTO idempotency_keys (key, user_id, scope, request_hash, response_json, expires_at) " +
+        "SELECT ?, ?, ?, ?, ?::jsonb, ? FROM placed " +
+        "RETURNING key";
+
+    private static final int[] UPDATE_TYPES = {
+        Types.VARCHAR, Types.VARCHAR,
+        Types.VARCHAR, Types.NUMERIC, Types.NUMERIC, Types.VARCHAR, Types.VARCHAR,
+        Types.TIMESTAMP, Types.VARCHAR, Types.VARCHAR};
+
     private final JdbcTemplate jdbc;
     private final ObjectMapper objectMapper;
+    private final CartStore cartStore;
+    private final ShippingEngine shippingEngine;
+    private final ObjectReader storedResponseReader;
 
     @Value("${checkout.expiration-minutes:30}")
     private int expirationMinutes;
@@ -27,13 +162,22 @@ public class CheckoutService {
     @Value("${checkout.high-value-threshold:50000}")
     private BigDecimal highValueThreshold;
 
-    public CheckoutService(JdbcTemplate jdbc, ObjectMapper objectMapper) {
+    @Value("${checkout.idempotency-ttl-hours:24}")
+    private int idempotencyTtlHours;
+
+    public CheckoutService(JdbcTemplate jdbc, ObjectMapper objectMapper, CartStore cartStore,
+                           ShippingEngine shippingEngine) {
         this.jdbc = jdbc;
         this.objectMapper = objectMapper;
+        this.cartStore = cartStore;
+        this.shippingEngine = shippingEngine;
+        // Amounts come back as they were stored, not as doubles
+        this.storedResponseReader = objectMapper.readerFor(Map.class)
+            .with(DeserializationFeature.USE_BIG_DECIMAL_FOR_FLOATS);
     }
 
     public ToolResponse<Map<String, Object>> createCheckout(Map<String, Object> request) {
-        String traceId = UUID.randomUUID().toString();
+        String traceId = ToolTracing.currentTraceId();
         try {
             String userId = (String) request.get("userId");
             String cartId = (String) request.get("cartId");
@@ -41,43 +185,31 @@ public class CheckoutService {
 
             logger.info("[{}] Creating checkout session for user={}, cart={}", traceId, userId, cartId);
 
-            Map<String, Object> cart = getCart(cartId, userId);
-            if (cart == null) {
-                return ToolResponse.failure(traceId, new ToolError(ToolError.Code.NOT_FOUND, "Cart not found"));
-            }
-
-            List<Map<String, Object>> cartItems = getCartItems(cartId);
-            if (cartItems.isEmpty()) {
-                return ToolResponse.failure(traceId, new ToolError(ToolError.Code.VALIDATION_ERROR, "Cart is empty"));
-            }
+            // Price what the user last saw, not what the write-behind has stored so far
+            cartStore.flush(userId);
 
             String checkoutId = UUID.randomUUID().toString();
             Instant expiresAt = Instant.now().plus(expirationMinutes, ChronoUnit.MINUTES);
 
-            BigDecimal subtotal = calculateSubtotal(cartItems);
-            BigDecimal tax = subtotal.multiply(new BigDecimal("0.18"));
-            BigDecimal shippingCost = BigDecimal.ZERO;
-            BigDecimal discount = BigDecimal.ZERO;
-            BigDecimal total = subtotal.add(tax).add(shippingCost).subtract(discount);
-
-            String itemsJson = objectMapper.writeValueAsString(cartItems);
-
-            jdbc.update(
-                "INSERT INTO checkout_sessions (id, user_id, cart_id, provider, status, items, " +
-                "subtotal, tax, shipping_cost, discount, total, currency, expires_at) " +
-                "VALUES (?, ?, ?, ?, ?, ?::jsonb, ?, ?, ?, ?, ?, ?, ?)",
-                checkoutId, userId, cartId, provider, "CREATED", itemsJson,
-                subtotal, tax, shippingCost, discount, total, "INR", expiresAt
-            );
+            Map<String, Object> created = jdbc.queryForMap(CREATE_SQL,
+                cartId, userId,
+                checkoutId, userId, cartId, provider, Timestamp.from(expiresAt),
+                CartTotals.TAX_RATE_BASIS_POINTS);
+            if (!Boolean.TRUE.equals(created.get("cart_found"))) {
+                return ToolResponse.failure(traceId, new ToolError(ToolError.Code.NOT_FOUND, "Cart not found"));
+            }
+            if (created.get("total") == null) {
+                return ToolResponse.failure(traceId, new ToolError(ToolError.Code.VALIDATION_ERROR, "Cart is empty"));
+            }
 
             Map<String, Object> response = new HashMap<>();
             response.put("checkoutId", checkoutId);
             response.put("status", "CREATED");
-            response.put("subtotal", formatMoney(subtotal, "INR"));
-            response.put("tax", formatMoney(tax, "INR"));
-            response.put("total", formatMoney(total, "INR"));
+            response.put("subtotal", formatMoney((BigDecimal) created.get("subtotal"), "INR"));
+            response.put("tax", formatMoney((BigDecimal) created.get("tax"), "INR"));
+            response.put("total", formatMoney((BigDecimal) created.get("total"), "INR"));
             response.put("expiresAt", expiresAt.toString());
-            response.put("itemCount", cartItems.size());
+            response.put("itemCount", ((Number) created.get("line_count")).intValue());
 
             return ToolResponse.success(traceId, response);
         } catch (Exception e) {
@@ -87,75 +219,49 @@ public class CheckoutService {
     }
 
     public ToolResponse<Map<String, Object>> updateCheckout(Map<String, Object> request) {
-        String traceId = UUID.randomUUID().toString();
+        String traceId = ToolTracing.currentTraceId();
         try {
             String checkoutId = (String) request.get("checkoutId");
             String userId = (String) request.get("userId");
 
             logger.info("[{}] Updating checkout session {}", traceId, checkoutId);
 
-            Map<String, Object> checkout = getCheckout(checkoutId, userId);
-            if (checkout == null) {
-                return ToolResponse.failure(traceId, new ToolError(ToolError.Code.NOT_FOUND, "Checkout session not found"));
+            Map<String, Object> shippingAddress = (Map<String, Object>) request.get("shippingAddress");
+            Object billingAddress = request.get("billingAddress");
+            RateCard rateCard = null;
+            if (shippingAddress != null) {
+                rateCard = shippingEngine.rateCard((String) shippingAddress.get("pincode"));
+                if (rateCard == null) {
+                    return ToolResponse.failure(traceId, new ToolError(ToolError.Code.VALIDATION_ERROR,
+                        "Shipping address needs a valid 6-digit pincode"));
+                }
             }
-
-            if (isExpired((Instant) checkout.get("expires_at"))) {
-                return ToolResponse.failure(traceId, new ToolError(ToolError.Code.VALIDATION_ERROR, "Checkout session expired"));
+            // Typed so that absent (null) values keep one server-side prepared statement
+            List<Map<String, Object>> rows = jdbc.queryForList(UPDATE_SQL,
+                new Object[]{
+                    checkoutId, userId,
+                    shippingAddress != null ? objectMapper.writeValueAsString(shippingAddress) : null,
+                    rateCard != null ? rateCard.getBaseCost() : null,
+                    rateCard != null ? rateCard.getPerExtraItem() : null,
+                    billingAddress != null ? objectMapper.writeValueAsString(billingAddress) : null,
+                    request.get("paymentMethod"),
+                    Timestamp.from(Instant.now().plus(15, ChronoUnit.MINUTES)),
+                    checkoutId, userId},
+                UPDATE_TYPES);
+            if (rows.isEmpty()) {
+                return ToolResponse.failure(traceId, new ToolError(ToolError.Code.NOT_FOUND, "Checkout session not found"));
             }
 
-            String status = (String) checkout.get("status");
-            if ("COMPLETED".equals(status) || "CANCELLED".equals(status)) {
+            Map<String, Object> checkout = rows.get(0);
+            if (checkout.get("id") == null) {
+                String status = (String) checkout.get("current_status");
+                if ("EXPIRED".equals(status)) {
+                    return ToolResponse.failure(traceId, new ToolError(ToolError.Code.VALIDATION_ERROR, "Checkout session expired"));
+                }
                 return ToolResponse.failure(traceId, new ToolError(ToolError.Code.VALIDATION_ERROR,
                     "Cannot update " + status.toLowerCase() + " checkout"));
             }
 
-            Map<String, Object> updates = new HashMap<>();
-            String newStatus = status;
-
-            if (request.containsKey("shippingAddress")) {
-                updates.put("shipping_address", objectMapper.writeValueAsString(request.get("shippingAddress")));
-                newStatus = "SHIPPING_SET";
-
-                BigDecimal shippingCost = calculateShipping(request.get("shippingAddress"));
-                updates.put("shipping_cost", shippingCost);
-
-                BigDecimal subtotal = (BigDecimal) checkout.get("subtotal");
-                BigDecimal tax = (BigDecimal) checkout.get("tax");
-                BigDecimal discount = (BigDecimal) checkout.get("discount");
-                BigDecimal newTotal = subtotal.add(tax).add(shippingCost).subtract(discount);
-                updates.put("total", newTotal);
-            }
-
-            if (request.containsKey("billingAddress")) {
-                updates.put("billing_address", objectMapper.writeValueAsString(request.get("billingAddress")));
-            }
-
-            if (request.containsKey("paymentMethod")) {
-                updates.put("payment_method", request.get("paymentMethod"));
-                if (newStatus.equals("SHIPPING_SET")) {
-                    newStatus = "PAYMENT_SET";
-                }
-            }
-
-            updates.put("status", newStatus);
-            Instant newExpiresAt = Instant.now().plus(15, ChronoUnit.MINUTES);
-            updates.put("expires_at", newExpiresAt);
-
-            StringBuilder sql = new StringBuilder("UPDATE checkout_sessions SET updated_at = NOW()");
-            List<Object> params = new ArrayList<>();
-
-            for (Map.Entry<String, Object> entry : updates.entrySet()) {
-                sql.append(", ").append(entry.getKey()).append(" = ?");
-                params.add(entry.getValue());
-            }
-
-            sql.append(" WHERE id = ? AND user_id = ?");
-            params.add(checkoutId);
-            params.add(userId);
-
-            jdbc.update(sql.toString(), params.toArray());
-
-            checkout = getCheckout(checkoutId, userId);
             Map<String, Object> response = buildCheckoutResponse(checkout);
             return ToolResponse.success(traceId, response);
         } catch (Exception e) {
@@ -165,22 +271,17 @@ public class CheckoutService {
     }
 
     public ToolResponse<Map<String, Object>> getCheckoutById(Map<String, Object> request) {
-        String traceId = UUID.randomUUID().toString();
+        String traceId = ToolTracing.currentTraceId();
         try {
             String checkoutId = (String) request.get("checkoutId");
             String userId = (String) request.get("userId");
 
-            Map<String, Object> checkout = getCheckout(checkoutId, userId);
-            if (checkout == null) {
+            List<Map<String, Object>> rows = jdbc.queryForList(GET_SQL, checkoutId, userId);
+            if (rows.isEmpty()) {
                 return ToolResponse.failure(traceId, new ToolError(ToolError.Code.NOT_FOUND, "Checkout session not found"));
             }
 
-            if (isExpired((Instant) checkout.get("expires_at"))) {
-                jdbc.update("UPDATE checkout_sessions SET status = 'EXPIRED' WHERE id = ?", checkoutId);
-                checkout.put("status", "EXPIRED");
-            }
-
-            Map<String, Object> response = buildCheckoutResponse(checkout);
+            Map<String, Object> response = buildCheckoutResponse(rows.get(0));
             return ToolResponse.success(traceId, response);
         } catch (Exception e) {
             logger.error("[{}] Error getting checkout", traceId, e);
@@ -189,38 +290,30 @@ public class CheckoutService {
     }
 
     public ToolResponse<Map<String, Object>> completeCheckout(Map<String, Object> request) {
-        String traceId = UUID.randomUUID().toString();
+        String traceId = ToolTracing.currentTraceId();
         try {
             String checkoutId = (String) request.get("checkoutId");
             String userId = (String) request.get("userId");
+            String clientKey = (String) request.get("idempotencyKey");
+            // Without a client key, completing the same checkout again is the retry
+            String key = clientKey != null
+                ? COMPLETE_SCOPE + ":" + userId + ":" + clientKey
+                : COMPLETE_SCOPE + ":" + checkoutId;
+            String requestHash = sha256Hex(userId + "\n" + checkoutId);
 
             logger.info("[{}] Completing checkout session {}", traceId, checkoutId);
 
-            Map<String, Object> checkout = getCheckout(checkoutId, userId);
-            if (checkout == null) {
-                return ToolResponse.failure(traceId, new ToolError(ToolError.Code.NOT_FOUND, "Checkout session not found"));
-            }
-
-            if (isExpired((Instant) checkout.get("expires_at"))) {
-                return ToolResponse.failure(traceId, new ToolError(ToolError.Code.VALIDATION_ERROR, "Checkout session expired"));
-            }
-
-            String status = (String) checkout.get("status");
-            if ("COMPLETED".equals(status)) {
-                return ToolResponse.failure(traceId, new ToolError(ToolError.Code.VALIDATION_ERROR, "Checkout already completed"));
+            Map<String, Object> checkout = jdbc.queryForMap(COMPLETE_LOOKUP_SQL, key, checkoutId, userId);
+            if (checkout.get("request_hash") != null) {
+                return storedCompletion(traceId, checkout, requestHash);
             }
-            if ("CANCELLED".equals(status)) {
-                return ToolResponse.failure(traceId, new ToolError(ToolError.Code.VALIDATION_ERROR, "Checkout was cancelled"));
-            }
-
-            if (checkout.get("shipping_address") == null) {
-                return ToolResponse.failure(traceId, new ToolError(ToolError.Code.VALIDATION_ERROR, "Shipping address required"));
-            }
-            if (checkout.get("payment_method") == null) {
-                return ToolResponse.failure(traceId, new ToolError(ToolError.Code.VALIDATION_ERROR, "Payment method required"));
+            ToolError refused = validateCompletion(checkout);
+            if (refused != null) {
+                return ToolResponse.failure(traceId, refused);
             }
 
             BigDecimal total = (BigDecimal) checkout.get("total");
+            String paymentMethod = (String) checkout.get("payment_method");
 
             boolean requiresConfirmation = total.compareTo(highValueThreshold) > 0;
             if (requiresConfirmation && !Boolean.TRUE.equals(request.get("confirmed"))) {
@@ -232,22 +325,6 @@ public class CheckoutService {
             }
 
             String orderId = UUID.randomUUID().toString();
-            String cartId = (String) checkout.get("cart_id");
-            String provider = (String) checkout.get("provider");
-            String paymentMethod = (String) checkout.get("payment_method");
-
-            String addressId = extractOrCreateAddress(checkout.get("shipping_address"), userId);
-
-            jdbc.update(
-                "INSERT INTO orders (id, user_id, cart_id, provider, address_id, status, payment_method, " +
-                "currency, total, created_at, updated_at) " +
-                "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, NOW(), NOW())",
-                orderId, userId, cartId, provider, addressId, "PENDING", paymentMethod,
-                checkout.get("currency"), total
-            );
-
-            jdbc.update("UPDATE checkout_sessions SET status = 'COMPLETED', updated_at = NOW() WHERE id = ?", checkoutId);
-
             Map<String, Object> response = new HashMap<>();
             response.put("orderId", orderId);
             response.put("checkoutId", checkoutId);
@@ -255,7 +332,30 @@ public class CheckoutService {
             response.put("total", formatMoney(total, "INR"));
             response.put("paymentMethod", paymentMethod);
 
-            return ToolResponse.success(traceId, response);
+            List<Map<String, Object>> completed;
+            try {
+                completed = jdbc.queryForList(COMPLETE_SQL,
+                    checkoutId, userId, total, paymentMethod,
+                    UUID.randomUUID().toString(),
+                    orderId,
+                    key, userId, COMPLETE_SCOPE, requestHash, objectMapper.writeValueAsString(response),
+                    Timestamp.from(Instant.now().plus(idempotencyTtlHours, ChronoUnit.HOURS)));
+            } catch (DuplicateKeyException e) {
+                // Same key, different checkout; the whole statement was rolled back
+                completed = List.of();
+            }
+            if (!completed.isEmpty()) {
+                return ToolResponse.success(traceId, response);
+            }
+
+            // Refused: a concurrent request completed it first, or the session changed since it was read
+            checkout = jdbc.queryForMap(COMPLETE_LOOKUP_SQL, key, checkoutId, userId);
+            if (checkout.get("request_hash") != null) {
+                return storedCompletion(traceId, checkout, requestHash);
+            }
+            refused = validateCompletion(checkout);
+            return ToolResponse.failure(traceId, refused != null ? refused
+                : new ToolError(ToolError.Code.VALIDATION_ERROR, "Checkout session changed, please retry"));
         } catch (Exception e) {
             logger.error("[{}] Error completing checkout", traceId, e);
             return ToolResponse.failure(traceId, new ToolError(ToolError.Code.INTERNAL_ERROR, e.getMessage()));
@@ -263,7 +363,7 @@ public class CheckoutService {
     }
 
     public ToolResponse<Map<String, Object>> cancelCheckout(Map<String, Object> request) {
-        String traceId = UUID.randomUUID().toString();
+        String traceId = ToolTracing.currentTraceId();
         try {
             String checkoutId = (String) request.get("checkoutId");
             String userId = (String) request.get("userId");
@@ -292,41 +392,46 @@ public class CheckoutService {
         }
     }
 
-    private Map<String, Object> getCart(String cartId, String userId) {
-        List<Map<String, Object>> results = jdbc.queryForList(
-            "SELECT * FROM carts WHERE id = ? AND user_id = ?", cartId, userId
-        );
-        return results.isEmpty() ? null : results.get(0);
-    }
-
-    private List<Map<String, Object>> getCartItems(String cartId) {
-        return jdbc.queryForList("SELECT * FROM cart_items WHERE cart_id = ?", cartId);
-    }
-
-    private Map<String, Object> getCheckout(String checkoutId, String userId) {
-        List<Map<String, Object>> results = jdbc.queryForList(
-            "SELECT * FROM checkout_sessions WHERE id = ? AND user_id = ?", checkoutId, userId
-        );
-        return results.isEmpty() ? null : results.get(0);
-    }
-
-    private BigDecimal calculateSubtotal(List<Map<String, Object>> items) {
-        return items.stream()
-            .map(item -> {
-                BigDecimal price = (BigDecimal) item.get("unit_price");
-                int qty = (Integer) item.get("qty");
-                return price.multiply(BigDecimal.valueOf(qty));
-            })
-            .reduce(BigDecimal.ZERO, BigDecimal::add)
-            .setScale(2, RoundingMode.HALF_UP);
+    private ToolError validateCompletion(Map<String, Object> checkout) {
+        if (checkout.get("id") == null) {
+            return new ToolError(ToolError.Code.NOT_FOUND, "Checkout session not found");
+        }
+        String status = (String) checkout.get("status");
+        if ("COMPLETED".equals(status)) {
+            return new ToolError(ToolError.Code.VALIDATION_ERROR, "Checkout already completed");
+        }
+        if ("CANCELLED".equals(status)) {
+            return new ToolError(ToolError.Code.VALIDATION_ERROR, "Checkout was cancelled");
+        }
+        if ("EXPIRED".equals(status)) {
+            return new ToolError(ToolError.Code.VALIDATION_ERROR, "Checkout session expired");
+        }
+        if (checkout.get("shipping_address") == null) {
+            return new ToolError(ToolError.Code.VALIDATION_ERROR, "Shipping address required");
+        }
+        if (checkout.get("payment_method") == null) {
+            return new ToolError(ToolError.Code.VALIDATION_ERROR, "Payment method required");
+        }
+        return null;
     }
 
-    private BigDecimal calculateShipping(Object shippingAddress) {
-        return new BigDecimal("50.00");
+    private ToolResponse<Map<String, Object>> storedCompletion(
+            String traceId, Map<String, Object> row, String requestHash) throws Exception {
+        if (!requestHash.equals(row.get("request_hash"))) {
+            return ToolResponse.failure(traceId, new ToolError(ToolError.Code.VALIDATION_ERROR,
+                "Idempotency key was already used for a different request"));
+        }
+        Map<String, Object> response = storedResponseReader.readValue((String) row.get("stored_response"));
+        return ToolResponse.success(traceId, response);
     }
 
-    private boolean isExpired(Instant expiresAt) {
-        return Instant.now().isAfter(expiresAt);
+    private static String sha256Hex(String value) {
+        try {
+            return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256")
+                .digest(value.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
     }
 
     private Map<String, Object> formatMoney(BigDecimal amount, String currency) {
@@ -337,10 +442,6 @@ public class CheckoutService {
         return money;
     }
 
-    private String extractOrCreateAddress(Object shippingAddressObj, String userId) {
-        return UUID.randomUUID().toString();
-    }
-
     private Map<String, Object> buildCheckoutResponse(Map<String, Object> checkout) throws Exception {
         Map<String, Object> response = new HashMap<>();
         response.put("checkoutId", checkout.get("id"));
@@ -350,7 +451,7 @@ public class CheckoutService {
         response.put("shippingCost", formatMoney((BigDecimal) checkout.get("shipping_cost"), (String) checkout.get("currency")));
         response.put("discount", formatMoney((BigDecimal) checkout.get("discount"), (String) checkout.get("currency")));
         response.put("total", formatMoney((BigDecimal) checkout.get("total"), (String) checkout.get("currency")));
-        response.put("expiresAt", checkout.get("expires_at").toString());
+        response.put("expiresAt", ((Timestamp) checkout.get("expires_at")).toInstant().toString());
 
         if (checkout.get("shipping_address") != null) {
             response.put("shippingAddress", objectMapper.readValue((String) checkout.get("shipping_address"), Map.class));
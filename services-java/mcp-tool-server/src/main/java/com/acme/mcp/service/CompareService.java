@@ -2,6 +2,7 @@ package com.acme.mcp.service;
 
 import com.acme.mcp.adapters.ProviderAdapter;
 import com.acme.mcp.config.ProviderConfigService;
+import com.acme.mcp.metrics.ToolMetrics;
 import com.acme.shared.*;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -14,10 +15,13 @@ public class CompareService {
     private static final Logger logger = LoggerFactory.getLogger(CompareService.class);
     private final List<ProviderAdapter> providers;
     private final ProviderConfigService providerConfigService;
+    private final ToolMetrics toolMetrics;
 
-    public CompareService(List<ProviderAdapter> providers, ProviderConfigService providerConfigService) {
+    public CompareService(List<ProviderAdapter> providers, ProviderConfigService providerConfigService,
+                          ToolMetrics toolMetrics) {
         this.providers = providers;
         this.providerConfigService = providerConfigService;
+        this.toolMetrics = toolMetrics;
     }
 
     public ToolResponse<Map<String, Object>> compareProducts(Map<String, Object> request) {
@@ -74,7 +78,8 @@ public class CompareService {
             
             try {
                 if (provider.supports(ProviderAdapter.Capability.DETAILS)) {
-                    return provider.getProductDetails(productId);
+                    return toolMetrics.timeProviderCall(provider.getProviderName(), "getProductDetails",
+                        () -> provider.getProductDetails(productId));
                 }
             } catch (Exception e) {
                 logger.warn("Provider {} failed to get product {}", provider.getProviderName(), productId);
@@ -90,7 +95,7 @@ public class CompareService {
         matrix.put("name", names);
         
         List<String> prices = products.stream()
-            .map(p -> p.getPrice().getCurrency() + " " + p.getPrice().getAmount())
+            .map(p -> p.getPrice().toString())
             .toList();
         matrix.put("price", prices);
         
@@ -115,7 +120,7 @@ public class CompareService {
     private String generateRecommendation(List<ProductSummary> products) {
         ProductSummary bestValue = products.stream()
             .filter(p -> p.getAvailability().isInStock())
-            .min(Comparator.comparing(p -> p.getPrice().getAmount()))
+            .min(Comparator.comparingLong(p -> p.getPrice().getMinorUnits()))
             .orElse(products.get(0));
 
         ProductSummary bestRated = products.stream()
@@ -123,10 +128,9 @@ public class CompareService {
             .max(Comparator.comparing(ProductSummary::getRating))
             .orElse(products.get(0));
 
-        return String.format("Best value: %s at %s %s. Highest rated: %s with %.1f stars.",
-            bestValue.getName(), 
-            bestValue.getPrice().getCurrency(),
-            bestValue.getPrice().getAmount(),
+        return String.format("Best value: %s at %s. Highest rated: %s with %.1f stars.",
+            bestValue.getName(),
+            bestValue.getPrice(),
             bestRated.getName(),
             bestRated.getRating() != null ? bestRated.getRating() : 0.0);
     }
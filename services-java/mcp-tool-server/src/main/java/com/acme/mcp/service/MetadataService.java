@@ -2,53 +2,59 @@ package com.acme.mcp.service;
 
 import com.acme.mcp.config.ProviderConfig;
 import com.acme.mcp.config.ProviderConfigService;
+import com.acme.mcp.registry.PreSerializedJson;
 import com.acme.mcp.registry.ToolMetadata;
 import com.acme.mcp.registry.ToolRegistry;
 import com.acme.shared.ToolError;
 import com.acme.shared.ToolResponse;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.stereotype.Service;
 
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.stream.Collectors;
 
+/**
+ * Serves the utility.* discovery tools. The responses only change when the provider
+ * configuration is reloaded, so they are materialized once per config generation as
+ * pre-serialized JSON and reused until the generation moves on.
+ */
 @Service
 public class MetadataService {
     private static final Logger logger = LoggerFactory.getLogger(MetadataService.class);
     private final ProviderConfigService providerConfigService;
     private final ToolRegistry toolRegistry;
+    private final ObjectMapper objectMapper;
 
-    public MetadataService(ProviderConfigService providerConfigService, ToolRegistry toolRegistry) {
+    private final PreSerializedJson categories;
+    private volatile PreSerializedJson tools;
+    private volatile ProviderSnapshot providerSnapshot = new ProviderSnapshot(-1, null);
+
+    public MetadataService(ProviderConfigService providerConfigService, ToolRegistry toolRegistry,
+                           ObjectMapper objectMapper) {
         this.providerConfigService = providerConfigService;
         this.toolRegistry = toolRegistry;
+        this.objectMapper = objectMapper;
+        this.categories = buildCategories();
     }
 
     /**
      * Get all active providers with their capabilities
      */
-    public ToolResponse<Map<String, Object>> getProviders(Map<String, Object> request) {
+    public ToolResponse<PreSerializedJson> getProviders(Map<String, Object> request) {
         try {
             logger.info("Getting all active providers");
 
-            List<ProviderConfig> allProviders = providerConfigService.getEnabledProviders();
-            List<Map<String, Object>> providers = allProviders.stream()
-                    .map(provider -> {
-                        Map<String, Object> providerData = new HashMap<>();
-                        providerData.put("id", provider.getId());
-                        providerData.put("name", provider.getName());
-                        providerData.put("type", provider.getType());
-                        providerData.put("capabilities", provider.getCapabilities());
-                        providerData.put("baseUrl", provider.getBaseUrl());
-                        return providerData;
-                    })
-                    .collect(Collectors.toList());
-
-            Map<String, Object> data = new HashMap<>();
-            data.put("providers", providers);
-            data.put("total", providers.size());
-
-            return ToolResponse.success(null, data);
+            ProviderSnapshot snapshot = currentSnapshot();
+            PreSerializedJson providers = snapshot.providers;
+            if (providers == null) {
+                providers = buildProviders();
+                snapshot.providers = providers;
+            }
+
+            return ToolResponse.success(null, providers);
         } catch (Exception e) {
             logger.error("Get providers failed", e);
             return ToolResponse.failure(null,
@@ -59,27 +65,18 @@ public class MetadataService {
     /**
      * Get all available tools with their metadata
      */
-    public ToolResponse<Map<String, Object>> getTools(Map<String, Object> request) {
+    public ToolResponse<PreSerializedJson> getTools(Map<String, Object> request) {
         try {
             logger.info("Getting all available tools");
 
-            Map<String, ToolMetadata> allTools = toolRegistry.getAllTools();
-            List<Map<String, Object>> tools = allTools.values().stream()
-                    .map(tool -> {
-                        Map<String, Object> toolData = new HashMap<>();
-                        toolData.put("id", tool.getName());
-                        toolData.put("description", tool.getDescription());
-                        toolData.put("requestSchema", tool.getRequestSchemaPath());
-                        toolData.put("responseSchema", tool.getResponseSchemaPath());
-                        return toolData;
-                    })
-                    .collect(Collectors.toList());
-
-            Map<String, Object> data = new HashMap<>();
-            data.put("tools", tools);
-            data.put("total", tools.size());
-
-            return ToolResponse.success(null, data);
+            // The tool set is fixed once ToolRegistry is constructed
+            PreSerializedJson result = tools;
+            if (result == null) {
+                result = buildTools();
+                tools = result;
+            }
+
+            return ToolResponse.success(null, result);
         } catch (Exception e) {
             logger.error("Get tools failed", e);
             return ToolResponse.failure(null,
@@ -90,7 +87,7 @@ public class MetadataService {
     /**
      * Get tools supported by a specific provider
      */
-    public ToolResponse<Map<String, Object>> getProviderTools(Map<String, Object> request) {
+    public ToolResponse<PreSerializedJson> getProviderTools(Map<String, Object> request) {
         try {
             String providerId = (String) request.get("providerId");
             if (providerId == null || providerId.isEmpty()) {
@@ -100,20 +97,28 @@ public class MetadataService {
 
             logger.info("Getting tools for provider: {}", providerId);
 
+            ProviderSnapshot snapshot = currentSnapshot();
+            PreSerializedJson cached = snapshot.providerTools.get(providerId);
+            if (cached != null) {
+                return ToolResponse.success(null, cached);
+            }
+
             ProviderConfig provider = providerConfigService.getProviderConfig(providerId);
             if (provider == null) {
                 return ToolResponse.failure(null,
                         new ToolError(ToolError.Code.NOT_FOUND, "Provider not found: " + providerId));
             }
 
-            Map<String, Object> data = new HashMap<>();
+            Map<String, Object> data = new LinkedHashMap<>();
             data.put("providerId", providerId);
             data.put("providerName", provider.getName());
             data.put("capabilities", provider.getCapabilities());
             data.put("enabled", provider.isEnabled());
             data.put("toolConfigs", provider.getToolConfigs());
 
-            return ToolResponse.success(null, data);
+            PreSerializedJson result = PreSerializedJson.of(objectMapper, data);
+            snapshot.providerTools.put(providerId, result);
+            return ToolResponse.success(null, result);
         } catch (Exception e) {
             logger.error("Get provider tools failed", e);
             return ToolResponse.failure(null,
@@ -124,41 +129,102 @@ public class MetadataService {
     /**
      * Get predefined product categories
      */
-    public ToolResponse<Map<String, Object>> getCategories(Map<String, Object> request) {
-        try {
-            logger.info("Getting product categories");
-
-            // These would typically come from a database, but hardcoded for MVP
-            List<Map<String, String>> categories = Arrays.asList(
-                    createCategory("food", "Food & Grocery", "Food delivery, groceries, restaurants"),
-                    createCategory("health", "Health & Wellness", "Pharmacy, healthcare, fitness"),
-                    createCategory("electronics", "Electronics", "Consumer electronics, gadgets, computers"),
-                    createCategory("fashion", "Fashion & Apparel", "Clothing, footwear, accessories"),
-                    createCategory("home", "Home & Living", "Furniture, home decor, appliances"),
-                    createCategory("beauty", "Beauty & Personal Care", "Cosmetics, skincare, grooming"),
-                    createCategory("sports", "Sports & Outdoors", "Sports equipment, outdoor gear, fitness"),
-                    createCategory("books", "Books & Media", "Books, movies, music, games"),
-                    createCategory("toys", "Toys & Games", "Toys, games, hobbies, crafts"),
-                    createCategory("automotive", "Automotive", "Car parts, accessories, services")
-            );
-
-            Map<String, Object> data = new HashMap<>();
-            data.put("categories", categories);
-            data.put("total", categories.size());
-
-            return ToolResponse.success(null, data);
-        } catch (Exception e) {
-            logger.error("Get categories failed", e);
-            return ToolResponse.failure(null,
-                    new ToolError(ToolError.Code.INTERNAL_ERROR, e.getMessage()));
+    public ToolResponse<PreSerializedJson> getCategories(Map<String, Object> request) {
+        logger.info("Getting product categories");
+        return ToolResponse.success(null, categories);
+    }
+
+    private ProviderSnapshot currentSnapshot() {
+        long generation = providerConfigService.getConfigGeneration();
+        ProviderSnapshot snapshot = providerSnapshot;
+        if (snapshot.generation != generation) {
+            snapshot = new ProviderSnapshot(generation, null);
+            providerSnapshot = snapshot;
+            logger.info("Provider config generation {} - rebuilding cached metadata responses", generation);
         }
+        return snapshot;
+    }
+
+    private PreSerializedJson buildProviders() {
+        List<ProviderConfig> allProviders = providerConfigService.getEnabledProviders();
+        List<Map<String, Object>> providers = allProviders.stream()
+                .map(provider -> {
+                    Map<String, Object> providerData = new LinkedHashMap<>();
+                    providerData.put("id", provider.getId());
+                    providerData.put("name", provider.getName());
+                    providerData.put("type", provider.getType());
+                    providerData.put("capabilities", provider.getCapabilities());
+                    providerData.put("baseUrl", provider.getBaseUrl());
+                    return providerData;
+                })
+                .collect(Collectors.toList());
+
+        Map<String, Object> data = new LinkedHashMap<>();
+        data.put("providers", providers);
+        data.put("total", providers.size());
+        return PreSerializedJson.of(objectMapper, data);
+    }
+
+    private PreSerializedJson buildTools() {
+        Map<String, ToolMetadata> allTools = toolRegistry.getAllTools();
+        List<Map<String, Object>> toolList = allTools.values().stream()
+                .map(tool -> {
+                    Map<String, Object> toolData = new LinkedHashMap<>();
+                    toolData.put("id", tool.getName());
+                    toolData.put("description", tool.getDescription());
+                    toolData.put("requestSchema", tool.getRequestSchemaPath());
+                    toolData.put("responseSchema", tool.getResponseSchemaPath());
+                    return toolData;
+                })
+                .collect(Collectors.toList());
+
+        Map<String, Object> data = new LinkedHashMap<>();
+        data.put("tools", toolList);
+        data.put("total", toolList.size());
+        return PreSerializedJson.of(objectMapper, data);
+    }
+
+    private PreSerializedJson buildCategories() {
+        // These would typically come from a database, but hardcoded for MVP
+        List<Map<String, String>> categoryList = Arrays.asList(
+                createCategory("food", "Food & Grocery", "Food delivery, groceries, restaurants"),
+                createCategory("health", "Health & Wellness", "Pharmacy, healthcare, fitness"),
+                createCategory("electronics", "Electronics", "Consumer electronics, gadgets, computers"),
+                createCategory("fashion", "Fashion & Apparel", "Clothing, footwear, accessories"),
+                createCategory("home", "Home & Living", "Furniture, home decor, appliances"),
+                createCategory("beauty", "Beauty & Personal Care", "Cosmetics, skincare, grooming"),
+                createCategory("sports", "Sports & Outdoors", "Sports equipment, outdoor gear, fitness"),
+                createCategory("books", "Books & Media", "Books, movies, music, games"),
+                createCategory("toys", "Toys & Games", "Toys, games, hobbies, crafts"),
+                createCategory("automotive", "Automotive", "Car parts, accessories, services")
+        );
+
+        Map<String, Object> data = new LinkedHashMap<>();
+        data.put("categories", categoryList);
+        data.put("total", categoryList.size());
+        return PreSerializedJson.of(objectMapper, data);
     }
 
     private Map<String, String> createCategory(String id, String name, String description) {
-        Map<String, String> category = new HashMap<>();
+        Map<String, String> category = new LinkedHashMap<>();
         category.put("id", id);
         category.put("name", name);
         category.put("description", description);
         return category;
     }
+
+    /**
+     * Responses derived from one provider config generation. Entries are filled lazily;
+     * a racing rebuild just serializes the same immutable data twice.
+     */
+    private static final class ProviderSnapshot {
+        private final long generation;
+        private volatile PreSerializedJson providers;
+        private final Map<String, PreSerializedJson> providerTools = new ConcurrentHashMap<>();
+
+        private ProviderSnapshot(long generation, PreSerializedJson providers) {
+            this.generation = generation;
+            this.providers = providers;
+        }
+    }
 }
@@ -1,10 +1,15 @@
 package com.acme.mcp.service;
 
+import com.acme.mcp.promotions.CouponRule;
+import com.acme.mcp.promotions.PromotionContext;
+import com.acme.mcp.promotions.PromotionEngine;
+import com.acme.mcp.shipping.ShippingEngine;
+import com.acme.mcp.shipping.ShippingQuote;
+import com.acme.mcp.tracing.ToolTracing;
 import com.acme.shared.ToolError;
 import com.acme.shared.ToolResponse;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
-import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.stereotype.Service;
 
 import java.math.BigDecimal;
@@ -14,31 +19,56 @@ import java.util.*;
 @Service
 public class ProductService {
     private static final Logger logger = LoggerFactory.getLogger(ProductService.class);
-    private final JdbcTemplate jdbc;
 
-    public ProductService(JdbcTemplate jdbc) {
-        this.jdbc = jdbc;
+    private final PromotionEngine promotionEngine;
+    private final ShippingEngine shippingEngine;
+
+    public ProductService(PromotionEngine promotionEngine, ShippingEngine shippingEngine) {
+        this.promotionEngine = promotionEngine;
+        this.shippingEngine = shippingEngine;
     }
 
     public ToolResponse<Map<String, Object>> estimateShipping(Map<String, Object> request) {
-        String traceId = UUID.randomUUID().toString();
+        String traceId = ToolTracing.currentTraceId();
         try {
             String productId = (String) request.get("productId");
+            List<Map<String, Object>> items = (List<Map<String, Object>>) request.get("items");
             Map<String, Object> address = (Map<String, Object>) request.get("address");
-            Integer quantity = (Integer) request.getOrDefault("quantity", 1);
-
-            logger.info("[{}] Estimating shipping for product={}, qty={}", traceId, productId, quantity);
-
-            // Mock shipping calculation
             String pincode = (String) address.get("pincode");
-            BigDecimal shippingCost = calculateShippingCost(pincode, quantity);
-            int estimatedDays = calculateDeliveryDays(pincode);
+
+            ShippingQuote quote;
+            if (items != null) {
+                logger.info("[{}] Estimating shipping for {} cart lines", traceId, items.size());
+                List<Integer> quantities = new ArrayList<>(items.size());
+                for (Map<String, Object> item : items) {
+                    quantities.add((Integer) item.getOrDefault("quantity", 1));
+                }
+                quote = shippingEngine.quoteCart(pincode, quantities);
+            } else if (productId != null) {
+                Integer quantity = (Integer) request.getOrDefault("quantity", 1);
+                logger.info("[{}] Estimating shipping for product={}, qty={}", traceId, productId, quantity);
+                quote = shippingEngine.quote(pincode, quantity);
+            } else {
+                return ToolResponse.failure(traceId,
+                    new ToolError(ToolError.Code.VALIDATION_ERROR, "Either productId or items is required"));
+            }
+            if (quote == null) {
+                return ToolResponse.failure(traceId,
+                    new ToolError(ToolError.Code.VALIDATION_ERROR, "Invalid pincode: " + pincode));
+            }
 
             Map<String, Object> response = new HashMap<>();
-            response.put("productId", productId);
-            response.put("shippingCost", formatMoney(shippingCost, "INR"));
-            response.put("estimatedDeliveryDays", estimatedDays);
-            response.put("estimatedDeliveryDate", Instant.now().plusSeconds(estimatedDays * 86400L).toString());
+            if (productId != null) {
+                response.put("productId", productId);
+            }
+            if (items != null) {
+                response.put("items", items);
+            }
+            response.put("units", quote.getUnits());
+            response.put("zone", quote.getZone());
+            response.put("shippingCost", formatMoney(quote.getCost(), "INR"));
+            response.put("estimatedDeliveryDays", quote.getSlaDays());
+            response.put("estimatedDeliveryDate", Instant.now().plusSeconds(quote.getSlaDays() * 86400L).toString());
 
             return ToolResponse.success(traceId, response);
         } catch (Exception e) {
@@ -48,7 +78,7 @@ public class ProductService {
     }
 
     public ToolResponse<Map<String, Object>> listVariants(Map<String, Object> request) {
-        String traceId = UUID.randomUUID().toString();
+        String traceId = ToolTracing.currentTraceId();
         try {
             String productId = (String) request.get("productId");
 
@@ -86,22 +116,19 @@ public class ProductService {
     }
 
     public ToolResponse<Map<String, Object>> getPromotions(Map<String, Object> request) {
-        String traceId = UUID.randomUUID().toString();
+        String traceId = ToolTracing.currentTraceId();
         try {
             String productId = (String) request.get("productId");
+            String category = (String) request.get("category");
+            BigDecimal orderAmount = request.get("orderAmount") != null
+                ? new BigDecimal(request.get("orderAmount").toString()) : null;
 
             logger.info("[{}] Getting promotions for product={}", traceId, productId);
 
-            // Mock promotions
             List<Map<String, Object>> promotions = new ArrayList<>();
-
-            Map<String, Object> promo1 = new HashMap<>();
-            promo1.put("promoId", "WINTER2026");
-            promo1.put("type", "PERCENTAGE");
-            promo1.put("value", 10);
-            promo1.put("description", "Winter Sale - 10% off");
-            promo1.put("expiresAt", Instant.now().plusSeconds(30 * 86400L).toString());
-            promotions.add(promo1);
+            for (CouponRule rule : promotionEngine.promotions(productId, category, orderAmount, Instant.now())) {
+                promotions.add(rule.getPromotion());
+            }
 
             Map<String, Object> response = new HashMap<>();
             response.put("productId", productId);
@@ -116,54 +143,37 @@ public class ProductService {
     }
 
     public ToolResponse<Map<String, Object>> validateCoupon(Map<String, Object> request) {
-        String traceId = UUID.randomUUID().toString();
+        String traceId = ToolTracing.currentTraceId();
         try {
             String couponCode = (String) request.get("couponCode");
             BigDecimal orderAmount = new BigDecimal(request.get("orderAmount").toString());
 
             logger.info("[{}] Validating coupon={}, amount={}", traceId, couponCode, orderAmount);
 
-            List<Map<String, Object>> results = jdbc.queryForList(
-                "SELECT * FROM coupons WHERE code = ? AND enabled = true AND expires_at > NOW()",
-                couponCode
-            );
-
-            if (results.isEmpty()) {
+            CouponRule coupon = promotionEngine.coupon(couponCode, Instant.now());
+            if (coupon == null) {
                 return ToolResponse.failure(traceId,
                     new ToolError(ToolError.Code.NOT_FOUND, "Invalid or expired coupon"));
             }
 
-            Map<String, Object> coupon = results.get(0);
-            BigDecimal minOrder = (BigDecimal) coupon.get("min_order");
-
-            if (minOrder != null && orderAmount.compareTo(minOrder) < 0) {
+            String reason = coupon.check(new PromotionContext(orderAmount,
+                (List<String>) request.get("productIds"), (List<String>) request.get("categories"), Instant.now()));
+            if (reason != null) {
                 Map<String, Object> response = new HashMap<>();
                 response.put("valid", false);
-                response.put("reason", "Minimum order amount not met");
-                response.put("minOrder", formatMoney(minOrder, "INR"));
-                return ToolResponse.success(traceId, response);
-            }
-
-            String type = (String) coupon.get("type");
-            BigDecimal value = (BigDecimal) coupon.get("value");
-            BigDecimal maxDiscount = (BigDecimal) coupon.get("max_discount");
-
-            BigDecimal discount;
-            if ("PERCENTAGE".equals(type)) {
-                discount = orderAmount.multiply(value).divide(new BigDecimal("100"));
-                if (maxDiscount != null && discount.compareTo(maxDiscount) > 0) {
-                    discount = maxDiscount;
+                response.put("reason", reason);
+                if (CouponRule.MIN_ORDER_NOT_MET.equals(reason)) {
+                    response.put("minOrder", formatMoney(coupon.getMinOrder(), "INR"));
                 }
-            } else {
-                discount = value;
+                return ToolResponse.success(traceId, response);
             }
 
             Map<String, Object> response = new HashMap<>();
             response.put("valid", true);
             response.put("couponCode", couponCode);
-            response.put("type", type);
-            response.put("discount", formatMoney(discount, "INR"));
-            response.put("expiresAt", coupon.get("expires_at").toString());
+            response.put("type", coupon.getType());
+            response.put("discount", formatMoney(coupon.discount(orderAmount), "INR"));
+            response.put("expiresAt", coupon.getExpiresAt().toString());
 
             return ToolResponse.success(traceId, response);
         } catch (Exception e) {
@@ -172,24 +182,6 @@ public class ProductService {
         }
     }
 
-    private BigDecimal calculateShippingCost(String pincode, int quantity) {
-        // Mock calculation based on pincode and quantity
-        BigDecimal baseShipping = new BigDecimal("50.00");
-        if (quantity > 1) {
-            baseShipping = baseShipping.add(new BigDecimal("20.00").multiply(BigDecimal.valueOf(quantity - 1)));
-        }
-        return baseShipping;
-    }
-
-    private int calculateDeliveryDays(String pincode) {
-        // Mock calculation - metro cities get faster delivery
-        if (pincode.startsWith("11") || pincode.startsWith("40") ||
-            pincode.startsWith("56") || pincode.startsWith("60")) {
-            return 2; // Metro cities
-        }
-        return 5; // Other areas
-    }
-
     private Map<String, Object> formatMoney(BigDecimal amount, String currency) {
         Map<String, Object> money = new HashMap<>();
         money.put("amount", amount);
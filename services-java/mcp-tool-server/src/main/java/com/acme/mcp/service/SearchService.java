@@ -5,6 +5,7 @@ import com.acme.mcp.config.ProviderConfig;
 import com.acme.mcp.config.ProviderConfigService;
 import com.acme.mcp.mapping.FieldMapper;
 import com.acme.mcp.mapping.ProviderFieldMapper;
+import com.acme.mcp.metrics.ToolMetrics;
 import com.acme.mcp.validation.ToolValidator;
 import com.acme.mcp.validation.ValidationException;
 import com.acme.shared.*;
@@ -31,14 +32,17 @@ public class SearchService {
     private final List<ProviderAdapter> providers;
     private final ProviderConfigService providerConfigService;
     private final ToolValidator toolValidator;
+    private final ToolMetrics toolMetrics;
 
     public SearchService(
             List<ProviderAdapter> providers, 
             ProviderConfigService providerConfigService,
-            ToolValidator toolValidator) {
+            ToolValidator toolValidator,
+            ToolMetrics toolMetrics) {
         this.providers = providers;
         this.providerConfigService = providerConfigService;
         this.toolValidator = toolValidator;
+        this.toolMetrics = toolMetrics;
     }
 
     public ToolResponse<Map<String, Object>> searchProducts(Map<String, Object> request) {
@@ -57,7 +61,7 @@ public class SearchService {
 
             // Get enabled providers with SEARCH capability
             var enabledProviders = providerConfigService.getProvidersWithCapability("SEARCH");
-            logger.info("Found {} enabled providers with SEARCH capability", enabledProviders.size());
+            logger.debug("Found {} enabled providers with SEARCH capability", enabledProviders.size());
 
             // Search across enabled providers with tool-level filtering
             List<ProductSummary> allProducts = new ArrayList<>();
@@ -92,9 +96,10 @@ public class SearchService {
                     // Apply field and category mappings
                     Map<String, Object> mappedFilters = fieldMapper.applyFieldMappings(TOOL_NAME, filters);
                     
-                    List<ProductSummary> products = provider.search(query, mappedFilters, page, limit);
+                    List<ProductSummary> products = toolMetrics.timeProviderCall(providerName, "search",
+                        () -> provider.search(query, mappedFilters, page, limit));
                     allProducts.addAll(products);
-                    logger.info("Provider {} returned {} products", providerName, products.size());
+                    logger.debug("Provider {} returned {} products", providerName, products.size());
                 } catch (Exception e) {
                     logger.error("Provider {} search failed", providerName, e);
                     // Continue with other providers instead of failing completely
@@ -136,7 +141,7 @@ public class SearchService {
         }
     }
 
-    private List<ProductSummary> deduplicateProducts(List<ProductSummary> products) {
+    List<ProductSummary> deduplicateProducts(List<ProductSummary> products) {
         Map<String, ProductSummary> uniqueProducts = new LinkedHashMap<>();
         for (ProductSummary product : products) {
             String key = generateProductKey(product);
@@ -153,13 +158,13 @@ public class SearchService {
             product.getCategory() != null ? product.getCategory() : "");
     }
 
-    private List<ProductSummary> sortProducts(List<ProductSummary> products, String sortBy) {
+    List<ProductSummary> sortProducts(List<ProductSummary> products, String sortBy) {
         switch (sortBy) {
             case "price_asc":
-                products.sort(Comparator.comparing(p -> p.getPrice().getAmount()));
+                products.sort(Comparator.comparingLong(p -> p.getPrice().getMinorUnits()));
                 break;
             case "price_desc":
-                products.sort(Comparator.comparing(p -> p.getPrice().getAmount(), Comparator.reverseOrder()));
+                products.sort(Comparator.comparingLong((ProductSummary p) -> p.getPrice().getMinorUnits()).reversed());
                 break;
             case "rating":
                 products.sort(Comparator.comparing(ProductSummary::getRating, 
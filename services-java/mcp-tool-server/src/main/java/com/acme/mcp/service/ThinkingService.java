@@ -1,29 +1,55 @@
 package com.acme.mcp.service;
 
+import com.acme.mcp.tracing.ToolTracing;
 import com.acme.shared.ToolError;
 import com.acme.shared.ToolResponse;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.stereotype.Service;
 
-import java.time.Instant;
 import java.util.*;
 
 @Service
 public class ThinkingService {
     private static final Logger logger = LoggerFactory.getLogger(ThinkingService.class);
-    private final JdbcTemplate jdbcTemplate;
 
-    public ThinkingService(JdbcTemplate jdbcTemplate) {
+    private static final String INSERT_RUN_SQL =
+        "INSERT INTO chain_runs (id, session_id, user_id, trace_id, status, meta_json, created_at, updated_at) " +
+        "VALUES (?, ?, ?, ?, ?, convert_from(?, 'UTF8')::jsonb, now(), now())";
+    // step_count is maintained by ChainStepWriter as steps are written
+    private static final String COMPLETE_RUN_SQL =
+        "UPDATE chain_runs SET status = ?, updated_at = now() WHERE id = ? RETURNING step_count";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final ChainStepWriter stepWriter;
+    private final ObjectWriter jsonWriter;
+
+    /**
+     * When false, completion returns before the run's buffered steps are written; the
+     * reported {@code stepCount} is then the steps written plus those still buffered.
+     */
+    @Value("${mcp.thinking.steps.sync-on-complete:true}")
+    private boolean syncOnComplete = true;
+
+    /** Chain runs are written through the bulk pool, away from checkout traffic. */
+    public ThinkingService(@Qualifier("bulkJdbcTemplate") JdbcTemplate jdbcTemplate, ChainStepWriter stepWriter,
+                           ObjectMapper objectMapper) {
         this.jdbcTemplate = jdbcTemplate;
+        this.stepWriter = stepWriter;
+        this.jsonWriter = objectMapper.writer();
     }
 
     public ToolResponse<Map<String, Object>> createChainRun(Map<String, Object> request) {
         try {
             String sessionId = (String) request.get("sessionId");
             String userId = (String) request.get("userId");
-            String traceId = (String) request.get("traceId");
+            String traceId = (String) request.getOrDefault("traceId", ToolTracing.currentTraceId());
             String problem = (String) request.get("problem");
 
             if (sessionId == null || userId == null || problem == null) {
@@ -37,11 +63,9 @@ public class ThinkingService {
             meta.put("stages", Arrays.asList("analyze", "breakdown", "solve", "verify"));
 
             // Insert chain run
-            jdbcTemplate.update(
-                "INSERT INTO chain_runs (id, session_id, user_id, trace_id, status, meta_json, created_at, updated_at) " +
-                "VALUES (?, ?, ?, ?, ?, ?::jsonb, ?, ?)",
+            jdbcTemplate.update(INSERT_RUN_SQL,
                 runId, sessionId, userId, traceId, "running",
-                convertToJson(meta), Instant.now(), Instant.now()
+                toJson(meta)
             );
 
             logger.info("Created chain run: {}", runId);
@@ -64,7 +88,7 @@ public class ThinkingService {
             String runId = (String) request.get("runId");
             Integer stepIndex = (Integer) request.get("stepIndex");
             String stage = (String) request.get("stage");
-            String traceId = (String) request.get("traceId");
+            String traceId = (String) request.getOrDefault("traceId", ToolTracing.currentTraceId());
             Map<String, Object> content = (Map<String, Object>) request.get("content");
 
             if (runId == null || stepIndex == null || stage == null || content == null) {
@@ -74,12 +98,7 @@ public class ThinkingService {
 
             String stepId = UUID.randomUUID().toString();
 
-            // Insert chain step
-            jdbcTemplate.update(
-                "INSERT INTO chain_steps (id, run_id, step_index, stage, content_json, created_at) " +
-                "VALUES (?, ?, ?, ?, ?::jsonb, ?)",
-                stepId, runId, stepIndex, stage, convertToJson(content), Instant.now()
-            );
+            stepWriter.add(runId, stepId, stepIndex, stage, toJson(content));
 
             logger.info("Added chain step: {} for run: {}", stepId, runId);
 
@@ -101,7 +120,7 @@ public class ThinkingService {
         try {
             String runId = (String) request.get("runId");
             String status = (String) request.getOrDefault("status", "completed");
-            String traceId = (String) request.get("traceId");
+            String traceId = (String) request.getOrDefault("traceId", ToolTracing.currentTraceId());
 
             if (runId == null) {
                 return ToolResponse.failure(null,
@@ -109,23 +128,20 @@ public class ThinkingService {
             }
 
             // Update chain run status
-            jdbcTemplate.update(
-                "UPDATE chain_runs SET status = ?, updated_at = ? WHERE id = ?",
-                status, Instant.now(), runId
-            );
+            int stepCount;
+            if (syncOnComplete) {
+                stepWriter.flush(runId);
+                stepCount = completeRun(runId, status);
+            } else {
+                stepCount = stepWriter.countAndFlushSoon(runId, () -> completeRun(runId, status));
+            }
 
             logger.info("Completed chain run: {} with status: {}", runId, status);
 
-            // Get all steps
-            List<Map<String, Object>> steps = jdbcTemplate.queryForList(
-                "SELECT step_index, stage, content_json FROM chain_steps WHERE run_id = ? ORDER BY step_index",
-                runId
-            );
-
             Map<String, Object> result = new HashMap<>();
             result.put("runId", runId);
             result.put("status", status);
-            result.put("stepCount", steps.size());
+            result.put("stepCount", stepCount);
 
             return ToolResponse.success(traceId, result);
         } catch (Exception e) {
@@ -135,42 +151,17 @@ public class ThinkingService {
         }
     }
 
-    private String convertToJson(Object obj) {
-        try {
-            // Simple JSON conversion - in production use Jackson ObjectMapper
-            if (obj instanceof Map) {
-                StringBuilder sb = new StringBuilder("{");
-                Map<String, Object> map = (Map<String, Object>) obj;
-                int i = 0;
-                for (Map.Entry<String, Object> entry : map.entrySet()) {
-                    if (i > 0) sb.append(",");
-                    sb.append("\"").append(entry.getKey()).append("\":");
-                    if (entry.getValue() instanceof String) {
-                        sb.append("\"").append(entry.getValue()).append("\"");
-                    } else if (entry.getValue() instanceof List) {
-                        sb.append("[");
-                        List<?> list = (List<?>) entry.getValue();
-                        for (int j = 0; j < list.size(); j++) {
-                            if (j > 0) sb.append(",");
-                            if (list.get(j) instanceof String) {
-                                sb.append("\"").append(list.get(j)).append("\"");
-                            } else {
-                                sb.append(list.get(j));
-                            }
-                        }
-                        sb.append("]");
-                    } else {
-                        sb.append(entry.getValue());
-                    }
-                    i++;
-                }
-                sb.append("}");
-                return sb.toString();
-            }
-            return "{}";
-        } catch (Exception e) {
-            logger.error("Failed to convert to JSON", e);
-            return "{}";
-        }
+    /** Sets the run's final status; returns its written step count. */
+    private int completeRun(String runId, String status) {
+        List<Integer> written = jdbcTemplate.queryForList(COMPLETE_RUN_SQL, Integer.class, status, runId);
+        return written.isEmpty() ? 0 : written.get(0);
+    }
+
+    /**
+     * UTF-8 JSON, bound as bytea and decoded to jsonb by Postgres, so payloads are not
+     * copied through a String on the way out.
+     */
+    byte[] toJson(Object value) throws JsonProcessingException {
+        return jsonWriter.writeValueAsBytes(value);
     }
 }
@@ -0,0 +1,42 @@
+package com.acme.mcp.shipping;
+
+import java.math.BigDecimal;
+
+/**
+ * What shipping one consignment to a zone costs and how many days it takes: the base cost
+ * covers the first unit and each further unit adds the per-item cost.
+ */
+public class RateCard {
+    private final String zone;
+    private final BigDecimal baseCost;
+    private final BigDecimal perExtraItem;
+    private final int slaDays;
+
+    public RateCard(String zone, BigDecimal baseCost, BigDecimal perExtraItem, int slaDays) {
+        this.zone = zone;
+        this.baseCost = baseCost;
+        this.perExtraItem = perExtraItem;
+        this.slaDays = slaDays;
+    }
+
+    /** Cost for this many units; less than one unit is charged as one. */
+    public BigDecimal cost(int units) {
+        return units > 1 ? baseCost.add(perExtraItem.multiply(BigDecimal.valueOf(units - 1L))) : baseCost;
+    }
+
+    public String getZone() {
+        return zone;
+    }
+
+    public BigDecimal getBaseCost() {
+        return baseCost;
+    }
+
+    public BigDecimal getPerExtraItem() {
+        return perExtraItem;
+    }
+
+    public int getSlaDays() {
+        return slaDays;
+    }
+}
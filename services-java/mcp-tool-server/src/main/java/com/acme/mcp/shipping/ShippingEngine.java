@@ -0,0 +1,168 @@
+package com.acme.mcp.shipping;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.Resource;
+import org.springframework.stereotype.Component;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Shipping zones, costs and delivery days by pincode, from two local files read once at
+ * startup: {@code pincode-zones} maps pincode prefixes and ranges to zones, and
+ * {@code rate-cards} gives each zone's {@link RateCard}.
+ * <p>
+ * Indian pincodes are six digits not starting with 0, so the zone table is a dense byte
+ * array with one entry per pincode (900 KB) and a lookup is one array read.
+ */
+@Component
+public class ShippingEngine {
+    private static final Logger logger = LoggerFactory.getLogger(ShippingEngine.class);
+
+    private static final int FIRST_PINCODE = 100000;
+    private static final int LAST_PINCODE = 999999;
+
+    private final RateCard[] rateCards;
+    // Index into rateCards for every pincode, offset by FIRST_PINCODE
+    private final byte[] zoneByPincode = new byte[LAST_PINCODE - FIRST_PINCODE + 1];
+
+    public ShippingEngine(
+            @Value("${mcp.shipping.pincode-zones:classpath:shipping/pincode-zones.csv}") Resource pincodeZones,
+            @Value("${mcp.shipping.rate-cards:classpath:shipping/rate-cards.csv}") Resource rateCardsFile)
+            throws IOException {
+        this.rateCards = loadRateCards(rateCardsFile);
+        loadZones(pincodeZones);
+        logger.info("Loaded {} shipping zones from {} and {}", rateCards.length, rateCardsFile, pincodeZones);
+    }
+
+    /**
+     * The rate card for the pincode's zone, or null if it is not a valid pincode.
+     */
+    public RateCard rateCard(String pincode) {
+        int value = parsePincode(pincode);
+        return value >= 0 ? rateCards[zoneByPincode[value - FIRST_PINCODE]] : null;
+    }
+
+    /**
+     * Shipping for {@code units} sent to the pincode, or null if it is not a valid pincode.
+     */
+    public ShippingQuote quote(String pincode, int units) {
+        RateCard rateCard = rateCard(pincode);
+        return rateCard != null ? new ShippingQuote(pincode, rateCard, units) : null;
+    }
+
+    /**
+     * Shipping for a whole cart, its lines sent together as one consignment, or null if
+     * it is not a valid pincode.
+     */
+    public ShippingQuote quoteCart(String pincode, Collection<Integer> quantities) {
+        int units = 0;
+        for (Integer quantity : quantities) {
+            units += quantity != null ? quantity : 1;
+        }
+        return quote(pincode, units);
+    }
+
+    /**
+     * The pincode as a number, or -1 unless it is six digits not starting with 0.
+     */
+    static int parsePincode(String pincode) {
+        if (pincode == null || pincode.length() != 6 || pincode.charAt(0) == '0') {
+            return -1;
+        }
+        int value = 0;
+        for (int i = 0; i < 6; i++) {
+            char c = pincode.charAt(i);
+            if (c < '0' || c > '9') {
+                return -1;
+            }
+            value = value * 10 + (c - '0');
+        }
+        return value;
+    }
+
+    private RateCard[] loadRateCards(Resource file) throws IOException {
+        List<RateCard> cards = new ArrayList<>();
+        for (String[] fields : readLines(file, 4)) {
+            cards.add(new RateCard(fields[0], new BigDecimal(fields[1]).setScale(2),
+                new BigDecimal(fields[2]).setScale(2), Integer.parseInt(fields[3])));
+        }
+        if (cards.isEmpty() || cards.size() > Byte.MAX_VALUE) {
+            throw new IllegalStateException(file + ": expected 1 to " + Byte.MAX_VALUE + " rate cards, got " + cards.size());
+        }
+        return cards.toArray(new RateCard[0]);
+    }
+
+    private void loadZones(Resource file) throws IOException {
+        Map<String, Byte> zones = new HashMap<>();
+        for (int i = 0; i < rateCards.length; i++) {
+            zones.put(rateCards[i].getZone(), (byte) i);
+        }
+        boolean defaulted = false;
+        for (String[] fields : readLines(file, 2)) {
+            Byte zone = zones.get(fields[1]);
+            if (zone == null) {
+                throw new IllegalStateException(file + ": no rate card for zone " + fields[1]);
+            }
+            String key = fields[0];
+            int from;
+            int to;
+            int dash = key.indexOf('-');
+            if (key.equals("*")) {
+                from = FIRST_PINCODE;
+                to = LAST_PINCODE;
+                defaulted = true;
+            } else if (dash > 0) {
+                from = parsePincode(key.substring(0, dash));
+                to = parsePincode(key.substring(dash + 1));
+            } else {
+                // A prefix covers every pincode it starts: "56" is 560000 to 569999
+                int padding = 6 - key.length();
+                from = padding > 0 ? parsePincode(key + "0".repeat(padding)) : parsePincode(key);
+                to = padding > 0 ? parsePincode(key + "9".repeat(padding)) : from;
+            }
+            if (from < 0 || to < from) {
+                throw new IllegalStateException(file + ": invalid pincode prefix or range " + key);
+            }
+            Arrays.fill(zoneByPincode, from - FIRST_PINCODE, to - FIRST_PINCODE + 1, zone);
+        }
+        if (!defaulted) {
+            throw new IllegalStateException(file + ": no \"*\" line giving the default zone");
+        }
+    }
+
+    /** Non-blank, non-comment lines split on commas, each with exactly {@code columns} fields. */
+    private static List<String[]> readLines(Resource file, int columns) throws IOException {
+        List<String[]> lines = new ArrayList<>();
+        try (BufferedReader reader = new BufferedReader(
+                new InputStreamReader(file.getInputStream(), StandardCharsets.UTF_8))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                line = line.strip();
+                if (line.isEmpty() || line.startsWith("#")) {
+                    continue;
+                }
+                String[] fields = line.split(",");
+                if (fields.length != columns) {
+                    throw new IllegalStateException(file + ": expected " + columns + " fields in line: " + line);
+                }
+                for (int i = 0; i < fields.length; i++) {
+                    fields[i] = fields[i].strip();
+                }
+                lines.add(fields);
+            }
+        }
+        return lines;
+    }
+}
@@ -0,0 +1,42 @@
+package com.acme.mcp.shipping;
+
+import java.math.BigDecimal;
+
+/**
+ * Shipping for a number of units sent together to one pincode.
+ */
+public class ShippingQuote {
+    private final String pincode;
+    private final String zone;
+    private final int units;
+    private final BigDecimal cost;
+    private final int slaDays;
+
+    ShippingQuote(String pincode, RateCard rateCard, int units) {
+        this.pincode = pincode;
+        this.zone = rateCard.getZone();
+        this.units = units;
+        this.cost = rateCard.cost(units);
+        this.slaDays = rateCard.getSlaDays();
+    }
+
+    public String getPincode() {
+        return pincode;
+    }
+
+    public String getZone() {
+        return zone;
+    }
+
+    public int getUnits() {
+        return units;
+    }
+
+    public BigDecimal getCost() {
+        return cost;
+    }
+
+    public int getSlaDays() {
+        return slaDays;
+    }
+}
@@ -0,0 +1,137 @@
+package com.acme.mcp.tracing;
+
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import io.opentelemetry.api.common.AttributeKey;
+import io.opentelemetry.api.common.Attributes;
+import io.opentelemetry.sdk.common.CompletableResultCode;
+import io.opentelemetry.sdk.trace.data.EventData;
+import io.opentelemetry.sdk.trace.data.SpanData;
+import io.opentelemetry.sdk.trace.export.SpanExporter;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Collection;
+
+/**
+ * Appends finished spans to a file, one JSON object per line, for offline analysis
+ * (jq, DuckDB, a notebook) when no collector is running. Each line carries the trace
+ * and span IDs, timing in epoch nanoseconds, status, attributes, events and the
+ * service name.
+ */
+public class JsonLinesSpanExporter implements SpanExporter {
+    private static final Logger logger = LoggerFactory.getLogger(JsonLinesSpanExporter.class);
+    private static final AttributeKey<String> SERVICE_NAME = AttributeKey.stringKey("service.name");
+
+    private final Path path;
+    private final JsonFactory jsonFactory = new JsonFactory();
+    private final OutputStream out;
+
+    public JsonLinesSpanExporter(Path path) throws IOException {
+        this.path = path;
+        if (path.getParent() != null) {
+            Files.createDirectories(path.getParent());
+        }
+        this.out = new BufferedOutputStream(Files.newOutputStream(path,
+            StandardOpenOption.CREATE, StandardOpenOption.APPEND), 64 * 1024);
+    }
+
+    @Override
+    public synchronized CompletableResultCode export(Collection<SpanData> spans) {
+        try {
+            for (SpanData span : spans) {
+                try (JsonGenerator json = jsonFactory.createGenerator(out, JsonEncoding.UTF8)) {
+                    json.configure(JsonGenerator.Feature.AUTO_CLOSE_TARGET, false);
+                    writeSpan(json, span);
+                }
+                out.write('\n');
+            }
+            out.flush();
+            return CompletableResultCode.ofSuccess();
+        } catch (IOException e) {
+            logger.warn("Failed to write {} spans to {}: {}", spans.size(), path, e.getMessage());
+            return CompletableResultCode.ofFailure();
+        }
+    }
+
+    private static void writeSpan(JsonGenerator json, SpanData span) throws IOException {
+        json.writeStartObject();
+        json.writeStringField("traceId", span.getTraceId());
+        json.writeStringField("spanId", span.getSpanId());
+        if (span.getParentSpanContext().isValid()) {
+            json.writeStringField("parentSpanId", span.getParentSpanId());
+        }
+        json.writeStringField("name", span.getName());
+        json.writeStringField("kind", span.getKind().name());
+        json.writeNumberField("startEpochNanos", span.getStartEpochNanos());
+        json.writeNumberField("endEpochNanos", span.getEndEpochNanos());
+        json.writeNumberField("durationMicros", (span.getEndEpochNanos() - span.getStartEpochNanos()) / 1_000);
+        json.writeStringField("status", span.getStatus().getStatusCode().name());
+        if (!span.getStatus().getDescription().isEmpty()) {
+            json.writeStringField("statusMessage", span.getStatus().getDescription());
+        }
+        writeAttributes(json, "attributes", span.getAttributes());
+        if (!span.getEvents().isEmpty()) {
+            json.writeArrayFieldStart("events");
+            for (EventData event : span.getEvents()) {
+                json.writeStartObject();
+                json.writeStringField("name", event.getName());
+                json.writeNumberField("epochNanos", event.getEpochNanos());
+                writeAttributes(json, "attributes", event.getAttributes());
+                json.writeEndObject();
+            }
+            json.writeEndArray();
+        }
+        json.writeStringField("service", span.getResource().getAttribute(SERVICE_NAME));
+        json.writeEndObject();
+    }
+
+    private static void writeAttributes(JsonGenerator json, String field, Attributes attributes) throws IOException {
+        if (attributes.isEmpty()) {
+            return;
+        }
+        json.writeObjectFieldStart(field);
+        for (var entry : attributes.asMap().entrySet()) {
+            Object value = entry.getValue();
+            if (value instanceof Boolean b) {
+                json.writeBooleanField(entry.getKey().getKey(), b);
+            } else if (value instanceof Long l) {
+                json.writeNumberField(entry.getKey().getKey(), l);
+            } else if (value instanceof Double d) {
+                json.writeNumberField(entry.getKey().getKey(), d);
+            } else {
+                json.writeStringField(entry.getKey().getKey(), String.valueOf(value));
+            }
+        }
+        json.writeEndObject();
+    }
+
+    @Override
+    public CompletableResultCode flush() {
+        try {
+            synchronized (this) {
+                out.flush();
+            }
+            return CompletableResultCode.ofSuccess();
+        } catch (IOException e) {
+            return CompletableResultCode.ofFailure();
+        }
+    }
+
+    @Override
+    public synchronized CompletableResultCode shutdown() {
+        try {
+            out.close();
+            return CompletableResultCode.ofSuccess();
+        } catch (IOException e) {
+            return CompletableResultCode.ofFailure();
+        }
+    }
+}
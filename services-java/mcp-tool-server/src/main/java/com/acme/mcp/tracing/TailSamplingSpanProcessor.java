@@ -0,0 +1,180 @@
+package com.acme.mcp.tracing;
+
+import io.opentelemetry.api.trace.SpanContext;
+import io.opentelemetry.context.Context;
+import io.opentelemetry.sdk.common.CompletableResultCode;
+import io.opentelemetry.sdk.trace.ReadWriteSpan;
+import io.opentelemetry.sdk.trace.ReadableSpan;
+import io.opentelemetry.sdk.trace.SpanProcessor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Decides per trace, once its local root span has ended, whether the whole trace is
+ * exported: traces containing an error or slower than the threshold are always kept,
+ * the rest are kept with the configured probability. Spans are buffered per trace until
+ * then, so every span is recorded (the head sampler is always-on) and only kept traces
+ * reach the downstream batch processor.
+ * <p>
+ * Memory is bounded: at most {@code maxPendingTraces} open traces of {@code maxSpansPerTrace}
+ * spans each, and traces whose root never ends here are dropped after {@code traceTimeoutMs}.
+ */
+public class TailSamplingSpanProcessor implements SpanProcessor {
+    private static final Logger logger = LoggerFactory.getLogger(TailSamplingSpanProcessor.class);
+
+    private final SpanProcessor downstream;
+    private final long sampleUpperBound;
+    private final long slowThresholdNanos;
+    private final int maxPendingTraces;
+    private final int maxSpansPerTrace;
+    private final long traceTimeoutNanos;
+    private final Map<String, PendingTrace> pending = new ConcurrentHashMap<>();
+    private final ScheduledExecutorService sweeper;
+    private final AtomicLong droppedSpans = new AtomicLong();
+
+    public TailSamplingSpanProcessor(SpanProcessor downstream, double probability, long slowThresholdMs,
+                                     int maxPendingTraces, int maxSpansPerTrace, long traceTimeoutMs) {
+        this.downstream = downstream;
+        this.sampleUpperBound = upperBound(probability);
+        this.slowThresholdNanos = TimeUnit.MILLISECONDS.toNanos(slowThresholdMs);
+        this.maxPendingTraces = maxPendingTraces;
+        this.maxSpansPerTrace = maxSpansPerTrace;
+        this.traceTimeoutNanos = TimeUnit.MILLISECONDS.toNanos(traceTimeoutMs);
+        this.sweeper = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "trace-tail-sampler");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long sweepMs = Math.max(1000, traceTimeoutMs / 2);
+        sweeper.scheduleWithFixedDelay(this::evictStale, sweepMs, sweepMs, TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public void onStart(Context parentContext, ReadWriteSpan span) {
+    }
+
+    @Override
+    public boolean isStartRequired() {
+        return false;
+    }
+
+    @Override
+    public void onEnd(ReadableSpan span) {
+        SpanContext parent = span.getParentSpanContext();
+        String traceId = span.getSpanContext().getTraceId();
+
+        if (!parent.isValid() || parent.isRemote()) {
+            PendingTrace trace = pending.remove(traceId);
+            boolean keep = isError(span)
+                || span.getLatencyNanos() >= slowThresholdNanos
+                || (trace != null && trace.error)
+                || isSampled(traceId);
+            if (keep) {
+                if (trace != null) {
+                    trace.drainTo(downstream);
+                }
+                downstream.onEnd(span);
+            }
+            return;
+        }
+
+        PendingTrace trace = pending.get(traceId);
+        if (trace == null) {
+            if (pending.size() >= maxPendingTraces) {
+                droppedSpans.incrementAndGet();
+                return;
+            }
+            trace = pending.computeIfAbsent(traceId, id -> new PendingTrace());
+        }
+        if (!trace.add(span, maxSpansPerTrace)) {
+            droppedSpans.incrementAndGet();
+        }
+    }
+
+    @Override
+    public boolean isEndRequired() {
+        return true;
+    }
+
+    private static boolean isError(ReadableSpan span) {
+        return Boolean.TRUE.equals(span.getAttribute(ToolTracing.ERROR));
+    }
+
+    /**
+     * Same rule as the SDK's TraceIdRatioBased sampler, so the decision is consistent
+     * for a trace across services.
+     */
+    private boolean isSampled(String traceId) {
+        long randomPart = Long.parseUnsignedLong(traceId.substring(16), 16);
+        return Math.abs(randomPart) < sampleUpperBound;
+    }
+
+    private static long upperBound(double probability) {
+        if (probability <= 0.0) {
+            return Long.MIN_VALUE;
+        }
+        if (probability >= 1.0) {
+            return Long.MAX_VALUE;
+        }
+        return (long) (probability * Long.MAX_VALUE);
+    }
+
+    private void evictStale() {
+        long cutoff = System.nanoTime() - traceTimeoutNanos;
+        int evicted = 0;
+        for (Map.Entry<String, PendingTrace> entry : pending.entrySet()) {
+            if (entry.getValue().createdNanos < cutoff && pending.remove(entry.getKey(), entry.getValue())) {
+                evicted++;
+            }
+        }
+        long dropped = droppedSpans.getAndSet(0);
+        if (evicted > 0 || dropped > 0) {
+            logger.debug("Tail sampler evicted {} unfinished traces and dropped {} spans over capacity", evicted, dropped);
+        }
+    }
+
+    @Override
+    public CompletableResultCode forceFlush() {
+        return downstream.forceFlush();
+    }
+
+    @Override
+    public CompletableResultCode shutdown() {
+        sweeper.shutdownNow();
+        pending.clear();
+        return downstream.shutdown();
+    }
+
+    private static final class PendingTrace {
+        private final long createdNanos = System.nanoTime();
+        private final List<ReadableSpan> spans = new ArrayList<>();
+        private volatile boolean error;
+
+        synchronized boolean add(ReadableSpan span, int maxSpans) {
+            if (isError(span)) {
+                error = true;
+            }
+            if (spans.size() >= maxSpans) {
+                return false;
+            }
+            spans.add(span);
+            return true;
+        }
+
+        synchronized void drainTo(SpanProcessor downstream) {
+            for (ReadableSpan span : spans) {
+                downstream.onEnd(span);
+            }
+            spans.clear();
+        }
+    }
+}
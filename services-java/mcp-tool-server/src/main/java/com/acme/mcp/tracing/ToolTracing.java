@@ -0,0 +1,250 @@
+package com.acme.mcp.tracing;
+
+import com.acme.mcp.metrics.ToolMetrics;
+import com.acme.shared.ToolResponse;
+import io.opentelemetry.api.OpenTelemetry;
+import io.opentelemetry.api.common.AttributeKey;
+import io.opentelemetry.api.trace.Span;
+import io.opentelemetry.api.trace.SpanKind;
+import io.opentelemetry.api.trace.StatusCode;
+import io.opentelemetry.api.trace.TraceId;
+import io.opentelemetry.api.trace.Tracer;
+import io.opentelemetry.context.Context;
+import io.opentelemetry.context.Scope;
+import io.opentelemetry.sdk.trace.IdGenerator;
+import org.slf4j.MDC;
+import org.springframework.stereotype.Component;
+
+import java.util.Locale;
+import java.util.Map;
+import java.util.UUID;
+import java.util.function.Supplier;
+
+/**
+ * OpenTelemetry spans for tool dispatch. Each tool call gets a root span whose trace ID
+ * is the caller's {@code X-Trace-Id} (a UUID or 32 hex digits), with children for schema
+ * validation, the handler, provider adapter calls, JDBC statements and serialization.
+ * The same ID is put in the log MDC and on the ToolResponse, so logs, responses and
+ * exported traces line up. The MDC also carries the tool and, during adapter calls, the
+ * provider, which the log filter uses for per-tool and per-provider levels.
+ * <p>
+ * When tracing is disabled the tracer is a no-op and only the trace ID bookkeeping runs.
+ */
+@Component
+public class ToolTracing {
+    public static final String TRACE_ID_MDC_KEY = "traceId";
+    public static final String TOOL_MDC_KEY = "tool";
+    public static final String PROVIDER_MDC_KEY = "provider";
+    public static final String INSTRUMENTATION_NAME = "com.acme.mcp";
+
+    /** Marks spans that ended in error; read by the tail sampler without building SpanData. */
+    public static final AttributeKey<Boolean> ERROR = AttributeKey.booleanKey("error");
+    static final AttributeKey<String> TOOL = AttributeKey.stringKey("mcp.tool");
+    static final AttributeKey<String> TRACE_ID = AttributeKey.stringKey("mcp.trace_id");
+    static final AttributeKey<String> TRANSPORT = AttributeKey.stringKey("mcp.transport");
+    static final AttributeKey<String> OUTCOME = AttributeKey.stringKey("mcp.outcome");
+    static final AttributeKey<String> PROVIDER = AttributeKey.stringKey("mcp.provider");
+    static final AttributeKey<String> OPERATION = AttributeKey.stringKey("mcp.provider.operation");
+
+    /** Trace ID handed to {@link InboundTraceIdGenerator} for the next root span on this thread. */
+    private static final ThreadLocal<String> NEXT_TRACE_ID = new ThreadLocal<>();
+
+    private final Tracer tracer;
+    private final boolean enabled;
+
+    public ToolTracing(OpenTelemetry openTelemetry) {
+        this.tracer = openTelemetry.getTracer(INSTRUMENTATION_NAME);
+        this.enabled = openTelemetry != OpenTelemetry.noop();
+    }
+
+    public static ToolTracing noop() {
+        return new ToolTracing(OpenTelemetry.noop());
+    }
+
+    /**
+     * Opens the root span for one tool call and makes it current. The returned scope must
+     * be closed on the same thread.
+     */
+    public RequestScope startRequest(String toolName, String inboundTraceId, String transport) {
+        String traceId = inboundTraceId == null || inboundTraceId.isBlank()
+            ? UUID.randomUUID().toString()
+            : inboundTraceId;
+        MDC.put(TRACE_ID_MDC_KEY, traceId);
+        MDC.put(TOOL_MDC_KEY, toolName);
+        if (!enabled) {
+            return new RequestScope(traceId, Span.getInvalid(), null);
+        }
+
+        NEXT_TRACE_ID.set(toOtelTraceId(traceId));
+        Span span;
+        try {
+            span = tracer.spanBuilder("tool " + toolName)
+                .setNoParent()
+                .setSpanKind(SpanKind.SERVER)
+                .setAttribute(TOOL, toolName)
+                .setAttribute(TRACE_ID, traceId)
+                .setAttribute(TRANSPORT, transport)
+                .startSpan();
+        } finally {
+            NEXT_TRACE_ID.remove();
+        }
+        return new RequestScope(traceId, span, span.makeCurrent());
+    }
+
+    /**
+     * Starts a child of the current span without making it current; the caller ends it.
+     */
+    public Span startSpan(String name) {
+        return enabled ? tracer.spanBuilder(name).startSpan() : Span.getInvalid();
+    }
+
+    /**
+     * Wraps {@code task} to run on a pool thread under the caller's current span and log MDC,
+     * so provider calls made there are still children of the tool call.
+     */
+    public static Runnable propagating(Runnable task) {
+        Context context = Context.current();
+        Map<String, String> mdc = MDC.getCopyOfContextMap();
+        return () -> {
+            if (mdc != null) {
+                MDC.setContextMap(mdc);
+            }
+            try (Scope ignored = context.makeCurrent()) {
+                task.run();
+            } finally {
+                MDC.clear();
+            }
+        };
+    }
+
+    /**
+     * Runs {@code work} inside a child span of the current span. Exceptions mark the span
+     * as failed and are rethrown.
+     */
+    public <T> T inSpan(String name, Supplier<T> work) {
+        if (!enabled) {
+            return work.get();
+        }
+        return inSpan(tracer.spanBuilder(name).startSpan(), work);
+    }
+
+    public <T> T inProviderSpan(String provider, String operation, Supplier<T> work) {
+        MDC.put(PROVIDER_MDC_KEY, provider);
+        try {
+            if (!enabled) {
+                return work.get();
+            }
+            Span span = tracer.spanBuilder("provider." + operation)
+                .setSpanKind(SpanKind.CLIENT)
+                .setAttribute(PROVIDER, provider)
+                .setAttribute(OPERATION, operation)
+                .startSpan();
+            return inSpan(span, work);
+        } finally {
+            MDC.remove(PROVIDER_MDC_KEY);
+        }
+    }
+
+    private static <T> T inSpan(Span span, Supplier<T> work) {
+        try (Scope ignored = span.makeCurrent()) {
+            return work.get();
+        } catch (RuntimeException e) {
+            markFailed(span, e);
+            throw e;
+        } finally {
+            span.end();
+        }
+    }
+
+    public static void markFailed(Span span, Throwable error) {
+        span.recordException(error);
+        span.setStatus(StatusCode.ERROR, error.getMessage() != null ? error.getMessage() : error.getClass().getSimpleName());
+        span.setAttribute(ERROR, true);
+    }
+
+    /**
+     * ID generator for the SDK that gives root spans the inbound trace ID.
+     */
+    public static IdGenerator inboundTraceIdGenerator() {
+        return new InboundTraceIdGenerator();
+    }
+
+    /**
+     * Trace ID of the tool call running on this thread, or a fresh one when called outside
+     * a request (benchmarks, direct service calls).
+     */
+    public static String currentTraceId() {
+        String traceId = MDC.get(TRACE_ID_MDC_KEY);
+        return traceId != null ? traceId : UUID.randomUUID().toString();
+    }
+
+    /**
+     * Maps a UUID or 32-digit hex trace ID onto the OpenTelemetry form; anything else gets a
+     * random trace ID and is only kept as the {@code mcp.trace_id} attribute.
+     */
+    static String toOtelTraceId(String traceId) {
+        String hex = traceId.length() == 36 ? traceId.replace("-", "") : traceId;
+        hex = hex.toLowerCase(Locale.ROOT);
+        return TraceId.isValid(hex) ? hex : null;
+    }
+
+    /**
+     * Uses the inbound trace ID for root spans started by {@link #startRequest}.
+     */
+    static final class InboundTraceIdGenerator implements IdGenerator {
+        private final IdGenerator random = IdGenerator.random();
+
+        @Override
+        public String generateSpanId() {
+            return random.generateSpanId();
+        }
+
+        @Override
+        public String generateTraceId() {
+            String next = NEXT_TRACE_ID.get();
+            return next != null ? next : random.generateTraceId();
+        }
+    }
+
+    /**
+     * Root span of one tool call plus its MDC entries.
+     */
+    public static final class RequestScope implements AutoCloseable {
+        private final String traceId;
+        private final Span span;
+        private final Scope scope;
+
+        private RequestScope(String traceId, Span span, Scope scope) {
+            this.traceId = traceId;
+            this.span = span;
+            this.scope = scope;
+        }
+
+        public String traceId() {
+            return traceId;
+        }
+
+        public void recordResponse(ToolResponse<?> response) {
+            String outcome = ToolMetrics.outcome(response);
+            span.setAttribute(OUTCOME, outcome);
+            if (!response.isOk()) {
+                span.setStatus(StatusCode.ERROR, outcome);
+                span.setAttribute(ERROR, true);
+            }
+        }
+
+        public void recordFailure(Throwable error) {
+            markFailed(span, error);
+        }
+
+        @Override
+        public void close() {
+            if (scope != null) {
+                scope.close();
+            }
+            span.end();
+            MDC.remove(TRACE_ID_MDC_KEY);
+            MDC.remove(TOOL_MDC_KEY);
+        }
+    }
+}
@@ -0,0 +1,141 @@
+package com.acme.mcp.tracing;
+
+import io.opentelemetry.api.OpenTelemetry;
+import io.opentelemetry.api.common.AttributeKey;
+import io.opentelemetry.api.trace.Span;
+import io.opentelemetry.api.trace.SpanKind;
+import io.opentelemetry.api.trace.Tracer;
+import io.opentelemetry.context.Scope;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Locale;
+
+/**
+ * Wraps the pool so every JDBC statement executed inside a tool call becomes a child
+ * span carrying the SQL text. Statements run outside a traced request (startup,
+ * background jobs) are passed through without a span. Closing it closes the pool, so
+ * Spring still shuts the pool down with the context.
+ */
+public class TracingDataSource extends DelegatingDataSource implements AutoCloseable {
+    private static final AttributeKey<String> DB_SYSTEM = AttributeKey.stringKey("db.system");
+    private static final AttributeKey<String> DB_OPERATION = AttributeKey.stringKey("db.operation");
+    private static final AttributeKey<String> DB_STATEMENT = AttributeKey.stringKey("db.statement");
+    private static final int MAX_STATEMENT_LENGTH = 2000;
+
+    private final Tracer tracer;
+
+    public TracingDataSource(DataSource target, OpenTelemetry openTelemetry) {
+        super(target);
+        this.tracer = openTelemetry.getTracer(ToolTracing.INSTRUMENTATION_NAME);
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        return wrap(super.getConnection());
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        return wrap(super.getConnection(username, password));
+    }
+
+    @Override
+    public void close() throws Exception {
+        if (getTargetDataSource() instanceof AutoCloseable pool) {
+            pool.close();
+        }
+    }
+
+    private Connection wrap(Connection connection) {
+        return (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(),
+            new Class<?>[]{Connection.class}, new ConnectionHandler(connection));
+    }
+
+    private final class ConnectionHandler implements InvocationHandler {
+        private final Connection target;
+
+        private ConnectionHandler(Connection target) {
+            this.target = target;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            Object result = invokeTarget(target, method, args);
+            if (result instanceof Statement statement && method.getReturnType().isInterface()) {
+                String sql = method.getName().startsWith("prepare") && args != null && args[0] instanceof String s ? s : null;
+                return Proxy.newProxyInstance(Connection.class.getClassLoader(),
+                    new Class<?>[]{method.getReturnType()}, new StatementHandler(statement, sql));
+            }
+            return result;
+        }
+    }
+
+    private final class StatementHandler implements InvocationHandler {
+        private final Statement target;
+        private final String preparedSql;
+
+        private StatementHandler(Statement target, String preparedSql) {
+            this.target = target;
+            this.preparedSql = preparedSql;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            if (!method.getName().startsWith("execute") || !Span.current().getSpanContext().isValid()) {
+                return invokeTarget(target, method, args);
+            }
+
+            String sql = args != null && args.length > 0 && args[0] instanceof String s ? s : preparedSql;
+            String operation = method.getName().contains("Batch") ? "BATCH" : operation(sql);
+            Span span = tracer.spanBuilder("jdbc " + operation.toLowerCase(Locale.ROOT))
+                .setSpanKind(SpanKind.CLIENT)
+                .setAttribute(DB_SYSTEM, "postgresql")
+                .setAttribute(DB_OPERATION, operation)
+                .setAttribute(DB_STATEMENT, truncate(sql))
+                .startSpan();
+            try (Scope ignored = span.makeCurrent()) {
+                return invokeTarget(target, method, args);
+            } catch (Throwable e) {
+                ToolTracing.markFailed(span, e);
+                throw e;
+            } finally {
+                span.end();
+            }
+        }
+    }
+
+    private static Object invokeTarget(Object target, Method method, Object[] args) throws Throwable {
+        try {
+            return method.invoke(target, args);
+        } catch (InvocationTargetException e) {
+            throw e.getCause();
+        }
+    }
+
+    private static String operation(String sql) {
+        if (sql == null) {
+            return "UNKNOWN";
+        }
+        String trimmed = sql.stripLeading();
+        int end = 0;
+        while (end < trimmed.length() && Character.isLetter(trimmed.charAt(end))) {
+            end++;
+        }
+        return end == 0 ? "UNKNOWN" : trimmed.substring(0, end).toUpperCase(Locale.ROOT);
+    }
+
+    private static String truncate(String sql) {
+        if (sql == null) {
+            return "";
+        }
+        return sql.length() <= MAX_STATEMENT_LENGTH ? sql : sql.substring(0, MAX_STATEMENT_LENGTH);
+    }
+}
@@ -0,0 +1,80 @@
+package com.acme.mcp.service;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * {@link ThinkingService#toJson} output is decoded by Postgres with
+ * {@code convert_from(?, 'UTF8')::jsonb}, so it must be valid UTF-8 JSON that reads back
+ * as the value written.
+ */
+class ThinkingServiceJsonTest {
+    private final ObjectMapper mapper = new ObjectMapper();
+    private final ThinkingService service = new ThinkingService(null, null, mapper);
+
+    @Test
+    void escapesQuotesBackslashesAndNewlines() throws Exception {
+        Map<String, Object> value = Map.of("text", "say \"hi\"\\n\nnext line\r\ttabbed");
+
+        String json = new String(service.toJson(value), StandardCharsets.UTF_8);
+
+        assertFalse(json.contains("\n"), json);
+        assertEquals(value, roundTrip(value));
+    }
+
+    @Test
+    void escapesControlCharacters() throws Exception {
+        StringBuilder controls = new StringBuilder();
+        for (char c = 0; c < 0x20; c++) {
+            controls.append(c);
+        }
+        controls.append('\u007f');
+        Map<String, Object> value = Map.of("controls", controls.toString());
+
+        String json = new String(service.toJson(value), StandardCharsets.UTF_8);
+
+        assertTrue(json.chars().noneMatch(c -> c < 0x20), json);
+        assertEquals(value, roundTrip(value));
+    }
+
+    @Test
+    void writesNonAsciiAsUtf8() throws Exception {
+        Map<String, Object> value = Map.of("text", "₹499 — नमस्ते, café 😀");
+
+        String json = new String(service.toJson(value), StandardCharsets.UTF_8);
+
+        // Characters outside the BMP are written as an escaped surrogate pair, which jsonb accepts
+        assertTrue(json.contains("₹499 — नमस्ते, café \\uD83D\\uDE00"), json);
+        assertEquals(value, roundTrip(value));
+    }
+
+    @Test
+    void roundTripsNestedListsAndMaps() throws Exception {
+        Map<String, Object> inner = new LinkedHashMap<>();
+        inner.put("quote", "\"");
+        inner.put("empty", List.of());
+        inner.put("missing", null);
+        Map<String, Object> value = new LinkedHashMap<>();
+        value.put("problem", "compare \\ phones");
+        value.put("stages", List.of("analyze", "breakdown", "solve", "verify"));
+        value.put("nested", List.of(Map.of("depth", 1, "items", List.of(inner, List.of(true, 2.5, "x\ny"))),
+            Arrays.asList(null, "last")));
+
+        assertEquals(value, roundTrip(value));
+    }
+
+    private Map<String, Object> roundTrip(Map<String, Object> value) throws Exception {
+        return mapper.readValue(service.toJson(value), new TypeReference<Map<String, Object>>() {});
+    }
+}
@@ -0,0 +1,73 @@
+package com.acme.shared;
+
+/**
+ * Currencies a {@link Money} can be in, with the number of digits in their minor unit.
+ */
+public enum CurrencyCode {
+    INR(2),
+    USD(2),
+    EUR(2),
+    GBP(2),
+    AED(2),
+    SGD(2),
+    JPY(0);
+
+    private static final CurrencyCode[] VALUES = values();
+
+    private final int minorDigits;
+    private final long minorPerMajor;
+
+    CurrencyCode(int minorDigits) {
+        this.minorDigits = minorDigits;
+        long factor = 1;
+        for (int i = 0; i < minorDigits; i++) {
+            factor *= 10;
+        }
+        this.minorPerMajor = factor;
+    }
+
+    /** Digits after the decimal point: 2 for paise, 0 for yen. */
+    public int getMinorDigits() {
+        return minorDigits;
+    }
+
+    /** Minor units in one major unit: 100 for INR. */
+    public long getMinorPerMajor() {
+        return minorPerMajor;
+    }
+
+    /**
+     * The currency for an ISO 4217 code, ignoring case and surrounding blanks; INR when
+     * the code is null or blank, which is what an amount without a currency has always
+     * meant here.
+     *
+     * @throws IllegalArgumentException if the currency is not supported
+     */
+    public static CurrencyCode of(String code) {
+        CurrencyCode currency = ofOrDefault(code, null);
+        if (currency == null) {
+            throw new IllegalArgumentException("Unsupported currency: " + code);
+        }
+        return currency;
+    }
+
+    /**
+     * Like {@link #of}, but {@code fallback} for an unsupported code, for data from
+     * providers that is not worth dropping over its currency field.
+     */
+    public static CurrencyCode ofOrDefault(String code, CurrencyCode fallback) {
+        if (code == null) {
+            return INR;
+        }
+        String normalized = code.strip();
+        if (normalized.isEmpty()) {
+            return INR;
+        }
+        for (CurrencyCode currency : VALUES) {
+            if (currency.name().equalsIgnoreCase(normalized)) {
+                return currency;
+            }
+        }
+        return fallback;
+    }
+}
@@ -1,44 +1,136 @@
 package com.acme.shared;
 
+import com.fasterxml.jackson.annotation.JsonAutoDetect;
+import com.fasterxml.jackson.annotation.JsonCreator;
 import com.fasterxml.jackson.annotation.JsonProperty;
+import com.fasterxml.jackson.annotation.JsonPropertyOrder;
+
 import java.math.BigDecimal;
-import java.util.Objects;
+import java.math.RoundingMode;
 
-public class Money {
-    @JsonProperty("amount")
-    private BigDecimal amount;
+/**
+ * An amount as a whole number of its currency's minor units (paise for INR), so that
+ * comparing, adding and multiplying are long arithmetic with no BigDecimal in between.
+ * Immutable. On the wire it is still {@code {"amount": 12749.00, "currency": "INR"}},
+ * the amount exact to the minor unit.
+ */
+@JsonAutoDetect(getterVisibility = JsonAutoDetect.Visibility.NONE,
+    isGetterVisibility = JsonAutoDetect.Visibility.NONE, fieldVisibility = JsonAutoDetect.Visibility.NONE)
+@JsonPropertyOrder({"amount", "currency"})
+public final class Money implements Comparable<Money> {
+    /** Buffer size that {@link #formatAmount} always fits in. */
+    public static final int MAX_AMOUNT_CHARS = 24;
 
-    @JsonProperty("currency")
-    private String currency;
+    private final long minorUnits;
+    private final CurrencyCode currency;
 
-    public Money() {
-        this.currency = "INR";
+    private Money(long minorUnits, CurrencyCode currency) {
+        if (currency == null) {
+            throw new IllegalArgumentException("Money needs a currency");
+        }
+        this.minorUnits = minorUnits;
+        this.currency = currency;
     }
 
-    public Money(BigDecimal amount, String currency) {
-        this.amount = amount;
-        this.currency = currency;
+    /**
+     * The amount rounded half up to the currency's minor unit. A null currency means INR.
+     */
+    @JsonCreator
+    public Money(@JsonProperty("amount") BigDecimal amount, @JsonProperty("currency") String currency) {
+        this(toMinor(amount, CurrencyCode.of(currency)), CurrencyCode.of(currency));
     }
 
     public Money(double amount, String currency) {
-        this.amount = BigDecimal.valueOf(amount);
-        this.currency = currency;
+        this(BigDecimal.valueOf(amount), currency);
     }
 
-    public BigDecimal getAmount() {
-        return amount;
+    public static Money ofMinor(long minorUnits, CurrencyCode currency) {
+        return new Money(minorUnits, currency);
     }
 
-    public void setAmount(BigDecimal amount) {
-        this.amount = amount;
+    /** {@code amount} rounded half up to the minor unit of {@code currency}. */
+    public static Money of(BigDecimal amount, CurrencyCode currency) {
+        return new Money(toMinor(amount, currency), currency);
     }
 
-    public String getCurrency() {
+    /** {@code amount} in minor units of {@code currency}, rounded half up. */
+    public static long toMinor(BigDecimal amount, CurrencyCode currency) {
+        if (amount == null) {
+            throw new IllegalArgumentException("Money needs an amount");
+        }
+        return amount.setScale(currency.getMinorDigits(), RoundingMode.HALF_UP).unscaledValue().longValueExact();
+    }
+
+    /** {@code amount} in minor units of {@code currency}, rounded half up, for limits given as plain numbers. */
+    public static long toMinor(double amount, CurrencyCode currency) {
+        return Math.round(amount * currency.getMinorPerMajor());
+    }
+
+    public long getMinorUnits() {
+        return minorUnits;
+    }
+
+    public CurrencyCode getCurrencyCode() {
         return currency;
     }
 
-    public void setCurrency(String currency) {
-        this.currency = currency;
+    /** The amount as a decimal with the currency's minor digits; allocates, unlike the other accessors. */
+    @JsonProperty("amount")
+    public BigDecimal getAmount() {
+        return BigDecimal.valueOf(minorUnits, currency.getMinorDigits());
+    }
+
+    @JsonProperty("currency")
+    public String getCurrency() {
+        return currency.name();
+    }
+
+    public Money plus(Money other) {
+        requireSameCurrency(other);
+        return new Money(Math.addExact(minorUnits, other.minorUnits), currency);
+    }
+
+    public Money times(long quantity) {
+        return new Money(Math.multiplyExact(minorUnits, quantity), currency);
+    }
+
+    /** Orders amounts of one currency; amounts in different currencies are not comparable. */
+    @Override
+    public int compareTo(Money other) {
+        requireSameCurrency(other);
+        return Long.compare(minorUnits, other.minorUnits);
+    }
+
+    private void requireSameCurrency(Money other) {
+        if (other.currency != currency) {
+            throw new IllegalArgumentException("Cannot combine " + currency + " and " + other.currency);
+        }
+    }
+
+    /**
+     * Writes the amount as plain decimal text ("12749.00", "-0.50") to the start of
+     * {@code buffer}, which must hold {@link #MAX_AMOUNT_CHARS}, and returns its length.
+     */
+    public int formatAmount(char[] buffer) {
+        int digits = currency.getMinorDigits();
+        int position = MAX_AMOUNT_CHARS;
+        boolean negative = minorUnits < 0;
+        // Negated into the negative range, which also holds Long.MIN_VALUE
+        long value = negative ? minorUnits : -minorUnits;
+        int written = 0;
+        do {
+            buffer[--position] = (char) ('0' - value % 10);
+            value /= 10;
+            if (++written == digits) {
+                buffer[--position] = '.';
+            }
+        } while (value != 0 || written <= digits);
+        if (negative) {
+            buffer[--position] = '-';
+        }
+        int length = MAX_AMOUNT_CHARS - position;
+        System.arraycopy(buffer, position, buffer, 0, length);
+        return length;
     }
 
     @Override
@@ -46,16 +138,17 @@ public class Money {
         if (this == o) return true;
         if (o == null || getClass() != o.getClass()) return false;
         Money money = (Money) o;
-        return Objects.equals(amount, money.amount) && Objects.equals(currency, money.currency);
+        return minorUnits == money.minorUnits && currency == money.currency;
     }
 
     @Override
     public int hashCode() {
-        return Objects.hash(amount, currency);
+        return 31 * Long.hashCode(minorUnits) + currency.hashCode();
     }
 
     @Override
     public String toString() {
-        return currency + " " + amount;
+        char[] buffer = new char[MAX_AMOUNT_CHARS];
+        return currency + " " + new String(buffer, 0, formatAmount(buffer));
     }
 }
@@ -0,0 +1,220 @@
+package com.acme.shared.json;
+
+import com.acme.shared.Availability;
+import com.acme.shared.CurrencyCode;
+import com.acme.shared.Money;
+import com.acme.shared.ProductSummary;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.core.SerializableString;
+import com.fasterxml.jackson.core.io.SerializedString;
+import com.fasterxml.jackson.databind.DeserializationContext;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.deser.std.StdDeserializer;
+import com.fasterxml.jackson.databind.module.SimpleModule;
+import com.fasterxml.jackson.databind.ser.std.StdSerializer;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.util.Map;
+
+/**
+ * Hand-written serializers for the high-volume catalog types. Field names are
+ * pre-encoded once and nested Money/Availability values are written inline, so a
+ * search page does not go through reflective bean serialization per product.
+ * Output is identical to the default bean serializers, nulls included. Money is also
+ * read back by hand, so amounts never pass through a double.
+ */
+public class CommerceJsonModule extends SimpleModule {
+    private static final SerializableString ID = new SerializedString("id");
+    private static final SerializableString PROVIDER = new SerializedString("provider");
+    private static final SerializableString NAME = new SerializedString("name");
+    private static final SerializableString DESCRIPTION = new SerializedString("description");
+    private static final SerializableString BRAND = new SerializedString("brand");
+    private static final SerializableString CATEGORY = new SerializedString("category");
+    private static final SerializableString PRICE = new SerializedString("price");
+    private static final SerializableString IMAGE_URL = new SerializedString("imageUrl");
+    private static final SerializableString AVAILABILITY = new SerializedString("availability");
+    private static final SerializableString RATING = new SerializedString("rating");
+    private static final SerializableString REVIEW_COUNT = new SerializedString("reviewCount");
+    private static final SerializableString ATTRIBUTES = new SerializedString("attributes");
+    private static final SerializableString AMOUNT = new SerializedString("amount");
+    private static final SerializableString CURRENCY = new SerializedString("currency");
+    private static final SerializableString IN_STOCK = new SerializedString("inStock");
+    private static final SerializableString QUANTITY = new SerializedString("quantity");
+    private static final SerializableString STATUS = new SerializedString("status");
+
+    private static final ThreadLocal<char[]> AMOUNT_BUFFER =
+        ThreadLocal.withInitial(() -> new char[Money.MAX_AMOUNT_CHARS]);
+
+    public CommerceJsonModule() {
+        super("CommerceJsonModule");
+        addSerializer(ProductSummary.class, new ProductSummarySerializer());
+        addSerializer(Money.class, new MoneySerializer());
+        addDeserializer(Money.class, new MoneyDeserializer());
+        addSerializer(Availability.class, new AvailabilitySerializer());
+    }
+
+    public static class ProductSummarySerializer extends StdSerializer<ProductSummary> {
+        public ProductSummarySerializer() {
+            super(ProductSummary.class);
+        }
+
+        @Override
+        public void serialize(ProductSummary product, JsonGenerator gen, SerializerProvider provider)
+                throws IOException {
+            gen.writeStartObject(product);
+            writeString(gen, ID, product.getId());
+            writeString(gen, PROVIDER, product.getProvider());
+            writeString(gen, NAME, product.getName());
+            writeString(gen, DESCRIPTION, product.getDescription());
+            writeString(gen, BRAND, product.getBrand());
+            writeString(gen, CATEGORY, product.getCategory());
+            gen.writeFieldName(PRICE);
+            writeMoney(gen, product.getPrice());
+            writeString(gen, IMAGE_URL, product.getImageUrl());
+            gen.writeFieldName(AVAILABILITY);
+            writeAvailability(gen, product.getAvailability());
+            gen.writeFieldName(RATING);
+            if (product.getRating() == null) {
+                gen.writeNull();
+            } else {
+                gen.writeNumber(product.getRating());
+            }
+            gen.writeFieldName(REVIEW_COUNT);
+            if (product.getReviewCount() == null) {
+                gen.writeNull();
+            } else {
+                gen.writeNumber(product.getReviewCount());
+            }
+            gen.writeFieldName(ATTRIBUTES);
+            Map<String, Object> attributes = product.getAttributes();
+            if (attributes == null) {
+                gen.writeNull();
+            } else {
+                provider.defaultSerializeValue(attributes, gen);
+            }
+            gen.writeEndObject();
+        }
+    }
+
+    public static class MoneySerializer extends StdSerializer<Money> {
+        public MoneySerializer() {
+            super(Money.class);
+        }
+
+        @Override
+        public void serialize(Money money, JsonGenerator gen, SerializerProvider provider) throws IOException {
+            writeMoney(gen, money);
+        }
+    }
+
+    /**
+     * Reads {@code {"amount", "currency"}} with the amount taken exactly as written (never
+     * through a double) and rounded half up to the currency's minor unit. A missing
+     * currency means INR.
+     */
+    public static class MoneyDeserializer extends StdDeserializer<Money> {
+        public MoneyDeserializer() {
+            super(Money.class);
+        }
+
+        @Override
+        public Money deserialize(JsonParser p, DeserializationContext ctxt) throws IOException {
+            JsonToken token = p.currentToken();
+            if (token == JsonToken.START_OBJECT) {
+                token = p.nextToken();
+            }
+            BigDecimal amount = null;
+            String currency = null;
+            for (; token == JsonToken.FIELD_NAME; token = p.nextToken()) {
+                String field = p.currentName();
+                JsonToken value = p.nextToken();
+                if ("amount".equals(field)) {
+                    if (value == JsonToken.VALUE_STRING) {
+                        amount = new BigDecimal(p.getText());
+                    } else if (value.isNumeric()) {
+                        amount = p.getDecimalValue();
+                    }
+                } else if ("currency".equals(field)) {
+                    currency = value == JsonToken.VALUE_NULL ? null : p.getText();
+                } else {
+                    p.skipChildren();
+                }
+            }
+            if (amount == null) {
+                return (Money) ctxt.handleUnexpectedToken(Money.class, p);
+            }
+            try {
+                return Money.of(amount, CurrencyCode.of(currency));
+            } catch (IllegalArgumentException | ArithmeticException e) {
+                return (Money) ctxt.handleWeirdStringValue(Money.class, String.valueOf(currency), e.getMessage());
+            }
+        }
+    }
+
+    public static class AvailabilitySerializer extends StdSerializer<Availability> {
+        public AvailabilitySerializer() {
+            super(Availability.class);
+        }
+
+        @Override
+        public void serialize(Availability availability, JsonGenerator gen, SerializerProvider provider)
+                throws IOException {
+            writeAvailability(gen, availability);
+        }
+    }
+
+    private static void writeString(JsonGenerator gen, SerializableString name, String value) throws IOException {
+        gen.writeFieldName(name);
+        if (value == null) {
+            gen.writeNull();
+        } else {
+            gen.writeString(value);
+        }
+    }
+
+    private static void writeMoney(JsonGenerator gen, Money money) throws IOException {
+        if (money == null) {
+            gen.writeNull();
+            return;
+        }
+        gen.writeStartObject(money);
+        gen.writeFieldName(AMOUNT);
+        if (gen.canWriteBinaryNatively()) {
+            // Smile and CBOR (and token buffers) take decimals natively rather than as text
+            gen.writeNumber(money.getAmount());
+        } else {
+            // JSON: the digits straight from the minor units, no BigDecimal
+            char[] buffer = AMOUNT_BUFFER.get();
+            gen.writeNumber(buffer, 0, money.formatAmount(buffer));
+        }
+        gen.writeFieldName(CURRENCY);
+        gen.writeString(money.getCurrency());
+        gen.writeEndObject();
+    }
+
+    private static void writeAvailability(JsonGenerator gen, Availability availability) throws IOException {
+        if (availability == null) {
+            gen.writeNull();
+            return;
+        }
+        gen.writeStartObject(availability);
+        gen.writeFieldName(IN_STOCK);
+        gen.writeBoolean(availability.isInStock());
+        gen.writeFieldName(QUANTITY);
+        if (availability.getQuantity() == null) {
+            gen.writeNull();
+        } else {
+            gen.writeNumber(availability.getQuantity());
+        }
+        gen.writeFieldName(STATUS);
+        if (availability.getStatus() == null) {
+            gen.writeNull();
+        } else {
+            gen.writeString(availability.getStatus().name());
+        }
+        gen.writeEndObject();
+    }
+}
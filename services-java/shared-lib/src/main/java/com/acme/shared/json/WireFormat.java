@@ -0,0 +1,92 @@
+package com.acme.shared.json;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+
+/**
+ * Encodings supported on the orchestrator to tool server hop. All formats share the
+ * same data model (ToolResponse, ProductSummary, Cart, Order, ...), so the binary
+ * variants are a drop-in replacement for JSON, chosen through the Accept header.
+ */
+public enum WireFormat {
+    JSON("application/json"),
+    SMILE("application/x-jackson-smile"),
+    CBOR("application/cbor");
+
+    private final String mediaType;
+
+    WireFormat(String mediaType) {
+        this.mediaType = mediaType;
+    }
+
+    public String getMediaType() {
+        return mediaType;
+    }
+
+    /**
+     * Derives a mapper for this format that shares modules and configuration with the
+     * given JSON mapper.
+     */
+    public ObjectMapper deriveMapper(ObjectMapper jsonMapper) {
+        switch (this) {
+            case SMILE:
+                return jsonMapper.copyWith(new SmileFactory());
+            case CBOR:
+                return jsonMapper.copyWith(new CBORFactory());
+            default:
+                return jsonMapper;
+        }
+    }
+
+    /**
+     * Creates a standalone mapper for this format, configured the same way as the
+     * tool server's application mapper. Intended for clients of the tool server.
+     */
+    public static ObjectMapper newMapper(WireFormat format) {
+        ObjectMapper mapper = new ObjectMapper();
+        mapper.registerModule(new JavaTimeModule());
+        mapper.registerModule(new CommerceJsonModule());
+        mapper.disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+        return format.deriveMapper(mapper);
+    }
+
+    /**
+     * Picks the first supported format listed in an Accept header, defaulting to JSON.
+     * Entries with q=0 are ignored.
+     */
+    public static WireFormat fromAccept(String accept) {
+        if (accept == null || accept.isEmpty()) {
+            return JSON;
+        }
+        for (String token : accept.split(",")) {
+            String[] parts = token.trim().split(";");
+            if (isRejected(parts)) {
+                continue;
+            }
+            String type = parts[0].trim();
+            for (WireFormat format : values()) {
+                if (format.mediaType.equalsIgnoreCase(type)) {
+                    return format;
+                }
+            }
+        }
+        return JSON;
+    }
+
+    private static boolean isRejected(String[] parts) {
+        for (int i = 1; i < parts.length; i++) {
+            String param = parts[i].trim();
+            if (param.startsWith("q=")) {
+                try {
+                    return Double.parseDouble(param.substring(2)) <= 0;
+                } catch (NumberFormatException e) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+}